@@ -0,0 +1,21 @@
+package ru.manager.ProgectManager.DTO.request.kanban;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import org.springframework.validation.annotation.Validated;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Validated
+@Getter
+@Schema(description = "Набор операций над элементами канбана, выполняемых по порядку в одной транзакции")
+public class ElementBatchRequest {
+    @Valid
+    @NotNull(message = "FIELD_MUST_BE_NOT_NULL")
+    @Size(min = 1, max = 200, message = "OPERATION_COUNT_MUST_BE_FROM_1_TO_200")
+    @Schema(required = true, description = "Операции, от 1 до 200")
+    private List<ElementOperationRequest> operations;
+}
@@ -0,0 +1,30 @@
+package ru.manager.ProgectManager.DTO.request.kanban;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import org.springframework.validation.annotation.Validated;
+import ru.manager.ProgectManager.enums.ElementOperationType;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@Validated
+@Getter
+@Schema(description = "Операция над элементом канбана в составе пакета")
+public class ElementOperationRequest {
+    @NotNull(message = "FIELD_MUST_BE_NOT_NULL")
+    @Schema(required = true, description = "Тип операции")
+    private ElementOperationType type;
+    @Schema(required = true, description = "Идентификатор элемента")
+    private long elementId;
+    @Min(value = 0, message = "INDEX_MUST_BE_MORE_0")
+    @Schema(description = "Идентификатор целевой колонки, только для MOVE")
+    private long toColumn;
+    @Min(value = 0, message = "INDEX_MUST_BE_MORE_0")
+    @Schema(description = "Новый индекс элемента в целевой колонке, только для MOVE")
+    private int toIndex;
+    @Schema(description = "Идентификатор тега, только для TAG_ADD и TAG_REMOVE")
+    private long tagId;
+    @Schema(description = "Дата в формате yyyy-MM-ddTHH:mm:ss, только для DATE_SET")
+    private String date;
+}
@@ -3,6 +3,7 @@ package ru.manager.ProgectManager.DTO.response;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import ru.manager.ProgectManager.DTO.response.project.ProjectInfo;
+import ru.manager.ProgectManager.components.search.ResourceNameIndex;
 import ru.manager.ProgectManager.entitys.Project;
 import ru.manager.ProgectManager.entitys.documents.Page;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
@@ -46,6 +47,17 @@ public class PointerResource {
         description = project.getDescription();
     }
 
+    public PointerResource(ResourceNameIndex.ResourceName resource) {
+        id = resource.getId();
+        name = resource.getName();
+        resourceType = resource.getType();
+        if (resourceType == ResourceType.PROJECT) {
+            description = resource.getDescription();
+        } else {
+            project = new ProjectInfo(resource.getProjectId(), resource.getProjectName());
+        }
+    }
+
     public String getResourceType() {
         return resourceType.getStringValue();
     }
@@ -0,0 +1,13 @@
+package ru.manager.ProgectManager.DTO.response.calendar;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+@Schema(description = "Токен подписки на календарь")
+public class CalendarFeedTokenResponse {
+    @Schema(description = "Токен для адресов /calendar/feed/{token} и /calendar/feed/{token}/kanban/{id}")
+    private final String token;
+}
@@ -2,7 +2,7 @@ package ru.manager.ProgectManager.DTO.response.calendar;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
-import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.repositories.projections.CalendarElementView;
 
 @Getter
 @Schema(description = "Очень краткая информация об элементе канбана")
@@ -14,7 +14,7 @@ public class ShortKanbanElementInfo {
     @Schema(description = "Возможность данного пользователя редактировать данный элемент")
     private final boolean canEdit;
 
-    public ShortKanbanElementInfo(KanbanElement element, boolean canRedact) {
+    public ShortKanbanElementInfo(CalendarElementView element, boolean canRedact) {
         id = element.getId();
         cardName = element.getName();
         canEdit = canRedact;
@@ -2,6 +2,7 @@ package ru.manager.ProgectManager.DTO.response.documents;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
+import ru.manager.ProgectManager.components.search.PageSearchIndex;
 import ru.manager.ProgectManager.entitys.documents.Page;
 
 import java.time.LocalDateTime;
@@ -26,4 +27,12 @@ public class PageNameAndUpdateDateResponse {
         updateDate = LocalDateTime
                 .ofEpochSecond(page.getUpdateTime(), 0, ZoneOffset.ofHours(zoneId)).toString();
     }
+
+    public PageNameAndUpdateDateResponse(PageSearchIndex.Hit hit, int zoneId) {
+        id = hit.getId();
+        name = hit.getName();
+        published = hit.isPublished();
+        updateDate = LocalDateTime
+                .ofEpochSecond(hit.getUpdateTime(), 0, ZoneOffset.ofHours(zoneId)).toString();
+    }
 }
@@ -0,0 +1,32 @@
+package ru.manager.ProgectManager.DTO.response.documents;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import ru.manager.ProgectManager.components.search.PageSearchIndex;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+@Getter
+@Schema(description = "Страница, найденная полнотекстовым поиском")
+public class PageSearchResponse {
+    @Schema(description = "Идентификатор страницы")
+    private final long id;
+    @Schema(description = "Название страницы")
+    private final String name;
+    @Schema(description = "Флаг того, опубликована ли страница")
+    private final boolean published;
+    @Schema(description = "Дата и время последнего обновления")
+    private final String updateDate;
+    @Schema(description = "Фрагмент текста страницы, найденные слова обрамлены тегом mark, " +
+            "остальной текст экранирован")
+    private final String snippet;
+
+    public PageSearchResponse(PageSearchIndex.Hit hit, String snippet, int zoneId) {
+        id = hit.getId();
+        name = hit.getName();
+        published = hit.isPublished();
+        updateDate = LocalDateTime.ofEpochSecond(hit.getUpdateTime(), 0, ZoneOffset.ofHours(zoneId)).toString();
+        this.snippet = snippet;
+    }
+}
@@ -0,0 +1,17 @@
+package ru.manager.ProgectManager.DTO.response.documents;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "Результаты полнотекстового поиска по страницам документации")
+public class PageSearchResponseList {
+    @Schema(description = "Найденные страницы в порядке убывания релевантности")
+    private final List<PageSearchResponse> pages;
+    @Schema(description = "Общее количество найденных страниц")
+    private final int count;
+}
@@ -0,0 +1,15 @@
+package ru.manager.ProgectManager.DTO.response.kanban;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "Результаты пакета операций над элементами канбана")
+public class ElementBatchResponse {
+    @Schema(description = "Результаты в порядке операций запроса")
+    private final List<ElementOperationResponse> results;
+}
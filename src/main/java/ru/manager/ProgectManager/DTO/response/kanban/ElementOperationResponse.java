@@ -0,0 +1,22 @@
+package ru.manager.ProgectManager.DTO.response.kanban;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import ru.manager.ProgectManager.enums.Errors;
+
+@Getter
+@Schema(description = "Результат операции пакета")
+public class ElementOperationResponse {
+    @Schema(description = "Идентификатор элемента операции")
+    private final long elementId;
+    @Schema(description = "Код ответа, который вернул бы одиночный запрос с этой операцией")
+    private final int status;
+    @Schema(description = "Код ошибки", nullable = true)
+    private final Integer error;
+
+    public ElementOperationResponse(long elementId, int status, Errors error) {
+        this.elementId = elementId;
+        this.status = status;
+        this.error = (error == null ? null : error.getNumValue());
+    }
+}
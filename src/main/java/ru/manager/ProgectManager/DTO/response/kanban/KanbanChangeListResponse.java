@@ -0,0 +1,19 @@
+package ru.manager.ProgectManager.DTO.response.kanban;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@Schema(description = "Изменения канбан-доски после указанного номера")
+public class KanbanChangeListResponse {
+    @Schema(description = "Текущая версия доски, передаётся в since при следующем запросе")
+    private final long version;
+    @Schema(description = "Журнал не содержит всех запрошенных изменений, доску необходимо загрузить заново")
+    private final boolean reload;
+    @Schema(description = "Изменения в порядке их применения")
+    private final List<KanbanChangeResponse> changes;
+}
@@ -0,0 +1,37 @@
+package ru.manager.ProgectManager.DTO.response.kanban;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import ru.manager.ProgectManager.entitys.kanban.KanbanChange;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
+
+@Getter
+@Schema(description = "Изменение канбан-доски")
+public class KanbanChangeResponse {
+    @Schema(description = "Порядковый номер изменения в журнале доски")
+    private final long seq;
+    @Schema(description = "Тип изменения")
+    private final KanbanChangeType type;
+    @Schema(description = "Идентификатор колонки, к которой относится изменение", nullable = true)
+    private final Long columnId;
+    @Schema(description = "Идентификатор изменённого элемента", nullable = true)
+    private final Long elementId;
+    @Schema(description = "Новый порядковый номер перемещённой колонки или элемента, для остальных изменений null",
+            nullable = true)
+    private final Integer serialNumber;
+    @Schema(description = "Новое значение: название, дата, статус, идентификатор тега или срок автоудаления",
+            nullable = true)
+    private final String payload;
+    @Schema(description = "Время изменения в секундах")
+    private final long createTime;
+
+    public KanbanChangeResponse(KanbanChange change) {
+        seq = change.getSeq();
+        type = change.getType();
+        columnId = change.getColumnId();
+        elementId = change.getElementId();
+        serialNumber = change.getSerialNumber();
+        payload = change.getPayload();
+        createTime = change.getCreateTime();
+    }
+}
@@ -3,12 +3,9 @@ package ru.manager.ProgectManager.DTO.response.kanban;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
-import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
-import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.repositories.projections.KanbanColumnView;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Getter
 @Schema(description = "Возвращяаемая информация о колонке канбана")
@@ -21,19 +18,25 @@ public class KanbanColumnResponse {
     private final String name;
     @Schema(description = "Список элементов, содержащихся в данной колонке")
     private final List<KanbanElementMainDataResponse> kanbanElements;
+    @Schema(description = "Курсор для получения следующей порции элементов колонки или null, если элементов больше нет",
+            nullable = true)
+    private final String nextCursor;
 
-    public KanbanColumnResponse(KanbanColumn kanbanColumn, int pageIndex, int count, int zoneId){
+    public KanbanColumnResponse(KanbanColumn kanbanColumn, int serialNumber,
+                                List<KanbanElementMainDataResponse> elements, String cursor){
         id = kanbanColumn.getId();
-        serialNumber = kanbanColumn.getSerialNumber();
+        this.serialNumber = serialNumber;
         name = kanbanColumn.getName();
-        kanbanElements = (kanbanColumn.getElements() == null
-                ? List.of()
-                : kanbanColumn.getElements().stream()
-                .filter(e -> e.getStatus() == ElementStatus.ALIVE)
-                .sorted(Comparator.comparing(KanbanElement::getSerialNumber))
-                .map(element -> new KanbanElementMainDataResponse(element, zoneId))
-                .skip(pageIndex)
-                .limit(count)
-                .collect(Collectors.toList()));
+        kanbanElements = elements;
+        nextCursor = cursor;
+    }
+
+    public KanbanColumnResponse(KanbanColumnView kanbanColumn, int serialNumber,
+                                List<KanbanElementMainDataResponse> elements, String cursor){
+        id = kanbanColumn.getId();
+        this.serialNumber = serialNumber;
+        name = kanbanColumn.getName();
+        kanbanElements = elements;
+        nextCursor = cursor;
     }
 }
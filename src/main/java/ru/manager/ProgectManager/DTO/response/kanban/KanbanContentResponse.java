@@ -3,11 +3,8 @@ package ru.manager.ProgectManager.DTO.response.kanban;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
-import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
 
-import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Getter
 @Schema(description = "Информация о канбане и его содержимом")
@@ -18,20 +15,19 @@ public class KanbanContentResponse {
     private final long id;
     @Schema(description = "Может ли пользовватель изменять информацию в данной доске")
     private final boolean canEdit;
-    @Schema(description = "Список колонок канбана")
-    private final List<KanbanColumn> kanbanColumns;
+    @Schema(description = "Список колонок канбана с первыми элементами каждой колонки")
+    private final List<KanbanColumnResponse> kanbanColumns;
     @Schema(description = "Ссылка на изображение, прикрелённое к канбану", nullable = true)
     private final String image;
+    @Schema(description = "Версия доски на момент чтения, используется при запросе изменений")
+    private final long version;
 
-    public KanbanContentResponse(Kanban kanban, int pageIndex, int count, boolean canEditKanban){
-        kanbanColumns = kanban.getKanbanColumns().stream()
-                .sorted(Comparator.comparing(KanbanColumn::getSerialNumber))
-                .skip(pageIndex)
-                .limit(count)
-                .collect(Collectors.toList());
+    public KanbanContentResponse(Kanban kanban, List<KanbanColumnResponse> columns, boolean canEditKanban){
+        kanbanColumns = columns;
         name = kanban.getName();
         id = kanban.getId();
         canEdit = canEditKanban;
         image = (kanban.getPhoto() == null? null: "https://api.veehark.xyz/photo/kanban?id=" + kanban.getId());
+        version = kanban.getVersion();
     }
 }
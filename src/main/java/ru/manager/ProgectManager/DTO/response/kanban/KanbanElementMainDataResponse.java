@@ -5,6 +5,7 @@ import lombok.Getter;
 import ru.manager.ProgectManager.DTO.response.user.PublicMainUserDataResponse;
 import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
 import ru.manager.ProgectManager.entitys.kanban.Tag;
+import ru.manager.ProgectManager.repositories.projections.KanbanElementCardView;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -29,12 +30,16 @@ public class KanbanElementMainDataResponse {
     private final int commentCount;
     @Schema(description = "Количество вложений в ячейке")
     private final int attachCount;
+    @Schema(description = "Количество чекбоксов в ячейке")
+    private final int checkboxCount;
+    @Schema(description = "Количество отмеченных чекбоксов в ячейке")
+    private final int checkedCheckboxCount;
     @Schema(description = "Выбранная пользователем дата")
     private final String selectedDate;
 
-    public KanbanElementMainDataResponse(KanbanElement kanbanElement, int zoneId) {
+    public KanbanElementMainDataResponse(KanbanElement kanbanElement, int serialNumber, int zoneId) {
         id = kanbanElement.getId();
-        serialNumber = kanbanElement.getSerialNumber();
+        this.serialNumber = serialNumber;
         name = kanbanElement.getName();
         tags = kanbanElement.getTags();
         selectedDate = kanbanElement.getSelectedDate() == 0? null:
@@ -42,7 +47,26 @@ public class KanbanElementMainDataResponse {
                         .toString();
         creator = new PublicMainUserDataResponse(kanbanElement.getOwner(), zoneId);
         lastRedactor = new PublicMainUserDataResponse(kanbanElement.getLastRedactor(), zoneId);
-        commentCount = (kanbanElement.getComments() == null? 0: kanbanElement.getComments().size());
-        attachCount = (kanbanElement.getKanbanAttachments() == null? 0: kanbanElement.getKanbanAttachments().size());
+        commentCount = kanbanElement.getCommentCount();
+        attachCount = kanbanElement.getAttachCount();
+        checkboxCount = kanbanElement.getCheckboxCount();
+        checkedCheckboxCount = kanbanElement.getCheckedCheckboxCount();
+    }
+
+    public KanbanElementMainDataResponse(KanbanElementCardView card, int serialNumber, Set<Tag> elementTags,
+                                         PublicMainUserDataResponse owner, PublicMainUserDataResponse redactor,
+                                         int zoneId) {
+        id = card.getId();
+        this.serialNumber = serialNumber;
+        name = card.getName();
+        tags = elementTags;
+        selectedDate = card.getSelectedDate() == 0? null:
+                LocalDateTime.ofEpochSecond(card.getSelectedDate(), 0, ZoneOffset.ofHours(zoneId)).toString();
+        creator = owner;
+        lastRedactor = redactor;
+        commentCount = (int) card.getCommentCount();
+        attachCount = (int) card.getAttachCount();
+        checkboxCount = (int) card.getCheckboxCount();
+        checkedCheckboxCount = (int) card.getCheckedCheckboxCount();
     }
 }
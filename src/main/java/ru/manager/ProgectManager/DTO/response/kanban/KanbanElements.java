@@ -5,23 +5,25 @@ import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
 
 import java.util.List;
 import java.util.Set;
+import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
 
 @Getter
 public class KanbanElements {
     private final List<KanbanElementMainDataResponse> elements;
 
-    public KanbanElements(List<KanbanElement> input, int pageIndex, int rowCount, int zoneId){
+    // элементы списка могут быть из разных колонок, поэтому номер в колонке вычисляется для каждого элемента
+    public KanbanElements(List<KanbanElement> input, int pageIndex, int rowCount,
+                          ToIntFunction<KanbanElement> position, int zoneId){
         elements = input.stream()
                 .skip(pageIndex)
                 .limit(rowCount)
-                .map(element -> new KanbanElementMainDataResponse(element, zoneId)).collect(Collectors.toList());
+                .map(element -> new KanbanElementMainDataResponse(element, position.applyAsInt(element), zoneId))
+                .collect(Collectors.toList());
     }
 
-    public KanbanElements(Set<KanbanElement> elementSet, int pageIndex, int rowCount, int zoneId){
-        elements = elementSet.stream()
-                .skip(pageIndex)
-                .limit(rowCount)
-                .map(element -> new KanbanElementMainDataResponse(element, zoneId)).collect(Collectors.toList());
+    public KanbanElements(Set<KanbanElement> elementSet, int pageIndex, int rowCount,
+                          ToIntFunction<KanbanElement> position, int zoneId){
+        this(List.copyOf(elementSet), pageIndex, rowCount, position, zoneId);
     }
 }
@@ -32,6 +32,6 @@ public class KanbanMainDataResponse {
                 .map(user -> new PublicMainUserDataResponse(user, zoneId))
                 .limit(3)
                 .collect(Collectors.toList());
-        image = (kanban.getPhoto() == null? null: "https://api.veehark.xyz/photo/kanban?id=" + kanban.getId());
+        image = (kanban.getPhoto() == null? null: "https://api.veehark.xyz/photo/kanban?size=600&id=" + kanban.getId());
     }
 }
@@ -3,6 +3,7 @@ package ru.manager.ProgectManager.DTO.response.user;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.repositories.projections.UserSummaryView;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
@@ -23,7 +24,15 @@ public class PublicMainUserDataResponse {
     public PublicMainUserDataResponse(User user, int zoneId){
         nickname = user.getNickname();
         id = user.getUserId();
-        photo = (user.getPhoto() == null? null: "https://api.veehark.xyz/photo/user?id=" + user.getUserId());
+        photo = (user.getPhoto() == null? null: "https://api.veehark.xyz/photo/user?size=48&id=" + user.getUserId());
+        lastVisit = (user.getLastVisit() == 0? null: LocalDateTime
+                .ofEpochSecond(user.getLastVisit(), 0, ZoneOffset.ofHours(zoneId)).toString());
+    }
+
+    public PublicMainUserDataResponse(UserSummaryView user, int zoneId){
+        nickname = user.getNickname();
+        id = user.getUserId();
+        photo = (user.getHasPhoto()? "https://api.veehark.xyz/photo/user?size=48&id=" + user.getUserId(): null);
         lastVisit = (user.getLastVisit() == 0? null: LocalDateTime
                 .ofEpochSecond(user.getLastVisit(), 0, ZoneOffset.ofHours(zoneId)).toString());
     }
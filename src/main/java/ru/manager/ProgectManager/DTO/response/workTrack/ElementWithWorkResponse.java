@@ -2,15 +2,10 @@ package ru.manager.ProgectManager.DTO.response.workTrack;
 
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
-import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
-import ru.manager.ProgectManager.entitys.user.User;
-import ru.manager.ProgectManager.entitys.user.WorkTrack;
+import ru.manager.ProgectManager.repositories.projections.ResourceNameView;
 
-import java.time.LocalDate;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 @Getter
 @Schema(description = "Информация об элементе, с которым ассоциирована работа")
@@ -19,19 +14,13 @@ public class ElementWithWorkResponse {
     private final long id;
     @Schema(description = "Название элемента")
     private final String name;
-    @Schema(description = "Список выполненных работ, ассоциированных с данным элементом")
+    @Schema(description = "Время работы над данным элементом по дням")
     private final List<WorkTrackShortResponse> works;
 
-    public ElementWithWorkResponse(KanbanElement kanbanElement, User user, LocalDate from, LocalDate to) {
-        id = kanbanElement.getId();
-        name = kanbanElement.getName();
-        works = kanbanElement.getWorkTrackSet().stream()
-                .filter(workTrack -> workTrack.getOwner().equals(user))
-                .filter(workTrack -> LocalDate.ofEpochDay(workTrack.getWorkDate()).isAfter(from))
-                .filter(workTrack -> LocalDate.ofEpochDay(workTrack.getWorkDate()).isBefore(to))
-                .sorted(Comparator.comparing(WorkTrack::getWorkDate))
-                .map(WorkTrackShortResponse::new)
-                .collect(Collectors.toList());
+    public ElementWithWorkResponse(ResourceNameView element, List<WorkTrackShortResponse> works) {
+        id = element.getId();
+        name = element.getName();
+        this.works = works;
     }
 
     @Override
@@ -0,0 +1,39 @@
+package ru.manager.ProgectManager.DTO.response.workTrack;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+import ru.manager.ProgectManager.repositories.projections.WorkTimeReportView;
+
+import java.time.LocalDate;
+
+@Getter
+@Schema(description = "Строка отчёта о работе в проекте: время пользователя над элементом канбана за день")
+public class WorkTimeReportRow {
+    @Schema(description = "Идентификатор пользователя")
+    private final long userId;
+    @Schema(description = "Никнейм пользователя")
+    private final String nickname;
+    @Schema(description = "Идентификатор канбана")
+    private final long kanbanId;
+    @Schema(description = "Название канбана")
+    private final String kanbanName;
+    @Schema(description = "Идентификатор элемента")
+    private final long elementId;
+    @Schema(description = "Название элемента")
+    private final String elementName;
+    @Schema(description = "Дата, в которую была совершена работа")
+    private final String workDate;
+    @Schema(description = "Суммарное время работы за день в минутах")
+    private final int workTime;
+
+    public WorkTimeReportRow(WorkTimeReportView view) {
+        userId = view.getUserId();
+        nickname = view.getNickname();
+        kanbanId = view.getKanbanId();
+        kanbanName = view.getKanbanName();
+        elementId = view.getElementId();
+        elementName = view.getElementName();
+        workDate = LocalDate.ofEpochDay(view.getWorkDate()).toString();
+        workTime = view.getWorkTime();
+    }
+}
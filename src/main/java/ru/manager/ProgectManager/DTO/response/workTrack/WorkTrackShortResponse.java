@@ -3,7 +3,7 @@ package ru.manager.ProgectManager.DTO.response.workTrack;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import ru.manager.ProgectManager.entitys.user.WorkTrack;
+import ru.manager.ProgectManager.repositories.projections.WorkTimeView;
 
 import java.time.LocalDate;
 
@@ -16,8 +16,8 @@ public class WorkTrackShortResponse {
     @Schema(description = "Количество времени, затраченного на задачу, в минутах")
     private final int workTime;
 
-    public WorkTrackShortResponse(WorkTrack workTrack) {
-        workDate = LocalDate.ofEpochDay(workTrack.getWorkDate()).toString();
-        workTime = workTrack.getWorkTime();
+    public WorkTrackShortResponse(WorkTimeView workTime) {
+        workDate = LocalDate.ofEpochDay(workTime.getWorkDate()).toString();
+        this.workTime = workTime.getWorkTime();
     }
 }
@@ -1,12 +1,13 @@
 package ru.manager.ProgectManager;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.JavaMailSenderImpl;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.manager.ProgectManager.components.PooledJavaMailSender;
 
 import java.net.InetAddress;
 import java.net.NetworkInterface;
@@ -34,8 +35,10 @@ public class ProjectManagerApplication {
 	}
 
 	@Bean
-	public JavaMailSender javaMailSender() {
-		JavaMailSenderImpl javaMailSender = new JavaMailSenderImpl();
+	public JavaMailSender javaMailSender(@Value("${mail.connection.pool-size:4}") int poolSize,
+										 @Value("${mail.connection.max-messages:100}") int maxMessagesPerConnection,
+										 @Value("${mail.connection.idle-timeout:60000}") long idleTimeout) {
+		PooledJavaMailSender javaMailSender = new PooledJavaMailSender(poolSize, maxMessagesPerConnection, idleTimeout);
 		javaMailSender.setHost("smtp.gmail.com");
 		javaMailSender.setPort(587);
 		javaMailSender.setUsername("veeharkserver@gmail.com");
@@ -0,0 +1,35 @@
+package ru.manager.ProgectManager.components;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.stereotype.Component;
+import ru.manager.ProgectManager.entitys.BackfillMarker;
+import ru.manager.ProgectManager.repositories.BackfillMarkerRepository;
+
+import java.time.Duration;
+
+// разовое заполнение данных при запуске: отметка в backfill_marker, выполняется под арендой на одном узле
+@Component
+@RequiredArgsConstructor
+@Log
+public class BackfillRunner {
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(10);
+
+    private final BackfillMarkerRepository markerRepository;
+    private final JobLeaseCoordinator leaseCoordinator;
+
+    public void runOnce(String name, boolean force, Runnable task) {
+        if (!force && markerRepository.existsById(name))
+            return;
+        leaseCoordinator.runExclusive("backfill-" + name, LOCK_AT_MOST, Duration.ZERO, () -> {
+            if (!force && markerRepository.existsById(name))
+                return;
+            task.run();
+            BackfillMarker marker = new BackfillMarker();
+            marker.setName(name);
+            marker.setCompletedAt(System.currentTimeMillis());
+            markerRepository.save(marker);
+            log.info("Backfill " + name + " completed");
+        });
+    }
+}
@@ -0,0 +1,91 @@
+package ru.manager.ProgectManager.components;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+
+// потоковая запись календаря в формате iCalendar (RFC 5545) с переносом длинных строк
+public class ICalendarWriter {
+    private static final int MAX_LINE_BYTES = 75;
+    private static final byte[] CRLF = {'\r', '\n'};
+    private static final DateTimeFormatter UTC_TIME = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'")
+            .withZone(ZoneOffset.UTC);
+
+    private final OutputStream out;
+
+    public ICalendarWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    public void begin(String name) throws IOException {
+        line("BEGIN:VCALENDAR");
+        line("VERSION:2.0");
+        line("PRODID:-//ProjectManager//Calendar feed//RU");
+        line("CALSCALE:GREGORIAN");
+        line("METHOD:PUBLISH");
+        line("X-WR-CALNAME:" + escape(name));
+    }
+
+    // время передаётся в секундах от начала эпохи и записывается в UTC, часовой пояс применяет клиент
+    public void event(String uid, String summary, long start, long stamp) throws IOException {
+        line("BEGIN:VEVENT");
+        line("UID:" + uid);
+        line("DTSTAMP:" + UTC_TIME.format(Instant.ofEpochSecond(stamp)));
+        line("LAST-MODIFIED:" + UTC_TIME.format(Instant.ofEpochSecond(stamp)));
+        line("DTSTART:" + UTC_TIME.format(Instant.ofEpochSecond(start)));
+        line("SUMMARY:" + escape(summary));
+        line("END:VEVENT");
+    }
+
+    public void end() throws IOException {
+        line("END:VCALENDAR");
+        out.flush();
+    }
+
+    public static String escape(String text) {
+        if (text == null)
+            return "";
+        StringBuilder result = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\':
+                case ';':
+                case ',':
+                    result.append('\\').append(c);
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    break;
+                default:
+                    result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    private void line(String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        int start = 0;
+        int limit = MAX_LINE_BYTES;
+        while (bytes.length - start > limit) {
+            int end = start + limit;
+            // байты продолжения UTF-8 имеют вид 10xxxxxx, перенос ставится перед началом символа
+            while ((bytes[end] & 0xC0) == 0x80) {
+                end--;
+            }
+            out.write(bytes, start, end - start);
+            out.write(CRLF);
+            out.write(' ');
+            start = end;
+            limit = MAX_LINE_BYTES - 1;
+        }
+        out.write(bytes, start, bytes.length - start);
+        out.write(CRLF);
+    }
+}
@@ -0,0 +1,78 @@
+package ru.manager.ProgectManager.components;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.stereotype.Component;
+import ru.manager.ProgectManager.repositories.JobLeaseRepository;
+
+import javax.annotation.PreDestroy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+// аренда фоновых задач в job_lease, чтобы задачу выполнял только один узел
+@Component
+@RequiredArgsConstructor
+@Log
+public class JobLeaseCoordinator {
+    private final JobLeaseRepository leaseRepository;
+
+    private final String owner = hostName() + ":" + UUID.randomUUID();
+    private final ScheduledExecutorService heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "job-lease-heartbeat");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // возвращает false, если аренду держит другой экземпляр и задача не выполнялась
+    public boolean runExclusive(String name, Duration lockAtMost, Duration lockAtLeast, Runnable task) {
+        long start = System.currentTimeMillis();
+        if (!acquire(name, start, start + lockAtMost.toMillis()))
+            return false;
+        long period = Math.max(lockAtMost.toMillis() / 3, 1_000);
+        ScheduledFuture<?> heartbeat = heartbeats.scheduleAtFixedRate(() -> extend(name, lockAtMost), period, period,
+                TimeUnit.MILLISECONDS);
+        try {
+            task.run();
+        } finally {
+            heartbeat.cancel(false);
+            long now = System.currentTimeMillis();
+            leaseRepository.extend(name, owner, now, Math.max(now, start + lockAtLeast.toMillis()));
+        }
+        return true;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        heartbeats.shutdownNow();
+    }
+
+    private boolean acquire(String name, long now, long expiresAt) {
+        if (leaseRepository.acquire(name, owner, now, expiresAt) == 1)
+            return true;
+        return leaseRepository.create(name) == 1 && leaseRepository.acquire(name, owner, now, expiresAt) == 1;
+    }
+
+    private void extend(String name, Duration lockAtMost) {
+        try {
+            long now = System.currentTimeMillis();
+            if (leaseRepository.extend(name, owner, now, now + lockAtMost.toMillis()) == 0)
+                log.warning("Job lease " + name + " is lost by " + owner);
+        } catch (Exception e) {
+            log.warning("Job lease " + name + " is not extended: " + e.getMessage());
+        }
+    }
+
+    private static String hostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "unknown";
+        }
+    }
+}
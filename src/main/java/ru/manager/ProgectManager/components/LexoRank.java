@@ -0,0 +1,89 @@
+package ru.manager.ProgectManager.components;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// строковые ключи порядка: между любыми двумя ключами можно вставить новый
+public final class LexoRank {
+    private static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    private static final int BASE = DIGITS.length();
+
+    private LexoRank() {
+    }
+
+    // null означает отсутствие соседа с соответствующей стороны
+    public static String between(String before, String after) {
+        String low = (before == null ? "" : before);
+        if (after != null && low.compareTo(after) >= 0)
+            throw new IllegalArgumentException("Key " + before + " is not less than " + after);
+        // при вставке в начало или конец ключ сдвигается на единицу последнего разряда, а не делит интервал
+        // пополам, поэтому длина растёт на символ лишь раз в BASE вставок
+        if (after == null && !low.isEmpty())
+            return next(low);
+        if (before == null && after != null)
+            return previous(after);
+        StringBuilder key = new StringBuilder();
+        boolean bounded = (after != null);
+        for (int i = 0; ; i++) {
+            int lowDigit = (i < low.length() ? digit(low.charAt(i)) : 0);
+            int highDigit = (bounded ? digit(after.charAt(i)) : BASE);
+            if (highDigit - lowDigit > 1) {
+                return key.append(DIGITS.charAt((lowDigit + highDigit) / 2)).toString();
+            }
+            key.append(DIGITS.charAt(lowDigit));
+            // при соседних цифрах любое продолжение после цифры нижней границы уже меньше верхней
+            if (highDigit - lowDigit == 1)
+                bounded = false;
+        }
+    }
+
+    // равномерно распределённые ключи с запасом не менее BASE свободных значений между соседями
+    public static List<String> sequence(int count) {
+        int width = 1;
+        long space = BASE;
+        while (space / (count + 1) < BASE) {
+            width++;
+            space *= BASE;
+        }
+        long step = space / (count + 1);
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            keys.add(toKey(i * step, width));
+        }
+        return keys;
+    }
+
+    private static String next(String key) {
+        int last = digit(key.charAt(key.length() - 1));
+        if (last == BASE - 1)
+            return key + DIGITS.charAt(1);
+        return key.substring(0, key.length() - 1) + DIGITS.charAt(last + 1);
+    }
+
+    private static String previous(String key) {
+        int last = digit(key.charAt(key.length() - 1));
+        if (last <= 1)
+            return key.substring(0, key.length() - 1) + DIGITS.charAt(0) + DIGITS.charAt(BASE - 1);
+        return key.substring(0, key.length() - 1) + DIGITS.charAt(last - 1);
+    }
+
+    private static String toKey(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        int length = width;
+        while (chars[length - 1] == '0') {
+            length--;
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static int digit(char c) {
+        int digit = DIGITS.indexOf(c);
+        if (digit < 0)
+            throw new IllegalArgumentException("Illegal key symbol " + c);
+        return digit;
+    }
+}
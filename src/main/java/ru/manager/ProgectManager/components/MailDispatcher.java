@@ -0,0 +1,185 @@
+package ru.manager.ProgectManager.components;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.manager.ProgectManager.entitys.MailOutbox;
+import ru.manager.ProgectManager.enums.MailStatus;
+import ru.manager.ProgectManager.repositories.MailOutboxRepository;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// отправка писем из mail_outbox пачками с повторными попытками
+@Component
+@RequiredArgsConstructor
+@Log
+public class MailDispatcher {
+    private static final int WORKERS = 4;
+    private static final int CAPACITY = 64;
+    private static final long POLL_SECONDS = 5;
+    private static final long SEND_TIMEOUT = 300_000;
+    private static final long FIRST_RETRY = 30_000;
+    private static final long MAX_RETRY = 3_600_000;
+    private static final int MAX_ATTEMPTS = 10;
+
+    private final MailOutboxRepository outboxRepository;
+    private final JavaMailSender javaMailSender;
+
+    @Value("${mail.batch-size:20}")
+    private int batchSize;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(
+            daemon("mail-outbox-poller"));
+    private final ExecutorService workers = new ThreadPoolExecutor(WORKERS, WORKERS, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(CAPACITY), daemon("mail-dispatcher"));
+
+    @PostConstruct
+    public void start() {
+        poller.scheduleWithFixedDelay(this::poll, POLL_SECONDS, POLL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        poller.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public void wakeUp() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    poller.execute(MailDispatcher.this::poll);
+                }
+            });
+        } else {
+            poller.execute(this::poll);
+        }
+    }
+
+    // в очередь пула попадает не больше CAPACITY писем, остальные дождутся следующего опроса
+    private void poll() {
+        try {
+            int free = CAPACITY - inFlight.get();
+            if (free <= 0)
+                return;
+            long now = System.currentTimeMillis();
+            List<Long> batch = new ArrayList<>(batchSize);
+            for (long id : outboxRepository.findDueIds(MailStatus.PENDING, now, PageRequest.of(0, free))) {
+                if (outboxRepository.claim(id, MailStatus.PENDING, now, now + SEND_TIMEOUT) == 1)
+                    batch.add(id);
+                if (batch.size() == batchSize) {
+                    submit(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty())
+                submit(batch);
+        } catch (Exception e) {
+            log.warning("Mail outbox is not polled: " + e.getMessage());
+        }
+    }
+
+    private void submit(List<Long> batch) {
+        inFlight.addAndGet(batch.size());
+        workers.execute(() -> deliver(batch));
+    }
+
+    // письма пачки уходят одним вызовом send, а значит по одному соединению с почтовым сервером
+    private void deliver(List<Long> ids) {
+        try {
+            List<MailOutbox> mails = new ArrayList<>(ids.size());
+            outboxRepository.findAllById(ids).forEach(mails::add);
+            if (mails.isEmpty())
+                return;
+            List<MailOutbox> sent = new ArrayList<>();
+            List<MailOutbox> failed = new ArrayList<>();
+            List<MailOutbox> built = new ArrayList<>(mails.size());
+            List<MimeMessage> messages = new ArrayList<>(mails.size());
+            for (MailOutbox mail : mails) {
+                try {
+                    messages.add(buildMessage(mail));
+                    built.add(mail);
+                } catch (MessagingException e) {
+                    retry(mail, e);
+                    failed.add(mail);
+                }
+            }
+            Map<Object, Exception> failedMessages = Map.of();
+            Exception failure = null;
+            try {
+                if (!messages.isEmpty())
+                    javaMailSender.send(messages.toArray(new MimeMessage[0]));
+            } catch (MailSendException e) {
+                failedMessages = e.getFailedMessages();
+                failure = e;
+            } catch (Exception e) {
+                failure = e;
+            }
+            // MimeMessage сравнивается по ссылке, поэтому одинаковые письма пачки не путаются между собой
+            for (int i = 0; i < messages.size(); i++) {
+                MimeMessage message = messages.get(i);
+                if (failure == null || (!failedMessages.isEmpty() && !failedMessages.containsKey(message))) {
+                    sent.add(built.get(i));
+                } else {
+                    retry(built.get(i), failedMessages.getOrDefault(message, failure));
+                    failed.add(built.get(i));
+                }
+            }
+            outboxRepository.deleteAll(sent);
+            outboxRepository.saveAll(failed);
+        } catch (Exception e) {
+            log.warning("Mails " + ids + " are not processed: " + e.getMessage());
+        } finally {
+            inFlight.addAndGet(-ids.size());
+        }
+    }
+
+    private MimeMessage buildMessage(MailOutbox mail) throws MessagingException {
+        MimeMessage message = javaMailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message);
+        helper.setTo(mail.getAddress());
+        helper.setSubject(mail.getSubject());
+        helper.setText(mail.getText());
+        return message;
+    }
+
+    private void retry(MailOutbox mail, Exception cause) {
+        int attempts = mail.getAttempts() + 1;
+        String error = String.valueOf(cause.getMessage());
+        mail.setAttempts(attempts);
+        mail.setLastError(error.length() > 512 ? error.substring(0, 512) : error);
+        if (attempts >= MAX_ATTEMPTS) {
+            mail.setStatus(MailStatus.DEAD);
+            log.warning("Mail " + mail.getId() + " to " + mail.getAddress() + " is dead after " + attempts
+                    + " attempts: " + error);
+        } else {
+            long delay = Math.min(FIRST_RETRY << (attempts - 1), MAX_RETRY);
+            mail.setNextAttempt(System.currentTimeMillis() + delay);
+        }
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -6,58 +6,147 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 import ru.manager.ProgectManager.enums.Size;
 
-import javax.imageio.IIOImage;
-import javax.imageio.ImageIO;
-import javax.imageio.ImageWriteParam;
-import javax.imageio.ImageWriter;
+import javax.annotation.PreDestroy;
+import javax.imageio.*;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
-import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 
+// приведение изображений к размеру и сжатие в jpeg
 @Component
 @Log
 public class PhotoCompressor {
+    private static final int WRITERS = 8;
+
+    private final BlockingQueue<ImageWriter> writers = new ArrayBlockingQueue<>(WRITERS);
+
     public byte[] compress(MultipartFile file, Size size) throws IOException{
         if (file.getOriginalFilename() == null) {
             return null;
         }
-        BufferedImage image = ImageIO.read(file.getInputStream());
-        image = (size == Size.LARGE
-                ? Scalr.resize(image, 1920, 1080)
-                : Scalr.resize(image, size == Size.MIDDLE ? 600 : 200));
-        if (image.getColorModel().hasAlpha()) {
-            BufferedImage tempImage = new BufferedImage(image.getWidth(), image.getHeight(),
-                    BufferedImage.TYPE_INT_BGR);
-            for (int y = 0; y < image.getHeight(); y++) {
-                for (int x = 0; x < image.getWidth(); x++) {
-                    tempImage.setRGB(x, y, new Color(image.getRGB(x, y), false).getRGB());
-                }
-            }
-            image = tempImage;
+        BufferedImage image;
+        try (InputStream inputStream = file.getInputStream()) {
+            image = read(inputStream, size);
         }
-        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        return write(resize(image, size));
+    }
 
-        ImageWriter writer = ImageIO
-                .getImageWritersByFormatName("jpg")
-                .next();
+    // все размеры не больше size за одно декодирование, каждый вариант уменьшается из предыдущего
+    public Map<Size, byte[]> compressVariants(MultipartFile file, Size size) throws IOException {
+        Map<Size, byte[]> variants = new EnumMap<>(Size.class);
+        if (file.getOriginalFilename() == null) {
+            return variants;
+        }
+        BufferedImage image;
+        try (InputStream inputStream = file.getInputStream()) {
+            image = read(inputStream, size);
+        }
+        Size[] sizes = Size.values();
+        for (int i = size.ordinal(); i >= 0; i--) {
+            image = resize(image, sizes[i]);
+            variants.put(sizes[i], write(image));
+        }
+        return variants;
+    }
 
-        ImageOutputStream ios = ImageIO.createImageOutputStream(os);
-        writer.setOutput(ios);
+    @PreDestroy
+    public void destroy() {
+        ImageWriter writer;
+        while ((writer = writers.poll()) != null) {
+            writer.dispose();
+        }
+    }
 
-        int inputSize = image.getHeight() * image.getWidth() * 3;
-        ImageWriteParam param = writer.getDefaultWriteParam();
-        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
-        param.setCompressionQuality(inputSize < 204_800 ? 1 : 204_800f / inputSize);  // Change the quality value you prefer
-        writer.write(null, new IIOImage(image, null, null), param);
+    private BufferedImage read(InputStream inputStream, Size size) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(inputStream)) {
+            Iterator<ImageReader> readers = (input == null ? null : ImageIO.getImageReaders(input));
+            if (readers == null || !readers.hasNext())
+                throw new IOException("Unsupported image format");
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = subsampling(reader.getWidth(0), reader.getHeight(0), size);
+                if (step > 1)
+                    param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
 
-        byte[] result = os.toByteArray();
+    private static BufferedImage resize(BufferedImage image, Size size) {
+        image = Scalr.resize(image, size.getWidth(), size.getHeight());
+        return (image.getColorModel().hasAlpha() ? dropAlpha(image) : image);
+    }
 
-        os.close();
-        ios.close();
-        writer.dispose();
+    // Scalr вписывает изображение по длинной стороне (квадрат - по ширине), прореживание оставляет ей запас в 2 раза
+    static int subsampling(int width, int height, Size size) {
+        int target = (width >= height ? size.getWidth() : size.getHeight());
+        return Math.max(1, Math.max(width, height) / (2 * target));
+    }
 
+    // как и прежде, цвет полупрозрачных пикселей сохраняется без смешивания с фоном
+    static BufferedImage dropAlpha(BufferedImage image) {
+        int width = image.getWidth();
+        int height = image.getHeight();
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        int[] target = ((DataBufferInt) result.getRaster().getDataBuffer()).getData();
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB) {
+            WritableRaster raster = image.getRaster();
+            int[] source = ((DataBufferInt) raster.getDataBuffer()).getData();
+            int stride = ((SinglePixelPackedSampleModel) raster.getSampleModel()).getScanlineStride();
+            int offset = raster.getDataBuffer().getOffset()
+                    - raster.getSampleModelTranslateY() * stride - raster.getSampleModelTranslateX();
+            for (int y = 0; y < height; y++) {
+                int from = offset + y * stride;
+                int to = y * width;
+                for (int x = 0; x < width; x++) {
+                    target[to + x] = source[from + x] & 0xFFFFFF;
+                }
+            }
+        } else {
+            image.getRGB(0, 0, width, height, target, 0, width);
+            for (int i = 0; i < target.length; i++) {
+                target[i] &= 0xFFFFFF;
+            }
+        }
         return result;
     }
+
+    private byte[] write(BufferedImage image) throws IOException {
+        ImageWriter writer = writers.poll();
+        if (writer == null) {
+            writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        try (ImageOutputStream ios = ImageIO.createImageOutputStream(os)) {
+            writer.setOutput(ios);
+            int inputSize = image.getHeight() * image.getWidth() * 3;
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(inputSize < 204_800 ? 1 : 204_800f / inputSize);
+            writer.write(null, new IIOImage(image, null, null), param);
+        } catch (IOException | RuntimeException e) {
+            writer.dispose();
+            throw e;
+        }
+        writer.reset();
+        if (!writers.offer(writer)) {
+            writer.dispose();
+        }
+        return os.toByteArray();
+    }
 }
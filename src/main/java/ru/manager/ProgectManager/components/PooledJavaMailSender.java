@@ -0,0 +1,155 @@
+package ru.manager.ProgectManager.components;
+
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+
+import javax.mail.Address;
+import javax.mail.AuthenticationFailedException;
+import javax.mail.MessagingException;
+import javax.mail.Transport;
+import javax.mail.internet.MimeMessage;
+import java.util.Date;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// отправка писем через пул переиспользуемых SMTP-соединений
+@Log
+public class PooledJavaMailSender extends JavaMailSenderImpl implements DisposableBean {
+    private final int poolSize;
+    private final int maxMessagesPerConnection;
+    private final long idleTimeout;
+
+    private final Deque<PooledTransport> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger opened = new AtomicInteger();
+
+    public PooledJavaMailSender(int poolSize, int maxMessagesPerConnection, long idleTimeout) {
+        this.poolSize = poolSize;
+        this.maxMessagesPerConnection = maxMessagesPerConnection;
+        this.idleTimeout = idleTimeout;
+    }
+
+    // число открытых за всё время соединений
+    public int getOpenedConnections() {
+        return opened.get();
+    }
+
+    @Override
+    protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+        Map<Object, Exception> failedMessages = new LinkedHashMap<>();
+        PooledTransport transport = null;
+        try {
+            for (int i = 0; i < mimeMessages.length; i++) {
+                if (transport == null) {
+                    try {
+                        transport = borrow();
+                    } catch (MailException e) {
+                        if (i == 0)
+                            throw e;
+                        // уже отправленные письма не должны попасть в повторную отправку
+                        for (int j = i; j < mimeMessages.length; j++) {
+                            putFailure(failedMessages, originalMessages, mimeMessages, j, e);
+                        }
+                        break;
+                    }
+                }
+                MimeMessage mimeMessage = mimeMessages[i];
+                try {
+                    if (mimeMessage.getSentDate() == null)
+                        mimeMessage.setSentDate(new Date());
+                    String messageId = mimeMessage.getMessageID();
+                    mimeMessage.saveChanges();
+                    if (messageId != null)
+                        mimeMessage.setHeader("Message-ID", messageId);
+                    Address[] addresses = mimeMessage.getAllRecipients();
+                    transport.transport.sendMessage(mimeMessage, (addresses != null ? addresses : new Address[0]));
+                    transport.sent++;
+                } catch (Exception e) {
+                    putFailure(failedMessages, originalMessages, mimeMessages, i, e);
+                    if (!transport.transport.isConnected()) {
+                        close(transport);
+                        transport = null;
+                    }
+                }
+                if (transport != null && transport.sent >= maxMessagesPerConnection) {
+                    close(transport);
+                    transport = null;
+                }
+            }
+        } finally {
+            if (transport != null)
+                release(transport);
+        }
+        if (!failedMessages.isEmpty())
+            throw new MailSendException(failedMessages);
+    }
+
+    @Override
+    public void destroy() {
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            close(transport);
+        }
+    }
+
+    // равные SimpleMailMessage дают один ключ, поэтому ошибка повторного письма хранится под его MimeMessage
+    private static void putFailure(Map<Object, Exception> failedMessages, Object[] originalMessages,
+                                   MimeMessage[] mimeMessages, int index, Exception e) {
+        Object original = (originalMessages != null ? originalMessages[index] : null);
+        failedMessages.put(original != null && !failedMessages.containsKey(original) ? original : mimeMessages[index],
+                e);
+    }
+
+    // последнее возвращённое соединение берётся первым, редко используемые остаются в конце и закрываются по простою
+    private PooledTransport borrow() {
+        long now = System.currentTimeMillis();
+        PooledTransport transport;
+        while ((transport = idle.pollFirst()) != null) {
+            if (now - transport.releasedAt <= idleTimeout && transport.transport.isConnected())
+                return transport;
+            close(transport);
+        }
+        try {
+            PooledTransport created = new PooledTransport(connectTransport());
+            opened.incrementAndGet();
+            return created;
+        } catch (AuthenticationFailedException e) {
+            throw new MailAuthenticationException(e);
+        } catch (MessagingException e) {
+            throw new MailSendException("Mail server connection failed", e);
+        }
+    }
+
+    private void release(PooledTransport transport) {
+        transport.releasedAt = System.currentTimeMillis();
+        if (idle.size() < poolSize) {
+            idle.addFirst(transport);
+        } else {
+            close(transport);
+        }
+    }
+
+    private void close(PooledTransport transport) {
+        try {
+            transport.transport.close();
+        } catch (MessagingException e) {
+            log.fine("Mail server connection is not closed: " + e.getMessage());
+        }
+    }
+
+    private static class PooledTransport {
+        private final Transport transport;
+        private int sent;
+        private long releasedAt;
+
+        private PooledTransport(Transport transport) {
+            this.transport = transport;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package ru.manager.ProgectManager.components;
+
+import java.util.*;
+
+// колесо таймеров на size тактов вперёд, не потокобезопасно
+public class TimingWheel {
+    private final long tickSeconds;
+    private final List<Set<Long>> slots;
+    private final Map<Long, Long> ticks = new HashMap<>();
+    private long currentTick;
+
+    public TimingWheel(long tickSeconds, int size, long nowSeconds) {
+        this.tickSeconds = tickSeconds;
+        this.slots = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            slots.add(new LinkedHashSet<>());
+        }
+        this.currentTick = nowSeconds / tickSeconds;
+    }
+
+    // момент, до которого колесо принимает сроки
+    public long horizon() {
+        return (currentTick + slots.size()) * tickSeconds;
+    }
+
+    public int size() {
+        return ticks.size();
+    }
+
+    // такт округляется вверх, чтобы идентификатор не сработал раньше своего срока
+    public boolean schedule(long id, long dueSeconds) {
+        long tick = Math.max(Math.floorDiv(dueSeconds + tickSeconds - 1, tickSeconds), currentTick);
+        if (tick >= currentTick + slots.size())
+            return false;
+        cancel(id);
+        slots.get(index(tick)).add(id);
+        ticks.put(id, tick);
+        return true;
+    }
+
+    public void cancel(long id) {
+        Long tick = ticks.remove(id);
+        if (tick != null)
+            slots.get(index(tick)).remove(id);
+    }
+
+    // сдвигает колесо до указанного момента и возвращает идентификаторы, срок которых наступил
+    public List<Long> advance(long nowSeconds) {
+        long target = nowSeconds / tickSeconds;
+        List<Long> due = new ArrayList<>();
+        if (target - currentTick >= slots.size()) {
+            slots.forEach(Set::clear);
+            due.addAll(ticks.keySet());
+            ticks.clear();
+            currentTick = target + 1;
+            return due;
+        }
+        for (; currentTick <= target; currentTick++) {
+            Set<Long> slot = slots.get(index(currentTick));
+            slot.forEach(ticks::remove);
+            due.addAll(slot);
+            slot.clear();
+        }
+        return due;
+    }
+
+    private int index(long tick) {
+        return (int) Math.floorMod(tick, (long) slots.size());
+    }
+}
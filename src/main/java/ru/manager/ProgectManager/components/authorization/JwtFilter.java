@@ -1,6 +1,8 @@
 package ru.manager.ProgectManager.components.authorization;
 
+import io.jsonwebtoken.Claims;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -33,16 +35,30 @@ public class JwtFilter extends GenericFilterBean {
         customUserDetailsService = c;
     }
 
+    private TokenRevocationList revocationList;
+
+    @Autowired
+    private void setRevocationList(TokenRevocationList r) {
+        revocationList = r;
+    }
+
+    // при выключенном режиме пользователь, как и раньше, загружается из базы на каждый запрос
+    @Value("${jwt.claims-only:true}")
+    private boolean claimsOnly;
+
     @Override
     public void doFilter(ServletRequest servletRequest, ServletResponse servletResponse, FilterChain filterChain)
             throws IOException, ServletException {
-        Optional<String> token = getTokenFromRequest((HttpServletRequest) servletRequest);
-        if (token.isPresent() && jwtProvider.validateToken(token.get())) {
+        Optional<Claims> claims = getTokenFromRequest((HttpServletRequest) servletRequest)
+                .flatMap(jwtProvider::parseToken);
+        if (claims.isPresent()
+                && !revocationList.isRevoked(claims.get().getSubject(), jwtProvider.issuedAtMillis(claims.get()))) {
             try {
-                String userLogin = jwtProvider.getLoginFromToken(token.get());
-                UserDetails customUserDetails = customUserDetailsService.loadUserByUsername(userLogin);
-                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(customUserDetails,
-                        null, customUserDetails.getAuthorities());
+                UserDetails userDetails = (claimsOnly && jwtProvider.hasUserClaims(claims.get())
+                        ? jwtProvider.buildPrincipal(claims.get())
+                        : customUserDetailsService.loadUserByUsername(claims.get().getSubject()));
+                UsernamePasswordAuthenticationToken auth = new UsernamePasswordAuthenticationToken(userDetails,
+                        null, userDetails.getAuthorities());
                 SecurityContextHolder.getContext().setAuthentication(auth);
             } catch (NoSuchElementException ignore) {
             }
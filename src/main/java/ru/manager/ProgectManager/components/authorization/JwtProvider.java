@@ -4,38 +4,78 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Component;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.Locale;
 
-import java.time.LocalDateTime;
-import java.time.ZoneId;
+import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
+import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Component
 public class JwtProvider {
+    public static final long ACCESS_LIFETIME_SECONDS = 15 * 60;
+
+    private static final String USER_ID = "uid";
+    private static final String ROLES = "roles";
+    private static final String LOCALE = "locale";
+    private static final String ZONE_ID = "zone";
+    private static final String ISSUED_AT_MILLIS = "iat_ms";
 
     @Value("${jwt.secret}")
     private String jwtSecret;
 
-    public String generateToken(String login) {
-        Date date = Date.from(LocalDateTime.now().plusMinutes(15).atZone(ZoneId.systemDefault()).toInstant());
+    public String generateToken(User user) {
+        Instant now = Instant.now();
         return Jwts.builder()
-                .setSubject(login)
-                .setExpiration(date)
+                .setSubject(user.getUsername())
+                .setIssuedAt(Date.from(now))
+                .setExpiration(Date.from(now.plusSeconds(ACCESS_LIFETIME_SECONDS)))
+                .claim(USER_ID, user.getUserId())
+                .claim(ROLES, user.getAuthorities().stream()
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.toList()))
+                .claim(LOCALE, (user.getLocale() == null ? null : user.getLocale().name()))
+                .claim(ZONE_ID, user.getZoneId())
+                .claim(ISSUED_AT_MILLIS, now.toEpochMilli())
                 .signWith(SignatureAlgorithm.HS512, jwtSecret)
                 .compact();
     }
 
-    public boolean validateToken(String token) {
+    // единственный разбор токена с проверкой подписи и срока действия
+    public Optional<Claims> parseToken(String token) {
         try {
-            Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token);
-            return true;
+            return Optional.of(Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody());
         } catch (Exception e) {
-            return false;
+            return Optional.empty();
         }
     }
 
-    public String getLoginFromToken(String token) {
-        Claims claims = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody();
-        return claims.getSubject();
+    // токены, выпущенные до появления claims с данными пользователя, не содержат идентификатора
+    public boolean hasUserClaims(Claims claims) {
+        return claims.get(USER_ID) != null && claims.get(ROLES) != null;
+    }
+
+    // iat хранится в секундах, поэтому для сравнения с моментом отзыва выпуск записывается отдельно в мс
+    public long issuedAtMillis(Claims claims) {
+        Number millis = claims.get(ISSUED_AT_MILLIS, Number.class);
+        if (millis != null)
+            return millis.longValue();
+        return (claims.getIssuedAt() == null ? 0 : claims.getIssuedAt().getTime());
+    }
+
+    public TokenPrincipal buildPrincipal(Claims claims) {
+        Collection<SimpleGrantedAuthority> authorities = ((Collection<?>) claims.get(ROLES)).stream()
+                .map(String::valueOf)
+                .map(SimpleGrantedAuthority::new)
+                .collect(Collectors.toList());
+        String locale = claims.get(LOCALE, String.class);
+        Number zoneId = claims.get(ZONE_ID, Number.class);
+        return new TokenPrincipal(claims.get(USER_ID, Number.class).longValue(), claims.getSubject(), authorities,
+                (locale == null ? null : Locale.valueOf(locale)), (zoneId == null ? 0 : zoneId.intValue()));
     }
-}
\ No newline at end of file
+}
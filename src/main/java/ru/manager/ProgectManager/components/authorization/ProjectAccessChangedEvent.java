@@ -0,0 +1,11 @@
+package ru.manager.ProgectManager.components.authorization;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// публикуется после коммита изменения участников или ролей проекта
+@Getter
+@RequiredArgsConstructor
+public class ProjectAccessChangedEvent {
+    private final long projectId;
+}
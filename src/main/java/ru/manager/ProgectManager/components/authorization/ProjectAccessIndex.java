@@ -0,0 +1,206 @@
+package ru.manager.ProgectManager.components.authorization;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.manager.ProgectManager.entitys.Project;
+import ru.manager.ProgectManager.entitys.documents.Page;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.TypeRoleProject;
+import ru.manager.ProgectManager.repositories.CustomRoleWithDocumentConnectorRepository;
+import ru.manager.ProgectManager.repositories.KanbanConnectorRepository;
+import ru.manager.ProgectManager.repositories.ProjectRepository;
+import ru.manager.ProgectManager.repositories.UserWithProjectConnectorRepository;
+import ru.manager.ProgectManager.repositories.projections.MemberAccessView;
+import ru.manager.ProgectManager.repositories.projections.ResourceConnectorView;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// кеш прав участников проекта на канбаны и страницы, сверяется с версией прав в базе
+@Component
+@RequiredArgsConstructor
+public class ProjectAccessIndex {
+    private static final byte VIEW = 1;
+    private static final byte EDIT = 2;
+
+    private final UserWithProjectConnectorRepository projectConnectorRepository;
+    private final KanbanConnectorRepository kanbanConnectorRepository;
+    private final CustomRoleWithDocumentConnectorRepository documentConnectorRepository;
+    private final ProjectRepository projectRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<Long, ProjectAccess> projects = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    @Value("${project.access.verify-interval:2000}")
+    private long verifyInterval;
+
+    public boolean isMember(Project project, User user) {
+        return findMember(project.getId(), user.getUserId()).isPresent();
+    }
+
+    public boolean isAdmin(Project project, User user) {
+        return findMember(project.getId(), user.getUserId())
+                .filter(member -> member.roleType == TypeRoleProject.ADMIN)
+                .isPresent();
+    }
+
+    public boolean canEditResource(Project project, User user) {
+        return findMember(project.getId(), user.getUserId())
+                .filter(member -> member.roleType == TypeRoleProject.ADMIN
+                        || (member.roleType == TypeRoleProject.CUSTOM_ROLE && member.canEditResources))
+                .isPresent();
+    }
+
+    public boolean canSeeKanban(Kanban kanban, User user) {
+        return canSeeKanban(kanban.getProject().getId(), kanban.getId(), user.getUserId());
+    }
+
+    public boolean canEditKanban(Kanban kanban, User user) {
+        return canEditKanban(kanban.getProject().getId(), kanban.getId(), user.getUserId());
+    }
+
+    public boolean canSeeKanban(long projectId, long kanbanId, long userId) {
+        return hasAccess(projectId, userId, kanbanId, VIEW, false);
+    }
+
+    public boolean canEditKanban(long projectId, long kanbanId, long userId) {
+        return hasAccess(projectId, userId, kanbanId, EDIT, false);
+    }
+
+    public boolean canSeePage(Page page, User user) {
+        Page root = (page.getRoot() == null ? page : page.getRoot());
+        return hasAccess(page.getProject().getId(), user.getUserId(), root.getId(), VIEW, true);
+    }
+
+    public boolean canSeePage(long projectId, long rootId, long userId) {
+        return hasAccess(projectId, userId, rootId, VIEW, true);
+    }
+
+    public boolean canEditPage(Page page, User user) {
+        Page root = (page.getRoot() == null ? page : page.getRoot());
+        return hasAccess(page.getProject().getId(), user.getUserId(), root.getId(), EDIT, true);
+    }
+
+    public void invalidate(Project project) {
+        invalidate(project.getId());
+    }
+
+    // сброс выполняется после коммита, чтобы параллельный запрос не закешировал ещё не зафиксированное состояние
+    public void invalidate(long projectId) {
+        projectRepository.increaseAccessVersion(projectId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(projectId);
+                }
+            });
+        } else {
+            remove(projectId);
+        }
+    }
+
+    private void remove(long projectId) {
+        generations.computeIfAbsent(projectId, id -> new AtomicLong()).incrementAndGet();
+        projects.remove(projectId);
+        eventPublisher.publishEvent(new ProjectAccessChangedEvent(projectId));
+    }
+
+    private boolean hasAccess(long projectId, long userId, long resourceId, byte required, boolean page) {
+        return findMember(projectId, userId)
+                .filter(member -> member.roleType != TypeRoleProject.CUSTOM_ROLE
+                        || ((page ? member.pages : member.kanbans).getOrDefault(resourceId, (byte) 0) & required) != 0)
+                .isPresent();
+    }
+
+    private Optional<MemberAccess> findMember(long projectId, long userId) {
+        return Optional.ofNullable(findProject(projectId).members.get(userId));
+    }
+
+    // снимок, построенный во время локального сброса, используется только для текущего запроса и не кешируется
+    private ProjectAccess findProject(long projectId) {
+        long now = System.currentTimeMillis();
+        ProjectAccess access = projects.get(projectId);
+        if (access != null && now - access.verifiedAt < verifyInterval)
+            return access;
+        long generation = generation(projectId);
+        // версия читается до данных: снимок по данным старше версии будет перестроен при следующей сверке
+        long version = projectRepository.findAccessVersionById(projectId).orElse(-1L);
+        if (access != null && access.version == version) {
+            access.verifiedAt = now;
+            return access;
+        }
+        ProjectAccess built = build(projectId, version, now);
+        if (generation(projectId) == generation) {
+            projects.merge(projectId, built, (current, fresh) -> current.version > fresh.version ? current : fresh);
+        }
+        return built;
+    }
+
+    private long generation(long projectId) {
+        AtomicLong generation = generations.get(projectId);
+        return (generation == null ? 0 : generation.get());
+    }
+
+    private ProjectAccess build(long projectId, long version, long now) {
+        Map<Long, Map<Long, Byte>> kanbansByRole = groupByRole(kanbanConnectorRepository
+                .findConnectorsByProjectId(projectId));
+        Map<Long, Map<Long, Byte>> pagesByRole = groupByRole(documentConnectorRepository
+                .findConnectorsByProjectId(projectId));
+        Map<Long, MemberAccess> members = new HashMap<>();
+        for (MemberAccessView view : projectConnectorRepository.findMemberAccessByProjectId(projectId)) {
+            Long roleId = (view.getRoleType() == TypeRoleProject.CUSTOM_ROLE ? view.getRoleId() : null);
+            members.put(view.getUserId(), new MemberAccess(view.getRoleType(),
+                    roleId != null && Boolean.TRUE.equals(view.getCanEditResources()),
+                    roleId == null ? Map.of() : kanbansByRole.getOrDefault(roleId, Map.of()),
+                    roleId == null ? Map.of() : pagesByRole.getOrDefault(roleId, Map.of())));
+        }
+        return new ProjectAccess(members, version, now);
+    }
+
+    private Map<Long, Map<Long, Byte>> groupByRole(Iterable<ResourceConnectorView> connectors) {
+        Map<Long, Map<Long, Byte>> result = new HashMap<>();
+        for (ResourceConnectorView connector : connectors) {
+            result.computeIfAbsent(connector.getRoleId(), id -> new HashMap<>())
+                    .merge(connector.getResourceId(), (byte) (connector.getCanEdit() ? VIEW | EDIT : VIEW),
+                            (a, b) -> (byte) (a | b));
+        }
+        return result;
+    }
+
+    private static class ProjectAccess {
+        private final Map<Long, MemberAccess> members;
+        private final long version;
+        private volatile long verifiedAt;
+
+        private ProjectAccess(Map<Long, MemberAccess> members, long version, long verifiedAt) {
+            this.members = members;
+            this.version = version;
+            this.verifiedAt = verifiedAt;
+        }
+    }
+
+    private static class MemberAccess {
+        private final TypeRoleProject roleType;
+        private final boolean canEditResources;
+        private final Map<Long, Byte> kanbans;
+        private final Map<Long, Byte> pages;
+
+        private MemberAccess(TypeRoleProject roleType, boolean canEditResources, Map<Long, Byte> kanbans,
+                             Map<Long, Byte> pages) {
+            this.roleType = roleType;
+            this.canEditResources = canEditResources;
+            this.kanbans = kanbans;
+            this.pages = pages;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package ru.manager.ProgectManager.components.authorization;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import ru.manager.ProgectManager.enums.Locale;
+
+import java.util.Collection;
+
+// данные пользователя из claims access токена без обращения к базе
+@Getter
+@RequiredArgsConstructor
+public class TokenPrincipal implements UserDetails {
+    private final long userId;
+    private final String username;
+    private final Collection<? extends GrantedAuthority> authorities;
+    private final Locale locale;
+    private final int zoneId;
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+}
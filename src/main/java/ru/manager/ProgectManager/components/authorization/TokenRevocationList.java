@@ -0,0 +1,49 @@
+package ru.manager.ProgectManager.components.authorization;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.manager.ProgectManager.repositories.UserRepository;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// отзыв выданных access токенов при блокировке аккаунта или смене пароля
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationList {
+    private static final long CACHE_TTL = 5_000;
+    private static final int MAX_CACHED = 10_000;
+
+    private final UserRepository userRepository;
+
+    private final Map<String, ValidAfter> cache = new ConcurrentHashMap<>();
+
+    public void revoke(String login) {
+        long now = System.currentTimeMillis();
+        userRepository.updateTokensValidAfter(login, now);
+        cache.put(login, new ValidAfter(now, now));
+    }
+
+    public boolean isRevoked(String login, long issuedAtMillis) {
+        long now = System.currentTimeMillis();
+        ValidAfter validAfter = cache.get(login);
+        if (validAfter == null || now - validAfter.loadedAt >= CACHE_TTL) {
+            if (cache.size() >= MAX_CACHED)
+                cache.values().removeIf(value -> now - value.loadedAt >= CACHE_TTL);
+            // токены удалённого пользователя больше не принимаются
+            validAfter = new ValidAfter(userRepository.findTokensValidAfter(login).orElse(Long.MAX_VALUE), now);
+            cache.put(login, validAfter);
+        }
+        return issuedAtMillis < validAfter.time;
+    }
+
+    private static class ValidAfter {
+        private final long time;
+        private final long loadedAt;
+
+        private ValidAfter(long time, long loadedAt) {
+            this.time = time;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ru.manager.ProgectManager.components.events;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// событие для подписчиков Server-Sent Events
+@Getter
+@RequiredArgsConstructor
+public class PushEvent {
+    private final String name;
+    private final String id; // может быть null
+    private final Object data;
+}
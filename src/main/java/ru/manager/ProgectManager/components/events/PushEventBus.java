@@ -0,0 +1,182 @@
+package ru.manager.ProgectManager.components.events;
+
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// шина событий для SSE-подписчиков: у каждого своя ограниченная очередь и свой поток отправки
+@Component
+public class PushEventBus {
+    private static final int QUEUE_CAPACITY = 64;
+    private static final long EMITTER_TIMEOUT = 30 * 60 * 1000L;
+    private static final long SEND_TIMEOUT = 10_000;
+
+    private final Map<String, Set<Subscriber>> channels = new ConcurrentHashMap<>();
+    // поток занят, только пока у подписчика есть неотправленные события, и завершается после простоя
+    private final ExecutorService sender = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "push-event-sender");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public SseEmitter subscribeKanban(long kanbanId) {
+        return subscribe("kanban:" + kanbanId);
+    }
+
+    public SseEmitter subscribeUser(long userId) {
+        return subscribe("user:" + userId);
+    }
+
+    public void publishToKanban(long kanbanId, PushEvent event) {
+        publishAfterCommit("kanban:" + kanbanId, event);
+    }
+
+    public void publishToUser(long userId, PushEvent event) {
+        publishAfterCommit("user:" + userId, event);
+    }
+
+    // пустое событие-комментарий не даёт прокси закрыть простаивающее соединение и выявляет отключившихся клиентов
+    @Scheduled(fixedRate = 15_000)
+    public void heartbeat() {
+        long now = System.currentTimeMillis();
+        channels.values().forEach(subscribers -> subscribers.forEach(subscriber -> {
+            long sendingSince = subscriber.sendingSince;
+            if (sendingSince != 0 && now - sendingSince > SEND_TIMEOUT) {
+                subscriber.emitter.completeWithError(new IOException("Push event is not sent in time"));
+            } else {
+                offer(subscriber, null);
+            }
+        }));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        sender.shutdownNow();
+        channels.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    }
+
+    private SseEmitter subscribe(String channel) {
+        SseEmitter emitter = new SseEmitter(EMITTER_TIMEOUT);
+        Subscriber subscriber = new Subscriber(emitter);
+        channels.computeIfAbsent(channel, key -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        Runnable remove = () -> channels.computeIfPresent(channel, (key, subscribers) -> {
+            subscribers.remove(subscriber);
+            return (subscribers.isEmpty() ? null : subscribers);
+        });
+        Runnable close = () -> {
+            subscriber.closed = true;
+            remove.run();
+        };
+        emitter.onCompletion(close);
+        emitter.onTimeout(close);
+        emitter.onError(error -> close.run());
+        return emitter;
+    }
+
+    // событие отправляется только после коммита, чтобы клиент не получил изменение, которое будет откачено
+    private void publishAfterCommit(String channel, PushEvent event) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(channel, event);
+                }
+            });
+        } else {
+            publish(channel, event);
+        }
+    }
+
+    private void publish(String channel, PushEvent event) {
+        Set<Subscriber> subscribers = channels.get(channel);
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> offer(subscriber, event));
+        }
+    }
+
+    private void offer(Subscriber subscriber, PushEvent event) {
+        if (subscriber.offer(event)) {
+            sender.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        Subscriber.Entry entry;
+        while ((entry = subscriber.poll()) != null) {
+            if (subscriber.closed)
+                return;
+            subscriber.sendingSince = System.currentTimeMillis();
+            try {
+                subscriber.emitter.send(entry.event == null
+                        ? SseEmitter.event().comment("heartbeat")
+                        : toSse(entry.event));
+            } catch (IOException | IllegalStateException e) {
+                subscriber.emitter.completeWithError(e);
+                return;
+            } finally {
+                subscriber.sendingSince = 0;
+            }
+        }
+    }
+
+    private SseEmitter.SseEventBuilder toSse(PushEvent event) {
+        SseEmitter.SseEventBuilder builder = SseEmitter.event().name(event.getName())
+                .data(event.getData(), MediaType.APPLICATION_JSON);
+        return (event.getId() == null ? builder : builder.id(event.getId()));
+    }
+
+    private static class Subscriber {
+        private final SseEmitter emitter;
+        private final Deque<Entry> queue = new ArrayDeque<>(QUEUE_CAPACITY);
+        private boolean draining;
+        private volatile boolean closed;
+        // начало текущей отправки, 0 - отправка не выполняется
+        private volatile long sendingSince;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        // возвращает true, если очередь нужно начать отправлять
+        private synchronized boolean offer(PushEvent event) {
+            if (closed || (event == null && !queue.isEmpty()))
+                return false;
+            if (queue.size() == QUEUE_CAPACITY) {
+                queue.pollFirst();
+            }
+            queue.addLast(new Entry(event));
+            if (draining)
+                return false;
+            draining = true;
+            return true;
+        }
+
+        private synchronized Entry poll() {
+            Entry entry = queue.pollFirst();
+            if (entry == null)
+                draining = false;
+            return entry;
+        }
+
+        private static class Entry {
+            private final PushEvent event; // null для heartbeat
+
+            private Entry(PushEvent event) {
+                this.event = event;
+            }
+        }
+    }
+}
@@ -0,0 +1,384 @@
+package ru.manager.ProgectManager.components.search;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.entitys.kanban.Tag;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.enums.SearchElementType;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.KanbanRepository;
+import ru.manager.ProgectManager.repositories.projections.ElementTagView;
+import ru.manager.ProgectManager.repositories.projections.KanbanElementSearchView;
+import ru.manager.ProgectManager.repositories.projections.KanbanVersionView;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// индекс элементов доски по триграммам и тегам, сверяется с версией доски и обновляется после коммита
+@Component
+@RequiredArgsConstructor
+public class KanbanSearchIndex {
+    private static final int GRAM = 3;
+    private static final int MAX_BOARDS = 256;
+    private static final long MAX_BYTES = 64L << 20;
+    // грубая оценка накладных расходов на запись в HashMap со строкой-ключом и объект элемента
+    private static final int GRAM_BYTES = 80;
+    private static final int ENTRY_BYTES = 96;
+    private static final int TAG_BYTES = 48;
+
+    private final KanbanElementRepository elementRepository;
+    private final KanbanRepository kanbanRepository;
+
+    private final Map<Long, BoardIndex> boards = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, BoardIndex> eldest) {
+                    return size() > MAX_BOARDS;
+                }
+            });
+
+    public Set<Long> search(long kanbanId, SearchElementType type, String query, ElementStatus status) {
+        long version = findVersion(kanbanId);
+        BoardIndex board = boards.get(kanbanId);
+        if (board == null || board.version != version)
+            board = build(kanbanId);
+        synchronized (board) {
+            return board.search(type, query.toLowerCase(), status);
+        }
+    }
+
+    public void elementUpdated(KanbanElement element) {
+        long kanbanId = element.getKanbanColumn().getKanban().getId();
+        Map<Long, String> tags = new HashMap<>();
+        element.getTags().forEach(tag -> tags.put(tag.getId(), tag.getText().toLowerCase()));
+        ElementEntry entry = new ElementEntry(element.getId(), element.getStatus(), element.getName(),
+                element.getContent(), tags.keySet());
+        afterCommit(kanbanId, board -> board.put(entry, tags));
+    }
+
+    public void elementRemoved(long kanbanId, long elementId) {
+        afterCommit(kanbanId, board -> board.remove(elementId));
+    }
+
+    public void tagUpdated(Tag tag) {
+        String text = tag.getText().toLowerCase();
+        afterCommit(tag.getKanban().getId(), board -> board.putTag(tag.getId(), text));
+    }
+
+    public void tagRemoved(Tag tag) {
+        afterCommit(tag.getKanban().getId(), board -> board.removeTag(tag.getId()));
+    }
+
+    public void invalidate(long kanbanId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    boards.remove(kanbanId);
+                }
+            });
+        } else {
+            boards.remove(kanbanId);
+        }
+    }
+
+    // изменения одной транзакции копятся по доскам и применяются после коммита вместе с версией доски
+    @SuppressWarnings("unchecked")
+    private void afterCommit(long kanbanId, Consumer<BoardIndex> update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(kanbanId, List.of(update));
+            return;
+        }
+        Map<Long, List<Consumer<BoardIndex>>> pending =
+                (Map<Long, List<Consumer<BoardIndex>>>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Map<Long, List<Consumer<BoardIndex>>> created = new LinkedHashMap<>();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    created.forEach(KanbanSearchIndex.this::apply);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(KanbanSearchIndex.this);
+                }
+            });
+            pending = created;
+        }
+        pending.computeIfAbsent(kanbanId, id -> new ArrayList<>()).add(update);
+    }
+
+    // изменения применяются только к уже построенному индексу, отсутствующий будет построен из базы при поиске
+    private void apply(long kanbanId, List<Consumer<BoardIndex>> updates) {
+        BoardIndex board = boards.get(kanbanId);
+        if (board == null)
+            return;
+        long version = findVersion(kanbanId);
+        synchronized (board) {
+            updates.forEach(update -> update.accept(board));
+            board.version = version;
+        }
+        trim();
+    }
+
+    // вытеснение давно не использованных досок, пока оценка памяти кеша превышает предел
+    private void trim() {
+        synchronized (boards) {
+            long total = 0;
+            for (BoardIndex board : boards.values()) {
+                total += board.bytes;
+            }
+            Iterator<BoardIndex> eldest = boards.values().iterator();
+            while (total > MAX_BYTES && eldest.hasNext()) {
+                total -= eldest.next().bytes;
+                eldest.remove();
+            }
+        }
+    }
+
+    private BoardIndex build(long kanbanId) {
+        long version = findVersion(kanbanId);
+        BoardIndex board = new BoardIndex(version);
+        Map<Long, Map<Long, String>> elementTags = new HashMap<>();
+        for (ElementTagView view : elementRepository.findTagViewsByKanbanId(kanbanId, ElementStatus.DELETED)) {
+            elementTags.computeIfAbsent(view.getElementId(), id -> new HashMap<>())
+                    .put(view.getId(), view.getText().toLowerCase());
+        }
+        List<ElementEntry> entries = new ArrayList<>();
+        Map<Long, String> tags = new HashMap<>();
+        for (KanbanElementSearchView view : elementRepository.findSearchViewsByKanbanId(kanbanId,
+                ElementStatus.DELETED)) {
+            Map<Long, String> entryTags = elementTags.getOrDefault(view.getId(), Map.of());
+            entries.add(new ElementEntry(view.getId(), view.getStatus(), view.getName(), view.getContent(),
+                    entryTags.keySet()));
+            tags.putAll(entryTags);
+        }
+        board.load(entries, tags);
+        if (version == findVersion(kanbanId) && board.bytes <= MAX_BYTES) {
+            boards.put(kanbanId, board);
+            trim();
+        }
+        return board;
+    }
+
+    private long findVersion(long kanbanId) {
+        return kanbanRepository.findVersionById(kanbanId).map(KanbanVersionView::getVersion).orElse(-1L);
+    }
+
+    private static class ElementEntry {
+        private final long id;
+        private final ElementStatus status;
+        private final String name;
+        private final String content;
+        private final Set<Long> tagIds;
+
+        private ElementEntry(long id, ElementStatus status, String name, String content, Set<Long> tagIds) {
+            this.id = id;
+            this.status = status;
+            this.name = (name == null ? "" : name.toLowerCase());
+            this.content = (content == null ? "" : content.toLowerCase());
+            this.tagIds = new HashSet<>(tagIds);
+        }
+
+        private long bytes() {
+            return ENTRY_BYTES + 2L * (name.length() + content.length()) + 2L * Long.BYTES * tagIds.size();
+        }
+    }
+
+    private static class BoardIndex {
+        private final Map<Long, ElementEntry> elements = new HashMap<>();
+        private final Map<String, long[]> nameGrams = new HashMap<>();
+        private final Map<String, long[]> contentGrams = new HashMap<>();
+        private final Map<Long, String> tags = new HashMap<>();
+        private final Map<Long, Set<Long>> tagElements = new HashMap<>();
+        private volatile long version;
+        private volatile long bytes;
+
+        private BoardIndex(long version) {
+            this.version = version;
+        }
+
+        // первичное заполнение: списки собираются целиком и сортируются один раз
+        private void load(List<ElementEntry> entries, Map<Long, String> entryTags) {
+            Map<String, List<Long>> names = new HashMap<>();
+            Map<String, List<Long>> contents = new HashMap<>();
+            long size = 0;
+            for (ElementEntry entry : entries) {
+                elements.put(entry.id, entry);
+                size += entry.bytes();
+                grams(entry.name).forEach(gram -> names.computeIfAbsent(gram, g -> new ArrayList<>()).add(entry.id));
+                grams(entry.content)
+                        .forEach(gram -> contents.computeIfAbsent(gram, g -> new ArrayList<>()).add(entry.id));
+                entry.tagIds.forEach(tagId -> tagElements.computeIfAbsent(tagId, t -> new HashSet<>())
+                        .add(entry.id));
+            }
+            size += fill(nameGrams, names) + fill(contentGrams, contents);
+            for (String text : entryTags.values()) {
+                size += TAG_BYTES + 2L * text.length();
+            }
+            tags.putAll(entryTags);
+            bytes = size;
+        }
+
+        private void put(ElementEntry entry, Map<Long, String> entryTags) {
+            remove(entry.id);
+            elements.put(entry.id, entry);
+            long size = entry.bytes();
+            for (String gram : grams(entry.name)) {
+                size += add(nameGrams, gram, entry.id);
+            }
+            for (String gram : grams(entry.content)) {
+                size += add(contentGrams, gram, entry.id);
+            }
+            for (Map.Entry<Long, String> tag : entryTags.entrySet()) {
+                if (tags.put(tag.getKey(), tag.getValue()) == null)
+                    size += TAG_BYTES + 2L * tag.getValue().length();
+            }
+            entry.tagIds.forEach(tagId -> tagElements.computeIfAbsent(tagId, t -> new HashSet<>()).add(entry.id));
+            bytes += size;
+        }
+
+        private void remove(long id) {
+            ElementEntry entry = elements.remove(id);
+            if (entry == null)
+                return;
+            long size = entry.bytes();
+            for (String gram : grams(entry.name)) {
+                size += remove(nameGrams, gram, id);
+            }
+            for (String gram : grams(entry.content)) {
+                size += remove(contentGrams, gram, id);
+            }
+            for (long tagId : entry.tagIds) {
+                Set<Long> tagged = tagElements.get(tagId);
+                if (tagged != null)
+                    tagged.remove(id);
+            }
+            bytes -= size;
+        }
+
+        private void putTag(long id, String text) {
+            if (tags.containsKey(id))
+                tags.put(id, text);
+        }
+
+        private void removeTag(long id) {
+            tags.remove(id);
+            Set<Long> tagged = tagElements.remove(id);
+            if (tagged != null)
+                tagged.forEach(elementId -> elements.get(elementId).tagIds.remove(id));
+        }
+
+        private Set<Long> search(SearchElementType type, String query, ElementStatus status) {
+            Set<Long> result = new HashSet<>();
+            if (type != SearchElementType.TAG)
+                result.addAll(match(nameGrams, query, status, entry -> entry.name));
+            if (type == SearchElementType.ALL)
+                result.addAll(match(contentGrams, query, status, entry -> entry.content));
+            if (type != SearchElementType.NAME) {
+                tags.forEach((tagId, text) -> {
+                    if (text.contains(query)) {
+                        tagElements.getOrDefault(tagId, Set.of()).stream()
+                                .filter(id -> elements.get(id).status == status)
+                                .forEach(result::add);
+                    }
+                });
+            }
+            return result;
+        }
+
+        // кандидаты - пересечение списков триграмм запроса, начиная с самого короткого, затем точная проверка
+        private List<Long> match(Map<String, long[]> index, String query, ElementStatus status,
+                                 Function<ElementEntry, String> field) {
+            Collection<Long> candidates;
+            if (query.length() < GRAM) {
+                candidates = elements.keySet();
+            } else {
+                List<long[]> postings = new ArrayList<>();
+                for (String gram : grams(query)) {
+                    long[] posting = index.get(gram);
+                    if (posting == null)
+                        return List.of();
+                    postings.add(posting);
+                }
+                postings.sort(Comparator.comparingInt(posting -> posting.length));
+                List<Long> narrowed = new ArrayList<>();
+                for (long id : postings.get(0)) {
+                    narrowed.add(id);
+                }
+                for (int i = 1; i < postings.size() && !narrowed.isEmpty(); i++) {
+                    long[] next = postings.get(i);
+                    narrowed.removeIf(id -> Arrays.binarySearch(next, id) < 0);
+                }
+                candidates = narrowed;
+            }
+            List<Long> result = new ArrayList<>();
+            for (Long id : candidates) {
+                ElementEntry entry = elements.get(id);
+                if (entry.status == status && field.apply(entry).contains(query))
+                    result.add(id);
+            }
+            return result;
+        }
+
+        private static long fill(Map<String, long[]> index, Map<String, List<Long>> lists) {
+            long size = 0;
+            for (Map.Entry<String, List<Long>> list : lists.entrySet()) {
+                long[] posting = list.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+                index.put(list.getKey(), posting);
+                size += GRAM_BYTES + (long) Long.BYTES * posting.length;
+            }
+            return size;
+        }
+
+        // вставка id в отсортированный список триграммы, возвращает прирост оценки памяти
+        private static long add(Map<String, long[]> index, String gram, long id) {
+            long[] posting = index.get(gram);
+            if (posting == null) {
+                index.put(gram, new long[]{id});
+                return GRAM_BYTES + Long.BYTES;
+            }
+            int position = Arrays.binarySearch(posting, id);
+            if (position >= 0)
+                return 0;
+            position = -position - 1;
+            long[] grown = new long[posting.length + 1];
+            System.arraycopy(posting, 0, grown, 0, position);
+            grown[position] = id;
+            System.arraycopy(posting, position, grown, position + 1, posting.length - position);
+            index.put(gram, grown);
+            return Long.BYTES;
+        }
+
+        // удаление id из списка триграммы, возвращает освобождённую оценку памяти
+        private static long remove(Map<String, long[]> index, String gram, long id) {
+            long[] posting = index.get(gram);
+            int position = (posting == null ? -1 : Arrays.binarySearch(posting, id));
+            if (position < 0)
+                return 0;
+            if (posting.length == 1) {
+                index.remove(gram);
+                return GRAM_BYTES + Long.BYTES;
+            }
+            long[] shrunk = new long[posting.length - 1];
+            System.arraycopy(posting, 0, shrunk, 0, position);
+            System.arraycopy(posting, position + 1, shrunk, position, shrunk.length - position);
+            index.put(gram, shrunk);
+            return Long.BYTES;
+        }
+
+        private static Set<String> grams(String text) {
+            Set<String> grams = new HashSet<>();
+            for (int i = 0; i + GRAM <= text.length(); i++) {
+                grams.add(text.substring(i, i + GRAM));
+            }
+            return grams;
+        }
+    }
+}
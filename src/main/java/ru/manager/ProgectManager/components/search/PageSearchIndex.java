@@ -0,0 +1,360 @@
+package ru.manager.ProgectManager.components.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.entitys.documents.Page;
+import ru.manager.ProgectManager.repositories.PageRepository;
+import ru.manager.ProgectManager.repositories.projections.PageSearchView;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// полнотекстовый индекс страниц проекта с ранжированием BM25, обновляется после коммита
+@Component
+@RequiredArgsConstructor
+public class PageSearchIndex {
+    private static final int MAX_PROJECTS = 256;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final double NAME_BOOST = 3.0;
+    private static final int SNIPPET_LENGTH = 200;
+    private static final int SNIPPET_CONTEXT = 40;
+
+    private final PageRepository pageRepository;
+    private final ProjectAccessIndex accessIndex;
+
+    private final Map<Long, ProjectIndex> projects = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, ProjectIndex> eldest) {
+                    return size() > MAX_PROJECTS;
+                }
+            });
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    // страницы, содержащие все слова запроса и доступные пользователю, по убыванию релевантности
+    public List<Hit> search(long projectId, long userId, String query) {
+        Set<String> stems = stems(query);
+        if (stems.isEmpty())
+            return List.of();
+        ProjectIndex project = find(projectId);
+        synchronized (project) {
+            return project.search(stems).entrySet().stream()
+                    .filter(e -> isVisible(projectId, project, project.pages.get(e.getKey()), userId))
+                    .map(e -> new Hit(project.pages.get(e.getKey()), e.getValue()))
+                    .sorted(Comparator.comparing(Hit::getScore).reversed()
+                            .thenComparing(Comparator.comparing(Hit::getUpdateTime).reversed()))
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // доступные пользователю страницы, в названии которых встречается подстрока, от недавно изменённых
+    public List<Hit> findByName(long projectId, long userId, String name) {
+        String text = name.trim().toLowerCase();
+        ProjectIndex project = find(projectId);
+        synchronized (project) {
+            return project.pages.values().stream()
+                    .filter(entry -> entry.lowerName.contains(text))
+                    .filter(entry -> isVisible(projectId, project, entry, userId))
+                    .map(entry -> new Hit(entry, 0))
+                    .sorted(Comparator.comparing(Hit::getUpdateTime).reversed())
+                    .collect(Collectors.toList());
+        }
+    }
+
+    // фрагмент текста вокруг места с наибольшим числом разных слов запроса, найденные слова обрамлены <mark>
+    public String snippet(String content, String query) {
+        Set<String> stems = stems(query);
+        String text = TextAnalyzer.plainText(content);
+        List<TextAnalyzer.Token> matches = TextAnalyzer.tokens(text).stream()
+                .filter(token -> stems.contains(token.getStem()))
+                .collect(Collectors.toList());
+        int from = 0;
+        int best = 0;
+        for (int i = 0; i < matches.size(); i++) {
+            Set<String> found = new HashSet<>();
+            int windowStart = matches.get(i).getStart();
+            for (int j = i; j < matches.size() && matches.get(j).getEnd() - windowStart <= SNIPPET_LENGTH; j++) {
+                found.add(matches.get(j).getStem());
+            }
+            if (found.size() > best) {
+                best = found.size();
+                from = windowStart;
+            }
+        }
+        int start = Math.max(0, from - SNIPPET_CONTEXT);
+        while (start > 0 && start < from && !Character.isWhitespace(text.charAt(start - 1))) {
+            start++;
+        }
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        while (end < text.length() && end > from && !Character.isWhitespace(text.charAt(end))) {
+            end--;
+        }
+        StringBuilder snippet = new StringBuilder(start > 0 ? "…" : "");
+        int position = start;
+        for (TextAnalyzer.Token token : matches) {
+            if (token.getStart() < start || token.getEnd() > end)
+                continue;
+            snippet.append(escape(text.substring(position, token.getStart())))
+                    .append("<mark>").append(escape(text.substring(token.getStart(), token.getEnd())))
+                    .append("</mark>");
+            position = token.getEnd();
+        }
+        snippet.append(escape(text.substring(position, end)));
+        if (end < text.length())
+            snippet.append("…");
+        return snippet.toString().replaceAll("\\s+", " ").trim();
+    }
+
+    public void pageUpdated(Page page) {
+        long id = page.getId();
+        String name = page.getName();
+        String content = page.getContent();
+        Long rootId = (page.getRoot() == null ? null : page.getRoot().getId());
+        Long parentId = (page.getParent() == null ? null : page.getParent().getId());
+        Long ownerId = (page.getOwner() == null ? null : page.getOwner().getUserId());
+        boolean published = page.isPublished();
+        long updateTime = page.getUpdateTime();
+        // текст разбирается на слова только если индекс проекта уже построен
+        afterCommit(page.getProject().getId(), project -> project.put(new PageEntry(id, name, content, rootId,
+                parentId, ownerId, published, updateTime)));
+    }
+
+    // вместе со страницей удаляются её подстраницы
+    public void pageRemoved(Page page) {
+        long pageId = page.getId();
+        afterCommit(page.getProject().getId(), project -> project.removeTree(pageId));
+    }
+
+    public void invalidate(long projectId) {
+        runAfterCommit(() -> {
+            generation(projectId).incrementAndGet();
+            projects.remove(projectId);
+        });
+    }
+
+    // изменения применяются только к уже построенному индексу, отсутствующий будет построен из базы при поиске
+    private void afterCommit(long projectId, Consumer<ProjectIndex> update) {
+        runAfterCommit(() -> {
+            generation(projectId).incrementAndGet();
+            ProjectIndex project = projects.get(projectId);
+            if (project != null) {
+                synchronized (project) {
+                    update.accept(project);
+                }
+            }
+        });
+    }
+
+    private void runAfterCommit(Runnable apply) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    private ProjectIndex find(long projectId) {
+        ProjectIndex project = projects.get(projectId);
+        return (project == null ? build(projectId) : project);
+    }
+
+    private ProjectIndex build(long projectId) {
+        long generation = generation(projectId).get();
+        ProjectIndex project = new ProjectIndex();
+        for (PageSearchView view : pageRepository.findSearchViewsByProjectId(projectId)) {
+            project.put(new PageEntry(view.getId(), view.getName(), view.getContent(), view.getRootId(),
+                    view.getParentId(), view.getOwnerId(), view.getPublished(), view.getUpdateTime()));
+        }
+        if (generation == generation(projectId).get())
+            projects.putIfAbsent(projectId, project);
+        return project;
+    }
+
+    private AtomicLong generation(long projectId) {
+        return generations.computeIfAbsent(projectId, id -> new AtomicLong());
+    }
+
+    // те же правила, что и при просмотре страницы: доступ роли к корневой странице и опубликованность
+    // всей цепочки родителей для чужих страниц
+    private boolean isVisible(long projectId, ProjectIndex project, PageEntry entry, long userId) {
+        if (!accessIndex.canSeePage(projectId, entry.rootId == null ? entry.id : entry.rootId, userId))
+            return false;
+        if (entry.ownerId != null && entry.ownerId == userId)
+            return true;
+        for (PageEntry page = entry; page != null; page = (page.parentId == null ? null
+                : project.pages.get(page.parentId))) {
+            if (!page.published)
+                return false;
+        }
+        return true;
+    }
+
+    private static Set<String> stems(String query) {
+        return TextAnalyzer.tokens(query).stream()
+                .map(TextAnalyzer.Token::getStem)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    @Getter
+    public static class Hit {
+        private final long id;
+        private final String name;
+        private final boolean published;
+        private final long updateTime;
+        private final double score;
+
+        private Hit(PageEntry entry, double score) {
+            this.id = entry.id;
+            this.name = entry.name;
+            this.published = entry.published;
+            this.updateTime = entry.updateTime;
+            this.score = score;
+        }
+    }
+
+    private static class PageEntry {
+        private final long id;
+        private final String name;
+        private final String lowerName;
+        private final Long rootId;
+        private final Long parentId;
+        private final Long ownerId;
+        private final boolean published;
+        private final long updateTime;
+        private final Map<String, Integer> nameTerms;
+        private final Map<String, Integer> contentTerms;
+        private final int nameLength;
+        private final int contentLength;
+
+        private PageEntry(long id, String name, String content, Long rootId, Long parentId, Long ownerId,
+                          boolean published, long updateTime) {
+            this.id = id;
+            this.name = name;
+            this.lowerName = name.toLowerCase();
+            this.rootId = rootId;
+            this.parentId = parentId;
+            this.ownerId = ownerId;
+            this.published = published;
+            this.updateTime = updateTime;
+            List<TextAnalyzer.Token> nameTokens = TextAnalyzer.tokens(name);
+            List<TextAnalyzer.Token> contentTokens = TextAnalyzer.tokens(TextAnalyzer.plainText(content));
+            nameTerms = frequencies(nameTokens);
+            contentTerms = frequencies(contentTokens);
+            nameLength = nameTokens.size();
+            contentLength = contentTokens.size();
+        }
+
+        private static Map<String, Integer> frequencies(List<TextAnalyzer.Token> tokens) {
+            Map<String, Integer> result = new HashMap<>();
+            tokens.forEach(token -> result.merge(token.getStem(), 1, Integer::sum));
+            return result;
+        }
+    }
+
+    private static class ProjectIndex {
+        private final Map<Long, PageEntry> pages = new HashMap<>();
+        private final Map<String, Map<Long, Integer>> nameTerms = new HashMap<>();
+        private final Map<String, Map<Long, Integer>> contentTerms = new HashMap<>();
+        private long nameLength;
+        private long contentLength;
+
+        private void put(PageEntry entry) {
+            remove(entry.id);
+            pages.put(entry.id, entry);
+            entry.nameTerms.forEach((stem, count) -> nameTerms.computeIfAbsent(stem, s -> new HashMap<>())
+                    .put(entry.id, count));
+            entry.contentTerms.forEach((stem, count) -> contentTerms.computeIfAbsent(stem, s -> new HashMap<>())
+                    .put(entry.id, count));
+            nameLength += entry.nameLength;
+            contentLength += entry.contentLength;
+        }
+
+        private void remove(long id) {
+            PageEntry entry = pages.remove(id);
+            if (entry == null)
+                return;
+            removeTerms(nameTerms, entry.nameTerms.keySet(), id);
+            removeTerms(contentTerms, entry.contentTerms.keySet(), id);
+            nameLength -= entry.nameLength;
+            contentLength -= entry.contentLength;
+        }
+
+        private void removeTree(long id) {
+            List<Long> removed = new ArrayList<>(List.of(id));
+            for (int i = 0; i < removed.size(); i++) {
+                long parentId = removed.get(i);
+                pages.values().stream()
+                        .filter(page -> page.parentId != null && page.parentId == parentId)
+                        .forEach(page -> removed.add(page.id));
+            }
+            removed.forEach(this::remove);
+        }
+
+        // кандидаты - пересечение страниц, содержащих каждую основу запроса в названии или тексте
+        private Map<Long, Double> search(Set<String> stems) {
+            Map<String, Set<Long>> postings = new HashMap<>();
+            for (String stem : stems) {
+                Set<Long> posting = new HashSet<>(nameTerms.getOrDefault(stem, Map.of()).keySet());
+                posting.addAll(contentTerms.getOrDefault(stem, Map.of()).keySet());
+                if (posting.isEmpty())
+                    return Map.of();
+                postings.put(stem, posting);
+            }
+            List<Set<Long>> bySize = new ArrayList<>(postings.values());
+            bySize.sort(Comparator.comparingInt(Set::size));
+            Set<Long> candidates = new HashSet<>(bySize.get(0));
+            for (int i = 1; i < bySize.size() && !candidates.isEmpty(); i++) {
+                candidates.retainAll(bySize.get(i));
+            }
+            int count = pages.size();
+            double averageName = Math.max(1.0, (double) nameLength / count);
+            double averageContent = Math.max(1.0, (double) contentLength / count);
+            Map<Long, Double> scores = new HashMap<>();
+            for (String stem : stems) {
+                Map<Long, Integer> inName = nameTerms.getOrDefault(stem, Map.of());
+                Map<Long, Integer> inContent = contentTerms.getOrDefault(stem, Map.of());
+                int frequency = postings.get(stem).size();
+                double idf = Math.log(1 + (count - frequency + 0.5) / (frequency + 0.5));
+                for (long id : candidates) {
+                    PageEntry entry = pages.get(id);
+                    double score = idf * (NAME_BOOST * weight(inName.getOrDefault(id, 0), entry.nameLength,
+                            averageName) + weight(inContent.getOrDefault(id, 0), entry.contentLength, averageContent));
+                    scores.merge(id, score, Double::sum);
+                }
+            }
+            return scores;
+        }
+
+        private static double weight(int frequency, int length, double averageLength) {
+            return frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * length / averageLength));
+        }
+
+        private static void removeTerms(Map<String, Map<Long, Integer>> index, Set<String> stems, long id) {
+            for (String stem : stems) {
+                Map<Long, Integer> posting = index.get(stem);
+                if (posting != null) {
+                    posting.remove(id);
+                    if (posting.isEmpty())
+                        index.remove(stem);
+                }
+            }
+        }
+    }
+}
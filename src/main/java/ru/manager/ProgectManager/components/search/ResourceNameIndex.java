@@ -0,0 +1,191 @@
+package ru.manager.ProgectManager.components.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.manager.ProgectManager.enums.ResourceType;
+import ru.manager.ProgectManager.repositories.KanbanRepository;
+import ru.manager.ProgectManager.repositories.PageRepository;
+import ru.manager.ProgectManager.repositories.ProjectRepository;
+import ru.manager.ProgectManager.repositories.projections.PageNameView;
+import ru.manager.ProgectManager.repositories.projections.ProjectSummaryView;
+import ru.manager.ProgectManager.repositories.projections.ResourceNameView;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// названия ресурсов проектов с индексом n-грамм, проект сбрасывается после коммита изменений
+@Component
+@RequiredArgsConstructor
+public class ResourceNameIndex {
+    private static final int MAX_PROJECTS = 4096;
+    private static final int GRAM = 3;
+
+    private final ProjectRepository projectRepository;
+    private final KanbanRepository kanbanRepository;
+    private final PageRepository pageRepository;
+
+    private final Map<Long, ProjectNames> projects = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, ProjectNames> eldest) {
+                    return size() > MAX_PROJECTS;
+                }
+            });
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    // ресурсы проектов, в названии которых встречается строка; lowerQuery - строка в нижнем регистре
+    public List<ResourceName> find(Collection<Long> projectIds, String lowerQuery) {
+        List<ResourceName> result = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        for (long projectId : projectIds) {
+            ProjectNames names = projects.get(projectId);
+            if (names == null) {
+                missing.add(projectId);
+            } else {
+                result.addAll(names.find(lowerQuery));
+            }
+        }
+        if (!missing.isEmpty())
+            build(missing).values().forEach(names -> result.addAll(names.find(lowerQuery)));
+        return result;
+    }
+
+    public void invalidate(long projectId) {
+        Runnable apply = () -> {
+            generations.computeIfAbsent(projectId, id -> new AtomicLong()).incrementAndGet();
+            projects.remove(projectId);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+            });
+        } else {
+            apply.run();
+        }
+    }
+
+    // проект, изменившийся во время загрузки, используется только для текущего запроса и не кешируется
+    private Map<Long, ProjectNames> build(List<Long> projectIds) {
+        Map<Long, Long> started = new HashMap<>();
+        projectIds.forEach(id -> started.put(id, generation(id)));
+        Map<Long, List<ResourceName>> result = new HashMap<>();
+        Map<Long, String> projectNames = new HashMap<>();
+        for (ProjectSummaryView view : projectRepository.findSummaryViewsByIdIn(projectIds)) {
+            projectNames.put(view.getId(), view.getName());
+            result.put(view.getId(), new ArrayList<>(List.of(new ResourceName(view.getId(), ResourceType.PROJECT,
+                    view.getName(), view.getId(), view.getName(), view.getDescription(), null))));
+        }
+        for (ResourceNameView view : kanbanRepository.findNameViewsByProjectIdIn(projectIds)) {
+            result.get(view.getProjectId()).add(new ResourceName(view.getId(), ResourceType.KANBAN, view.getName(),
+                    view.getProjectId(), projectNames.get(view.getProjectId()), null, null));
+        }
+        for (PageNameView view : pageRepository.findNameViewsByProjectIdIn(projectIds)) {
+            result.get(view.getProjectId()).add(new ResourceName(view.getId(), ResourceType.DOCUMENT, view.getName(),
+                    view.getProjectId(), projectNames.get(view.getProjectId()), null, view.getRootId()));
+        }
+        Map<Long, ProjectNames> built = new HashMap<>();
+        result.forEach((projectId, names) -> {
+            ProjectNames index = new ProjectNames(names);
+            built.put(projectId, index);
+            if (started.get(projectId) == generation(projectId))
+                projects.putIfAbsent(projectId, index);
+        });
+        return built;
+    }
+
+    private long generation(long projectId) {
+        AtomicLong generation = generations.get(projectId);
+        return (generation == null ? 0 : generation.get());
+    }
+
+    private static class ProjectNames {
+        private final List<ResourceName> names;
+        // n-грамма -> возрастающие номера названий, в которых она встречается
+        private final Map<String, int[]> grams = new HashMap<>();
+
+        private ProjectNames(List<ResourceName> names) {
+            this.names = List.copyOf(names);
+            Map<String, List<Integer>> positions = new HashMap<>();
+            for (int i = 0; i < this.names.size(); i++) {
+                String name = this.names.get(i).getLowerName();
+                for (int length = 1; length <= GRAM; length++) {
+                    for (int start = 0; start + length <= name.length(); start++) {
+                        List<Integer> list = positions.computeIfAbsent(name.substring(start, start + length),
+                                gram -> new ArrayList<>());
+                        if (list.isEmpty() || list.get(list.size() - 1) != i)
+                            list.add(i);
+                    }
+                }
+            }
+            positions.forEach((gram, list) -> grams.put(gram, list.stream().mapToInt(Integer::intValue).toArray()));
+        }
+
+        // короткий запрос - готовый список из индекса, длинный - пересечение списков его n-грамм с проверкой
+        private List<ResourceName> find(String query) {
+            if (query.isEmpty())
+                return names;
+            int[] candidates = null;
+            for (int start = 0; start + GRAM <= Math.max(query.length(), GRAM); start++) {
+                int[] positions = grams.get(query.substring(start, Math.min(start + GRAM, query.length())));
+                if (positions == null)
+                    return List.of();
+                candidates = (candidates == null ? positions : intersect(candidates, positions));
+            }
+            List<ResourceName> result = new ArrayList<>(candidates.length);
+            for (int i : candidates) {
+                ResourceName name = names.get(i);
+                if (query.length() <= GRAM || name.getLowerName().contains(query))
+                    result.add(name);
+            }
+            return result;
+        }
+
+        private static int[] intersect(int[] first, int[] second) {
+            int[] result = new int[Math.min(first.length, second.length)];
+            int size = 0;
+            for (int i = 0, j = 0; i < first.length && j < second.length; ) {
+                if (first[i] < second[j]) {
+                    i++;
+                } else if (first[i] > second[j]) {
+                    j++;
+                } else {
+                    result[size++] = first[i];
+                    i++;
+                    j++;
+                }
+            }
+            return Arrays.copyOf(result, size);
+        }
+    }
+
+    @Getter
+    public static class ResourceName {
+        private final long id;
+        private final ResourceType type;
+        private final String name;
+        private final String lowerName;
+        private final long projectId;
+        private final String projectName;
+        private final String description;
+        private final Long rootId;
+
+        private ResourceName(long id, ResourceType type, String name, long projectId, String projectName,
+                             String description, Long rootId) {
+            this.id = id;
+            this.type = type;
+            this.name = name;
+            this.lowerName = (name == null ? "" : name.toLowerCase());
+            this.projectId = projectId;
+            this.projectName = projectName;
+            this.description = description;
+            this.rootId = rootId;
+        }
+    }
+}
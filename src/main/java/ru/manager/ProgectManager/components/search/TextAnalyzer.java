@@ -0,0 +1,141 @@
+package ru.manager.ProgectManager.components.search;
+
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// разбиение текста на слова и упрощённый стемминг русских и английских слов
+public final class TextAnalyzer {
+    private static final Pattern TAG = Pattern.compile("<[^>]*>");
+    private static final Pattern ENTITY = Pattern.compile("&(#[0-9]{1,7}|#[xX][0-9a-fA-F]{1,6}|[a-zA-Z]+);");
+    private static final Map<String, String> NAMED_ENTITIES = Map.of("amp", "&", "lt", "<", "gt", ">",
+            "quot", "\"", "apos", "'", "nbsp", " ");
+    private static final Set<String> STOP_WORDS = Set.of("и", "в", "во", "на", "не", "что", "с", "со", "по", "к",
+            "ко", "а", "но", "за", "из", "от", "до", "о", "об", "для", "же", "ли", "бы", "то", "как", "это",
+            "the", "a", "an", "and", "or", "of", "to", "in", "on", "is", "are", "be", "for", "it", "at", "by");
+
+    // отрезается первое подходящее окончание, поэтому длинные окончания стоят раньше своих концов
+    private static final String[] RU_REFLEXIVE = {"ся", "сь"};
+    private static final String[] RU_ENDINGS = {"ивши", "ывши", "ующая", "ующее", "ующий", "ующие", "ующих",
+            "иями", "ями", "ами", "ейте", "уйте", "ешь", "ишь", "ете", "ите", "ила", "ыла", "ена", "ейший",
+            "ого", "его", "ому", "ему", "ими", "ыми", "ией", "иям", "иях", "ием", "ать", "ять", "ить", "ыть",
+            "ала", "яла", "ало", "яло", "али", "яли", "ует", "уют", "ают", "яют", "ит", "ят", "ат",
+            "ее", "ие", "ые", "ое", "ей", "ий", "ый", "ой", "ем", "им", "ым", "ом", "их", "ых", "ую", "юю", "ая",
+            "яя", "ою", "ею", "ев", "ов", "ье", "еи", "ии", "ам", "ям", "ах", "ях", "ию", "ью", "ия", "ья", "ла",
+            "ли", "ло", "на", "ны", "но", "ть", "ет", "ут", "ют", "ил", "ыл", "ен",
+            "а", "е", "и", "й", "о", "у", "ы", "ь", "ю", "я"};
+    private static final String[] RU_DERIVATIONAL = {"ость", "ост"};
+    private static final String[] EN_SUFFIXES = {"ational", "ization", "fulness", "iveness", "ations", "ation",
+            "ments", "ment", "ness", "ings", "ing", "edly", "ed", "ly", "es", "s"};
+
+    private TextAnalyzer() {
+    }
+
+    public static List<Token> tokens(String text) {
+        List<Token> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < text.length()) {
+            if (!Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < text.length() && Character.isLetterOrDigit(text.charAt(i))) {
+                i++;
+            }
+            String word = text.substring(start, i).toLowerCase().replace('ё', 'е');
+            if (word.length() > 1 && !STOP_WORDS.contains(word))
+                tokens.add(new Token(stem(word), start, i));
+        }
+        return tokens;
+    }
+
+    // текст документа без html-разметки и с раскрытыми сущностями, по нему считаются позиции слов для фрагментов
+    public static String plainText(String content) {
+        if (content == null)
+            return "";
+        return ENTITY.matcher(TAG.matcher(content).replaceAll(" "))
+                .replaceAll(entity -> Matcher.quoteReplacement(decode(entity.group(1), entity.group())));
+    }
+
+    // неизвестные и некорректные сущности остаются в тексте как есть
+    private static String decode(String name, String entity) {
+        if (name.charAt(0) != '#')
+            return NAMED_ENTITIES.getOrDefault(name, entity);
+        boolean hex = (name.length() > 1 && (name.charAt(1) == 'x' || name.charAt(1) == 'X'));
+        int code = Integer.parseInt(name.substring(hex ? 2 : 1), hex ? 16 : 10);
+        return (Character.isValidCodePoint(code) ? new String(Character.toChars(code)) : entity);
+    }
+
+    public static String stem(String word) {
+        char first = word.charAt(0);
+        if (first >= 'а' && first <= 'я')
+            return stemRussian(word);
+        if (first >= 'a' && first <= 'z')
+            return stemEnglish(word);
+        return word;
+    }
+
+    private static String stemRussian(String word) {
+        int rv = 0;
+        while (rv < word.length() && "аеиоуыэюя".indexOf(word.charAt(rv)) < 0) {
+            rv++;
+        }
+        rv++;
+        if (rv >= word.length())
+            return word;
+        String stem = cut(word, rv, RU_REFLEXIVE);
+        stem = cut(stem, rv, RU_ENDINGS);
+        stem = cut(stem, rv, RU_DERIVATIONAL);
+        if (stem.endsWith("нн") && stem.length() - 1 > rv)
+            stem = stem.substring(0, stem.length() - 1);
+        return stem;
+    }
+
+    private static String stemEnglish(String word) {
+        if (word.length() <= 3)
+            return word;
+        if (word.endsWith("ies") && word.length() > 4)
+            return word.substring(0, word.length() - 3) + "y";
+        if (word.endsWith("ss") || word.endsWith("us") || word.endsWith("is"))
+            return word;
+        for (String suffix : EN_SUFFIXES) {
+            if (word.endsWith(suffix) && word.length() - suffix.length() >= 3) {
+                String stem = word.substring(0, word.length() - suffix.length());
+                // running -> run, planned -> plan
+                int last = stem.length() - 1;
+                if ((suffix.startsWith("ing") || suffix.startsWith("ed")) && stem.charAt(last) == stem.charAt(last - 1)
+                        && "lsz".indexOf(stem.charAt(last)) < 0)
+                    stem = stem.substring(0, last);
+                return stem;
+            }
+        }
+        return word;
+    }
+
+    private static String cut(String word, int region, String[] endings) {
+        for (String ending : endings) {
+            if (word.endsWith(ending) && word.length() - ending.length() >= region)
+                return word.substring(0, word.length() - ending.length());
+        }
+        return word;
+    }
+
+    @Getter
+    public static class Token {
+        private final String stem;
+        private final int start;
+        private final int end;
+
+        private Token(String stem, int start, int end) {
+            this.stem = stem;
+            this.start = start;
+            this.end = end;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package ru.manager.ProgectManager.configs;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import ru.manager.ProgectManager.components.BackfillRunner;
+import ru.manager.ProgectManager.services.AgendaService;
+
+// заполнение календарей пользователей после первого развёртывания таблицы календаря
+@Configuration
+public class AgendaBackfill {
+    private AgendaService agendaService;
+    private BackfillRunner backfillRunner;
+
+    @Value("${calendar.agenda.rebuild:false}")
+    private boolean force;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        backfillRunner.runOnce("agenda", force, this::rebuild);
+    }
+
+    private void rebuild() {
+        agendaService.rebuildAll();
+        agendaService.processPending();
+    }
+
+    @Autowired
+    private void setAgendaService(AgendaService agendaService) {
+        this.agendaService = agendaService;
+    }
+
+    @Autowired
+    private void setBackfillRunner(BackfillRunner backfillRunner) {
+        this.backfillRunner = backfillRunner;
+    }
+}
@@ -0,0 +1,47 @@
+package ru.manager.ProgectManager.configs;
+
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import ru.manager.ProgectManager.components.BackfillRunner;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+
+// разовое заполнение счётчиков комментариев, вложений и чекбоксов у элементов
+@Configuration
+@Log
+public class KanbanCounterBackfill {
+    private static final long CHUNK_SIZE = 1_000;
+
+    private KanbanElementRepository elementRepository;
+    private BackfillRunner backfillRunner;
+
+    @Value("${kanban.counters.backfill:false}")
+    private boolean force;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        backfillRunner.runOnce("kanban-counters", force, this::recount);
+    }
+
+    private void recount() {
+        long maxId = elementRepository.findMaxId();
+        long updated = 0;
+        for (long from = 0; from <= maxId; from += CHUNK_SIZE) {
+            updated += elementRepository.recountCounters(from, from + CHUNK_SIZE);
+        }
+        log.info("Kanban element counters recalculated: " + updated);
+    }
+
+    @Autowired
+    private void setElementRepository(KanbanElementRepository elementRepository) {
+        this.elementRepository = elementRepository;
+    }
+
+    @Autowired
+    private void setBackfillRunner(BackfillRunner backfillRunner) {
+        this.backfillRunner = backfillRunner;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.manager.ProgectManager.configs;
+
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import ru.manager.ProgectManager.components.BackfillRunner;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+
+// ключи порядка, добавленные через ddl-auto, строятся из прежнего порядкового номера так же, как в миграции V8
+@Configuration
+@Log
+public class OrderKeyBackfill {
+    private static final long CHUNK_SIZE = 1_000;
+
+    private KanbanElementRepository elementRepository;
+    private KanbanColumnRepository columnRepository;
+    private BackfillRunner backfillRunner;
+
+    @Value("${kanban.order-keys.backfill:false}")
+    private boolean force;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        backfillRunner.runOnce("order-keys", force, this::fill);
+    }
+
+    private void fill() {
+        long columns = 0;
+        // в новой базе пустых ключей нет, как и столбца serial_number
+        if (columnRepository.countWithoutOrderKey() > 0) {
+            long maxId = columnRepository.findMaxId();
+            for (long from = 0; from <= maxId; from += CHUNK_SIZE) {
+                columns += columnRepository.fillOrderKeys(from, from + CHUNK_SIZE);
+            }
+        }
+        long elements = 0;
+        if (elementRepository.countWithoutOrderKey() > 0) {
+            long maxId = elementRepository.findMaxId();
+            for (long from = 0; from <= maxId; from += CHUNK_SIZE) {
+                elements += elementRepository.fillOrderKeys(from, from + CHUNK_SIZE);
+            }
+        }
+        log.info("Order keys filled from serial numbers: " + columns + " columns, " + elements + " elements");
+    }
+
+    @Autowired
+    private void setElementRepository(KanbanElementRepository elementRepository) {
+        this.elementRepository = elementRepository;
+    }
+
+    @Autowired
+    private void setColumnRepository(KanbanColumnRepository columnRepository) {
+        this.columnRepository = columnRepository;
+    }
+
+    @Autowired
+    private void setBackfillRunner(BackfillRunner backfillRunner) {
+        this.backfillRunner = backfillRunner;
+    }
+}
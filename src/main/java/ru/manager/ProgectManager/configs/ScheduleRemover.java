@@ -5,81 +5,72 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.scheduling.annotation.Scheduled;
-import ru.manager.ProgectManager.entitys.ScheduledMailInfo;
-import ru.manager.ProgectManager.entitys.kanban.TimeRemover;
-import ru.manager.ProgectManager.repositories.ScheduledMailInfoRepository;
-import ru.manager.ProgectManager.repositories.TimeRemoverRepository;
-import ru.manager.ProgectManager.services.MailService;
-import ru.manager.ProgectManager.services.kanban.ArchiveAndTrashService;
-import ru.manager.ProgectManager.services.kanban.KanbanElementService;
+import ru.manager.ProgectManager.components.JobLeaseCoordinator;
+import ru.manager.ProgectManager.repositories.projections.RemoverExpiryView;
+import ru.manager.ProgectManager.services.kanban.TimeRemoverService;
+import ru.manager.ProgectManager.services.kanban.TimeRemoverService.ExpiryResult;
 
 import java.io.BufferedReader;
 import java.io.FileReader;
 import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.OperatingSystemMXBean;
-import java.time.LocalDate;
+import java.time.Duration;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
 
 @Configuration
 @EnableScheduling
 @Log
 public class ScheduleRemover {
-    private TimeRemoverRepository timeRemoverRepository;
-    private ArchiveAndTrashService trashService;
-    private KanbanElementService elementService;
-    private ScheduledMailInfoRepository scheduledMailInfoRepository;
-    private MailService mailService;
+    private static final int REMOVER_CHUNK_SIZE = 500;
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(10);
+    private static final Duration DAILY_LOCK_AT_LEAST = Duration.ofHours(20);
 
+    private JobLeaseCoordinator leaseCoordinator;
+    private TimeRemoverService removerService;
+
+    // удалители срабатывают по колесу таймеров в TimeRemoverScheduler, суточная проверка подбирает пропущенные им
     @Scheduled(fixedDelay = 86_400_000)
     public void remover() {
-        List<Long> removersIndex = StreamSupport
-                .stream(timeRemoverRepository.findAll().spliterator(), true)
-                .filter(r -> LocalDate.ofEpochDay(r.getTimeToDelete()).isBefore(LocalDate.now()))
-                .filter(TimeRemover::isHard)
-                .map(TimeRemover::getRemoverId)
-                .collect(Collectors.toList());
-        for (long now : removersIndex) {
-            timeRemoverRepository.deleteById(now);
-            try {
-                trashService.finalDeleteElementFromTrash(now);
-            } catch (Exception ignored) {
-            }
-        }
+        leaseCoordinator.runExclusive("time-remover-hard", LOCK_AT_MOST, DAILY_LOCK_AT_LEAST,
+                () -> processExpired(true, "Elements deleted from trash", removerService::deleteFromTrash));
     }
 
     @Scheduled(fixedDelay = 85_000_000)
     public void utilization() {
-        List<Long> utilizeIndex = StreamSupport
-                .stream(timeRemoverRepository.findAll().spliterator(), true)
-                .filter(r -> LocalDate.ofEpochDay(r.getTimeToDelete()).isBefore(LocalDate.now()))
-                .filter(r -> !r.isHard())
-                .map(TimeRemover::getRemoverId)
-                .collect(Collectors.toList());
-
-        for (long now : utilizeIndex) {
-            try {
-                elementService.utiliseElementFromSystem(now);
-            } catch (Exception ignored) {
-            }
-        }
+        leaseCoordinator.runExclusive("time-remover-soft", LOCK_AT_MOST, DAILY_LOCK_AT_LEAST,
+                () -> processExpired(false, "Elements utilised", removerService::utilise));
     }
 
-    @Scheduled(fixedDelay = 3_600_000)
-    public void scheduledMailSandler() {
-        for(ScheduledMailInfo scheduledMailInfo: scheduledMailInfoRepository.findAll()) {
-            mailService.send(scheduledMailInfo);
-            if(scheduledMailInfo.isResend()) {
-                scheduledMailInfoRepository.delete(scheduledMailInfo);
-            } else {
-                scheduledMailInfo.setResend(true);
-                scheduledMailInfoRepository.save(scheduledMailInfo);
+    // порция с ошибкой откатывается целиком и пропускается, следующая начинается после её последнего удалителя
+    private void processExpired(boolean hard, String name, Function<List<Long>, ExpiryResult> action) {
+        long afterDay = Long.MIN_VALUE;
+        long afterId = 0;
+        int processed = 0;
+        int skipped = 0;
+        int failed = 0;
+        List<RemoverExpiryView> page;
+        while (!(page = removerService.findExpired(hard, afterDay, afterId, REMOVER_CHUNK_SIZE)).isEmpty()) {
+            afterDay = page.get(page.size() - 1).getTimeToDelete();
+            afterId = page.get(page.size() - 1).getRemoverId();
+            List<Long> ids = page.stream().map(RemoverExpiryView::getRemoverId).collect(Collectors.toList());
+            try {
+                ExpiryResult result = action.apply(ids);
+                processed += result.getProcessed();
+                skipped += result.getSkipped().size();
+                if (!result.getSkipped().isEmpty())
+                    log.warning(name + ", skipped elements: " + result.getSkipped());
+            } catch (Exception e) {
+                failed += ids.size();
+                log.warning(name + ", chunk " + ids.get(0) + ".." + afterId + " failed: " + e.getMessage());
             }
         }
+        log.info(name + ": " + processed + ", skipped: " + skipped + ", failed: " + failed);
     }
 
+    // свободная память проверяется на каждом узле, поэтому задача выполняется без аренды
     @Scheduled(fixedDelay = 3_000)
     public void checkFreeMemory() {
         long free = 0;
@@ -107,27 +98,12 @@ public class ScheduleRemover {
     }
 
     @Autowired
-    public void setTimeRemoverRepository(TimeRemoverRepository timeRemoverRepository) {
-        this.timeRemoverRepository = timeRemoverRepository;
-    }
-
-    @Autowired
-    public void setTrashService(ArchiveAndTrashService archiveAndTrashService) {
-        trashService = archiveAndTrashService;
-    }
-
-    @Autowired
-    public void setElementService(KanbanElementService elementService) {
-        this.elementService = elementService;
-    }
-
-    @Autowired
-    public void setScheduledMailInfoRepository(ScheduledMailInfoRepository scheduledMailInfoRepository) {
-        this.scheduledMailInfoRepository = scheduledMailInfoRepository;
+    public void setLeaseCoordinator(JobLeaseCoordinator leaseCoordinator) {
+        this.leaseCoordinator = leaseCoordinator;
     }
 
     @Autowired
-    public void setMailService(MailService mailService) {
-        this.mailService = mailService;
+    public void setRemoverService(TimeRemoverService removerService) {
+        this.removerService = removerService;
     }
 }
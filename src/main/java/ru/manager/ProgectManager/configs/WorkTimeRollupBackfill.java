@@ -0,0 +1,54 @@
+package ru.manager.ProgectManager.configs;
+
+import lombok.extern.java.Log;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import ru.manager.ProgectManager.components.BackfillRunner;
+import ru.manager.ProgectManager.repositories.WorkTrackRepository;
+import ru.manager.ProgectManager.services.user.WorkTimeRollupService;
+
+// разовое заполнение сумм времени работы по уже существующим отметкам, порциями пользователей
+@Configuration
+@Log
+public class WorkTimeRollupBackfill {
+    private static final long CHUNK_SIZE = 1_000;
+
+    private WorkTrackRepository workTrackRepository;
+    private WorkTimeRollupService rollupService;
+    private BackfillRunner backfillRunner;
+
+    @Value("${work-track.rollups.backfill:false}")
+    private boolean force;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        backfillRunner.runOnce("work-time-rollups", force, this::rebuild);
+    }
+
+    private void rebuild() {
+        long maxId = workTrackRepository.findMaxOwnerId();
+        long rows = 0;
+        for (long from = 0; from <= maxId; from += CHUNK_SIZE) {
+            rows += rollupService.rebuild(from, from + CHUNK_SIZE);
+        }
+        log.info("Work time rollups rebuilt: " + rows);
+    }
+
+    @Autowired
+    private void setWorkTrackRepository(WorkTrackRepository workTrackRepository) {
+        this.workTrackRepository = workTrackRepository;
+    }
+
+    @Autowired
+    private void setRollupService(WorkTimeRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @Autowired
+    private void setBackfillRunner(BackfillRunner backfillRunner) {
+        this.backfillRunner = backfillRunner;
+    }
+}
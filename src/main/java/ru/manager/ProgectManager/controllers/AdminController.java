@@ -17,6 +17,7 @@ import ru.manager.ProgectManager.DTO.response.ErrorResponse;
 import ru.manager.ProgectManager.DTO.response.user.UserDataForAdminList;
 import ru.manager.ProgectManager.enums.Errors;
 import ru.manager.ProgectManager.services.AdminService;
+import ru.manager.ProgectManager.services.AgendaService;
 import ru.manager.ProgectManager.services.user.UserService;
 
 import javax.validation.Valid;
@@ -30,6 +31,7 @@ import java.util.NoSuchElementException;
 public class AdminController {
     private final AdminService adminService;
     private final UserService userService;
+    private final AgendaService agendaService;
 
     @Operation(summary = "Блокирование пользователя")
     @ApiResponses(value = {
@@ -89,4 +91,13 @@ public class AdminController {
     public UserDataForAdminList allUser(Principal principal) {
         return adminService.findAllUser(userService.findZoneIdForThisUser(principal.getName()));
     }
+
+    @Operation(summary = "Пересчёт календарей всех пользователей",
+            description = "Пересчёт выполняется в фоне, календари обновляются по мере обработки проектов")
+    @ApiResponse(responseCode = "202", description = "Пересчёт поставлен в очередь")
+    @PostMapping("/agenda/rebuild")
+    public ResponseEntity<?> rebuildAgenda() {
+        agendaService.rebuildAll();
+        return new ResponseEntity<>(HttpStatus.ACCEPTED);
+    }
 }
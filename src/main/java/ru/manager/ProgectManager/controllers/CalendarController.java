@@ -9,14 +9,13 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.bind.annotation.*;
 import ru.manager.ProgectManager.DTO.response.ErrorResponse;
+import ru.manager.ProgectManager.DTO.response.calendar.CalendarFeedTokenResponse;
 import ru.manager.ProgectManager.DTO.response.calendar.CalendarResponseList;
 import ru.manager.ProgectManager.DTO.response.calendar.ShortKanbanElementInfoList;
 import ru.manager.ProgectManager.enums.Errors;
+import ru.manager.ProgectManager.services.CalendarFeedService;
 import ru.manager.ProgectManager.services.CalendarService;
 
 import java.security.Principal;
@@ -30,6 +29,7 @@ import java.util.Optional;
 @Tag(name = "Работа с календарём")
 public class CalendarController {
     private final CalendarService calendarService;
+    private final CalendarFeedService feedService;
 
     @Operation(summary = "Получение карточек канбана из указанного проекта, принадлежащих к указанному месяцу")
     @ApiResponses(value = {
@@ -106,4 +106,22 @@ public class CalendarController {
             return new ResponseEntity<>(new ErrorResponse(Errors.WRONG_DATE_FORMAT), HttpStatus.BAD_REQUEST);
         }
     }
+
+    @Operation(summary = "Выпуск токена подписки на календарь", description = "Прежний токен пользователя отзывается")
+    @ApiResponse(responseCode = "200", description = "Новый токен подписки", content = {
+            @Content(mediaType = "application/json",
+                    schema = @Schema(implementation = CalendarFeedTokenResponse.class))
+    })
+    @PostMapping("/feed")
+    public CalendarFeedTokenResponse createFeedToken(Principal principal) {
+        return new CalendarFeedTokenResponse(feedService.createToken(principal.getName()));
+    }
+
+    @Operation(summary = "Отзыв токена подписки на календарь")
+    @ApiResponse(responseCode = "200", description = "Токен отозван, подписки по нему больше не обновляются")
+    @DeleteMapping("/feed")
+    public ResponseEntity<?> revokeFeedToken(Principal principal) {
+        feedService.revokeToken(principal.getName());
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
 }
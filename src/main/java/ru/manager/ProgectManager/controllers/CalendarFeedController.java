@@ -0,0 +1,97 @@
+package ru.manager.ProgectManager.controllers;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.manager.ProgectManager.services.CalendarFeedService;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/calendar/feed")
+@Tag(name = "Подписка на календарь в формате iCalendar")
+// ответы с ошибками идут без тела: календарные клиенты его не показывают, а потоковая запись требует
+// тип ResponseEntity<StreamingResponseBody>
+public class CalendarFeedController {
+    private static final MediaType TEXT_CALENDAR = new MediaType("text", "calendar", StandardCharsets.UTF_8);
+    private static final CacheControl CACHE_CONTROL = CacheControl.maxAge(Duration.ofMinutes(5)).cachePrivate();
+
+    private final CalendarFeedService feedService;
+
+    @Operation(summary = "Карточки с выбранной датой из всех доступных пользователю канбанов",
+            description = "Поддерживается условный запрос с заголовком If-None-Match")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Календарь в формате iCalendar"),
+            @ApiResponse(responseCode = "304", description = "Календарь не изменился"),
+            @ApiResponse(responseCode = "401", description = "Токен подписки недействителен или отозван")
+    })
+    @GetMapping("/{token}")
+    public ResponseEntity<StreamingResponseBody> userFeed(
+            @PathVariable @Parameter(description = "Токен подписки") String token, WebRequest request) {
+        Optional<Long> userId = feedService.findUserId(token);
+        if (userId.isPresent()) {
+            return toResponse(feedService.findUserFeed(userId.get()), request);
+        } else {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    @Operation(summary = "Карточки с выбранной датой из указанного канбана",
+            description = "Поддерживается условный запрос с заголовком If-None-Match")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Календарь в формате iCalendar"),
+            @ApiResponse(responseCode = "304", description = "Календарь не изменился"),
+            @ApiResponse(responseCode = "401", description = "Токен подписки недействителен или отозван"),
+            @ApiResponse(responseCode = "403", description = "Пользователь не имеет доступа к указанному канбану"),
+            @ApiResponse(responseCode = "404", description = "Указанного канбана не существует")
+    })
+    @GetMapping("/{token}/kanban/{id}")
+    public ResponseEntity<StreamingResponseBody> kanbanFeed(
+            @PathVariable @Parameter(description = "Токен подписки") String token,
+            @PathVariable @Parameter(description = "Идентификатор канбана") long id, WebRequest request) {
+        Optional<Long> userId = feedService.findUserId(token);
+        if (userId.isPresent()) {
+            try {
+                Optional<CalendarFeedService.Feed> feed = feedService.findKanbanFeed(userId.get(), id);
+                if (feed.isPresent()) {
+                    return toResponse(feed.get(), request);
+                } else {
+                    return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+                }
+            } catch (NoSuchElementException e) {
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+        } else {
+            return new ResponseEntity<>(HttpStatus.UNAUTHORIZED);
+        }
+    }
+
+    // при совпадении версии ответ 304 формирует сам WebRequest, элементы при этом не читаются
+    private ResponseEntity<StreamingResponseBody> toResponse(CalendarFeedService.Feed feed, WebRequest request) {
+        String etag = "\"" + feed.getEtag() + "\"";
+        if (request.checkNotModified(etag))
+            return null;
+        return ResponseEntity.ok()
+                .contentType(TEXT_CALENDAR)
+                .cacheControl(CACHE_CONTROL)
+                .eTag(etag)
+                .body(feed::writeTo);
+    }
+}
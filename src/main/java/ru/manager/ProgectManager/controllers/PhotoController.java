@@ -1,6 +1,7 @@
 package ru.manager.ProgectManager.controllers;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
@@ -23,6 +24,9 @@ import java.util.NoSuchElementException;
 @RequestMapping("/photo")
 @RequiredArgsConstructor
 public class PhotoController {
+    private static final String SIZE_DESCRIPTION = "Размер в точках, под который нужна картинка. "
+            + "Отдаётся наименьшая сохранённая копия не меньше этого размера, без параметра - исходная";
+
     private final UserService userService;
     private final ProjectService projectService;
     private final PhotoService photoService;
@@ -37,9 +41,11 @@ public class PhotoController {
             @ApiResponse(responseCode = "406", description = "Сервер не имеет возможности передать данный контент")
     })
     @GetMapping("/user")
-    public ResponseEntity<?> findUserImage(@RequestParam long id, HttpServletResponse response) {
+    public ResponseEntity<?> findUserImage(@RequestParam long id,
+                                           @RequestParam(required = false) @Parameter(description = SIZE_DESCRIPTION)
+                                           Integer size, HttpServletResponse response) {
         try {
-            return photoService.sendFile(response, userService.findPhoto(id));
+            return photoService.sendFile(response, userService.findPhoto(id, size));
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -54,9 +60,11 @@ public class PhotoController {
             @ApiResponse(responseCode = "406", description = "Сервер не имеет возможности передать данный контент")
     })
     @GetMapping("/project")
-    public ResponseEntity<?> findProjectImage(@RequestParam long id, HttpServletResponse response) {
+    public ResponseEntity<?> findProjectImage(@RequestParam long id,
+                                              @RequestParam(required = false) @Parameter(description = SIZE_DESCRIPTION)
+                                              Integer size, HttpServletResponse response) {
         try {
-            return photoService.sendFile(response, projectService.findPhoto(id));
+            return photoService.sendFile(response, projectService.findPhoto(id, size));
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
@@ -71,9 +79,11 @@ public class PhotoController {
             @ApiResponse(responseCode = "406", description = "Сервер не имеет возможности передать данный контент")
     })
     @GetMapping("/kanban")
-    public ResponseEntity<?> findKanbanImage(@RequestParam long id, HttpServletResponse response) {
+    public ResponseEntity<?> findKanbanImage(@RequestParam long id,
+                                             @RequestParam(required = false) @Parameter(description = SIZE_DESCRIPTION)
+                                             Integer size, HttpServletResponse response) {
         try {
-            return photoService.sendFile(response, kanbanService.findImage(id));
+            return photoService.sendFile(response, kanbanService.findImage(id, size));
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>(HttpStatus.NOT_FOUND);
         }
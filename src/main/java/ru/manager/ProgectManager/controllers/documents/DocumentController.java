@@ -35,6 +35,8 @@ import java.util.Optional;
 @RequiredArgsConstructor
 @Tag(name = "Манипуляция страницами документации")
 public class DocumentController {
+    private static final int MAX_SEARCH_ROWS = 100;
+
     private final PageService pageService;
     private final UserService userService;
 
@@ -316,6 +318,49 @@ public class DocumentController {
         }
     }
 
+    @Operation(summary = "Полнотекстовый поиск по названиям и содержимому страниц документов указанного проекта",
+            description = "Слова запроса ищутся с учётом словоформ, страницы упорядочены по релевантности")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Найденные страницы с фрагментами текста", content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = PageSearchResponseList.class))
+            }),
+            @ApiResponse(responseCode = "400", description = "Некорректные параметры пагинации", content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            }),
+            @ApiResponse(responseCode = "403", description = "Недостаточно прав доступа для совершения данного действия"),
+            @ApiResponse(responseCode = "404", description = "Указанного проекта не существует", content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            })
+    })
+    @GetMapping("/search")
+    public ResponseEntity<?> search(@RequestParam @Parameter(description = "Идентификатор проекта") long id,
+                                    @RequestParam int pageIndex,
+                                    @RequestParam @Parameter(description = "Количество результатов, от 1 до 100")
+                                    int rowCount,
+                                    @RequestParam @Parameter(description = "Поисковый запрос") String query,
+                                    Principal principal) {
+        if (pageIndex < 0)
+            return new ResponseEntity<>(new ErrorResponse(Errors.INDEX_MUST_BE_MORE_0), HttpStatus.BAD_REQUEST);
+        if (rowCount < 1 || rowCount > MAX_SEARCH_ROWS)
+            return new ResponseEntity<>(new ErrorResponse(Errors.ROW_COUNT_MUST_BE_FROM_1_TO_100),
+                    HttpStatus.BAD_REQUEST);
+        try {
+            String login = principal.getName();
+            Optional<PageSearchResponseList> result = pageService.search(id, query, login, pageIndex, rowCount,
+                    userService.findZoneIdForThisUser(login));
+            if (result.isPresent()) {
+                return ResponseEntity.ok(result.get());
+            } else {
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            }
+        } catch (NoSuchElementException e) {
+            return new ResponseEntity<>(new ErrorResponse(Errors.NO_SUCH_SPECIFIED_PROJECT), HttpStatus.NOT_FOUND);
+        }
+    }
+
     @Operation(summary = "Список всех страниц документов, отсортированный по дате последнего изменения")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Список страниц документов", content = {
@@ -17,6 +17,7 @@ import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
 import ru.manager.ProgectManager.enums.Errors;
 import ru.manager.ProgectManager.exception.IncorrectStatusException;
 import ru.manager.ProgectManager.services.kanban.ArchiveAndTrashService;
+import ru.manager.ProgectManager.services.kanban.KanbanOrderService;
 import ru.manager.ProgectManager.services.user.UserService;
 
 import java.security.Principal;
@@ -30,6 +31,7 @@ import java.util.Optional;
 @Tag(name = "Средства работы с корзиной и архивом")
 public class ArchiveAndTrashController {
     private final ArchiveAndTrashService trashService;
+    private final KanbanOrderService orderService;
     private final UserService userService;
 
     @Operation(summary = "Перемещение элемента в архив")
@@ -114,7 +116,7 @@ public class ArchiveAndTrashController {
             Optional<List<KanbanElement>> elements = trashService.findArchive(id, login);
             if(elements.isPresent()){
                 return ResponseEntity.ok(new KanbanElements(elements.get(), pageIndex, rowCount,
-                        userService.findZoneIdForThisUser(login)));
+                        orderService::findPosition, userService.findZoneIdForThisUser(login)));
             } else {
                 return new ResponseEntity<>(HttpStatus.FORBIDDEN);
             }
@@ -144,7 +146,7 @@ public class ArchiveAndTrashController {
             Optional<List<KanbanElement>> elements = trashService.findTrash(id, login);
             if(elements.isPresent()){
                 return ResponseEntity.ok(new KanbanElements(elements.get(), pageIndex, rowCount,
-                        userService.findZoneIdForThisUser(login)));
+                        orderService::findPosition, userService.findZoneIdForThisUser(login)));
             } else {
                 return new ResponseEntity<>(HttpStatus.FORBIDDEN);
             }
@@ -12,6 +12,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.manager.ProgectManager.DTO.request.NameRequest;
 import ru.manager.ProgectManager.DTO.request.kanban.DelayRemoveRequest;
 import ru.manager.ProgectManager.DTO.request.kanban.KanbanColumnRequest;
@@ -24,7 +25,7 @@ import ru.manager.ProgectManager.components.ErrorResponseEntityConfigurator;
 import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
 import ru.manager.ProgectManager.enums.Errors;
 import ru.manager.ProgectManager.services.kanban.KanbanColumnService;
-import ru.manager.ProgectManager.services.user.UserService;
+import ru.manager.ProgectManager.services.kanban.KanbanVersionService;
 
 import javax.validation.Valid;
 import java.security.Principal;
@@ -37,8 +38,8 @@ import java.util.Optional;
 @Tag(name = "Манипуляции с колонками канбан-доски")
 public class KanbanColumnController {
     private final KanbanColumnService kanbanColumnService;
+    private final KanbanVersionService versionService;
     private final ErrorResponseEntityConfigurator entityConfigurator;
-    private final UserService userService;
 
     @Operation(summary = "Добавление колонки")
     @ApiResponses(value = {
@@ -82,6 +83,8 @@ public class KanbanColumnController {
                             schema = @Schema(implementation = ErrorResponse.class))
             }),
             @ApiResponse(responseCode = "403", description = "Пользователь не имеет доступа к данному ресурсу"),
+            @ApiResponse(responseCode = "304",
+                    description = "Содержимое не изменилось с момента получения ETag, переданного в If-None-Match"),
             @ApiResponse(responseCode = "200", description = "Запрашиваемая колонка", content = {
                     @Content(mediaType = "application/json",
                             schema = @Schema(implementation = KanbanColumnResponse.class))
@@ -89,18 +92,26 @@ public class KanbanColumnController {
     })
     @GetMapping()
     public ResponseEntity<?> findColumn(@RequestParam @Parameter(description = "Идентификатор колонки") long id,
-                                        @RequestParam int pageIndex, @RequestParam int rowCount, Principal principal) {
+                                        @RequestParam(required = false)
+                                        @Parameter(description = "Курсор из ответа на предыдущий запрос") String cursor,
+                                        @RequestParam(defaultValue = "0") int pageIndex, @RequestParam int rowCount,
+                                        Principal principal, WebRequest request) {
+        Optional<String> eTag = versionService.findColumnTag(id, principal, cursor, pageIndex, rowCount);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
         try {
-            String login = principal.getName();
-            Optional<KanbanColumn> kanbanColumn = kanbanColumnService.findKanbanColumn(id, login);
+            Optional<KanbanColumnResponse> kanbanColumn = kanbanColumnService.findKanbanColumn(id, cursor, pageIndex,
+                    rowCount, principal.getName());
             if (kanbanColumn.isPresent()) {
-                return ResponseEntity.ok(new KanbanColumnResponse(kanbanColumn.get(), pageIndex, rowCount,
-                        userService.findZoneIdForThisUser(login)));
+                return ResponseEntity.ok(kanbanColumn.get());
             } else {
                 return new ResponseEntity<>(HttpStatus.FORBIDDEN);
             }
         } catch (NoSuchElementException e) {
             return new ResponseEntity<>(new ErrorResponse(Errors.NO_SUCH_SPECIFIED_COLUMN), HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            return new ResponseEntity<>(new ErrorResponse(Errors.INCORRECT_PAGINATION_CURSOR), HttpStatus.BAD_REQUEST);
         }
     }
 
@@ -213,12 +224,10 @@ public class KanbanColumnController {
     public ResponseEntity<?> sortColumn(@RequestBody SortColumnRequest sortColumnRequest, @RequestParam int pageIndex,
                                         @RequestParam int rowCount, Principal principal) {
         try {
-            String login = principal.getName();
-            Optional<KanbanColumn> kanbanColumn = kanbanColumnService
-                    .sortColumn(sortColumnRequest, login);
+            Optional<KanbanColumnResponse> kanbanColumn = kanbanColumnService
+                    .sortColumn(sortColumnRequest, pageIndex, rowCount, principal.getName());
             if (kanbanColumn.isPresent()) {
-                return ResponseEntity.ok(new KanbanColumnResponse(kanbanColumn.get(), pageIndex, rowCount,
-                        userService.findZoneIdForThisUser(login)));
+                return ResponseEntity.ok(kanbanColumn.get());
             } else {
                 return new ResponseEntity<>(HttpStatus.FORBIDDEN);
             }
@@ -12,19 +12,24 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.manager.ProgectManager.DTO.request.NameRequest;
 import ru.manager.ProgectManager.DTO.request.PhotoDTO;
 import ru.manager.ProgectManager.DTO.request.kanban.TagRequest;
 import ru.manager.ProgectManager.DTO.response.ErrorResponse;
 import ru.manager.ProgectManager.DTO.response.IdResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanChangeListResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanChangeResponse;
 import ru.manager.ProgectManager.DTO.response.kanban.KanbanContentResponse;
 import ru.manager.ProgectManager.DTO.response.kanban.KanbanMembers;
 import ru.manager.ProgectManager.DTO.response.kanban.TagListResponse;
 import ru.manager.ProgectManager.components.ErrorResponseEntityConfigurator;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
 import ru.manager.ProgectManager.enums.Errors;
+import ru.manager.ProgectManager.services.kanban.KanbanChangeService;
 import ru.manager.ProgectManager.services.kanban.KanbanService;
-import ru.manager.ProgectManager.services.project.AccessProjectService;
+import ru.manager.ProgectManager.services.kanban.KanbanVersionService;
 
 import javax.validation.Valid;
 import java.io.IOException;
@@ -39,7 +44,8 @@ import java.util.Set;
 @Tag(name = "Манипуляции с канбан-доской")
 public class KanbanController {
     private final KanbanService kanbanService;
-    private final AccessProjectService accessProjectService;
+    private final KanbanVersionService versionService;
+    private final KanbanChangeService changeService;
     private final ErrorResponseEntityConfigurator entityConfigurator;
 
     @Operation(summary = "Добавление новой канбан-доски в проект")
@@ -142,13 +148,15 @@ public class KanbanController {
     }
 
     @Operation(summary = "Получение канбан-доски",
-            description = "Получение данных канбана и идентификаторов его колонок")
+            description = "Получение данных канбана, его колонок и первых элементов каждой колонки")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "404", description = "Указанного канбана не сущесвует", content = {
                     @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponse.class))
             }),
             @ApiResponse(responseCode = "403", description = "Пользователь не имеет доступа к указанному ресурсу"),
+            @ApiResponse(responseCode = "304",
+                    description = "Содержимое не изменилось с момента получения ETag, переданного в If-None-Match"),
             @ApiResponse(responseCode = "200", content = {
                     @Content(mediaType = "application/json",
                             schema = @Schema(implementation = KanbanContentResponse.class))
@@ -156,13 +164,19 @@ public class KanbanController {
     })
     @GetMapping()
     public ResponseEntity<?> getKanban(@RequestParam @Parameter(description = "Идентификатор канбана") long id,
-                                       @RequestParam int pageIndex, @RequestParam int rowCount, Principal principal) {
+                                       @RequestParam int pageIndex, @RequestParam int rowCount,
+                                       @RequestParam(defaultValue = "20")
+                                       @Parameter(description = "Количество элементов, возвращаемых в каждой колонке")
+                                       int elementCount, Principal principal, WebRequest request) {
+            Optional<String> eTag = versionService.findKanbanTag(id, principal, pageIndex, rowCount, elementCount);
+            if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+                return null;
+            }
             try {
-                String login = principal.getName();
-                Optional<Kanban> result = kanbanService.findKanban(id, login);
+                Optional<KanbanContentResponse> result = kanbanService.findKanbanContent(id, pageIndex, rowCount,
+                        elementCount, principal.getName());
                 if (result.isPresent()) {
-                    return ResponseEntity.ok(new KanbanContentResponse(result.get(), pageIndex, rowCount,
-                            accessProjectService.canEditKanban(id, login)));
+                    return ResponseEntity.ok(result.get());
                 } else {
                     return new ResponseEntity<>(HttpStatus.FORBIDDEN);
                 }
@@ -171,6 +185,66 @@ public class KanbanController {
             }
     }
 
+    @Operation(summary = "Получение изменений канбан-доски",
+            description = "Возвращает изменения доски с номерами больше since. Если журнал не содержит всех " +
+                    "запрошенных изменений, возвращается признак reload и доску необходимо загрузить заново")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "404", description = "Указанного канбана не сущесвует", content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            }),
+            @ApiResponse(responseCode = "403", description = "Пользователь не имеет доступа к указанному ресурсу"),
+            @ApiResponse(responseCode = "200", content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = KanbanChangeListResponse.class))
+            })
+    })
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam @Parameter(description = "Идентификатор канбана") long id,
+                                        @RequestParam
+                                        @Parameter(description = "Версия доски, известная клиенту") long since,
+                                        Principal principal) {
+        try {
+            Optional<KanbanChangeListResponse> changes = changeService.findChanges(id, since, principal.getName());
+            if (changes.isPresent()) {
+                return ResponseEntity.ok(changes.get());
+            } else {
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            }
+        } catch (NoSuchElementException e) {
+            return new ResponseEntity<>(new ErrorResponse(Errors.NO_SUCH_SPECIFIED_KANBAN), HttpStatus.NOT_FOUND);
+        }
+    }
+
+    @Operation(summary = "Подписка на изменения канбан-доски",
+            description = "Поток Server-Sent Events: событие change содержит изменение доски, идентификатор события " +
+                    "равен его номеру. При пропуске номеров недостающие изменения запрашиваются через /changes")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "404", description = "Указанного канбана не сущесвует", content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            }),
+            @ApiResponse(responseCode = "403", description = "Пользователь не имеет доступа к указанному ресурсу"),
+            @ApiResponse(responseCode = "200", content = {
+                    @Content(mediaType = "text/event-stream",
+                            schema = @Schema(implementation = KanbanChangeResponse.class))
+            })
+    })
+    @GetMapping("/events")
+    public ResponseEntity<?> subscribe(@RequestParam @Parameter(description = "Идентификатор канбана") long id,
+                                       Principal principal) {
+        try {
+            Optional<SseEmitter> emitter = kanbanService.subscribe(id, principal.getName());
+            if (emitter.isPresent()) {
+                return ResponseEntity.ok(emitter.get());
+            } else {
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            }
+        } catch (NoSuchElementException e) {
+            return new ResponseEntity<>(new ErrorResponse(Errors.NO_SUCH_SPECIFIED_KANBAN), HttpStatus.NOT_FOUND);
+        }
+    }
+
     @Operation(summary = "Получение участников канбан-доски")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "404", description = "Указанного канбана не сущесвует", content = {
@@ -12,11 +12,14 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.manager.ProgectManager.DTO.request.NameRequest;
 import ru.manager.ProgectManager.DTO.request.kanban.CreateKanbanElementRequest;
+import ru.manager.ProgectManager.DTO.request.kanban.ElementBatchRequest;
 import ru.manager.ProgectManager.DTO.request.kanban.TransportElementRequest;
 import ru.manager.ProgectManager.DTO.response.ErrorResponse;
 import ru.manager.ProgectManager.DTO.response.IdResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.ElementBatchResponse;
 import ru.manager.ProgectManager.DTO.response.kanban.KanbanElementContentResponse;
 import ru.manager.ProgectManager.DTO.response.kanban.KanbanElements;
 import ru.manager.ProgectManager.components.ErrorResponseEntityConfigurator;
@@ -27,7 +30,10 @@ import ru.manager.ProgectManager.enums.Errors;
 import ru.manager.ProgectManager.enums.SearchElementType;
 import ru.manager.ProgectManager.exception.IncorrectStatusException;
 import ru.manager.ProgectManager.services.kanban.KanbanElementAttributesService;
+import ru.manager.ProgectManager.services.kanban.KanbanElementBatchService;
 import ru.manager.ProgectManager.services.kanban.KanbanElementService;
+import ru.manager.ProgectManager.services.kanban.KanbanOrderService;
+import ru.manager.ProgectManager.services.kanban.KanbanVersionService;
 import ru.manager.ProgectManager.services.user.UserService;
 
 import javax.validation.Valid;
@@ -43,7 +49,10 @@ import java.util.Set;
 @Tag(name = "Манипуляции с элементами канбан-доски")
 public class KanbanElementController {
     private final KanbanElementService kanbanElementService;
+    private final KanbanOrderService orderService;
     private final KanbanElementAttributesService attributesService;
+    private final KanbanElementBatchService batchService;
+    private final KanbanVersionService versionService;
     private final ErrorResponseEntityConfigurator entityConfigurator;
     private final UserService userService;
 
@@ -58,13 +67,19 @@ public class KanbanElementController {
                             @Content(mediaType = "application/json",
                                     schema = @Schema(implementation = ErrorResponse.class))
                     }),
+            @ApiResponse(responseCode = "304",
+                    description = "Содержимое не изменилось с момента получения ETag, переданного в If-None-Match"),
             @ApiResponse(responseCode = "200", content = {
                     @Content(mediaType = "application/json",
                             schema = @Schema(implementation = KanbanElementContentResponse.class))
             })
     })
     @GetMapping()
-    public ResponseEntity<?> getContent(@RequestParam long elementId, Principal principal) {
+    public ResponseEntity<?> getContent(@RequestParam long elementId, Principal principal, WebRequest request) {
+        Optional<String> eTag = versionService.findElementTag(elementId, principal);
+        if (eTag.isPresent() && request.checkNotModified(eTag.get())) {
+            return null;
+        }
         try {
             String login = principal.getName();
             Optional<KanbanElementContentResponse> content = kanbanElementService
@@ -138,7 +153,7 @@ public class KanbanElementController {
             Optional<Set<KanbanElement>> elements = kanbanElementService.findElements(id, type, name, status, login);
             if (elements.isPresent()) {
                 return ResponseEntity.ok(new KanbanElements(elements.get(), pageIndex, rowCount,
-                        userService.findZoneIdForThisUser(login)));
+                        orderService::findPosition, userService.findZoneIdForThisUser(login)));
             } else {
                 return new ResponseEntity<>(HttpStatus.FORBIDDEN);
             }
@@ -359,6 +374,30 @@ public class KanbanElementController {
         }
     }
 
+    @Operation(summary = "Пакетное изменение элементов канбана",
+            description = "Перемещение, изменение тегов и даты, архивация и удаление элементов в одной транзакции. " +
+                    "Операции выполняются по порядку, ошибка одной операции не отменяет остальные")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "400", description = "Неверный формат или количество операций", content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ErrorResponse.class))
+            }),
+            @ApiResponse(responseCode = "200", description = "Результаты операций в порядке запроса", content = {
+                    @Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ElementBatchResponse.class))
+            })
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<?> batch(@RequestBody @Valid ElementBatchRequest request, BindingResult bindingResult,
+                                   Principal principal) {
+        if (bindingResult.hasErrors()) {
+            return entityConfigurator.createErrorResponse(bindingResult);
+        } else {
+            return ResponseEntity.ok(new ElementBatchResponse(batchService.execute(request.getOperations(),
+                    principal.getName())));
+        }
+    }
+
     @Operation(summary = "Добавление существующего в этом канбане тега к указанному элементу")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "404", description = "Обращение к несуществующему элементу или тегу",
@@ -8,20 +8,28 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.manager.ProgectManager.DTO.request.user.CreateWorkTrackRequest;
 import ru.manager.ProgectManager.DTO.response.ErrorResponse;
 import ru.manager.ProgectManager.DTO.response.workTrack.AllWorkUserInfo;
 import ru.manager.ProgectManager.components.ErrorResponseEntityConfigurator;
 import ru.manager.ProgectManager.enums.Errors;
+import ru.manager.ProgectManager.enums.ExportFormat;
 import ru.manager.ProgectManager.exception.IncorrectStatusException;
+import ru.manager.ProgectManager.services.user.WorkTimeReportWriter;
 import ru.manager.ProgectManager.services.user.WorkTrackService;
 
 import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
 import java.security.Principal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.NoSuchElementException;
 import java.util.Optional;
 
@@ -32,6 +40,7 @@ import java.util.Optional;
 public class WorkTrackController {
     private final WorkTrackService workTrackService;
     private final ErrorResponseEntityConfigurator entityConfigurator;
+    private final WorkTimeReportWriter reportWriter;
 
     @Operation(summary = "Добавление времени работы")
     @ApiResponses(value = {
@@ -138,4 +147,39 @@ public class WorkTrackController {
             return new ResponseEntity<>(new ErrorResponse(Errors.NO_SUCH_SPECIFIED_USER), HttpStatus.NOT_FOUND);
         }
     }
+
+    @Operation(summary = "Выгрузка отчёта о работе всех участников проекта",
+            description = "Время суммировано по пользователю, канбану, элементу и дню, обе границы диапазона " +
+                    "включаются в отчёт. Ответы с ошибками не содержат тела")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Отчёт в формате CSV или NDJSON"),
+            @ApiResponse(responseCode = "400", description = "Неверный формат даты"),
+            @ApiResponse(responseCode = "403", description = "Пользователь не является администратором проекта"),
+            @ApiResponse(responseCode = "404", description = "Указанного проекта не существует")
+    })
+    @GetMapping("/report")
+    public ResponseEntity<StreamingResponseBody> exportProjectReport(
+            @RequestParam long projectId, @RequestParam String fromDate, @RequestParam String toDate,
+            @RequestParam(defaultValue = "CSV") @Parameter(description = "Формат выгрузки") ExportFormat format,
+            Principal principal) {
+        try {
+            LocalDate from = LocalDate.parse(fromDate);
+            LocalDate to = LocalDate.parse(toDate);
+            if (workTrackService.canExportProjectReport(projectId, principal.getName())) {
+                return ResponseEntity.ok()
+                        .contentType(format == ExportFormat.CSV
+                                ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+                                : new MediaType("application", "x-ndjson", StandardCharsets.UTF_8))
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"work-" + projectId + "."
+                                + format.name().toLowerCase() + "\"")
+                        .body(out -> reportWriter.write(projectId, principal.getName(), from, to, format, out));
+            } else {
+                return new ResponseEntity<>(HttpStatus.FORBIDDEN);
+            }
+        } catch (DateTimeParseException e) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        } catch (NoSuchElementException e) {
+            return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+        }
+    }
 }
@@ -9,7 +9,6 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.mail.MailException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.annotation.*;
 import ru.manager.ProgectManager.DTO.request.RefreshTokenRequest;
@@ -56,10 +55,6 @@ public class AuthController {
                     @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ErrorResponse.class))
             }),
-            @ApiResponse(responseCode = "404", description = "Указанной почты не существует", content = {
-                    @Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ErrorResponse.class))
-            }),
             @ApiResponse(responseCode = "200", description = "Пользователь успешно зарегестрирован")
     })
     @PostMapping("/register")
@@ -75,8 +70,6 @@ public class AuthController {
             } catch (EmailAlreadyUsedException e) {
                 return new ResponseEntity<>(
                         new ErrorResponse(Errors.USER_WITH_THIS_EMAIL_ALREADY_CREATED), HttpStatus.NOT_ACCEPTABLE);
-            } catch (MailException e) {
-                return new ResponseEntity<>(new ErrorResponse(Errors.NO_SUCH_SPECIFIED_MAIL), HttpStatus.NOT_FOUND);
             }
         } else {
             return entityConfigurator.createErrorResponse(bindingResult);
@@ -116,7 +109,7 @@ public class AuthController {
                 Optional<User> userEntity = userService.login(request);
                 if (userEntity.isPresent()) {
                     AuthResponse authResponse = new AuthResponse();
-                    authResponse.setAccess(jwtProvider.generateToken(userEntity.get().getUsername()));
+                    authResponse.setAccess(jwtProvider.generateToken(userEntity.get()));
                     authResponse.setRefresh(refreshTokenService.createToken(userEntity.get().getUsername()));
                     return ResponseEntity.ok(authResponse);
                 } else {
@@ -162,7 +155,7 @@ public class AuthController {
                     userService.updateLastVisitAndZone(user, tokenRequest.getZoneId());
                     AuthResponse authResponse = new AuthResponse();
                     authResponse.setRefresh(refreshTokenService.createToken(login.get()));
-                    authResponse.setAccess(jwtProvider.generateToken(login.get()));
+                    authResponse.setAccess(jwtProvider.generateToken(user));
                     return ResponseEntity.ok(authResponse);
                 } else {
                     return new ResponseEntity<>(new ErrorResponse(Errors.ACCOUNT_IS_LOCKED), HttpStatus.FORBIDDEN);
@@ -201,7 +194,7 @@ public class AuthController {
                 User user = userService.findByUsername(login.get()).orElseThrow();
                 if (user.isAccountNonLocked()) {
                     userService.updateLastVisitAndZone(user, tokenRequest.getZoneId());
-                    AccessTokenResponse tokenResponse = new AccessTokenResponse(jwtProvider.generateToken(login.get()));
+                    AccessTokenResponse tokenResponse = new AccessTokenResponse(jwtProvider.generateToken(user));
                     return ResponseEntity.ok(tokenResponse);
                 } else {
                     return new ResponseEntity<>(new ErrorResponse(Errors.ACCOUNT_IS_LOCKED), HttpStatus.FORBIDDEN);
@@ -226,7 +219,7 @@ public class AuthController {
         if (login.isPresent()) {
             AuthResponse authResponse = new AuthResponse();
             authResponse.setRefresh(refreshTokenService.createToken(login.get()));
-            authResponse.setAccess(jwtProvider.generateToken(login.get()));
+            authResponse.setAccess(jwtProvider.generateToken(userService.findByUsername(login.get()).orElseThrow()));
             return ResponseEntity.ok(authResponse);
         } else {
             return new ResponseEntity<>(HttpStatus.FORBIDDEN);
@@ -9,7 +9,9 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.manager.ProgectManager.DTO.response.user.HasNewResponse;
+import ru.manager.ProgectManager.DTO.response.user.notification.NotificationResponse;
 import ru.manager.ProgectManager.DTO.response.user.notification.NotificationsResponseList;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.services.user.NotificationService;
@@ -49,4 +51,15 @@ public class NotificationController {
         notificationService.readNotification(login);
         return notificationsResponseList;
     }
+
+    @Operation(summary = "Подписка на новые уведомления",
+            description = "Поток Server-Sent Events: событие notification содержит новое уведомление пользователя")
+    @ApiResponse(responseCode = "200", content = {
+            @Content(mediaType = "text/event-stream",
+                    schema = @Schema(implementation = NotificationResponse.class))
+    })
+    @GetMapping("/events")
+    public SseEmitter subscribe(Principal principal) {
+        return notificationService.subscribe(principal.getName());
+    }
 }
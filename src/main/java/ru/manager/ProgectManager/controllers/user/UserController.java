@@ -28,6 +28,7 @@ import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.enums.Errors;
 import ru.manager.ProgectManager.services.project.AccessProjectService;
 import ru.manager.ProgectManager.services.user.NoteService;
+import ru.manager.ProgectManager.services.user.ResourceSearchService;
 import ru.manager.ProgectManager.services.user.UserService;
 
 import javax.validation.Valid;
@@ -46,6 +47,7 @@ public class UserController {
     private final AccessProjectService accessProjectService;
     private final ErrorResponseEntityConfigurator entityConfigurator;
     private final NoteService noteService;
+    private final ResourceSearchService resourceSearchService;
 
     @Operation(summary = "Предоставление информации о текущем пользователе")
     @ApiResponse(responseCode = "200", description = "Возвращение информации о профиле", content = {
@@ -200,15 +202,20 @@ public class UserController {
         return new ProjectListResponse(projects, roles, userService.findZoneIdForThisUser(login));
     }
 
-    @Operation(summary = "Результат поиска ресурсов по имени")
+    @Operation(summary = "Результат поиска ресурсов по имени",
+            description = "Сначала идут ресурсы, название которых совпадает с запросом или начинается с него")
     @ApiResponse(responseCode = "200", description = "Список ресурсов, доступных пользователю, с фильтрацией по имени",
             content = {
                     @Content(mediaType = "application/json",
                             schema = @Schema(implementation = ListPointerResources.class))
             })
     @GetMapping("/resources")
-    public ListPointerResources findResourcesByName(@RequestParam String name, Principal principal) {
-        return new ListPointerResources(userService.availableResourceByName(name, principal.getName()));
+    public ListPointerResources findResourcesByName(@RequestParam String name,
+                                                    @RequestParam(defaultValue = "0") int pageIndex,
+                                                    @RequestParam(defaultValue = "50") int rowCount,
+                                                    Principal principal) {
+        return new ListPointerResources(resourceSearchService.findByName(name, principal.getName(), pageIndex,
+                rowCount));
     }
 
     @Operation(summary = "Список последних посещённых ресурсов пользователем")
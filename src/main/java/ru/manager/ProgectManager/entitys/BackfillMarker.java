@@ -10,15 +10,11 @@ import javax.persistence.Id;
 @Entity
 @Getter
 @Setter
-public class ScheduledMailInfo {
+public class BackfillMarker {
     @Id
-    private String userEmail;
-
-    private boolean resend;
+    private String name;
 
+    // миллисекунды эпохи
     @Column(nullable = false)
-    private String subject;
-
-    @Column(nullable = false, length = 512)
-    private String text;
+    private long completedAt;
 }
@@ -0,0 +1,26 @@
+package ru.manager.ProgectManager.entitys;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+
+@Entity
+@Getter
+@Setter
+public class JobLease {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private String owner;
+
+    // миллисекунды эпохи
+    @Column(nullable = false)
+    private long expiresAt;
+
+    @Column(nullable = false)
+    private long heartbeat;
+}
@@ -0,0 +1,44 @@
+package ru.manager.ProgectManager.entitys;
+
+import lombok.Getter;
+import lombok.Setter;
+import ru.manager.ProgectManager.enums.MailStatus;
+
+import javax.persistence.*;
+
+@Entity
+@Getter
+@Setter
+@Table(indexes = {@Index(name = "mail_outbox_status_next_idx", columnList = "status, nextAttempt"),
+        @Index(name = "mail_outbox_cancel_key_idx", columnList = "cancelKey")})
+public class MailOutbox {
+    @Id
+    @GeneratedValue
+    private long id;
+
+    @Column(nullable = false)
+    private String address;
+
+    @Column(nullable = false)
+    private String subject;
+
+    @Column(nullable = false, length = 4000)
+    private String text;
+
+    // письма с общим ключом отменяются вместе, например напоминания о регистрации после подтверждения почты
+    private String cancelKey;
+
+    @Enumerated(EnumType.ORDINAL)
+    @Column(nullable = false)
+    private MailStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    // миллисекунды эпохи; у взятого в отправку письма сдвигается на время, отведённое на отправку
+    @Column(nullable = false)
+    private long nextAttempt;
+
+    @Column(length = 512)
+    private String lastError;
+}
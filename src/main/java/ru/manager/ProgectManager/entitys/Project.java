@@ -1,5 +1,6 @@
 package ru.manager.ProgectManager.entitys;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.Setter;
 import ru.manager.ProgectManager.entitys.accessProject.AccessProject;
@@ -7,8 +8,11 @@ import ru.manager.ProgectManager.entitys.accessProject.CustomProjectRole;
 import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
 import ru.manager.ProgectManager.entitys.documents.Page;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.enums.Size;
 
 import javax.persistence.*;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -27,9 +31,22 @@ public class Project {
     @Lob
     private byte[] photo;
 
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(name = "project_photo_variant", joinColumns = @JoinColumn(name = "project_id"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "size")
+    @Column(name = "data", length = 76_800)
+    @Lob
+    private Map<Size, byte[]> photoVariants = new EnumMap<>(Size.class);
+
     @Column
     private String description;
 
+    // версия участников и ролей проекта, по ней узлы сверяют закешированные права доступа
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint default 0 not null")
+    private long accessVersion;
+
     @Column
     private String status;
 
@@ -5,8 +5,11 @@ import lombok.Getter;
 import lombok.Setter;
 import ru.manager.ProgectManager.entitys.Project;
 import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
+import ru.manager.ProgectManager.enums.Size;
 
 import javax.persistence.*;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -24,6 +27,20 @@ public class Kanban {
     @Lob
     private byte[] photo;
 
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(name = "kanban_photo_variant", joinColumns = @JoinColumn(name = "kanban_id"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "size")
+    @Column(name = "data", length = 76_800)
+    @Lob
+    private Map<Size, byte[]> photoVariants = new EnumMap<>(Size.class);
+
+    // версия содержимого доски, увеличивается атомарным запросом при каждом изменении колонок и элементов
+    @JsonIgnore
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint default 0 not null")
+    private long version;
+
     @JsonIgnore
     @OneToMany(mappedBy = "kanban", cascade = CascadeType.REMOVE)
     private Set<Tag> availableTags;
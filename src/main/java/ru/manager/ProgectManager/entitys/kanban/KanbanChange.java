@@ -0,0 +1,40 @@
+package ru.manager.ProgectManager.entitys.kanban;
+
+import lombok.Getter;
+import lombok.Setter;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
+
+import javax.persistence.*;
+
+// запись журнала изменений доски, номер совпадает с версией доски после изменения
+@Entity
+@Getter
+@Setter
+@Table(indexes = @Index(name = "kanban_change_kanban_seq_idx", columnList = "kanbanId, seq", unique = true))
+public class KanbanChange {
+    @Id
+    @GeneratedValue
+    private long id;
+
+    // ссылки хранятся без внешних ключей, чтобы запись переживала удаление доски, колонки или элемента
+    @Column(nullable = false)
+    private long kanbanId;
+
+    @Column(nullable = false)
+    private long seq;
+
+    @Enumerated
+    @Column(nullable = false)
+    private KanbanChangeType type;
+
+    private Long columnId;
+
+    private Long elementId;
+
+    private Integer serialNumber;
+
+    private String payload;
+
+    @Column(nullable = false)
+    private long createTime;
+}
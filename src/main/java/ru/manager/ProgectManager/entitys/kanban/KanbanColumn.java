@@ -12,14 +12,17 @@ import java.util.Set;
 @Entity
 @Getter
 @Setter
-@Table(name = "kanban_column")
+@Table(name = "kanban_column", indexes = {
+        @Index(name = "kanban_column_kanban_order_idx", columnList = "kanban_id, orderKey")
+})
 public class KanbanColumn {
     @Id
     @GeneratedValue(strategy = GenerationType.AUTO)
     private long id;
 
-    @Column(nullable = false)
-    private int serialNumber;
+    // ключ порядка в канбане, порядковый номер вычисляется при чтении
+    @Column(nullable = false, length = 64)
+    private String orderKey;
 
     @Column(nullable = false)
     private String name;
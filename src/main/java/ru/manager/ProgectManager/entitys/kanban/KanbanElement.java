@@ -11,7 +11,10 @@ import java.util.Objects;
 import java.util.Set;
 
 @Entity
-@Table(name = "kanban_element")
+@Table(name = "kanban_element", indexes = {
+        @Index(name = "kanban_element_column_status_order_idx", columnList = "kanban_column_id, status, orderKey"),
+        @Index(name = "kanban_element_status_date_idx", columnList = "status, selectedDate, kanban_column_id")
+})
 @Getter
 @Setter
 public class KanbanElement {
@@ -33,8 +36,9 @@ public class KanbanElement {
     @Column
     private long timeOfUpdate;
 
-    @Column(nullable = false)
-    private int serialNumber;
+    // ключ порядка в колонке, порядковый номер вычисляется при чтении
+    @Column(nullable = false, length = 64)
+    private String orderKey;
 
     @Column(nullable = false)
     private String name;
@@ -48,6 +52,19 @@ public class KanbanElement {
     @Column
     private long selectedDate;
 
+    // счётчики изменяются только атомарными запросами репозитория, поэтому не перезаписываются при сохранении элемента
+    @Column(insertable = false, updatable = false, columnDefinition = "int default 0 not null")
+    private int commentCount;
+
+    @Column(insertable = false, updatable = false, columnDefinition = "int default 0 not null")
+    private int attachCount;
+
+    @Column(insertable = false, updatable = false, columnDefinition = "int default 0 not null")
+    private int checkboxCount;
+
+    @Column(insertable = false, updatable = false, columnDefinition = "int default 0 not null")
+    private int checkedCheckboxCount;
+
     @ManyToOne
     @JoinColumn(name = "kanban_column_id")
     private KanbanColumn kanbanColumn;
@@ -3,12 +3,15 @@ package ru.manager.ProgectManager.entitys.kanban;
 import lombok.Getter;
 import lombok.Setter;
 
-import javax.persistence.Column;
-import javax.persistence.Entity;
-import javax.persistence.Id;
+import javax.persistence.*;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.Objects;
 
 @Entity
+@Table(indexes = {@Index(name = "time_remover_hard_time_idx", columnList = "hard, timeToDelete"),
+        @Index(name = "time_remover_due_time_idx", columnList = "dueTime")})
 @Getter
 @Setter
 public class TimeRemover {
@@ -18,9 +21,18 @@ public class TimeRemover {
     @Column(nullable = false)
     private long timeToDelete;
 
+    // точный момент срабатывания в секундах эпохи, timeToDelete остаётся днём для суточной проверки
+    @Column(nullable = false)
+    private long dueTime;
+
     @Column(nullable = false)
     private boolean hard;
 
+    public void setDelayDays(int days) {
+        timeToDelete = LocalDate.now().plusDays(days).toEpochDay();
+        dueTime = Instant.now().plus(days, ChronoUnit.DAYS).getEpochSecond();
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -0,0 +1,42 @@
+package ru.manager.ProgectManager.entitys.user;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+// строка календаря пользователя: видимый ему элемент с датой
+@Entity
+@Getter
+@Setter
+@Table(indexes = {
+        @Index(name = "agenda_entry_user_day_idx", columnList = "userId, epochDay"),
+        @Index(name = "agenda_entry_user_element_key", columnList = "userId, elementId", unique = true),
+        @Index(name = "agenda_entry_element_idx", columnList = "elementId"),
+        @Index(name = "agenda_entry_kanban_idx", columnList = "kanbanId"),
+        @Index(name = "agenda_entry_project_idx", columnList = "projectId")
+})
+public class AgendaEntry {
+    @Id
+    @GeneratedValue
+    private long id;
+
+    // ссылки хранятся без внешних ключей: удалённые элементы отсекаются при чтении и вычищаются пересчётом
+    @Column(nullable = false)
+    private long userId;
+
+    @Column(nullable = false)
+    private long epochDay;
+
+    @Column(nullable = false)
+    private long elementId;
+
+    @Column(nullable = false)
+    private long kanbanId;
+
+    @Column(nullable = false)
+    private long projectId;
+
+    @Column(nullable = false)
+    private boolean canEdit;
+}
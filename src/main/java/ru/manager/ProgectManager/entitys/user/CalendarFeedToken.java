@@ -0,0 +1,22 @@
+package ru.manager.ProgectManager.entitys.user;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+// токен подписки на календарь, у пользователя не больше одного
+@Entity
+@Getter
+@Setter
+@Table(indexes = @Index(name = "calendar_feed_token_user_idx", columnList = "userId", unique = true))
+public class CalendarFeedToken {
+    @Id
+    private String token;
+
+    @Column(nullable = false)
+    private long userId;
+
+    @Column(nullable = false)
+    private long createTime;
+}
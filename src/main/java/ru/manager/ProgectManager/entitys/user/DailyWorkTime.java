@@ -0,0 +1,31 @@
+package ru.manager.ProgectManager.entitys.user;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+// время работы пользователя в проекте за день
+@Entity
+@Getter
+@Setter
+@Table(indexes = @Index(name = "daily_work_time_user_project_day_idx", columnList = "userId, projectId, workDate",
+        unique = true))
+public class DailyWorkTime {
+    // строки добавляются вставкой с обновлением при повторе ключа, поэтому идентификатор выдаёт база
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    private long userId;
+
+    @Column(nullable = false)
+    private long projectId;
+
+    @Column(nullable = false)
+    private long workDate;
+
+    @Column(nullable = false)
+    private int workTime;
+}
@@ -0,0 +1,38 @@
+package ru.manager.ProgectManager.entitys.user;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+// время работы пользователя над элементом за день
+@Entity
+@Getter
+@Setter
+@Table(indexes = {
+        @Index(name = "element_work_time_user_element_day_idx", columnList = "userId, elementId, workDate",
+                unique = true),
+        @Index(name = "element_work_time_user_project_day_idx", columnList = "userId, projectId, workDate"),
+        @Index(name = "element_work_time_project_day_idx", columnList = "projectId, workDate")
+})
+public class ElementWorkTime {
+    // строки добавляются вставкой с обновлением при повторе ключа, поэтому идентификатор выдаёт база
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private long id;
+
+    @Column(nullable = false)
+    private long userId;
+
+    @Column(nullable = false)
+    private long elementId;
+
+    @Column(nullable = false)
+    private long projectId;
+
+    @Column(nullable = false)
+    private long workDate;
+
+    @Column(nullable = false)
+    private int workTime;
+}
@@ -1,5 +1,6 @@
 package ru.manager.ProgectManager.entitys.user;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.Setter;
@@ -8,9 +9,12 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
 import ru.manager.ProgectManager.enums.Locale;
+import ru.manager.ProgectManager.enums.Size;
 
 import javax.persistence.*;
 import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 
@@ -37,6 +41,10 @@ public class User implements UserDetails {
     private long lastVisit;
     private int zoneId;
 
+    // access токены, выпущенные раньше этого момента (мс), отозваны; меняется только запросом в репозитории
+    @Column(insertable = false, updatable = false, columnDefinition = "bigint default 0 not null")
+    private long tokensValidAfter;
+
     @Column(nullable = false)
     private String nickname;
 
@@ -47,6 +55,16 @@ public class User implements UserDetails {
     @Lob
     private byte[] photo;
 
+    // уменьшенные копии photo для списков и карточек, хранятся отдельно и загружаются только по запросу
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(name = "user_photo_variant", joinColumns = @JoinColumn(name = "user_id"))
+    @MapKeyEnumerated(EnumType.STRING)
+    @MapKeyColumn(name = "size")
+    @Column(name = "data", length = 76_800)
+    @Lob
+    private Map<Size, byte[]> photoVariants = new EnumMap<>(Size.class);
+
     @ManyToMany(cascade = {CascadeType.MERGE, CascadeType.REFRESH})
     @JoinTable(name = "user_role", joinColumns = {@JoinColumn(name = "user_key")},
             inverseJoinColumns = {@JoinColumn(name = "role_key")})
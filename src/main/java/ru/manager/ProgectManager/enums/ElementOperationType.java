@@ -0,0 +1,11 @@
+package ru.manager.ProgectManager.enums;
+
+public enum ElementOperationType {
+    MOVE,
+    TAG_ADD,
+    TAG_REMOVE,
+    ARCHIVE,
+    UTILISE,
+    DATE_SET,
+    DATE_DROP
+}
@@ -32,6 +32,7 @@ public enum Errors {
     BAD_FILE(1101),
     TEXT_LENGTH_IS_TOO_LONG(1102),
     WRONG_DATE_FORMAT(1103),
+    INCORRECT_PAGINATION_CURSOR(1104),
     //ошибки валидации
     NAME_MUST_BE_CONTAINS_VISIBLE_SYMBOLS(2000),
     LOGIN_MUST_BE_CONTAINS_VISIBLE_SYMBOLS(2001),
@@ -42,7 +43,9 @@ public enum Errors {
     INDEX_MUST_BE_MORE_0(2006),
     COUNT_MUST_BE_MORE_1(2007),
     TEXT_MUST_BE_CONTAINS_VISIBLE_SYMBOL(2008),
-    FIELD_MUST_BE_NOT_NULL(2009);
+    FIELD_MUST_BE_NOT_NULL(2009),
+    OPERATION_COUNT_MUST_BE_FROM_1_TO_200(2010),
+    ROW_COUNT_MUST_BE_FROM_1_TO_100(2011);
 
     Errors(int value){
         numValue = value;
@@ -0,0 +1,6 @@
+package ru.manager.ProgectManager.enums;
+
+public enum ExportFormat {
+    CSV,
+    NDJSON // один JSON-объект на строку
+}
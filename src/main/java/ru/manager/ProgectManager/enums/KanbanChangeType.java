@@ -0,0 +1,24 @@
+package ru.manager.ProgectManager.enums;
+
+public enum KanbanChangeType {
+    ELEMENT_CREATE,
+    ELEMENT_RENAME,
+    ELEMENT_CONTENT,
+    ELEMENT_DATE,
+    ELEMENT_MOVE,
+    ELEMENT_STATUS,
+    ELEMENT_TAG_ADD,
+    ELEMENT_TAG_REMOVE,
+    ELEMENT_ATTRIBUTES, // комментарии, вложения, чекбоксы и учёт времени элемента
+    COLUMN_ADD,
+    COLUMN_RENAME,
+    COLUMN_MOVE,
+    COLUMN_DELETE,
+    COLUMN_SORT,
+    COLUMN_DELAY,
+    KANBAN_RENAME,
+    KANBAN_IMAGE,
+    KANBAN_TAGS,
+    COLUMN_REBALANCE, // ключи порядка колонки переназначены, курсоры страниц колонки больше не действуют
+    KANBAN_REBALANCE // ключи порядка колонок доски переназначены
+}
@@ -0,0 +1,5 @@
+package ru.manager.ProgectManager.enums;
+
+public enum MailStatus {
+    PENDING, DEAD
+}
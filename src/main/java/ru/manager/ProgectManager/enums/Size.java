@@ -1,5 +1,35 @@
 package ru.manager.ProgectManager.enums;
 
+import lombok.Getter;
+
+import java.util.Optional;
+
+// размеры хранимых изображений
+@Getter
 public enum Size {
-    SMALL, MIDDLE, LARGE
+    ICON(48, 48),
+    SMALL(200, 200),
+    MIDDLE(600, 600),
+    LARGE(1920, 1080);
+
+    private final int width;
+    private final int height;
+
+    Size(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    // наименьший вариант меньше stored, которого хватает для отображения в pixels точек
+    public static Optional<Size> fitting(Integer pixels, Size stored) {
+        if (pixels == null)
+            return Optional.empty();
+        for (Size size : values()) {
+            if (size.compareTo(stored) >= 0)
+                break;
+            if (size.height >= pixels)
+                return Optional.of(size);
+        }
+        return Optional.empty();
+    }
 }
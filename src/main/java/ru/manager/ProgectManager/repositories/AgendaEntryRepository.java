@@ -0,0 +1,56 @@
+package ru.manager.ProgectManager.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import ru.manager.ProgectManager.entitys.user.AgendaEntry;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.repositories.projections.AgendaElementView;
+import ru.manager.ProgectManager.repositories.projections.AgendaVersionView;
+import ru.manager.ProgectManager.repositories.projections.CalendarFeedView;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface AgendaEntryRepository extends CrudRepository<AgendaEntry, Long> {
+    // элемент, изменившийся после последнего пересчёта, отсекается по статусу
+    @Query("select a.elementId as id, e.name as name, a.kanbanId as kanbanId, a.epochDay as epochDay, " +
+            "a.canEdit as canEdit from AgendaEntry a, KanbanElement e " +
+            "where e.id = a.elementId and a.userId = :userId and a.epochDay >= :fromDay and a.epochDay <= :toDay " +
+            "and e.status = :status")
+    List<AgendaElementView> findByUserIdAndDays(@Param("userId") long userId, @Param("fromDay") long fromDay,
+                                                @Param("toDay") long toDay, @Param("status") ElementStatus status);
+
+    @Query("select a.elementId as id, e.name as name, a.kanbanId as kanbanId, a.epochDay as epochDay, " +
+            "a.canEdit as canEdit from AgendaEntry a, KanbanElement e " +
+            "where e.id = a.elementId and a.userId = :userId and a.epochDay >= :fromDay and a.epochDay <= :toDay " +
+            "and a.projectId = :projectId and e.status = :status")
+    List<AgendaElementView> findByUserIdAndProjectIdAndDays(@Param("userId") long userId,
+                                                            @Param("projectId") long projectId,
+                                                            @Param("fromDay") long fromDay,
+                                                            @Param("toDay") long toDay,
+                                                            @Param("status") ElementStatus status);
+
+    @Query("select e.id as id, e.name as name, e.selectedDate as selectedDate, e.timeOfUpdate as timeOfUpdate " +
+            "from AgendaEntry a, KanbanElement e where e.id = a.elementId and a.userId = :userId " +
+            "and a.elementId > :afterId and e.status = :status order by a.elementId")
+    List<CalendarFeedView> findFeedViewsAfter(@Param("userId") long userId, @Param("afterId") long afterId,
+                                              @Param("status") ElementStatus status, Pageable pageable);
+
+    @Query("select count(a) as count, coalesce(max(a.id), 0) as maxId from AgendaEntry a where a.userId = :userId")
+    AgendaVersionView findVersionByUserId(@Param("userId") long userId);
+
+    List<AgendaEntry> findByElementIdIn(Collection<Long> elementIds);
+
+    List<AgendaEntry> findByKanbanId(long kanbanId);
+
+    List<AgendaEntry> findByProjectId(long projectId);
+
+    List<AgendaEntry> findByUserId(long userId);
+
+    @Modifying
+    @Query("delete from AgendaEntry a where a.projectId not in (select p.id from Project p)")
+    void deleteWithoutProject();
+}
@@ -0,0 +1,7 @@
+package ru.manager.ProgectManager.repositories;
+
+import org.springframework.data.repository.CrudRepository;
+import ru.manager.ProgectManager.entitys.BackfillMarker;
+
+public interface BackfillMarkerRepository extends CrudRepository<BackfillMarker, String> {
+}
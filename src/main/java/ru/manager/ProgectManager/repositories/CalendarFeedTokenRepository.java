@@ -0,0 +1,21 @@
+package ru.manager.ProgectManager.repositories;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import ru.manager.ProgectManager.entitys.user.CalendarFeedToken;
+
+import java.util.Optional;
+
+public interface CalendarFeedTokenRepository extends CrudRepository<CalendarFeedToken, String> {
+    // лента доступна только активированной и не заблокированной учётной записи
+    @Query("select t.userId from CalendarFeedToken t, User u where u.userId = t.userId and t.token = :token " +
+            "and u.enabled = true and u.accountNonLocked = true")
+    Optional<Long> findActiveUserId(@Param("token") String token);
+
+    // удаление выполняется сразу, а не при сбросе сессии, чтобы новый токен не нарушил уникальность userId
+    @Modifying
+    @Query("delete from CalendarFeedToken t where t.userId = :userId")
+    void deleteByUserId(@Param("userId") long userId);
+}
@@ -0,0 +1,52 @@
+package ru.manager.ProgectManager.repositories;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import ru.manager.ProgectManager.entitys.user.DailyWorkTime;
+import ru.manager.ProgectManager.repositories.projections.WorkTimeView;
+
+import java.util.List;
+
+public interface DailyWorkTimeRepository extends CrudRepository<DailyWorkTime, Long> {
+    // границы диапазона не входят в отчёт
+    @Query("select d.workDate as workDate, d.workTime as workTime from DailyWorkTime d " +
+            "where d.userId = :userId and d.projectId = :projectId and d.workDate > :fromDate " +
+            "and d.workDate < :toDate order by d.workDate")
+    List<WorkTimeView> findWorkTimes(@Param("userId") long userId, @Param("projectId") long projectId,
+                                     @Param("fromDate") long fromDate, @Param("toDate") long toDate);
+
+    @Modifying
+    @Query(value = "insert into daily_work_time (user_id, project_id, work_date, work_time) " +
+            "values (:userId, :projectId, :workDate, :workTime) " +
+            "on duplicate key update work_time = work_time + :workTime", nativeQuery = true)
+    void upsertWorkTime(@Param("userId") long userId, @Param("projectId") long projectId,
+                        @Param("workDate") long workDate, @Param("workTime") int workTime);
+
+    @Modifying
+    @Query("update DailyWorkTime d set d.workTime = d.workTime + :delta " +
+            "where d.userId = :userId and d.projectId = :projectId and d.workDate = :workDate")
+    int addWorkTime(@Param("userId") long userId, @Param("projectId") long projectId,
+                    @Param("workDate") long workDate, @Param("delta") int delta);
+
+    @Modifying
+    @Query("delete from DailyWorkTime d where d.userId = :userId and d.projectId = :projectId " +
+            "and d.workDate = :workDate and d.workTime <= 0")
+    void deleteEmpty(@Param("userId") long userId, @Param("projectId") long projectId,
+                     @Param("workDate") long workDate);
+
+    @Modifying
+    @Query("delete from DailyWorkTime d where d.userId >= :fromId and d.userId < :toId")
+    void deleteByUserIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // суммы по отметкам пользователей из диапазона [fromId, toId) одной вставкой из выборки
+    @Modifying
+    @Query(value = "insert into daily_work_time (user_id, project_id, work_date, work_time) " +
+            "select w.owner_id, k.project_id, w.work_date, sum(w.work_time) from work_track w " +
+            "join kanban_element e on e.id = w.task_id join kanban_column c on c.id = e.kanban_column_id " +
+            "join kanban k on k.id = c.kanban_id where w.owner_id >= :fromId and w.owner_id < :toId " +
+            "group by w.owner_id, k.project_id, w.work_date " +
+            "on duplicate key update work_time = values(work_time)", nativeQuery = true)
+    int rebuildWorkTimes(@Param("fromId") long fromId, @Param("toId") long toId);
+}
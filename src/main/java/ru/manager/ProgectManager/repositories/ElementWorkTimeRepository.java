@@ -0,0 +1,76 @@
+package ru.manager.ProgectManager.repositories;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import ru.manager.ProgectManager.entitys.user.ElementWorkTime;
+import ru.manager.ProgectManager.repositories.projections.ElementWorkTimeView;
+import ru.manager.ProgectManager.repositories.projections.ResourceNameView;
+import ru.manager.ProgectManager.repositories.projections.WorkTimeReportView;
+
+import javax.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface ElementWorkTimeRepository extends CrudRepository<ElementWorkTime, Long> {
+    @Query("select distinct e.id as id, t.projectId as projectId, e.name as name " +
+            "from ElementWorkTime t, KanbanElement e " +
+            "where e.id = t.elementId and t.userId = :userId and t.projectId = :projectId")
+    List<ResourceNameView> findElements(@Param("userId") long userId, @Param("projectId") long projectId);
+
+    @Query("select t.elementId as elementId, t.workDate as workDate, t.workTime as workTime from ElementWorkTime t " +
+            "where t.userId = :userId and t.projectId = :projectId and t.workDate > :fromDate " +
+            "and t.workDate < :toDate order by t.workDate")
+    List<ElementWorkTimeView> findWorkTimes(@Param("userId") long userId, @Param("projectId") long projectId,
+                                            @Param("fromDate") long fromDate, @Param("toDate") long toDate);
+
+    // размер выборки Integer.MIN_VALUE включает построчное чтение в драйвере MySQL: строки не копятся в памяти,
+    // поэтому поток нужно читать внутри транзакции и закрывать после записи
+    @QueryHints({
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+    })
+    @Query("select t.userId as userId, u.nickname as nickname, k.id as kanbanId, k.name as kanbanName, " +
+            "e.id as elementId, e.name as elementName, t.workDate as workDate, t.workTime as workTime " +
+            "from ElementWorkTime t, User u, KanbanElement e join e.kanbanColumn c join c.kanban k " +
+            "where u.userId = t.userId and e.id = t.elementId and t.projectId = :projectId " +
+            "and t.workDate >= :fromDate and t.workDate <= :toDate " +
+            "order by t.userId, k.id, e.id, t.workDate")
+    Stream<WorkTimeReportView> streamProjectReport(@Param("projectId") long projectId,
+                                                   @Param("fromDate") long fromDate, @Param("toDate") long toDate);
+
+    @Modifying
+    @Query(value = "insert into element_work_time (user_id, element_id, project_id, work_date, work_time) " +
+            "values (:userId, :elementId, :projectId, :workDate, :workTime) " +
+            "on duplicate key update work_time = work_time + :workTime", nativeQuery = true)
+    void upsertWorkTime(@Param("userId") long userId, @Param("elementId") long elementId,
+                        @Param("projectId") long projectId, @Param("workDate") long workDate,
+                        @Param("workTime") int workTime);
+
+    @Modifying
+    @Query("update ElementWorkTime t set t.workTime = t.workTime + :delta " +
+            "where t.userId = :userId and t.elementId = :elementId and t.workDate = :workDate")
+    int addWorkTime(@Param("userId") long userId, @Param("elementId") long elementId,
+                    @Param("workDate") long workDate, @Param("delta") int delta);
+
+    @Modifying
+    @Query("delete from ElementWorkTime t where t.userId = :userId and t.elementId = :elementId " +
+            "and t.workDate = :workDate and t.workTime <= 0")
+    void deleteEmpty(@Param("userId") long userId, @Param("elementId") long elementId,
+                     @Param("workDate") long workDate);
+
+    @Modifying
+    @Query("delete from ElementWorkTime t where t.userId >= :fromId and t.userId < :toId")
+    void deleteByUserIdRange(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Modifying
+    @Query(value = "insert into element_work_time (user_id, element_id, project_id, work_date, work_time) " +
+            "select w.owner_id, e.id, k.project_id, w.work_date, sum(w.work_time) from work_track w " +
+            "join kanban_element e on e.id = w.task_id join kanban_column c on c.id = e.kanban_column_id " +
+            "join kanban k on k.id = c.kanban_id where w.owner_id >= :fromId and w.owner_id < :toId " +
+            "group by w.owner_id, e.id, k.project_id, w.work_date " +
+            "on duplicate key update work_time = values(work_time)", nativeQuery = true)
+    int rebuildWorkTimes(@Param("fromId") long fromId, @Param("toId") long toId);
+}
@@ -0,0 +1,31 @@
+package ru.manager.ProgectManager.repositories;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.entitys.JobLease;
+
+public interface JobLeaseRepository extends CrudRepository<JobLease, String> {
+    @Transactional
+    @Modifying
+    @Query(value = "insert ignore into job_lease (name, owner, expires_at, heartbeat) values (:name, '', 0, 0)",
+            nativeQuery = true)
+    int create(@Param("name") String name);
+
+    // аренда свободна, если её срок истёк или она уже принадлежит этому экземпляру
+    @Transactional
+    @Modifying
+    @Query("update JobLease l set l.owner = :owner, l.expiresAt = :expiresAt, l.heartbeat = :now " +
+            "where l.name = :name and (l.owner = :owner or l.expiresAt < :now)")
+    int acquire(@Param("name") String name, @Param("owner") String owner, @Param("now") long now,
+                @Param("expiresAt") long expiresAt);
+
+    @Transactional
+    @Modifying
+    @Query("update JobLease l set l.expiresAt = :expiresAt, l.heartbeat = :now " +
+            "where l.name = :name and l.owner = :owner")
+    int extend(@Param("name") String name, @Param("owner") String owner, @Param("now") long now,
+               @Param("expiresAt") long expiresAt);
+}
@@ -0,0 +1,20 @@
+package ru.manager.ProgectManager.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.entitys.kanban.KanbanChange;
+
+import java.util.List;
+
+public interface KanbanChangeRepository extends CrudRepository<KanbanChange, Long> {
+    List<KanbanChange> findByKanbanIdAndSeqGreaterThanOrderBySeq(long kanbanId, long seq, Pageable pageable);
+
+    @Transactional
+    @Modifying
+    @Query("delete from KanbanChange c where c.createTime < :time")
+    int deleteOlderThan(@Param("time") long time);
+}
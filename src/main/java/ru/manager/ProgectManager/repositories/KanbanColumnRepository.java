@@ -1,8 +1,49 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
+import ru.manager.ProgectManager.repositories.projections.KanbanColumnView;
+import ru.manager.ProgectManager.repositories.projections.KanbanVersionView;
+
+import java.util.List;
+import java.util.Optional;
 
 public interface KanbanColumnRepository extends CrudRepository<KanbanColumn, Long> {
+    @Query("select c.id as id, c.name as name from KanbanColumn c " +
+            "where c.kanban.id = :kanbanId order by c.orderKey, c.id")
+    List<KanbanColumnView> findColumnViewsByKanbanId(@Param("kanbanId") long kanbanId);
+
+    @Query("select c from KanbanColumn c where c.kanban.id = :kanbanId order by c.orderKey, c.id")
+    List<KanbanColumn> findOrderedByKanbanId(@Param("kanbanId") long kanbanId);
+
+    @Query("select count(c) from KanbanColumn c where c.kanban.id = :kanbanId " +
+            "and (c.orderKey < :orderKey or (c.orderKey = :orderKey and c.id < :id))")
+    long countColumnsBefore(@Param("kanbanId") long kanbanId, @Param("orderKey") String orderKey,
+                            @Param("id") long id);
+
+    @Query("select max(c.orderKey) from KanbanColumn c where c.kanban.id = :kanbanId")
+    String findLastOrderKey(@Param("kanbanId") long kanbanId);
+
+    @Query("select distinct c.kanban.id from KanbanColumn c where length(c.orderKey) > :length")
+    List<Long> findKanbansWithLongOrderKeys(@Param("length") int length);
+
+    @Query("select k.id as kanbanId, k.project.id as projectId, k.version as version " +
+            "from KanbanColumn c join c.kanban k where c.id = :id")
+    Optional<KanbanVersionView> findVersionByColumnId(@Param("id") long id);
+
+    @Query("select coalesce(max(c.id), 0) from KanbanColumn c")
+    long findMaxId();
+
+    @Query("select count(c) from KanbanColumn c where c.orderKey is null or c.orderKey = ''")
+    long countWithoutOrderKey();
 
+    @Transactional
+    @Modifying
+    @Query(value = "update kanban_column set order_key = concat(lpad(lower(conv(serial_number, 10, 36)), 4, '0'), 'i') " +
+            "where (order_key is null or order_key = '') and id >= :fromId and id < :toId", nativeQuery = true)
+    int fillOrderKeys(@Param("fromId") long fromId, @Param("toId") long toId);
 }
@@ -1,7 +1,15 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
+import ru.manager.ProgectManager.repositories.projections.ResourceConnectorView;
+
+import java.util.List;
 
 public interface KanbanConnectorRepository extends CrudRepository<CustomRoleWithKanbanConnector, Long> {
+    @Query("select c.customProjectRole.id as roleId, c.kanban.id as resourceId, c.canEdit as canEdit " +
+            "from CustomRoleWithKanbanConnector c where c.customProjectRole.project.id = :projectId")
+    List<ResourceConnectorView> findConnectorsByProjectId(@Param("projectId") long projectId);
 }
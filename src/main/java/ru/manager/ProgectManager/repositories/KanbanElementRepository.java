@@ -1,7 +1,168 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.repositories.projections.AgendaSourceView;
+import ru.manager.ProgectManager.repositories.projections.CalendarElementView;
+import ru.manager.ProgectManager.repositories.projections.CalendarFeedView;
+import ru.manager.ProgectManager.repositories.projections.ElementTagView;
+import ru.manager.ProgectManager.repositories.projections.KanbanElementCardView;
+import ru.manager.ProgectManager.repositories.projections.KanbanElementSearchView;
+import ru.manager.ProgectManager.repositories.projections.KanbanVersionView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface KanbanElementRepository extends CrudRepository<KanbanElement, Long> {
+    // оконная функция ограничивает выборку первыми карточками каждой колонки на стороне базы данных
+    @Query(value = "select x.id as id, x.kanban_column_id as columnId, x.order_key as orderKey, " +
+            "x.name as name, x.selected_date as selectedDate, x.owner_id as ownerId, " +
+            "x.last_redactor_id as lastRedactorId, " +
+            "x.comment_count as commentCount, x.attach_count as attachCount, " +
+            "x.checkbox_count as checkboxCount, x.checked_checkbox_count as checkedCheckboxCount " +
+            "from (select e.*, row_number() over (partition by e.kanban_column_id " +
+            "order by e.order_key, e.id) as row_num from kanban_element e " +
+            "where e.kanban_column_id in (:columnIds) and e.status = :status) x " +
+            "where x.row_num <= :count order by x.kanban_column_id, x.order_key, x.id", nativeQuery = true)
+    List<KanbanElementCardView> findFirstCardViews(@Param("columnIds") Collection<Long> columnIds,
+                                                   @Param("status") int status, @Param("count") int count);
+
+    @Query("select e.id as id, e.kanbanColumn.id as columnId, e.orderKey as orderKey, e.name as name, " +
+            "e.selectedDate as selectedDate, o.userId as ownerId, r.userId as lastRedactorId, " +
+            "e.commentCount as commentCount, e.attachCount as attachCount, e.checkboxCount as checkboxCount, " +
+            "e.checkedCheckboxCount as checkedCheckboxCount " +
+            "from KanbanElement e left join e.owner o left join e.lastRedactor r " +
+            "where e.kanbanColumn.id = :columnId and e.status = :status and (e.orderKey > :orderKey " +
+            "or (e.orderKey = :orderKey and e.id > :id)) order by e.orderKey, e.id")
+    List<KanbanElementCardView> findCardViewsAfter(@Param("columnId") long columnId,
+                                                   @Param("status") ElementStatus status,
+                                                   @Param("orderKey") String orderKey, @Param("id") long id,
+                                                   Pageable pageable);
+
+    // соседи позиции вставки без перемещаемого элемента, смещение проходит только по индексу
+    @Query(value = "select e.order_key from kanban_element e where e.kanban_column_id = :columnId " +
+            "and e.status = :status and e.id <> :excludedId order by e.order_key, e.id " +
+            "limit :limit offset :offset", nativeQuery = true)
+    List<String> findOrderKeys(@Param("columnId") long columnId, @Param("status") int status,
+                               @Param("excludedId") long excludedId, @Param("offset") int offset,
+                               @Param("limit") int limit);
+
+    @Query("select count(e) from KanbanElement e where e.kanbanColumn.id = :columnId and e.status = :status " +
+            "and (e.orderKey < :orderKey or (e.orderKey = :orderKey and e.id < :id))")
+    long countElementsBefore(@Param("columnId") long columnId, @Param("status") ElementStatus status,
+                             @Param("orderKey") String orderKey, @Param("id") long id);
+
+    @Query("select count(e) from KanbanElement e where e.kanbanColumn.id = :columnId and e.status = :status")
+    long countByColumn(@Param("columnId") long columnId, @Param("status") ElementStatus status);
+
+    @Query("select max(e.orderKey) from KanbanElement e where e.kanbanColumn.id = :columnId and e.status = :status")
+    String findLastOrderKey(@Param("columnId") long columnId, @Param("status") ElementStatus status);
+
+    @Query("select e from KanbanElement e where e.kanbanColumn.id = :columnId and e.status = :status " +
+            "order by e.orderKey, e.id")
+    List<KanbanElement> findOrdered(@Param("columnId") long columnId, @Param("status") ElementStatus status);
+
+    @Query("select distinct e.kanbanColumn.id from KanbanElement e " +
+            "where e.status = :status and length(e.orderKey) > :length")
+    List<Long> findColumnsWithLongOrderKeys(@Param("status") ElementStatus status, @Param("length") int length);
+
+    // элементы с выбранной датой из интервала [from, to), день считается по смещению пользователя offset в секундах
+    @Query(value = "select e.id as id, e.name as name, c.kanban_id as kanbanId, " +
+            "(e.selected_date + :offset) div 86400 as epochDay " +
+            "from kanban_element e join kanban_column c on c.id = e.kanban_column_id " +
+            "where e.status = :status and e.selected_date >= :from and e.selected_date < :to " +
+            "and c.kanban_id in :kanbanIds", nativeQuery = true)
+    List<CalendarElementView> findCalendarViews(@Param("kanbanIds") Collection<Long> kanbanIds,
+                                                @Param("status") int status, @Param("from") long from,
+                                                @Param("to") long to, @Param("offset") long offset);
+
+    @Query("select e.id as id, e.name as name, e.selectedDate as selectedDate, e.timeOfUpdate as timeOfUpdate " +
+            "from KanbanElement e where e.kanbanColumn.kanban.id = :kanbanId and e.status = :status " +
+            "and e.selectedDate <> 0 and e.id > :afterId order by e.id")
+    List<CalendarFeedView> findFeedViewsAfter(@Param("kanbanId") long kanbanId, @Param("afterId") long afterId,
+                                              @Param("status") ElementStatus status, Pageable pageable);
+
+    @Query("select e.id as id, k.id as kanbanId, k.project.id as projectId, e.selectedDate as selectedDate " +
+            "from KanbanElement e join e.kanbanColumn c join c.kanban k " +
+            "where e.id in :ids and e.status = :status and e.selectedDate <> 0")
+    List<AgendaSourceView> findAgendaSourcesByIdIn(@Param("ids") Collection<Long> ids,
+                                                   @Param("status") ElementStatus status);
+
+    @Query("select e.id as id, k.id as kanbanId, k.project.id as projectId, e.selectedDate as selectedDate " +
+            "from KanbanElement e join e.kanbanColumn c join c.kanban k " +
+            "where k.id = :kanbanId and e.status = :status and e.selectedDate <> 0")
+    List<AgendaSourceView> findAgendaSourcesByKanbanId(@Param("kanbanId") long kanbanId,
+                                                       @Param("status") ElementStatus status);
+
+    @Query("select e.id as id, k.id as kanbanId, k.project.id as projectId, e.selectedDate as selectedDate " +
+            "from KanbanElement e join e.kanbanColumn c join c.kanban k " +
+            "where k.project.id in :projectIds and e.status = :status and e.selectedDate <> 0")
+    List<AgendaSourceView> findAgendaSourcesByProjectIdIn(@Param("projectIds") Collection<Long> projectIds,
+                                                          @Param("status") ElementStatus status);
+
+    @Query("select e.id as elementId, t.id as id, t.text as text, t.color as color " +
+            "from KanbanElement e join e.tags t where e.id in :elementIds")
+    List<ElementTagView> findTagViews(@Param("elementIds") Collection<Long> elementIds);
+
+    @Query("select e.id as id, e.name as name, e.content as content, e.status as status from KanbanElement e " +
+            "where e.kanbanColumn.kanban.id = :kanbanId and e.status <> :excluded")
+    List<KanbanElementSearchView> findSearchViewsByKanbanId(@Param("kanbanId") long kanbanId,
+                                                            @Param("excluded") ElementStatus excluded);
+
+    @Query("select e.id as elementId, t.id as id, t.text as text, t.color as color " +
+            "from KanbanElement e join e.tags t where e.kanbanColumn.kanban.id = :kanbanId and e.status <> :excluded")
+    List<ElementTagView> findTagViewsByKanbanId(@Param("kanbanId") long kanbanId,
+                                                @Param("excluded") ElementStatus excluded);
+
+    @Query("select k.id as kanbanId, k.project.id as projectId, k.version as version " +
+            "from KanbanElement e join e.kanbanColumn c join c.kanban k where e.id = :id")
+    Optional<KanbanVersionView> findVersionByElementId(@Param("id") long id);
+
+    @Transactional
+    @Modifying
+    @Query("update KanbanElement e set e.commentCount = e.commentCount + :delta where e.id = :id")
+    void changeCommentCount(@Param("id") long id, @Param("delta") int delta);
+
+    @Transactional
+    @Modifying
+    @Query("update KanbanElement e set e.attachCount = e.attachCount + :delta where e.id = :id")
+    void changeAttachCount(@Param("id") long id, @Param("delta") int delta);
+
+    @Transactional
+    @Modifying
+    @Query("update KanbanElement e set e.checkboxCount = e.checkboxCount + :totalDelta, " +
+            "e.checkedCheckboxCount = e.checkedCheckboxCount + :checkedDelta where e.id = :id")
+    void changeCheckboxCounts(@Param("id") long id, @Param("totalDelta") int totalDelta,
+                              @Param("checkedDelta") int checkedDelta);
+
+    @Query("select coalesce(max(e.id), 0) from KanbanElement e")
+    long findMaxId();
+
+    // пересчёт счётчиков по фактическим строкам для элементов с идентификаторами из диапазона [fromId, toId)
+    @Transactional
+    @Modifying
+    @Query(value = "update kanban_element e set " +
+            "e.comment_count = (select count(*) from kanban_element_comment c where c.element_id = e.id), " +
+            "e.attach_count = (select count(*) from kanban_attachment a where a.element_id = e.id), " +
+            "e.checkbox_count = (select count(*) from check_box b where b.element_id = e.id), " +
+            "e.checked_checkbox_count = (select count(*) from check_box b where b.element_id = e.id and b.is_check = 1) " +
+            "where e.id >= :fromId and e.id < :toId", nativeQuery = true)
+    int recountCounters(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Query("select count(e) from KanbanElement e where e.orderKey is null or e.orderKey = ''")
+    long countWithoutOrderKey();
+
+    // тот же ключ, что и в миграции V8: base36 фиксированной ширины с суффиксом 'i'
+    @Transactional
+    @Modifying
+    @Query(value = "update kanban_element set order_key = concat(lpad(lower(conv(serial_number, 10, 36)), 4, '0'), 'i') " +
+            "where (order_key is null or order_key = '') and id >= :fromId and id < :toId", nativeQuery = true)
+    int fillOrderKeys(@Param("fromId") long fromId, @Param("toId") long toId);
 }
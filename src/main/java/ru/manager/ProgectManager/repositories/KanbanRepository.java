@@ -1,7 +1,39 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.enums.Size;
+import ru.manager.ProgectManager.repositories.projections.KanbanVersionView;
+import ru.manager.ProgectManager.repositories.projections.ResourceNameView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface KanbanRepository extends CrudRepository<Kanban, Long> {
+    @Query("select k.id as kanbanId, k.project.id as projectId, k.version as version from Kanban k where k.id = :id")
+    Optional<KanbanVersionView> findVersionById(@Param("id") long id);
+
+    @Query("select k.id as id, k.project.id as projectId, k.name as name from Kanban k " +
+            "where k.project.id in :projectIds")
+    List<ResourceNameView> findNameViewsByProjectIdIn(@Param("projectIds") Collection<Long> projectIds);
+
+    @Query("select coalesce(sum(k.version), 0) from Kanban k where k.project.id in :projectIds")
+    long sumVersionsByProjectIdIn(@Param("projectIds") Collection<Long> projectIds);
+
+    @Transactional
+    @Modifying
+    @Query("update Kanban k set k.version = k.version + :count where k.id = :id")
+    int increaseVersion(@Param("id") long id, @Param("count") long count);
+
+    // строка доски блокируется до конца транзакции
+    @Query(value = "select id from kanban where id = :id for update", nativeQuery = true)
+    Long lockById(@Param("id") long id);
+
+    @Query("select v from Kanban k join k.photoVariants v where k.id = :id and key(v) = :size")
+    byte[] findPhotoVariant(@Param("id") long id, @Param("size") Size size);
 }
@@ -0,0 +1,31 @@
+package ru.manager.ProgectManager.repositories;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.entitys.MailOutbox;
+import ru.manager.ProgectManager.enums.MailStatus;
+
+import java.util.List;
+
+public interface MailOutboxRepository extends CrudRepository<MailOutbox, Long> {
+    @Query("select m.id from MailOutbox m where m.status = :status and m.nextAttempt <= :now " +
+            "order by m.nextAttempt")
+    List<Long> findDueIds(@Param("status") MailStatus status, @Param("now") long now, Pageable pageable);
+
+    // письмо берёт в отправку тот узел, чьё обновление прошло первым
+    @Transactional
+    @Modifying
+    @Query("update MailOutbox m set m.nextAttempt = :lockedUntil " +
+            "where m.id = :id and m.status = :status and m.nextAttempt <= :now")
+    int claim(@Param("id") long id, @Param("status") MailStatus status, @Param("now") long now,
+              @Param("lockedUntil") long lockedUntil);
+
+    @Transactional
+    @Modifying
+    @Query("delete from MailOutbox m where m.cancelKey = :cancelKey and m.status = :status")
+    void deleteByCancelKey(@Param("cancelKey") String cancelKey, @Param("status") MailStatus status);
+}
@@ -1,7 +1,27 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import ru.manager.ProgectManager.entitys.documents.Page;
+import ru.manager.ProgectManager.repositories.projections.PageContentView;
+import ru.manager.ProgectManager.repositories.projections.PageNameView;
+import ru.manager.ProgectManager.repositories.projections.PageSearchView;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface PageRepository extends CrudRepository<Page, Long> {
+    @Query("select p.id as id, p.name as name, p.content as content, r.id as rootId, pa.id as parentId, " +
+            "o.userId as ownerId, p.published as published, p.updateTime as updateTime " +
+            "from Page p left join p.root r left join p.parent pa left join p.owner o " +
+            "where p.project.id = :projectId")
+    List<PageSearchView> findSearchViewsByProjectId(@Param("projectId") long projectId);
+
+    @Query("select p.id as id, p.content as content from Page p where p.id in :ids")
+    List<PageContentView> findContentViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id as id, p.project.id as projectId, p.name as name, r.id as rootId " +
+            "from Page p left join p.root r where p.project.id in :projectIds")
+    List<PageNameView> findNameViewsByProjectIdIn(@Param("projectIds") Collection<Long> projectIds);
 }
@@ -1,8 +1,33 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.entitys.Project;
+import ru.manager.ProgectManager.enums.Size;
+import ru.manager.ProgectManager.repositories.projections.ProjectSummaryView;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 public interface ProjectRepository extends CrudRepository<Project, Long> {
+    @Query("select p.id as id, p.name as name, p.description as description from Project p where p.id in :ids")
+    List<ProjectSummaryView> findSummaryViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select p.id from Project p")
+    List<Long> findAllIds();
+
+    @Query("select p.accessVersion from Project p where p.id = :id")
+    Optional<Long> findAccessVersionById(@Param("id") long id);
+
+    @Transactional
+    @Modifying
+    @Query("update Project p set p.accessVersion = p.accessVersion + 1 where p.id = :id")
+    int increaseAccessVersion(@Param("id") long id);
 
+    @Query("select v from Project p join p.photoVariants v where p.id = :id and key(v) = :size")
+    byte[] findPhotoVariant(@Param("id") long id, @Param("size") Size size);
 }
@@ -1,8 +1,41 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.entitys.kanban.TimeRemover;
+import ru.manager.ProgectManager.repositories.projections.RemoverDueView;
+import ru.manager.ProgectManager.repositories.projections.RemoverExpiryView;
+
+import java.util.Collection;
+import java.util.List;
 
 public interface TimeRemoverRepository extends CrudRepository<TimeRemover, Long> {
+    // удалители, срок которых наступил до указанного дня, порциями в порядке индекса (hard, timeToDelete)
+    @Query("select r.removerId as removerId, r.timeToDelete as timeToDelete from TimeRemover r " +
+            "where r.hard = :hard and r.timeToDelete < :day and (r.timeToDelete > :afterDay " +
+            "or (r.timeToDelete = :afterDay and r.removerId > :afterId)) order by r.timeToDelete, r.removerId")
+    List<RemoverExpiryView> findExpired(@Param("hard") boolean hard, @Param("day") long day,
+                                        @Param("afterDay") long afterDay, @Param("afterId") long afterId,
+                                        Pageable pageable);
+
+    @Modifying
+    @Query("delete from TimeRemover r where r.removerId in :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+
+    // удалители со сроком до until, порциями в порядке индекса (dueTime, removerId)
+    @Query("select r.removerId as removerId, r.dueTime as dueTime from TimeRemover r where r.dueTime < :until " +
+            "and (r.dueTime > :afterDue or (r.dueTime = :afterDue and r.removerId > :afterId)) " +
+            "order by r.dueTime, r.removerId")
+    List<RemoverDueView> findDueBefore(@Param("until") long until, @Param("afterDue") long afterDue,
+                                       @Param("afterId") long afterId, Pageable pageable);
 
+    // удалители, созданные до появления точного срока, срабатывают в начале следующего дня, как и раньше
+    @Transactional
+    @Modifying
+    @Query("update TimeRemover r set r.dueTime = (r.timeToDelete + 1) * :daySeconds where r.dueTime = 0")
+    int fillDueTime(@Param("daySeconds") long daySeconds);
 }
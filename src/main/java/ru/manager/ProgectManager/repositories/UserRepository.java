@@ -1,11 +1,38 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.Size;
+import ru.manager.ProgectManager.repositories.projections.UserSummaryView;
+import ru.manager.ProgectManager.repositories.projections.UserZoneView;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends CrudRepository<User, Long> {
     User findByUsername(String username);
     Optional<User> findByEmail(String email);
+
+    @Query("select u.userId as userId, u.nickname as nickname, u.lastVisit as lastVisit, " +
+            "case when u.photo is null then false else true end as hasPhoto from User u where u.userId in :ids")
+    List<UserSummaryView> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select u.userId as userId, u.zoneId as zoneId from User u where u.userId in :ids")
+    List<UserZoneView> findZonesByIds(@Param("ids") Collection<Long> ids);
+
+    @Query("select u.tokensValidAfter from User u where u.username = :login")
+    Optional<Long> findTokensValidAfter(@Param("login") String login);
+
+    @Transactional
+    @Modifying
+    @Query("update User u set u.tokensValidAfter = :time where u.username = :login")
+    int updateTokensValidAfter(@Param("login") String login, @Param("time") long time);
+
+    @Query("select v from User u join u.photoVariants v where u.userId = :id and key(v) = :size")
+    byte[] findPhotoVariant(@Param("id") long id, @Param("size") Size size);
 }
@@ -1,7 +1,22 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
+import ru.manager.ProgectManager.repositories.projections.MemberAccessView;
+
+import java.util.List;
 
 public interface UserWithProjectConnectorRepository extends CrudRepository<UserWithProjectConnector, Long> {
+    @Query("select c.user.userId as userId, c.roleType as roleType, r.id as roleId, " +
+            "r.canEditResources as canEditResources " +
+            "from UserWithProjectConnector c left join c.customProjectRole r where c.project.id = :projectId")
+    List<MemberAccessView> findMemberAccessByProjectId(@Param("projectId") long projectId);
+
+    @Query("select c.project.id from UserWithProjectConnector c where c.user.userId = :userId")
+    List<Long> findProjectIdsByUserId(@Param("userId") long userId);
+
+    @Query("select c.user.userId from UserWithProjectConnector c where c.project.id = :projectId")
+    List<Long> findUserIdsByProjectId(@Param("projectId") long projectId);
 }
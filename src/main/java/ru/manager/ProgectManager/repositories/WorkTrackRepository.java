@@ -1,7 +1,10 @@
 package ru.manager.ProgectManager.repositories;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import ru.manager.ProgectManager.entitys.user.WorkTrack;
 
 public interface WorkTrackRepository extends CrudRepository<WorkTrack, Long> {
+    @Query("select coalesce(max(w.owner.userId), 0) from WorkTrack w")
+    long findMaxOwnerId();
 }
@@ -0,0 +1,5 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface AgendaElementView extends CalendarElementView {
+    boolean getCanEdit();
+}
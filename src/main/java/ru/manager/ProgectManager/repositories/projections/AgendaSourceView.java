@@ -0,0 +1,11 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface AgendaSourceView {
+    long getId();
+
+    long getKanbanId();
+
+    long getProjectId();
+
+    long getSelectedDate();
+}
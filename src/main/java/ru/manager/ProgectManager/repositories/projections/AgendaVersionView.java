@@ -0,0 +1,7 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface AgendaVersionView {
+    long getCount();
+
+    long getMaxId(); // новые строки получают больший идентификатор, обновлённые на месте меняются вместе с досками
+}
@@ -0,0 +1,12 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface CalendarElementView {
+    long getId();
+
+    String getName();
+
+    long getKanbanId();
+
+    // день выбранной даты по смещению пользователя, в днях от 1970-01-01
+    long getEpochDay();
+}
@@ -0,0 +1,11 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface CalendarFeedView {
+    long getId();
+
+    String getName();
+
+    long getSelectedDate();
+
+    long getTimeOfUpdate();
+}
@@ -0,0 +1,11 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface ElementTagView {
+    long getElementId();
+
+    long getId();
+
+    String getText();
+
+    String getColor();
+}
@@ -0,0 +1,5 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface ElementWorkTimeView extends WorkTimeView {
+    long getElementId();
+}
@@ -0,0 +1,7 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface KanbanColumnView {
+    long getId();
+
+    String getName();
+}
@@ -0,0 +1,25 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface KanbanElementCardView {
+    long getId();
+
+    long getColumnId();
+
+    String getOrderKey();
+
+    String getName();
+
+    long getSelectedDate();
+
+    Long getOwnerId();
+
+    Long getLastRedactorId();
+
+    long getCommentCount();
+
+    long getAttachCount();
+
+    long getCheckboxCount();
+
+    long getCheckedCheckboxCount();
+}
@@ -0,0 +1,13 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+import ru.manager.ProgectManager.enums.ElementStatus;
+
+public interface KanbanElementSearchView {
+    long getId();
+
+    String getName();
+
+    String getContent();
+
+    ElementStatus getStatus();
+}
@@ -0,0 +1,9 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface KanbanVersionView {
+    long getKanbanId();
+
+    long getProjectId();
+
+    long getVersion();
+}
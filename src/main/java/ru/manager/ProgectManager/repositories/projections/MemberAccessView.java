@@ -0,0 +1,13 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+import ru.manager.ProgectManager.enums.TypeRoleProject;
+
+public interface MemberAccessView {
+    long getUserId();
+
+    TypeRoleProject getRoleType();
+
+    Long getRoleId(); // null, если участник не имеет кастомной роли
+
+    Boolean getCanEditResources();
+}
@@ -0,0 +1,5 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface PageNameView extends ResourceNameView {
+    Long getRootId();
+}
@@ -0,0 +1,19 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface PageSearchView {
+    long getId();
+
+    String getName();
+
+    String getContent();
+
+    Long getRootId();
+
+    Long getParentId();
+
+    Long getOwnerId();
+
+    boolean getPublished();
+
+    long getUpdateTime();
+}
@@ -0,0 +1,9 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface ProjectSummaryView {
+    long getId();
+
+    String getName();
+
+    String getDescription();
+}
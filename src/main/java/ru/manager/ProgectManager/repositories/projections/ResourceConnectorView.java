@@ -0,0 +1,9 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface ResourceConnectorView {
+    long getRoleId();
+
+    long getResourceId();
+
+    boolean getCanEdit();
+}
@@ -0,0 +1,9 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface ResourceNameView {
+    long getId();
+
+    long getProjectId();
+
+    String getName();
+}
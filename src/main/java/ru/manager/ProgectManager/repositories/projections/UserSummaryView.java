@@ -0,0 +1,11 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface UserSummaryView {
+    long getUserId();
+
+    String getNickname();
+
+    long getLastVisit();
+
+    boolean getHasPhoto();
+}
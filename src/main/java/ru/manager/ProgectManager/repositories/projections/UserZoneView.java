@@ -0,0 +1,7 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface UserZoneView {
+    long getUserId();
+
+    int getZoneId();
+}
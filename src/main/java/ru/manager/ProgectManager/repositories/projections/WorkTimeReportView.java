@@ -0,0 +1,19 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface WorkTimeReportView {
+    long getUserId();
+
+    String getNickname();
+
+    long getKanbanId();
+
+    String getKanbanName();
+
+    long getElementId();
+
+    String getElementName();
+
+    long getWorkDate();
+
+    int getWorkTime();
+}
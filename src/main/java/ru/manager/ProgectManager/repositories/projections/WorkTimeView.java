@@ -0,0 +1,7 @@
+package ru.manager.ProgectManager.repositories.projections;
+
+public interface WorkTimeView {
+    long getWorkDate();
+
+    int getWorkTime();
+}
@@ -5,6 +5,7 @@ import org.springframework.stereotype.Service;
 import ru.manager.ProgectManager.DTO.request.adminAction.LockRequest;
 import ru.manager.ProgectManager.DTO.response.user.UserDataForAdmin;
 import ru.manager.ProgectManager.DTO.response.user.UserDataForAdminList;
+import ru.manager.ProgectManager.components.authorization.TokenRevocationList;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.repositories.UserRepository;
 
@@ -17,12 +18,16 @@ import java.util.stream.StreamSupport;
 public class AdminService {
     private final UserRepository userRepository;
     private final MailService mailService;
+    private final TokenRevocationList revocationList;
+    private final CalendarFeedService feedService;
 
     public boolean lockAccount(LockRequest lockRequest) {
         User blockingUser = findOnIdOrLogin(lockRequest.getIdOrLogin()).orElseThrow();
         if(blockingUser.getUserWithRoleConnectors().parallelStream().noneMatch(r -> r.getName().equals("ROLE_ADMIN"))) {
             blockingUser.setAccountNonLocked(false);
             blockingUser = userRepository.save(blockingUser);
+            revocationList.revoke(blockingUser.getUsername());
+            feedService.revokeToken(blockingUser.getUsername());
             if(lockRequest.getCause() != null && !lockRequest.getCause().isBlank()) {
                 mailService.sendAboutLockAccount(blockingUser, lockRequest.getCause());
             }
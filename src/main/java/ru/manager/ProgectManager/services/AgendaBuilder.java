@@ -0,0 +1,142 @@
+package ru.manager.ProgectManager.services;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.entitys.user.AgendaEntry;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.repositories.*;
+import ru.manager.ProgectManager.repositories.projections.AgendaSourceView;
+import ru.manager.ProgectManager.repositories.projections.UserZoneView;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+// пересчёт строк календаря пользователей, повторный вызов безопасен
+@Service
+@RequiredArgsConstructor
+public class AgendaBuilder {
+    private static final long SECONDS_IN_DAY = 86_400;
+    private static final int ELEMENT_CHUNK = 1_000;
+
+    private final AgendaEntryRepository agendaRepository;
+    private final KanbanElementRepository elementRepository;
+    private final ProjectRepository projectRepository;
+    private final UserRepository userRepository;
+    private final UserWithProjectConnectorRepository connectorRepository;
+    private final ProjectAccessIndex accessIndex;
+
+    @Transactional
+    public void rebuildProject(long projectId) {
+        List<Long> members = connectorRepository.findUserIdsByProjectId(projectId);
+        List<AgendaSourceView> sources = (members.isEmpty() ? List.of()
+                : elementRepository.findAgendaSourcesByProjectIdIn(List.of(projectId), ElementStatus.ALIVE));
+        write(agendaRepository.findByProjectId(projectId), false, sources, Map.of(projectId, members));
+    }
+
+    @Transactional
+    public void rebuildKanban(long kanbanId) {
+        List<AgendaSourceView> sources = elementRepository.findAgendaSourcesByKanbanId(kanbanId,
+                ElementStatus.ALIVE);
+        write(agendaRepository.findByKanbanId(kanbanId), false, sources, findMembers(sources));
+    }
+
+    // вызывается и из запроса после коммита, пока его завершённая транзакция ещё привязана к потоку
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void refreshElements(Collection<Long> elementIds) {
+        List<AgendaSourceView> sources = elementRepository.findAgendaSourcesByIdIn(elementIds, ElementStatus.ALIVE);
+        write(agendaRepository.findByElementIdIn(elementIds), true, sources, findMembers(sources));
+    }
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void rebuildUser(long userId) {
+        List<Long> projectIds = connectorRepository.findProjectIdsByUserId(userId);
+        Map<Long, List<Long>> members = new HashMap<>();
+        projectIds.forEach(projectId -> members.put(projectId, List.of(userId)));
+        List<AgendaSourceView> sources = (projectIds.isEmpty() ? List.of()
+                : elementRepository.findAgendaSourcesByProjectIdIn(projectIds, ElementStatus.ALIVE));
+        write(agendaRepository.findByUserId(userId), false, sources, members);
+    }
+
+    @Transactional
+    public void removeOrphans() {
+        agendaRepository.deleteWithoutProject();
+    }
+
+    public List<Long> findProjectIds() {
+        return projectRepository.findAllIds();
+    }
+
+    private Map<Long, List<Long>> findMembers(List<AgendaSourceView> sources) {
+        Map<Long, List<Long>> result = new HashMap<>();
+        sources.forEach(source -> result.computeIfAbsent(source.getProjectId(),
+                connectorRepository::findUserIdsByProjectId));
+        return result;
+    }
+
+    // день считается по часовому поясу пользователя на момент пересчёта;
+    // wholeElements - область уже содержит все строки своих элементов
+    private void write(List<AgendaEntry> scope, boolean wholeElements, List<AgendaSourceView> sources,
+                       Map<Long, List<Long>> members) {
+        Map<List<Long>, AgendaEntry> existing = new HashMap<>();
+        scope.forEach(entry -> existing.put(key(entry.getUserId(), entry.getElementId()), entry));
+        Set<Long> userIds = new HashSet<>();
+        members.values().forEach(userIds::addAll);
+        List<AgendaEntry> entries = new ArrayList<>();
+        if (!sources.isEmpty() && !userIds.isEmpty()) {
+            Map<List<Long>, AgendaEntry> outside = (wholeElements ? Map.of() : findOutsideScope(sources, existing));
+            Map<Long, Integer> zones = new HashMap<>();
+            for (UserZoneView view : userRepository.findZonesByIds(userIds)) {
+                zones.put(view.getUserId(), view.getZoneId());
+            }
+            for (AgendaSourceView source : sources) {
+                for (long userId : members.getOrDefault(source.getProjectId(), List.of())) {
+                    if (accessIndex.canSeeKanban(source.getProjectId(), source.getKanbanId(), userId)) {
+                        List<Long> key = key(userId, source.getId());
+                        AgendaEntry entry = existing.remove(key);
+                        if (entry == null)
+                            entry = outside.get(key);
+                        if (entry == null) {
+                            entry = new AgendaEntry();
+                            entry.setUserId(userId);
+                            entry.setElementId(source.getId());
+                        }
+                        entry.setEpochDay(Math.floorDiv(source.getSelectedDate()
+                                + zones.getOrDefault(userId, 0) * 3600L, SECONDS_IN_DAY));
+                        entry.setKanbanId(source.getKanbanId());
+                        entry.setProjectId(source.getProjectId());
+                        entry.setCanEdit(accessIndex.canEditKanban(source.getProjectId(), source.getKanbanId(),
+                                userId));
+                        entries.add(entry);
+                    }
+                }
+            }
+        }
+        agendaRepository.deleteAll(existing.values());
+        agendaRepository.saveAll(entries);
+    }
+
+    // строка элемента может принадлежать другой области, например после переноса элемента на другую доску:
+    // она обновляется вместо вставки повтора, а удаляются только лишние строки своей области
+    private Map<List<Long>, AgendaEntry> findOutsideScope(List<AgendaSourceView> sources,
+                                                          Map<List<Long>, AgendaEntry> existing) {
+        Map<List<Long>, AgendaEntry> result = new HashMap<>();
+        List<Long> elementIds = sources.stream().map(AgendaSourceView::getId).distinct()
+                .collect(Collectors.toList());
+        for (int from = 0; from < elementIds.size(); from += ELEMENT_CHUNK) {
+            for (AgendaEntry entry : agendaRepository.findByElementIdIn(elementIds.subList(from,
+                    Math.min(elementIds.size(), from + ELEMENT_CHUNK)))) {
+                List<Long> key = key(entry.getUserId(), entry.getElementId());
+                if (!existing.containsKey(key))
+                    result.put(key, entry);
+            }
+        }
+        return result;
+    }
+
+    private static List<Long> key(long userId, long elementId) {
+        return List.of(userId, elementId);
+    }
+}
@@ -0,0 +1,165 @@
+package ru.manager.ProgectManager.services;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessChangedEvent;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.LongConsumer;
+
+// пересчёт календаря: элементы и пользователя обновляет сам запрос после коммита, доски и проекты - фоновый поток
+@Service
+@RequiredArgsConstructor
+@Log
+public class AgendaService {
+    private static final int ELEMENT_CHUNK = 500;
+
+    private final AgendaBuilder builder;
+
+    private final Set<Long> elements = ConcurrentHashMap.newKeySet();
+    private final Set<Long> kanbans = ConcurrentHashMap.newKeySet();
+    private final Set<Long> projects = ConcurrentHashMap.newKeySet();
+    private final Set<Long> users = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean rebuildAll = new AtomicBoolean();
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final Object lock = new Object();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "agenda-builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // пользователь, сменивший дату, сразу после ответа видит её в календаре; при сбое пересчёт уходит в очередь
+    public void elementsChanged(Collection<Long> elementIds) {
+        if (elementIds.isEmpty())
+            return;
+        List<Long> ids = new ArrayList<>(elementIds);
+        afterCommit(() -> {
+            try {
+                for (int from = 0; from < ids.size(); from += ELEMENT_CHUNK) {
+                    List<Long> chunk = ids.subList(from, Math.min(from + ELEMENT_CHUNK, ids.size()));
+                    retrying(() -> builder.refreshElements(chunk));
+                }
+            } catch (RuntimeException e) {
+                log.warning("Agenda refresh failed, queued: " + e);
+                enqueue(() -> elements.addAll(ids));
+            }
+        });
+    }
+
+    public void kanbanChanged(long kanbanId) {
+        afterCommit(() -> enqueue(() -> kanbans.add(kanbanId)));
+    }
+
+    public void projectChanged(long projectId) {
+        afterCommit(() -> enqueue(() -> projects.add(projectId)));
+    }
+
+    public void userChanged(long userId) {
+        afterCommit(() -> {
+            try {
+                retrying(() -> builder.rebuildUser(userId));
+            } catch (RuntimeException e) {
+                log.warning("Agenda rebuild failed, queued: " + e);
+                enqueue(() -> users.add(userId));
+            }
+        });
+    }
+
+    // восстановление календаря после сбоя пересчёта или ручного изменения данных в базе
+    public void rebuildAll() {
+        rebuildAll.set(true);
+        schedule();
+    }
+
+    @EventListener
+    public void accessChanged(ProjectAccessChangedEvent event) {
+        projectChanged(event.getProjectId());
+    }
+
+    // выполняет накопленные задачи в текущем потоке, фоновый поток вызывает этот же метод
+    public void processPending() {
+        synchronized (lock) {
+            scheduled.set(false);
+            if (rebuildAll.getAndSet(false)) {
+                projects.addAll(builder.findProjectIds());
+                builder.removeOrphans();
+            }
+            drain(projects, builder::rebuildProject);
+            drain(kanbans, builder::rebuildKanban);
+            drain(users, builder::rebuildUser);
+            List<Long> chunk = new ArrayList<>();
+            for (Iterator<Long> iterator = elements.iterator(); iterator.hasNext(); ) {
+                chunk.add(iterator.next());
+                iterator.remove();
+                if (chunk.size() == ELEMENT_CHUNK || !iterator.hasNext()) {
+                    List<Long> elementIds = chunk;
+                    retrying(() -> builder.refreshElements(elementIds));
+                    chunk = new ArrayList<>();
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void drain(Set<Long> ids, LongConsumer action) {
+        for (Iterator<Long> iterator = ids.iterator(); iterator.hasNext(); ) {
+            long id = iterator.next();
+            iterator.remove();
+            retrying(() -> action.accept(id));
+        }
+    }
+
+    // строку той же пары пользователь-элемент мог одновременно вставить другой узел, повторный пересчёт её обновит
+    private void retrying(Runnable rebuild) {
+        try {
+            rebuild.run();
+        } catch (DataIntegrityViolationException e) {
+            rebuild.run();
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void enqueue(Runnable add) {
+        add.run();
+        schedule();
+    }
+
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) {
+            executor.execute(() -> {
+                try {
+                    processPending();
+                } catch (RuntimeException e) {
+                    log.warning("Agenda rebuild failed: " + e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package ru.manager.ProgectManager.services;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.components.ICalendarWriter;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.user.CalendarFeedToken;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.repositories.*;
+import ru.manager.ProgectManager.repositories.projections.AgendaVersionView;
+import ru.manager.ProgectManager.repositories.projections.CalendarFeedView;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.LongFunction;
+
+// ленты iCalendar для подписки из календарных клиентов
+@Service
+@RequiredArgsConstructor
+public class CalendarFeedService {
+    private static final int CHUNK_SIZE = 500;
+
+    private final CalendarFeedTokenRepository tokenRepository;
+    private final UserRepository userRepository;
+    private final KanbanRepository kanbanRepository;
+    private final KanbanElementRepository elementRepository;
+    private final AgendaEntryRepository agendaRepository;
+    private final UserWithProjectConnectorRepository connectorRepository;
+    private final ProjectAccessIndex accessIndex;
+
+    @Transactional
+    public String createToken(String userLogin) {
+        User user = userRepository.findByUsername(userLogin);
+        tokenRepository.deleteByUserId(user.getUserId());
+        CalendarFeedToken token = new CalendarFeedToken();
+        token.setToken(UUID.randomUUID().toString());
+        token.setUserId(user.getUserId());
+        token.setCreateTime(Instant.now().getEpochSecond());
+        return tokenRepository.save(token).getToken();
+    }
+
+    @Transactional
+    public void revokeToken(String userLogin) {
+        tokenRepository.deleteByUserId(userRepository.findByUsername(userLogin).getUserId());
+    }
+
+    public Optional<Long> findUserId(String token) {
+        return tokenRepository.findActiveUserId(token);
+    }
+
+    // в версию входят строки календаря пользователя и версии досок его проектов: первые меняются при пересчёте
+    // видимости и дат, вторые при любом изменении элементов, в том числе названий
+    public Feed findUserFeed(long userId) {
+        List<Long> projectIds = connectorRepository.findProjectIdsByUserId(userId);
+        long versions = (projectIds.isEmpty() ? 0 : kanbanRepository.sumVersionsByProjectIdIn(projectIds));
+        AgendaVersionView agenda = agendaRepository.findVersionByUserId(userId);
+        String etag = "u" + userId + "-" + agenda.getCount() + "-" + agenda.getMaxId() + "-" + projectIds.size()
+                + "-" + versions;
+        return new Feed(etag, "Project manager", afterId -> agendaRepository.findFeedViewsAfter(userId, afterId,
+                ElementStatus.ALIVE, PageRequest.of(0, CHUNK_SIZE)));
+    }
+
+    public Optional<Feed> findKanbanFeed(long userId, long kanbanId) {
+        Kanban kanban = kanbanRepository.findById(kanbanId).orElseThrow();
+        if (accessIndex.canSeeKanban(kanban.getProject().getId(), kanbanId, userId)) {
+            return Optional.of(new Feed("k" + kanbanId + "-" + kanban.getVersion(), kanban.getName(),
+                    afterId -> elementRepository.findFeedViewsAfter(kanbanId, afterId, ElementStatus.ALIVE,
+                            PageRequest.of(0, CHUNK_SIZE))));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    public static class Feed {
+        @Getter
+        private final String etag;
+        private final String name;
+        private final LongFunction<List<CalendarFeedView>> chunks;
+
+        private Feed(String etag, String name, LongFunction<List<CalendarFeedView>> chunks) {
+            this.etag = etag;
+            this.name = name;
+            this.chunks = chunks;
+        }
+
+        public void writeTo(OutputStream out) throws IOException {
+            ICalendarWriter writer = new ICalendarWriter(out);
+            writer.begin(name);
+            long afterId = 0;
+            List<CalendarFeedView> chunk;
+            do {
+                chunk = chunks.apply(afterId);
+                for (CalendarFeedView element : chunk) {
+                    writer.event("kanban-element-" + element.getId() + "@project-manager", element.getName(),
+                            element.getSelectedDate(), element.getTimeOfUpdate());
+                }
+                if (!chunk.isEmpty())
+                    afterId = chunk.get(chunk.size() - 1).getId();
+            } while (chunk.size() == CHUNK_SIZE);
+            writer.end();
+        }
+    }
+}
@@ -6,17 +6,14 @@ import ru.manager.ProgectManager.DTO.response.calendar.CalendarResponse;
 import ru.manager.ProgectManager.DTO.response.calendar.CalendarResponseList;
 import ru.manager.ProgectManager.DTO.response.calendar.ShortKanbanElementInfo;
 import ru.manager.ProgectManager.DTO.response.calendar.ShortKanbanElementInfoList;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
 import ru.manager.ProgectManager.entitys.Project;
-import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
-import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
-import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.enums.ElementStatus;
-import ru.manager.ProgectManager.enums.TypeRoleProject;
-import ru.manager.ProgectManager.repositories.KanbanRepository;
-import ru.manager.ProgectManager.repositories.ProjectRepository;
-import ru.manager.ProgectManager.repositories.UserRepository;
+import ru.manager.ProgectManager.repositories.*;
+import ru.manager.ProgectManager.repositories.projections.AgendaElementView;
+import ru.manager.ProgectManager.repositories.projections.CalendarElementView;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
@@ -30,29 +27,24 @@ public class CalendarService {
     private final UserRepository userRepository;
     private final ProjectRepository projectRepository;
     private final KanbanRepository kanbanRepository;
+    private final KanbanElementRepository elementRepository;
+    private final AgendaEntryRepository agendaRepository;
+    private final ProjectAccessIndex accessIndex;
 
     public Optional<CalendarResponseList> findCalendar(long projectId, int year, int month, String userLogin) {
         Project project = projectRepository.findById(projectId).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
-        Optional<UserWithProjectConnector> connector = user.getUserWithProjectConnectors()
-                .stream()
-                .filter(c -> c.getProject().equals(project))
-                .findAny();
-        if (connector.isPresent()) {
-            int zoneId = user.getZoneId();
-            Set<Kanban> availableKanbans = (connector.get().getRoleType() == TypeRoleProject.CUSTOM_ROLE
-                    ? connector.get().getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                    .map(CustomRoleWithKanbanConnector::getKanban)
-                    .collect(Collectors.toSet())
-                    : project.getKanbans());
-            Set<KanbanElement> elements = availableKanbans.stream()
-                    .flatMap(kanban -> kanban.getKanbanColumns().stream())
-                    .flatMap(kanbanColumn -> kanbanColumn.getElements().stream())
-                    .filter(element -> element.getStatus() == ElementStatus.ALIVE)
-                    .filter(kanbanElement ->
-                            belongThisYearAndMonths(kanbanElement.getSelectedDate(), year, month, zoneId))
-                    .collect(Collectors.toSet());
-            return groupByDay(elements, user);
+        if (accessIndex.isMember(project, user)) {
+            Map<Long, Set<ShortKanbanElementInfo>> groups = new HashMap<>();
+            if (month >= 1 && month <= 12) {
+                LocalDate first = LocalDate.of(year, month, 1);
+                for (AgendaElementView element : agendaRepository.findByUserIdAndProjectIdAndDays(user.getUserId(),
+                        projectId, first.toEpochDay(), first.plusMonths(1).toEpochDay() - 1, ElementStatus.ALIVE)) {
+                    groups.computeIfAbsent(element.getEpochDay(), day -> new HashSet<>())
+                            .add(new ShortKanbanElementInfo(element, element.getCanEdit()));
+                }
+            }
+            return Optional.of(toResponse(groups));
         } else {
             return Optional.empty();
         }
@@ -61,75 +53,44 @@ public class CalendarService {
     public Optional<CalendarResponseList> findCalendarOnKanban(long id, int year, int month, String userLogin) {
         Kanban kanban = kanbanRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
-        Project project = kanban.getProject();
-        if (user.getUserWithProjectConnectors().parallelStream().anyMatch(connector ->
-                connector.getProject().equals(project)
-                        && (connector.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                        || connector.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                        .anyMatch(kc -> kc.getKanban().getId() == id)))) {
-            int zoneId = user.getZoneId();
-            Set<KanbanElement> elements = kanban.getKanbanColumns().stream()
-                    .flatMap(kanbanColumn -> kanbanColumn.getElements().stream())
-                    .filter(element -> element.getStatus() == ElementStatus.ALIVE)
-                    .filter(kanbanElement ->
-                            belongThisYearAndMonths(kanbanElement.getSelectedDate(), year, month, zoneId))
-                    .collect(Collectors.toSet());
-            return groupByDay(elements, user);
+        if (accessIndex.canSeeKanban(kanban, user)) {
+            return Optional.of(toResponse(groupByDay(id, accessIndex.canEditKanban(kanban, user), year, month,
+                    user.getZoneId())));
         } else {
             return Optional.empty();
         }
     }
 
+    // задачи всех проектов пользователя читаются из материализованного календаря одним запросом по индексу
     public ShortKanbanElementInfoList findTaskOnDay(String date, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
-        int zoneId = user.getZoneId();
-        LocalDate targetDate = LocalDateTime.parse(date).toLocalDate();
-        List<ShortKanbanElementInfo> kanbanElementInfos = user.getUserWithProjectConnectors().stream()
-                .flatMap(connector -> connector.getRoleType() == TypeRoleProject.CUSTOM_ROLE
-                        ? connector.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                        .map(CustomRoleWithKanbanConnector::getKanban)
-                        : connector.getProject().getKanbans().stream())
-                .flatMap(kanban -> kanban.getKanbanColumns().stream())
-                .flatMap(kanbanColumn -> kanbanColumn.getElements().stream())
-                .filter(element -> element.getStatus() == ElementStatus.ALIVE)
-                .filter(element -> LocalDateTime.ofEpochSecond(element.getSelectedDate(), 0,
-                        ZoneOffset.ofHours(zoneId)).toLocalDate().isEqual(targetDate))
-                .map(element -> new ShortKanbanElementInfo(element, canEditElement(element, user)))
-                .collect(Collectors.toList());
-        return new ShortKanbanElementInfoList(kanbanElementInfos);
-    }
-
-
-    private boolean belongThisYearAndMonths(long epochSeconds, int year, int month, int zoneId) {
-        LocalDateTime localDateTime = LocalDateTime
-                .ofEpochSecond(epochSeconds, 0, ZoneOffset.ofHours(zoneId));
-        return localDateTime.getYear() == year && localDateTime.getMonthValue() == month;
+        long day = LocalDateTime.parse(date).toLocalDate().toEpochDay();
+        return new ShortKanbanElementInfoList(agendaRepository.findByUserIdAndDays(user.getUserId(), day, day,
+                        ElementStatus.ALIVE).stream()
+                .map(element -> new ShortKanbanElementInfo(element, element.getCanEdit()))
+                .collect(Collectors.toList()));
     }
 
-    private Optional<CalendarResponseList> groupByDay(Set<KanbanElement> elements, User user) {
-        int zoneId = user.getZoneId();
+    // одна доска читается напрямую по индексу выбранной даты и не зависит от задержки пересчёта календаря
+    private Map<Long, Set<ShortKanbanElementInfo>> groupByDay(long kanbanId, boolean canEdit, int year, int month,
+                                                              int zoneId) {
         Map<Long, Set<ShortKanbanElementInfo>> groups = new HashMap<>();
-        for (KanbanElement element : elements) {
-            if (!groups.containsKey(LocalDateTime.ofEpochSecond(element.getSelectedDate(), 0,
-                    ZoneOffset.ofHours(zoneId)).toLocalDate().toEpochDay())) {
-                groups.put(LocalDateTime.ofEpochSecond(element.getSelectedDate(), 0,
-                        ZoneOffset.ofHours(zoneId)).toLocalDate().toEpochDay(), new HashSet<>());
-            }
-            groups.get(LocalDateTime.ofEpochSecond(element.getSelectedDate(), 0,
-                    ZoneOffset.ofHours(zoneId)).toLocalDate().toEpochDay())
-                    .add(new ShortKanbanElementInfo(element, canEditElement(element, user)));
+        if (month < 1 || month > 12)
+            return groups;
+        ZoneOffset offset = ZoneOffset.ofHours(zoneId);
+        LocalDate first = LocalDate.of(year, month, 1);
+        for (CalendarElementView element : elementRepository.findCalendarViews(List.of(kanbanId),
+                ElementStatus.ALIVE.ordinal(), first.atStartOfDay().toEpochSecond(offset),
+                first.plusMonths(1).atStartOfDay().toEpochSecond(offset), offset.getTotalSeconds())) {
+            groups.computeIfAbsent(element.getEpochDay(), day -> new HashSet<>())
+                    .add(new ShortKanbanElementInfo(element, canEdit));
         }
-        return Optional.of(new CalendarResponseList(groups.entrySet().stream()
-                .map(entry -> new CalendarResponse(LocalDate.ofEpochDay(entry.getKey()).toString(), entry.getValue()))
-                .collect(Collectors.toSet())));
+        return groups;
     }
 
-    private boolean canEditElement(KanbanElement element, User user) {
-        Kanban kanban = element.getKanbanColumn().getKanban();
-        return kanban.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .filter(CustomRoleWithKanbanConnector::isCanEdit)
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))));
+    private CalendarResponseList toResponse(Map<Long, Set<ShortKanbanElementInfo>> groups) {
+        return new CalendarResponseList(groups.entrySet().stream()
+                .map(entry -> new CalendarResponse(LocalDate.ofEpochDay(entry.getKey()).toString(), entry.getValue()))
+                .collect(Collectors.toSet()));
     }
 }
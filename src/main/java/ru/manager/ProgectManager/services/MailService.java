@@ -1,23 +1,29 @@
 package ru.manager.ProgectManager.services;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 import ru.manager.ProgectManager.components.LocalisedMessages;
-import ru.manager.ProgectManager.entitys.ScheduledMailInfo;
+import ru.manager.ProgectManager.components.MailDispatcher;
+import ru.manager.ProgectManager.entitys.MailOutbox;
 import ru.manager.ProgectManager.entitys.user.ApproveActionToken;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.enums.ActionType;
 import ru.manager.ProgectManager.enums.Locale;
+import ru.manager.ProgectManager.enums.MailStatus;
 import ru.manager.ProgectManager.repositories.ApproveActionTokenRepository;
+import ru.manager.ProgectManager.repositories.MailOutboxRepository;
 
+import java.time.Duration;
 import java.util.UUID;
 
+// письма записываются в mail_outbox в транзакции вызывающего кода и отправляются MailDispatcher
 @Service
 @RequiredArgsConstructor
 public class MailService {
-    private final JavaMailSender javaMailSender;
+    private static final Duration REGISTRATION_REMINDER = Duration.ofHours(1);
+
+    private final MailOutboxRepository outboxRepository;
+    private final MailDispatcher dispatcher;
     private final ApproveActionTokenRepository approveActionTokenRepository;
     private final LocalisedMessages localisedMessages;
 
@@ -66,15 +72,35 @@ public class MailService {
                 localisedMessages.buildTextAboutUnlockAccount(user.getLocale()));
     }
 
-    public void send(ScheduledMailInfo scheduledMailInfo) {
-        send(scheduledMailInfo.getUserEmail(), scheduledMailInfo.getSubject(), scheduledMailInfo.getText());
+    // напоминание о подтверждении почты приходит дважды с интервалом в час, если почта ещё не подтверждена
+    public void sendRegistrationReminders(User user, String approveUrl) {
+        String subject = localisedMessages.buildSubjectAboutCompletionOfRegistration(user.getLocale());
+        String text = localisedMessages.buildTextAboutCompletionOfRegistration(user.getLocale()) + approveUrl;
+        enqueue(user.getEmail(), subject, text, registrationKey(user), REGISTRATION_REMINDER);
+        enqueue(user.getEmail(), subject, text, registrationKey(user), REGISTRATION_REMINDER.multipliedBy(2));
+    }
+
+    public void cancelRegistrationReminders(User user) {
+        outboxRepository.deleteByCancelKey(registrationKey(user), MailStatus.PENDING);
     }
 
     private void send(String address, String subject, String text) {
-        SimpleMailMessage mailMessage = new SimpleMailMessage();
-        mailMessage.setTo(address);
-        mailMessage.setSubject(subject);
-        mailMessage.setText(text);
-        javaMailSender.send(mailMessage);
+        enqueue(address, subject, text, null, Duration.ZERO);
+        dispatcher.wakeUp();
+    }
+
+    private void enqueue(String address, String subject, String text, String cancelKey, Duration delay) {
+        MailOutbox mail = new MailOutbox();
+        mail.setAddress(address);
+        mail.setSubject(subject);
+        mail.setText(text);
+        mail.setCancelKey(cancelKey);
+        mail.setStatus(MailStatus.PENDING);
+        mail.setNextAttempt(System.currentTimeMillis() + delay.toMillis());
+        outboxRepository.save(mail);
+    }
+
+    private String registrationKey(User user) {
+        return "registration:" + user.getEmail();
     }
 }
@@ -6,6 +6,11 @@ import ru.manager.ProgectManager.DTO.request.documents.CreatePageRequest;
 import ru.manager.ProgectManager.DTO.request.documents.TransportPageRequest;
 import ru.manager.ProgectManager.DTO.response.documents.PageNameAndUpdateDateResponse;
 import ru.manager.ProgectManager.DTO.response.documents.PageResponse;
+import ru.manager.ProgectManager.DTO.response.documents.PageSearchResponse;
+import ru.manager.ProgectManager.DTO.response.documents.PageSearchResponseList;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.search.PageSearchIndex;
+import ru.manager.ProgectManager.components.search.ResourceNameIndex;
 import ru.manager.ProgectManager.entitys.Project;
 import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithDocumentConnector;
 import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
@@ -15,6 +20,7 @@ import ru.manager.ProgectManager.entitys.user.VisitMark;
 import ru.manager.ProgectManager.enums.ResourceType;
 import ru.manager.ProgectManager.enums.TypeRoleProject;
 import ru.manager.ProgectManager.repositories.*;
+import ru.manager.ProgectManager.repositories.projections.PageContentView;
 import ru.manager.ProgectManager.services.user.VisitMarkUpdater;
 
 import java.time.Instant;
@@ -22,6 +28,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -34,6 +41,9 @@ public class PageService {
     private final CustomRoleWithDocumentConnectorRepository documentConnectorRepository;
     private final CustomProjectRoleRepository roleRepository;
     private final VisitMarkUpdater visitMarkUpdater;
+    private final ProjectAccessIndex accessIndex;
+    private final PageSearchIndex searchIndex;
+    private final ResourceNameIndex resourceNameIndex;
 
     public Optional<Long> createPage(CreatePageRequest request, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
@@ -57,6 +67,8 @@ public class PageService {
                 page.setSerialNumber((short) project.getPages().stream().filter(p -> p.getRoot() == null).count());
             }
             page = pageRepository.save(page);
+            searchIndex.pageUpdated(page);
+            resourceNameIndex.invalidate(project.getId());
 
             project.getPages().add(page);
             projectRepository.save(project);
@@ -87,6 +99,7 @@ public class PageService {
                             documentConnectorRepository.delete(connector);
                             roleRepository.save(role);
                         }));
+                accessIndex.invalidate(project);
                 project.getPages().parallelStream()
                         .filter(p -> p.getRoot() == null)
                         .filter(p -> p.getSerialNumber() > page.getSerialNumber())
@@ -98,6 +111,8 @@ public class PageService {
             project.getPages().remove(page);
             projectRepository.save(project);
             pageRepository.delete(page);
+            searchIndex.pageRemoved(page);
+            resourceNameIndex.invalidate(project.getId());
             return true;
         } else {
             return false;
@@ -111,6 +126,8 @@ public class PageService {
             page.setName(name.trim());
             page.setUpdateTime(getEpochSeconds());
             pageRepository.save(page);
+            searchIndex.pageUpdated(page);
+            resourceNameIndex.invalidate(page.getProject().getId());
             visitMarkUpdater.redactVisitMark(page);
             return true;
         } else {
@@ -125,6 +142,7 @@ public class PageService {
             page.setContent(content);
             page.setUpdateTime(getEpochSeconds());
             pageRepository.save(page);
+            searchIndex.pageUpdated(page);
             return true;
         } else {
             return false;
@@ -137,6 +155,7 @@ public class PageService {
         if (page.getOwner().equals(user)) {
             page.setPublished(true);
             pageRepository.save(page);
+            searchIndex.pageUpdated(page);
             return true;
         } else {
             return false;
@@ -182,31 +201,36 @@ public class PageService {
     }
 
     public Optional<List<PageNameAndUpdateDateResponse>> findByName(long projectId, String inputName, String userLogin, int zoneId) {
-        String name = inputName.trim().toLowerCase();
         User user = userRepository.findByUsername(userLogin);
         Project project = projectRepository.findById(projectId).orElseThrow();
-        Optional<UserWithProjectConnector> withProjectConnector = project.getConnectors().stream()
-                .filter(c -> c.getUser().equals(user)).findAny();
-        if (withProjectConnector.isPresent()) {
-            if (withProjectConnector.get().getRoleType() == TypeRoleProject.CUSTOM_ROLE) {
-                return Optional.of(project.getPages().parallelStream()
-                        .filter(page -> withProjectConnector.get().getCustomProjectRole()
-                                .getCustomRoleWithDocumentConnectors().stream()
-                                .map(CustomRoleWithDocumentConnector::getPage)
-                                .anyMatch(root -> root.equals(page) || root.equals(page.getRoot())))
-                        .filter(page -> page.getOwner().equals(user) || isPublishPipeline(page))
-                        .filter(p -> p.getName().toLowerCase().contains(name))
-                        .sorted(Comparator.comparing(Page::getUpdateTime).reversed())
-                        .map(p -> new PageNameAndUpdateDateResponse(p, zoneId))
-                        .collect(Collectors.toList()));
-            } else {
-                return Optional.of(project.getPages().parallelStream()
-                        .filter(page -> page.getOwner().equals(user) || isPublishPipeline(page))
-                        .filter(p -> p.getName().toLowerCase().contains(name))
-                        .sorted(Comparator.comparing(Page::getUpdateTime).reversed())
-                        .map(p -> new PageNameAndUpdateDateResponse(p, zoneId))
-                        .collect(Collectors.toList()));
-            }
+        if (accessIndex.isMember(project, user)) {
+            return Optional.of(searchIndex.findByName(projectId, user.getUserId(), inputName).stream()
+                    .map(hit -> new PageNameAndUpdateDateResponse(hit, zoneId))
+                    .collect(Collectors.toList()));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    public Optional<PageSearchResponseList> search(long projectId, String query, String userLogin, int pageIndex,
+                                                   int rowCount, int zoneId) {
+        User user = userRepository.findByUsername(userLogin);
+        Project project = projectRepository.findById(projectId).orElseThrow();
+        if (accessIndex.isMember(project, user)) {
+            List<PageSearchIndex.Hit> hits = searchIndex.search(projectId, user.getUserId(), query);
+            List<PageSearchIndex.Hit> shown = hits.stream()
+                    .skip(pageIndex)
+                    .limit(rowCount)
+                    .collect(Collectors.toList());
+            // текст загружается только для отдаваемых страниц результата
+            Map<Long, String> contents = (shown.isEmpty() ? Map.of() : pageRepository.findContentViewsByIdIn(
+                    shown.stream().map(PageSearchIndex.Hit::getId).collect(Collectors.toList())).stream()
+                    .filter(view -> view.getContent() != null)
+                    .collect(Collectors.toMap(PageContentView::getId, PageContentView::getContent)));
+            return Optional.of(new PageSearchResponseList(shown.stream()
+                    .map(hit -> new PageSearchResponse(hit,
+                            searchIndex.snippet(contents.getOrDefault(hit.getId(), ""), query), zoneId))
+                    .collect(Collectors.toList()), hits.size()));
         } else {
             return Optional.empty();
         }
@@ -340,6 +364,9 @@ public class PageService {
             });
             transportedPage.setSerialNumber(request.getIndex());
             pageRepository.save(transportedPage);
+            // у перенесённого поддерева могли смениться корень и цепочка публикации
+            searchIndex.invalidate(transportedPage.getProject().getId());
+            resourceNameIndex.invalidate(transportedPage.getProject().getId());
             return true;
         } else {
             return false;
@@ -366,12 +393,7 @@ public class PageService {
     }
 
     private boolean canEditPage(Page page, User user) {
-        Page root = (page.getRoot() == null ? page : page.getRoot());
-        return page.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithDocumentConnectors().stream()
-                .filter(CustomRoleWithDocumentConnector::isCanEdit)
-                .anyMatch(connector -> connector.getPage().equals(root))));
+        return accessIndex.canEditPage(page, user);
     }
 
     public boolean canEditPage(Page page, String userLogin) {
@@ -380,16 +402,10 @@ public class PageService {
     }
 
     private boolean canSeePage(Page page, User user) {
-        Page root = (page.getRoot() == null ? page : page.getRoot());
-        return page.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithDocumentConnectors().stream()
-                .anyMatch(connector -> connector.getPage().equals(root))));
+        return accessIndex.canSeePage(page, user);
     }
 
     private boolean canEditResource(Project project, User user) {
-        return project.getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() == TypeRoleProject.ADMIN || (c.getRoleType() == TypeRoleProject.CUSTOM_ROLE
-                && c.getCustomProjectRole().isCanEditResources())));
+        return accessIndex.canEditResource(project, user);
     }
 }
@@ -2,13 +2,14 @@ package ru.manager.ProgectManager.services.kanban;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
-import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.search.KanbanSearchIndex;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
-import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
 import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.enums.ElementStatus;
-import ru.manager.ProgectManager.enums.TypeRoleProject;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
 import ru.manager.ProgectManager.exception.IncorrectStatusException;
 import ru.manager.ProgectManager.repositories.*;
 
@@ -24,26 +25,15 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ArchiveAndTrashService {
     private final UserRepository userRepository;
-    private final KanbanColumnRepository columnRepository;
     private final KanbanElementRepository elementRepository;
     private final TimeRemoverRepository timeRemoverRepository;
     private final KanbanRepository kanbanRepository;
+    private final ProjectAccessIndex accessIndex;
+    private final KanbanChangeService changeService;
+    private final KanbanOrderService orderService;
+    private final KanbanSearchIndex searchIndex;
 
-    public void finalDeleteElementFromTrash(long id) {
-        KanbanElement element = elementRepository.findById(id).orElseThrow();
-        if (element.getStatus() != ElementStatus.UTILISE)
-            throw new IncorrectStatusException();
-
-        if(element.getWorkTrackSet().isEmpty()) {
-            KanbanColumn column = element.getKanbanColumn();
-            column.getElements().remove(element);
-            elementRepository.delete(element);
-            columnRepository.save(column);
-        } else {
-            element.setStatus(ElementStatus.DELETED);
-        }
-    }
-
+    @Transactional
     public boolean archive(long id, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanElement element = elementRepository.findById(id).orElseThrow();
@@ -59,17 +49,16 @@ public class ArchiveAndTrashService {
             element.setTimeOfUpdate(getEpochSeconds());
             element.setLastRedactor(user);
             element.setStatus(ElementStatus.ARCHIVED);
-            KanbanColumn column = elementRepository.save(element).getKanbanColumn();
-            column.getElements().stream()
-                    .filter(e -> e.getSerialNumber() > element.getSerialNumber())
-                    .forEach(e -> e.setSerialNumber(e.getSerialNumber() - 1));
-            columnRepository.save(column);
+            elementRepository.save(element);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_STATUS, element.getStatus().name());
+            searchIndex.elementUpdated(element);
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean reestablish(long id, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanElement element = elementRepository.findById(id).orElseThrow();
@@ -84,12 +73,11 @@ public class ArchiveAndTrashService {
 
             element.setTimeOfUpdate(getEpochSeconds());
             element.setLastRedactor(user);
+            element.setOrderKey(orderService.lastElementKey(element.getKanbanColumn()));
             element.setStatus(ElementStatus.ALIVE);
-            element.setSerialNumber(element.getKanbanColumn().getElements().stream()
-                    .filter(e -> e.getStatus() == ElementStatus.ALIVE)
-                    .mapToInt(KanbanElement::getSerialNumber)
-                    .max().orElse(-1) + 1);
             elementRepository.save(element);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_STATUS, element.getStatus().name());
+            searchIndex.elementUpdated(element);
             return true;
         } else {
             return false;
@@ -126,18 +114,11 @@ public class ArchiveAndTrashService {
         return LocalDateTime.now().toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now()));
     }
 
-    private boolean canEditResource(Kanban kanban, User user){
-        return kanban.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .filter(CustomRoleWithKanbanConnector::isCanEdit)
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))));
+    private boolean canEditResource(Kanban kanban, User user) {
+        return accessIndex.canEditKanban(kanban, user);
     }
 
-    private boolean canSeeResource(Kanban kanban, User user){
-        return kanban.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))));
+    private boolean canSeeResource(Kanban kanban, User user) {
+        return accessIndex.canSeeKanban(kanban, user);
     }
 }
@@ -0,0 +1,128 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanColumnResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanElementMainDataResponse;
+import ru.manager.ProgectManager.DTO.response.user.PublicMainUserDataResponse;
+import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
+import ru.manager.ProgectManager.entitys.kanban.Tag;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.UserRepository;
+import ru.manager.ProgectManager.repositories.projections.KanbanColumnView;
+import ru.manager.ProgectManager.repositories.projections.KanbanElementCardView;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// постраничное чтение карточек колонки по ключу (orderKey, id)
+@Service
+@RequiredArgsConstructor
+public class KanbanBoardReader {
+    private final KanbanElementRepository elementRepository;
+    private final KanbanColumnRepository columnRepository;
+    private final UserRepository userRepository;
+
+    // первые count карточек каждой колонки одним запросом, columnOffset - порядковый номер первой колонки
+    public List<KanbanColumnResponse> readFirstPages(List<KanbanColumnView> columns, int columnOffset, int count,
+                                                     int zoneId) {
+        if (columns.isEmpty())
+            return List.of();
+        Map<Long, List<KanbanElementCardView>> cards = elementRepository.findFirstCardViews(columns.stream()
+                        .map(KanbanColumnView::getId)
+                        .collect(Collectors.toList()), ElementStatus.ALIVE.ordinal(), count + 1).stream()
+                .collect(Collectors.groupingBy(KanbanElementCardView::getColumnId, Collectors.toList()));
+        CardAttributes attributes = loadAttributes(cards.values().stream()
+                .flatMap(list -> list.stream().limit(count))
+                .collect(Collectors.toList()), zoneId);
+        List<KanbanColumnResponse> responses = new ArrayList<>(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            KanbanColumnView column = columns.get(i);
+            List<KanbanElementCardView> columnCards = cards.getOrDefault(column.getId(), List.of());
+            responses.add(new KanbanColumnResponse(column, columnOffset + i,
+                    buildElements(columnCards, 0, count, attributes, zoneId), buildCursor(columnCards, 0, count)));
+        }
+        return responses;
+    }
+
+    // pageIndex учитывается только без курсора, для совместимости со смещением из прежнего API
+    public KanbanColumnResponse readPage(KanbanColumn column, String cursor, int pageIndex, int count, int zoneId) {
+        String orderKey = "";
+        long id = Long.MIN_VALUE;
+        int position = 0;
+        int skip = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = cursor.split("_");
+            if (parts.length != 3)
+                throw new IllegalArgumentException();
+            position = Integer.parseInt(parts[0]);
+            orderKey = parts[1];
+            id = Long.parseLong(parts[2]);
+        } else {
+            skip = pageIndex;
+            position = pageIndex;
+        }
+        List<KanbanElementCardView> cards = elementRepository.findCardViewsAfter(column.getId(), ElementStatus.ALIVE,
+                orderKey, id, PageRequest.of(0, skip + count + 1)).stream()
+                .skip(skip)
+                .collect(Collectors.toList());
+        CardAttributes attributes = loadAttributes(cards.stream().limit(count).collect(Collectors.toList()), zoneId);
+        int columnPosition = (int) columnRepository.countColumnsBefore(column.getKanban().getId(),
+                column.getOrderKey(), column.getId());
+        return new KanbanColumnResponse(column, columnPosition,
+                buildElements(cards, position, count, attributes, zoneId), buildCursor(cards, position, count));
+    }
+
+    private List<KanbanElementMainDataResponse> buildElements(List<KanbanElementCardView> cards, int position,
+                                                              int count, CardAttributes attributes, int zoneId) {
+        List<KanbanElementMainDataResponse> elements = new ArrayList<>(Math.min(cards.size(), count));
+        for (int i = 0; i < cards.size() && i < count; i++) {
+            KanbanElementCardView card = cards.get(i);
+            elements.add(new KanbanElementMainDataResponse(card, position + i,
+                    attributes.tags.getOrDefault(card.getId(), Set.of()),
+                    (card.getOwnerId() == null ? null : attributes.users.get(card.getOwnerId())),
+                    (card.getLastRedactorId() == null ? null : attributes.users.get(card.getLastRedactorId())),
+                    zoneId));
+        }
+        return elements;
+    }
+
+    // карточек выбирается на одну больше страницы, чтобы узнать, есть ли следующая
+    private String buildCursor(List<KanbanElementCardView> cards, int position, int count) {
+        if (cards.size() <= count || count <= 0)
+            return null;
+        KanbanElementCardView last = cards.get(count - 1);
+        return (position + count) + "_" + last.getOrderKey() + "_" + last.getId();
+    }
+
+    private CardAttributes loadAttributes(List<KanbanElementCardView> cards, int zoneId) {
+        CardAttributes attributes = new CardAttributes();
+        if (cards.isEmpty())
+            return attributes;
+        elementRepository.findTagViews(cards.stream()
+                        .map(KanbanElementCardView::getId)
+                        .collect(Collectors.toList()))
+                .forEach(view -> {
+                    Tag tag = new Tag();
+                    tag.setId(view.getId());
+                    tag.setText(view.getText());
+                    tag.setColor(view.getColor());
+                    attributes.tags.computeIfAbsent(view.getElementId(), e -> new HashSet<>()).add(tag);
+                });
+        userRepository.findSummariesByIds(cards.stream()
+                        .flatMap(card -> Stream.of(card.getOwnerId(), card.getLastRedactorId()))
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toSet()))
+                .forEach(view -> attributes.users.put(view.getUserId(), new PublicMainUserDataResponse(view, zoneId)));
+        return attributes;
+    }
+
+    private static class CardAttributes {
+        private final Map<Long, Set<Tag>> tags = new HashMap<>();
+        private final Map<Long, PublicMainUserDataResponse> users = new HashMap<>();
+    }
+}
@@ -0,0 +1,27 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.manager.ProgectManager.components.JobLeaseCoordinator;
+
+import java.time.Duration;
+
+// суточное удаление устаревших записей журнала изменений досок на одном узле
+@Service
+@RequiredArgsConstructor
+@Log
+public class KanbanChangeCompactionScheduler {
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(10);
+    private static final Duration LOCK_AT_LEAST = Duration.ofHours(20);
+
+    private final KanbanChangeService changeService;
+    private final JobLeaseCoordinator leaseCoordinator;
+
+    @Scheduled(fixedDelay = 86_400_000)
+    public void compact() {
+        leaseCoordinator.runExclusive("kanban-change-compaction", LOCK_AT_MOST, LOCK_AT_LEAST,
+                () -> log.info("Kanban changes removed: " + changeService.compact()));
+    }
+}
@@ -0,0 +1,143 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanChangeListResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanChangeResponse;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.events.PushEvent;
+import ru.manager.ProgectManager.components.events.PushEventBus;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.kanban.KanbanChange;
+import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
+import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
+import ru.manager.ProgectManager.repositories.KanbanChangeRepository;
+import ru.manager.ProgectManager.repositories.KanbanRepository;
+import ru.manager.ProgectManager.repositories.UserRepository;
+import ru.manager.ProgectManager.services.AgendaService;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// журнал изменений досок, номера записей совпадают с версией доски
+@Service
+@RequiredArgsConstructor
+public class KanbanChangeService {
+    private static final int MAX_CHANGES = 500;
+    private static final Duration CHANGE_LIFETIME = Duration.ofDays(7);
+    private static final Set<KanbanChangeType> AGENDA_CHANGES = Set.of(KanbanChangeType.ELEMENT_DATE,
+            KanbanChangeType.ELEMENT_MOVE, KanbanChangeType.ELEMENT_STATUS);
+
+    private final KanbanChangeRepository changeRepository;
+    private final KanbanRepository kanbanRepository;
+    private final UserRepository userRepository;
+    private final ProjectAccessIndex accessIndex;
+    private final PushEventBus eventBus;
+    private final AgendaService agendaService;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void elementChanged(KanbanElement element, KanbanChangeType type, String payload) {
+        recordAll(element.getKanbanColumn().getKanban(), List.of(elementChange(element, type, payload)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void elementMoved(KanbanElement element, int serialNumber) {
+        recordAll(element.getKanbanColumn().getKanban(), List.of(elementMove(element, serialNumber)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void columnChanged(KanbanColumn column, KanbanChangeType type, String payload) {
+        recordAll(column.getKanban(), List.of(buildChange(column.getKanban(), type, column.getId(), null, null,
+                payload)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void columnMoved(KanbanColumn column, int serialNumber) {
+        recordAll(column.getKanban(), List.of(buildChange(column.getKanban(), KanbanChangeType.COLUMN_MOVE,
+                column.getId(), null, serialNumber, null)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void kanbanChanged(Kanban kanban, KanbanChangeType type, String payload) {
+        recordAll(kanban, List.of(buildChange(kanban, type, null, null, null, payload)));
+    }
+
+    // запись для пакетного сохранения через recordAll
+    public KanbanChange elementChange(KanbanElement element, KanbanChangeType type, String payload) {
+        KanbanColumn column = element.getKanbanColumn();
+        return buildChange(column.getKanban(), type, column.getId(), element.getId(), null, payload);
+    }
+
+    public KanbanChange elementMove(KanbanElement element, int serialNumber) {
+        KanbanColumn column = element.getKanbanColumn();
+        return buildChange(column.getKanban(), KanbanChangeType.ELEMENT_MOVE, column.getId(), element.getId(),
+                serialNumber, null);
+    }
+
+    // записи одной доски получают номера подряд за одно увеличение версии;
+    // вызывается только в транзакции изменения, чтобы блокировка строки доски держалась до коммита
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(Kanban kanban, List<KanbanChange> changes) {
+        if (changes.isEmpty())
+            return;
+        kanbanRepository.increaseVersion(kanban.getId(), changes.size());
+        long seq = kanbanRepository.findVersionById(kanban.getId()).orElseThrow().getVersion() - changes.size();
+        for (KanbanChange change : changes) {
+            change.setSeq(++seq);
+        }
+        changeRepository.saveAll(changes);
+        changes.forEach(change -> eventBus.publishToKanban(kanban.getId(),
+                new PushEvent("change", String.valueOf(change.getSeq()), new KanbanChangeResponse(change))));
+        agendaService.elementsChanged(changes.stream()
+                .filter(change -> AGENDA_CHANGES.contains(change.getType()))
+                .map(KanbanChange::getElementId)
+                .collect(Collectors.toSet()));
+        if (changes.stream().anyMatch(change -> change.getType() == KanbanChangeType.COLUMN_DELETE))
+            agendaService.kanbanChanged(kanban.getId());
+    }
+
+    public Optional<KanbanChangeListResponse> findChanges(long kanbanId, long since, String userLogin) {
+        Kanban kanban = kanbanRepository.findById(kanbanId).orElseThrow();
+        User user = userRepository.findByUsername(userLogin);
+        if (accessIndex.canSeeKanban(kanban, user)) {
+            long version = kanbanRepository.findVersionById(kanbanId).orElseThrow().getVersion();
+            if (since == version)
+                return Optional.of(new KanbanChangeListResponse(version, false, List.of()));
+            List<KanbanChange> changes = (since > version ? List.of() : changeRepository
+                    .findByKanbanIdAndSeqGreaterThanOrderBySeq(kanbanId, since, PageRequest.of(0, MAX_CHANGES + 1)));
+            // часть записей уже удалена при сжатии журнала или изменений слишком много для применения по одному
+            if (changes.isEmpty() || changes.get(0).getSeq() != since + 1 || changes.size() > MAX_CHANGES)
+                return Optional.of(new KanbanChangeListResponse(version, true, List.of()));
+            return Optional.of(new KanbanChangeListResponse(changes.get(changes.size() - 1).getSeq(), false,
+                    changes.stream().map(KanbanChangeResponse::new).collect(Collectors.toList())));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    public int compact() {
+        return changeRepository.deleteOlderThan(Instant.now().minus(CHANGE_LIFETIME).getEpochSecond());
+    }
+
+    private KanbanChange buildChange(Kanban kanban, KanbanChangeType type, Long columnId, Long elementId,
+                                     Integer serialNumber, String payload) {
+        KanbanChange change = new KanbanChange();
+        change.setKanbanId(kanban.getId());
+        change.setType(type);
+        change.setColumnId(columnId);
+        change.setElementId(elementId);
+        change.setSerialNumber(serialNumber);
+        change.setPayload(payload);
+        change.setCreateTime(Instant.now().getEpochSecond());
+        return change;
+    }
+}
@@ -2,24 +2,27 @@ package ru.manager.ProgectManager.services.kanban;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.DTO.request.kanban.KanbanColumnRequest;
 import ru.manager.ProgectManager.DTO.request.kanban.SortColumnRequest;
 import ru.manager.ProgectManager.DTO.request.kanban.TransportColumnRequest;
-import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanColumnResponse;
+import ru.manager.ProgectManager.components.LexoRank;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.search.KanbanSearchIndex;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
 import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
 import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
 import ru.manager.ProgectManager.entitys.kanban.TimeRemover;
 import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
 import ru.manager.ProgectManager.enums.SortType;
-import ru.manager.ProgectManager.enums.TypeRoleProject;
 import ru.manager.ProgectManager.repositories.*;
 
-import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Optional;
-import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -29,76 +32,71 @@ public class KanbanColumnService {
     private final KanbanRepository kanbanRepository;
     private final KanbanElementRepository elementRepository;
     private final TimeRemoverRepository timeRemoverRepository;
+    private final ProjectAccessIndex accessIndex;
+    private final KanbanBoardReader boardReader;
+    private final KanbanChangeService changeService;
+    private final KanbanOrderService orderService;
+    private final KanbanSearchIndex searchIndex;
 
-    public Optional<KanbanColumn> findKanbanColumn(long id, String userLogin){
+    public Optional<KanbanColumnResponse> findKanbanColumn(long id, String cursor, int pageIndex, int count,
+                                                           String userLogin){
         User user = userRepository.findByUsername(userLogin);
         KanbanColumn column = columnRepository.findById(id).orElseThrow();
         Kanban kanban = column.getKanban();
-        if(kanban.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))))){
-            return Optional.of(column);
+        if(accessIndex.canSeeKanban(kanban, user)){
+            return Optional.of(boardReader.readPage(column, cursor, pageIndex, count, user.getZoneId()));
         } else{
             return Optional.empty();
         }
     }
 
+    @Transactional
     public boolean transportColumn(TransportColumnRequest request, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanColumn column = columnRepository.findById(request.getId()).orElseThrow();
         Kanban kanban = column.getKanban();
-        int from = column.getSerialNumber();
         if (canEditKanban(kanban, user)) {
-            Set<KanbanColumn> allColumns = column.getKanban().getKanbanColumns();
-            if (request.getTo() >= allColumns.size())
+            if (request.getTo() >= kanban.getKanbanColumns().size())
                 throw new IllegalArgumentException();
-            if (request.getTo() > from) {
-                allColumns.stream()
-                        .filter(kanbanColumn -> kanbanColumn.getSerialNumber() > from)
-                        .filter(kanbanColumn -> kanbanColumn.getSerialNumber() <= request.getTo())
-                        .forEach(kanbanColumn -> kanbanColumn.setSerialNumber(kanbanColumn.getSerialNumber() - 1));
-            } else {
-                allColumns.stream()
-                        .filter(kanbanColumn -> kanbanColumn.getSerialNumber() < from)
-                        .filter(kanbanColumn -> kanbanColumn.getSerialNumber() >= request.getTo())
-                        .forEach(kanbanColumn -> kanbanColumn.setSerialNumber(kanbanColumn.getSerialNumber() + 1));
-            }
-            column.setSerialNumber(request.getTo());
-
-            columnRepository.saveAll(allColumns);
+            column.setOrderKey(orderService.columnKeyAt(column, request.getTo()));
+            columnRepository.save(column);
+            changeService.columnMoved(column, request.getTo());
             return true;
         }
         return false;
     }
 
+    @Transactional
     public Optional<KanbanColumn> renameColumn(long id, String name, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanColumn kanbanColumn = columnRepository.findById(id).orElseThrow();
         Kanban kanban = kanbanColumn.getKanban();
         if (canEditKanban(kanban, user)) {
             kanbanColumn.setName(name.trim());
-            return Optional.of(columnRepository.save(kanbanColumn));
+            kanbanColumn = columnRepository.save(kanbanColumn);
+            changeService.columnChanged(kanbanColumn, KanbanChangeType.COLUMN_RENAME, kanbanColumn.getName());
+            return Optional.of(kanbanColumn);
         }
         return Optional.empty();
     }
 
+    @Transactional
     public boolean deleteColumn(long id, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanColumn column = columnRepository.findById(id).orElseThrow();
         Kanban kanban = column.getKanban();
         if (canEditKanban(kanban, user)) {
-            kanban.getKanbanColumns().stream()
-                    .filter(kanbanColumn -> kanbanColumn.getSerialNumber() > column.getSerialNumber())
-                    .forEach(kanbanColumn -> kanbanColumn.setSerialNumber(kanbanColumn.getSerialNumber() - 1));
             kanban.getKanbanColumns().remove(column);
             columnRepository.delete(column);
             kanbanRepository.save(kanban);
+            changeService.columnChanged(column, KanbanChangeType.COLUMN_DELETE, null);
+            searchIndex.invalidate(kanban.getId());
             return true;
         }
         return false;
     }
 
+    @Transactional
     public Optional<KanbanColumn> addColumn(KanbanColumnRequest request, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         Kanban kanban = kanbanRepository.findById(request.getKanbanId()).orElseThrow();
@@ -107,20 +105,20 @@ public class KanbanColumnService {
             kanbanColumn.setName(request.getName().trim());
             kanbanColumn.setKanban(kanban);
             kanbanColumn.setDelayedDays(0);
-            kanban.getKanbanColumns().stream()
-                    .max(Comparator.comparing(KanbanColumn::getSerialNumber))
-                    .ifPresentOrElse(c -> kanbanColumn.setSerialNumber(c.getSerialNumber() + 1),
-                            () -> kanbanColumn.setSerialNumber(0));
+            kanbanColumn.setOrderKey(orderService.lastColumnKey(kanban));
 
             kanban.getKanbanColumns().add(kanbanColumn);
             KanbanColumn result = columnRepository.save(kanbanColumn);
             kanbanRepository.save(kanban);
+            changeService.columnChanged(result, KanbanChangeType.COLUMN_ADD, result.getName());
             return Optional.of(result);
         }
         return Optional.empty();
     }
 
-    public Optional<KanbanColumn> sortColumn(SortColumnRequest sortColumnRequest, String userLogin) {
+    @Transactional
+    public Optional<KanbanColumnResponse> sortColumn(SortColumnRequest sortColumnRequest, int pageIndex, int count,
+                                                     String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanColumn column = columnRepository.findById(sortColumnRequest.getId()).orElseThrow();
         Kanban kanban = column.getKanban();
@@ -135,18 +133,21 @@ public class KanbanColumnService {
             if (sortColumnRequest.isReverse()) {
                 comparator = comparator.reversed();
             }
-            KanbanElement[] elements = column.getElements().toArray(KanbanElement[]::new);
-            Arrays.sort(elements, comparator);
-            for (int i = 0; i < elements.length; i++) {
-                elements[i].setSerialNumber(i);
+            List<KanbanElement> elements = elementRepository.findOrdered(column.getId(), ElementStatus.ALIVE);
+            elements.sort(comparator);
+            List<String> keys = LexoRank.sequence(elements.size());
+            for (int i = 0; i < elements.size(); i++) {
+                elements.get(i).setOrderKey(keys.get(i));
             }
-            elementRepository.saveAll(Set.of(elements));
-            return Optional.of(column);
+            elementRepository.saveAll(elements);
+            changeService.columnChanged(column, KanbanChangeType.COLUMN_SORT, null);
+            return Optional.of(boardReader.readPage(column, null, pageIndex, count, user.getZoneId()));
         } else {
             return Optional.empty();
         }
     }
 
+    @Transactional
     public boolean setDelayDeleter(long id, int delay, String userLogin) {
         KanbanColumn column = columnRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -155,15 +156,17 @@ public class KanbanColumnService {
             column.setDelayedDays(delay);
             column.getElements().stream().map(KanbanElement::getId).forEach(identity -> {
                 TimeRemover timeRemover = timeRemoverRepository.findById(identity).orElseThrow();
-                timeRemover.setTimeToDelete(LocalDate.now().plusDays(delay).toEpochDay());
+                timeRemover.setDelayDays(delay);
                 timeRemoverRepository.save(timeRemover);
             });
+            changeService.columnChanged(column, KanbanChangeType.COLUMN_DELAY, String.valueOf(delay));
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean removeDelayDeleter(long id, String userLogin) {
         KanbanColumn column = columnRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -171,17 +174,14 @@ public class KanbanColumnService {
         if (canEditKanban(kanban, user)) {
             column.setDelayedDays(0);
             column.getElements().stream().map(KanbanElement::getId).forEach(timeRemoverRepository::deleteById);
+            changeService.columnChanged(column, KanbanChangeType.COLUMN_DELAY, "0");
             return true;
         } else {
             return false;
         }
     }
 
-    private boolean canEditKanban(Kanban kanban, User user){
-        return kanban.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .filter(CustomRoleWithKanbanConnector::isCanEdit)
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))));
+    private boolean canEditKanban(Kanban kanban, User user) {
+        return accessIndex.canEditKanban(kanban, user);
     }
 }
@@ -2,14 +2,16 @@ package ru.manager.ProgectManager.services.kanban;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 import ru.manager.ProgectManager.DTO.request.kanban.CheckboxRequest;
 import ru.manager.ProgectManager.DTO.request.kanban.KanbanCommentRequest;
-import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.search.KanbanSearchIndex;
 import ru.manager.ProgectManager.entitys.kanban.*;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.enums.ElementStatus;
-import ru.manager.ProgectManager.enums.TypeRoleProject;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
 import ru.manager.ProgectManager.exception.IncorrectStatusException;
 import ru.manager.ProgectManager.repositories.*;
 
@@ -28,7 +30,11 @@ public class KanbanElementAttributesService {
     private final KanbanElementCommentRepository commentRepository;
     private final KanbanAttachmentRepository attachmentRepository;
     private final CheckboxRepository checkboxRepository;
+    private final ProjectAccessIndex accessIndex;
+    private final KanbanChangeService changeService;
+    private final KanbanSearchIndex searchIndex;
 
+    @Transactional
     public Optional<KanbanElementComment> addComment(KanbanCommentRequest request, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanElement element = elementRepository.findById(request.getId()).orElseThrow();
@@ -46,31 +52,35 @@ public class KanbanElementAttributesService {
             element.setTimeOfUpdate(getEpochSeconds());
             element.getComments().add(comment);
             elementRepository.save(element);
+            elementRepository.changeCommentCount(element.getId(), 1);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
             return Optional.of(comment);
         } else {
             return Optional.empty();
         }
     }
 
+    @Transactional
     public Optional<KanbanElement> deleteComment(long id, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanElementComment comment = commentRepository.findById(id).orElseThrow();
         if (comment.getOwner().equals(user)
-                || comment.getKanbanElement().getKanbanColumn().getKanban().getProject().getConnectors().stream()
-                .filter(c -> c.getRoleType() == TypeRoleProject.ADMIN)
-                .anyMatch(c -> c.getUser().equals(user))) {
+                || accessIndex.isAdmin(comment.getKanbanElement().getKanbanColumn().getKanban().getProject(), user)) {
             checkElement(comment.getKanbanElement());
             KanbanElement element = comment.getKanbanElement();
             element.setTimeOfUpdate(getEpochSeconds());
             element.setLastRedactor(user);
             element.getComments().remove(comment);
             element = elementRepository.save(element);
+            elementRepository.changeCommentCount(element.getId(), -1);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
             return Optional.of(element);
         } else {
             return Optional.empty();
         }
     }
 
+    @Transactional
     public Optional<KanbanElementComment> updateComment(KanbanCommentRequest request, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanElementComment comment = commentRepository.findById(request.getId()).orElseThrow();
@@ -84,12 +94,15 @@ public class KanbanElementAttributesService {
             comment.setText(request.getText());
             comment.setDateTime(getEpochSeconds());
             comment.setRedacted(true);
-            return Optional.of(commentRepository.save(comment));
+            comment = commentRepository.save(comment);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
+            return Optional.of(comment);
         } else {
             return Optional.empty();
         }
     }
 
+    @Transactional
     public Optional<KanbanAttachment> addAttachment(long id, String userLogin, MultipartFile file) throws IOException {
         User user = userRepository.findByUsername(userLogin);
         KanbanElement element = elementRepository.findById(id).orElseThrow();
@@ -106,6 +119,8 @@ public class KanbanElementAttributesService {
             element.setTimeOfUpdate(getEpochSeconds());
             element.getKanbanAttachments().add(attachment);
             elementRepository.save(element);
+            elementRepository.changeAttachCount(element.getId(), 1);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
             return Optional.of(attachment);
         } else {
             return Optional.empty();
@@ -125,6 +140,7 @@ public class KanbanElementAttributesService {
         }
     }
 
+    @Transactional
     public Optional<KanbanElement> deleteAttachment(long id, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanAttachment attachment = attachmentRepository.findById(id).orElseThrow();
@@ -136,12 +152,16 @@ public class KanbanElementAttributesService {
             element.setLastRedactor(user);
 
             element.getKanbanAttachments().remove(attachment);
-            return Optional.of(elementRepository.save(element));
+            element = elementRepository.save(element);
+            elementRepository.changeAttachCount(element.getId(), -1);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
+            return Optional.of(element);
         } else {
             return Optional.empty();
         }
     }
 
+    @Transactional
     public boolean addTag(long elementId, long tagId, String userLogin){
         KanbanElement element = elementRepository.findById(elementId).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -155,12 +175,15 @@ public class KanbanElementAttributesService {
                     .filter(t -> t.getId() == tagId)
                     .findAny().orElseThrow(IllegalArgumentException::new));
             elementRepository.save(element);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_TAG_ADD, String.valueOf(tagId));
+            searchIndex.elementUpdated(element);
             return true;
         } else{
             return false;
         }
     }
 
+    @Transactional
     public boolean removeTag(long elementId, long tagId, String userLogin){
         KanbanElement element = elementRepository.findById(elementId).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -172,12 +195,15 @@ public class KanbanElementAttributesService {
 
             element.getTags().removeIf(tag -> tag.getId() == tagId);
             elementRepository.save(element);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_TAG_REMOVE, String.valueOf(tagId));
+            searchIndex.elementUpdated(element);
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public Optional<CheckBox> addCheckbox(CheckboxRequest request, String userLogin){
         KanbanElement element = elementRepository.findById(request.getElementId()).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -194,12 +220,15 @@ public class KanbanElementAttributesService {
             checkBox = checkboxRepository.save(checkBox);
             element.getCheckBoxes().add(checkBox);
             elementRepository.save(element);
+            elementRepository.changeCheckboxCounts(element.getId(), 1, 0);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
             return Optional.of(checkBox);
         } else{
             return Optional.empty();
         }
     }
 
+    @Transactional
     public boolean deleteCheckbox(long id, String userLogin){
         CheckBox checkBox = checkboxRepository.findById(id).orElseThrow();
         KanbanElement element = checkBox.getElement();
@@ -212,12 +241,15 @@ public class KanbanElementAttributesService {
 
             element.getCheckBoxes().remove(checkBox);
             elementRepository.save(element);
+            elementRepository.changeCheckboxCounts(element.getId(), -1, (checkBox.isCheck() ? -1 : 0));
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean tapCheckbox(long id, String userLogin){
         CheckBox checkBox = checkboxRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -231,12 +263,15 @@ public class KanbanElementAttributesService {
 
             checkBox.setCheck(!checkBox.isCheck());
             checkboxRepository.save(checkBox);
+            elementRepository.changeCheckboxCounts(element.getId(), 0, (checkBox.isCheck() ? 1 : -1));
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean editCheckbox(long id, String newText, String userLogin){
         CheckBox checkBox = checkboxRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -250,6 +285,7 @@ public class KanbanElementAttributesService {
 
             checkBox.setText(newText);
             checkboxRepository.save(checkBox);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
             return true;
         } else{
             return false;
@@ -260,19 +296,12 @@ public class KanbanElementAttributesService {
         return LocalDateTime.now().toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now()));
     }
 
-    private boolean canEditKanban(Kanban kanban, User user){
-        return kanban.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .filter(CustomRoleWithKanbanConnector::isCanEdit)
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))));
+    private boolean canEditKanban(Kanban kanban, User user) {
+        return accessIndex.canEditKanban(kanban, user);
     }
 
     private boolean canSeeKanban(Kanban kanban, User user) {
-        return kanban.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))));
+        return accessIndex.canSeeKanban(kanban, user);
     }
 
     private void checkElement(KanbanElement element) {
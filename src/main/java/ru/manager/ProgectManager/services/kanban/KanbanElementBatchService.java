@@ -0,0 +1,265 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.DTO.request.kanban.ElementOperationRequest;
+import ru.manager.ProgectManager.DTO.response.kanban.ElementOperationResponse;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.search.KanbanSearchIndex;
+import ru.manager.ProgectManager.entitys.kanban.*;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.enums.Errors;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
+import ru.manager.ProgectManager.exception.IncorrectStatusException;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.TimeRemoverRepository;
+import ru.manager.ProgectManager.repositories.UserRepository;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// пакетное выполнение операций над элементами в одной транзакции
+@Service
+@RequiredArgsConstructor
+public class KanbanElementBatchService {
+    private final KanbanElementRepository elementRepository;
+    private final KanbanColumnRepository columnRepository;
+    private final TimeRemoverRepository timeRemoverRepository;
+    private final UserRepository userRepository;
+    private final ProjectAccessIndex accessIndex;
+    private final KanbanOrderService orderService;
+    private final KanbanChangeService changeService;
+    private final KanbanSearchIndex searchIndex;
+
+    @Transactional
+    public List<ElementOperationResponse> execute(List<ElementOperationRequest> operations, String userLogin) {
+        BatchContext context = new BatchContext(userRepository.findByUsername(userLogin));
+        Set<Long> ids = operations.stream().map(ElementOperationRequest::getElementId).collect(Collectors.toSet());
+        elementRepository.findAllById(ids).forEach(e -> context.elements.put(e.getId(), e));
+        timeRemoverRepository.findAllById(ids).forEach(r -> context.storedRemovers.put(r.getRemoverId(), r));
+        context.removers.putAll(context.storedRemovers);
+
+        List<ElementOperationResponse> results = new ArrayList<>(operations.size());
+        for (ElementOperationRequest operation : operations) {
+            results.add(apply(operation, context));
+        }
+
+        elementRepository.saveAll(context.changedElements);
+        context.changedElements.forEach(searchIndex::elementUpdated);
+        timeRemoverRepository.deleteAll(context.storedRemovers.values().stream()
+                .filter(remover -> !context.removers.containsKey(remover.getRemoverId()))
+                .collect(Collectors.toList()));
+        timeRemoverRepository.saveAll(context.changedRemovers.stream()
+                .map(context.removers::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList()));
+        context.changes.forEach(changeService::recordAll);
+        return results;
+    }
+
+    private ElementOperationResponse apply(ElementOperationRequest operation, BatchContext context) {
+        long id = operation.getElementId();
+        try {
+            KanbanElement element = Optional.ofNullable(context.elements.get(id)).orElseThrow();
+            Kanban kanban = element.getKanbanColumn().getKanban();
+            if (!context.canEdit(kanban, accessIndex))
+                return new ElementOperationResponse(id, HttpStatus.FORBIDDEN.value(), null);
+            switch (operation.getType()) {
+                case MOVE:
+                    return move(element, operation, context);
+                case TAG_ADD:
+                    return addTag(element, kanban, operation.getTagId(), context);
+                case TAG_REMOVE:
+                    checkElement(element);
+                    element.getTags().removeIf(tag -> tag.getId() == operation.getTagId());
+                    return changed(element, KanbanChangeType.ELEMENT_TAG_REMOVE, String.valueOf(operation.getTagId()),
+                            context);
+                case ARCHIVE:
+                    return archive(element, context);
+                case UTILISE:
+                    return utilise(element, context);
+                case DATE_SET:
+                    return setDate(element, operation.getDate(), context);
+                case DATE_DROP:
+                    checkElement(element);
+                    element.setSelectedDate(0);
+                    return changed(element, KanbanChangeType.ELEMENT_DATE, "0", context);
+                default:
+                    throw new IllegalStateException();
+            }
+        } catch (NoSuchElementException e) {
+            return new ElementOperationResponse(id, HttpStatus.NOT_FOUND.value(), Errors.NO_SUCH_SPECIFIED_ELEMENT);
+        } catch (IncorrectStatusException e) {
+            return new ElementOperationResponse(id, HttpStatus.GONE.value(),
+                    Errors.INCORRECT_STATUS_ELEMENT_FOR_THIS_ACTION);
+        }
+    }
+
+    private ElementOperationResponse move(KanbanElement element, ElementOperationRequest operation,
+                                          BatchContext context) {
+        if (element.getStatus() != ElementStatus.ALIVE)
+            throw new IncorrectStatusException();
+        KanbanColumn fromColumn = element.getKanbanColumn();
+        Optional<KanbanColumn> target = (fromColumn.getId() == operation.getToColumn() ? Optional.of(fromColumn)
+                : columnRepository.findById(operation.getToColumn()));
+        if (target.isEmpty())
+            return new ElementOperationResponse(element.getId(), HttpStatus.NOT_FOUND.value(),
+                    Errors.NO_SUCH_SPECIFIED_ELEMENT_OR_COLUMN);
+        KanbanColumn toColumn = target.get();
+        if (!context.canEdit(toColumn.getKanban(), accessIndex))
+            return new ElementOperationResponse(element.getId(), HttpStatus.FORBIDDEN.value(), null);
+        orderService.lockKanban(toColumn.getKanban().getId());
+        List<KanbanElement> siblings = context.siblings(toColumn, elementRepository);
+        if (toColumn == fromColumn && operation.getToIndex() >= siblings.size())
+            return new ElementOperationResponse(element.getId(), HttpStatus.BAD_REQUEST.value(),
+                    Errors.INDEX_MORE_COLLECTION_SIZE);
+        siblings.remove(element);
+        if (toColumn != fromColumn) {
+            context.leave(element);
+            if (fromColumn.getDelayedDays() != 0)
+                context.removeRemover(element.getId());
+            if (toColumn.getDelayedDays() != 0)
+                context.putRemover(element.getId(), false, toColumn.getDelayedDays());
+            element.setKanbanColumn(toColumn);
+        }
+        int index = Math.min(operation.getToIndex(), siblings.size());
+        element.setOrderKey(orderService.elementKeyAt(siblings, index));
+        siblings.add(index, element);
+        touch(element, context);
+        context.change(element.getKanbanColumn().getKanban(), changeService.elementMove(element, index));
+        return ok(element);
+    }
+
+    private ElementOperationResponse addTag(KanbanElement element, Kanban kanban, long tagId, BatchContext context) {
+        checkElement(element);
+        Optional<Tag> tag = kanban.getAvailableTags().stream()
+                .filter(t -> t.getId() == tagId)
+                .findAny();
+        if (tag.isEmpty())
+            return new ElementOperationResponse(element.getId(), HttpStatus.NOT_FOUND.value(),
+                    Errors.NO_SUCH_SPECIFIED_TAG);
+        element.getTags().add(tag.get());
+        return changed(element, KanbanChangeType.ELEMENT_TAG_ADD, String.valueOf(tagId), context);
+    }
+
+    private ElementOperationResponse archive(KanbanElement element, BatchContext context) {
+        if (element.getStatus() == ElementStatus.DELETED)
+            throw new NoSuchElementException();
+        if (element.getStatus() == ElementStatus.ARCHIVED)
+            throw new IncorrectStatusException();
+        context.leave(element);
+        context.removeRemover(element.getId());
+        element.setStatus(ElementStatus.ARCHIVED);
+        return changed(element, KanbanChangeType.ELEMENT_STATUS, element.getStatus().name(), context);
+    }
+
+    private ElementOperationResponse utilise(KanbanElement element, BatchContext context) {
+        checkElement(element);
+        context.leave(element);
+        context.putRemover(element.getId(), true, 6);
+        element.setStatus(ElementStatus.UTILISE);
+        return changed(element, KanbanChangeType.ELEMENT_STATUS, element.getStatus().name(), context);
+    }
+
+    private ElementOperationResponse setDate(KanbanElement element, String date, BatchContext context) {
+        checkElement(element);
+        long selectedDate;
+        try {
+            if (date == null)
+                throw new DateTimeParseException("Date is not specified", "", 0);
+            selectedDate = LocalDateTime.parse(date).toEpochSecond(ZoneOffset.ofHours(context.user.getZoneId()));
+        } catch (DateTimeParseException e) {
+            return new ElementOperationResponse(element.getId(), HttpStatus.BAD_REQUEST.value(),
+                    Errors.WRONG_DATE_FORMAT);
+        }
+        element.setSelectedDate(selectedDate);
+        return changed(element, KanbanChangeType.ELEMENT_DATE, String.valueOf(selectedDate), context);
+    }
+
+    private ElementOperationResponse changed(KanbanElement element, KanbanChangeType type, String payload,
+                                             BatchContext context) {
+        touch(element, context);
+        context.change(element.getKanbanColumn().getKanban(), changeService.elementChange(element, type, payload));
+        return ok(element);
+    }
+
+    private void touch(KanbanElement element, BatchContext context) {
+        element.setTimeOfUpdate(context.time);
+        element.setLastRedactor(context.user);
+        context.changedElements.add(element);
+    }
+
+    private ElementOperationResponse ok(KanbanElement element) {
+        return new ElementOperationResponse(element.getId(), HttpStatus.OK.value(), null);
+    }
+
+    private void checkElement(KanbanElement element) {
+        if (element.getStatus() == ElementStatus.UTILISE)
+            throw new IncorrectStatusException();
+        if (element.getStatus() == ElementStatus.DELETED)
+            throw new NoSuchElementException();
+    }
+
+    private static class BatchContext {
+        private final User user;
+        private final long time = LocalDateTime.now()
+                .toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now()));
+        private final Map<Long, KanbanElement> elements = new HashMap<>();
+        private final Map<Long, Boolean> editableKanbans = new HashMap<>();
+        // упорядоченные живые элементы колонок, в которые перемещаются элементы пакета
+        private final Map<Long, List<KanbanElement>> columnSiblings = new HashMap<>();
+        private final Map<Long, TimeRemover> removers = new HashMap<>();
+        private final Map<Long, TimeRemover> storedRemovers = new HashMap<>();
+        private final Set<Long> changedRemovers = new HashSet<>();
+        private final Set<KanbanElement> changedElements = new LinkedHashSet<>();
+        private final Map<Kanban, List<KanbanChange>> changes = new LinkedHashMap<>();
+
+        private BatchContext(User user) {
+            this.user = user;
+        }
+
+        private boolean canEdit(Kanban kanban, ProjectAccessIndex accessIndex) {
+            return editableKanbans.computeIfAbsent(kanban.getId(), id -> accessIndex.canEditKanban(kanban, user));
+        }
+
+        private List<KanbanElement> siblings(KanbanColumn column, KanbanElementRepository elementRepository) {
+            return columnSiblings.computeIfAbsent(column.getId(),
+                    id -> new ArrayList<>(elementRepository.findOrdered(id, ElementStatus.ALIVE)));
+        }
+
+        // элемент покидает живые элементы своей колонки
+        private void leave(KanbanElement element) {
+            List<KanbanElement> siblings = columnSiblings.get(element.getKanbanColumn().getId());
+            if (siblings != null)
+                siblings.remove(element);
+        }
+
+        private void putRemover(long id, boolean hard, int delayDays) {
+            TimeRemover remover = removers.computeIfAbsent(id, key -> {
+                TimeRemover created = storedRemovers.getOrDefault(key, new TimeRemover());
+                created.setRemoverId(key);
+                return created;
+            });
+            remover.setHard(hard);
+            remover.setDelayDays(delayDays);
+            changedRemovers.add(id);
+        }
+
+        private void removeRemover(long id) {
+            removers.remove(id);
+            changedRemovers.remove(id);
+        }
+
+        private void change(Kanban kanban, KanbanChange change) {
+            changes.computeIfAbsent(kanban, k -> new ArrayList<>()).add(change);
+        }
+    }
+}
@@ -2,25 +2,25 @@ package ru.manager.ProgectManager.services.kanban;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.DTO.request.kanban.CreateKanbanElementRequest;
 import ru.manager.ProgectManager.DTO.request.kanban.TransportElementRequest;
 import ru.manager.ProgectManager.DTO.response.kanban.KanbanElementContentResponse;
-import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.search.KanbanSearchIndex;
 import ru.manager.ProgectManager.entitys.kanban.*;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
 import ru.manager.ProgectManager.enums.SearchElementType;
-import ru.manager.ProgectManager.enums.TypeRoleProject;
 import ru.manager.ProgectManager.exception.IncorrectStatusException;
 import ru.manager.ProgectManager.exception.NoSuchResourceException;
 import ru.manager.ProgectManager.repositories.*;
 
 import java.time.Instant;
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RequiredArgsConstructor
 @Service
@@ -30,7 +30,12 @@ public class KanbanElementService {
     private final UserRepository userRepository;
     private final TimeRemoverRepository timeRemoverRepository;
     private final KanbanRepository kanbanRepository;
+    private final ProjectAccessIndex accessIndex;
+    private final KanbanChangeService changeService;
+    private final KanbanOrderService orderService;
+    private final KanbanSearchIndex searchIndex;
 
+    @Transactional
     public Optional<KanbanElement> addElement(CreateKanbanElementRequest request, String userLogin) {
         KanbanColumn column = columnRepository.findById(request.getColumnId()).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -45,19 +50,17 @@ public class KanbanElementService {
             element.setTimeOfCreate(getEpochSeconds());
             element.setTimeOfUpdate(getEpochSeconds());
 
-            createSoftRemover(column, element);
-
-            column.getElements().stream().max(Comparator.comparing(KanbanElement::getSerialNumber))
-                    .ifPresentOrElse(e -> element.setSerialNumber(e.getSerialNumber() + 1),
-                            () -> element.setSerialNumber(0));
-            column.getElements().add(element);
+            element.setOrderKey(orderService.lastElementKey(column));
             KanbanElement kanbanElement = elementRepository.save(element);
-            columnRepository.save(column);
+            createSoftRemover(column, kanbanElement);
+            changeService.elementChanged(kanbanElement, KanbanChangeType.ELEMENT_CREATE, kanbanElement.getName());
+            searchIndex.elementUpdated(kanbanElement);
             return Optional.of(kanbanElement);
         }
         return Optional.empty();
     }
 
+    @Transactional
     public boolean rename(long id, String name, String userLogin) {
         KanbanElement element = elementRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -68,12 +71,15 @@ public class KanbanElementService {
             element.setTimeOfUpdate(getEpochSeconds());
             element.setLastRedactor(user);
             elementRepository.save(element);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_RENAME, element.getName());
+            searchIndex.elementUpdated(element);
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean editContent(long id, String content, String userLogin) {
         KanbanElement element = elementRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -84,12 +90,15 @@ public class KanbanElementService {
             element.setTimeOfUpdate(getEpochSeconds());
             element.setLastRedactor(user);
             elementRepository.save(element);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_CONTENT, null);
+            searchIndex.elementUpdated(element);
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean editDate(long id, String date, String userLogin) {
         KanbanElement element = elementRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -100,12 +109,14 @@ public class KanbanElementService {
             element.setTimeOfUpdate(getEpochSeconds());
             element.setLastRedactor(user);
             elementRepository.save(element);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_DATE, String.valueOf(element.getSelectedDate()));
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean dropDate(long id, String userLogin) {
         KanbanElement element = elementRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -116,54 +127,30 @@ public class KanbanElementService {
             element.setTimeOfUpdate(getEpochSeconds());
             element.setLastRedactor(user);
             elementRepository.save(element);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_DATE, String.valueOf(element.getSelectedDate()));
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean transportElement(TransportElementRequest request, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanElement element = elementRepository.findById(request.getId()).orElseThrow();
-        int from = element.getSerialNumber();
         KanbanColumn fromColumn = element.getKanbanColumn();
         Kanban kanban = fromColumn.getKanban();
         if (canEditKanban(kanban, user)) {
             if (element.getStatus() == ElementStatus.ALIVE) {
                 if (fromColumn.getId() == request.getToColumn()) {
-                    Set<KanbanElement> allElements = fromColumn.getElements();
-                    if (request.getToIndex() >= allElements.size())
+                    if (request.getToIndex() >= elementRepository.countByColumn(fromColumn.getId(), ElementStatus.ALIVE))
                         throw new IllegalArgumentException();
-                    if (request.getToIndex() > from) {
-                        allElements.stream()
-                                .filter(kanbanElement -> kanbanElement.getSerialNumber() > from)
-                                .filter(kanbanElement -> kanbanElement.getSerialNumber() <= request.getToIndex())
-                                .forEach(kanbanElement -> kanbanElement.setSerialNumber(kanbanElement.getSerialNumber() - 1));
-                    } else {
-                        allElements.stream()
-                                .filter(kanbanElement -> kanbanElement.getSerialNumber() < from)
-                                .filter(kanbanElement -> kanbanElement.getSerialNumber() >= request.getToIndex())
-                                .forEach(kanbanElement -> kanbanElement.setSerialNumber(kanbanElement.getSerialNumber() + 1));
-                    }
-                    element.setSerialNumber(request.getToIndex());
+                    element.setOrderKey(orderService.elementKeyAt(fromColumn, element.getId(), request.getToIndex()));
                     element.setTimeOfUpdate(getEpochSeconds());
                     element.setLastRedactor(user);
-
-                    elementRepository.saveAll(allElements);
                 } else {
                     KanbanColumn toColumn = columnRepository.findById((long) request.getToColumn()).orElseThrow();
-                    Set<KanbanElement> fromColumnElements = fromColumn.getElements();
-                    Set<KanbanElement> toColumnElements = toColumn.getElements();
-                    fromColumnElements.stream()
-                            .filter(e -> e.getSerialNumber() > from)
-                            .forEach(e -> e.setSerialNumber(e.getSerialNumber() - 1));
-                    toColumnElements.stream()
-                            .filter(e -> e.getSerialNumber() >= request.getToIndex())
-                            .forEach(e -> e.setSerialNumber(e.getSerialNumber() + 1));
-                    fromColumn.getElements().remove(element);
-                    toColumn.getElements().add(element);
-
-                    element.setSerialNumber(request.getToIndex());
+                    element.setOrderKey(orderService.elementKeyAt(toColumn, element.getId(), request.getToIndex()));
                     element.setTimeOfUpdate(getEpochSeconds());
                     element.setKanbanColumn(toColumn);
                     element.setLastRedactor(user);
@@ -172,16 +159,16 @@ public class KanbanElementService {
                         timeRemoverRepository.deleteById(element.getId());
                     }
                     createSoftRemover(toColumn, element);
-
-                    columnRepository.save(fromColumn);
-                    columnRepository.save(toColumn);
                 }
+                elementRepository.save(element);
+                changeService.elementMoved(element, request.getToIndex());
                 return true;
             } else throw new IncorrectStatusException();
         }
         return false;
     }
 
+    @Transactional
     public Optional<KanbanColumn> utilizeElementFromUser(long id, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanElement element = elementRepository.findById(id).orElseThrow();
@@ -196,7 +183,7 @@ public class KanbanElementService {
                         .orElseThrow(() -> new NoSuchResourceException("Remover " + element.getId()));
             }
             timeRemover.setHard(true);
-            timeRemover.setTimeToDelete(LocalDate.now().plusDays(6).toEpochDay());
+            timeRemover.setDelayDays(6);
             timeRemoverRepository.save(timeRemover);
 
             element.setLastRedactor(user);
@@ -207,27 +194,14 @@ public class KanbanElementService {
         }
     }
 
-    public void utiliseElementFromSystem(long id) {
-        // при автоматическом перемещении элемента в корзину не происходит удаления timeRemover, поэтому подтягиваем его и только меняем данные
-        TimeRemover timeRemover = timeRemoverRepository.findById(id)
-                .orElse(new TimeRemover());
-        timeRemover.setHard(true);
-        timeRemover.setTimeToDelete(LocalDate.now().plusDays(6).toEpochDay());
-        timeRemoverRepository.save(timeRemover);
-        utiliseElement(elementRepository.findById(id).orElseThrow());
-    }
-
     private void utiliseElement(KanbanElement element) {
         checkElement(element);
 
         element.setTimeOfUpdate(getEpochSeconds());
         element.setStatus(ElementStatus.UTILISE);
-        KanbanColumn column = elementRepository.save(element).getKanbanColumn();
-
-        column.getElements().stream()
-                .filter(e -> e.getSerialNumber() > element.getSerialNumber())
-                .forEach(e -> e.setSerialNumber(e.getSerialNumber() - 1));
-        elementRepository.saveAll(column.getElements());
+        elementRepository.save(element);
+        changeService.elementChanged(element, KanbanChangeType.ELEMENT_STATUS, element.getStatus().name());
+        searchIndex.elementUpdated(element);
     }
 
     public Optional<KanbanElementContentResponse> getContentFromElement(long id, String userLogin) {
@@ -241,44 +215,21 @@ public class KanbanElementService {
         return Optional.empty();
     }
 
+    // ALL ищет по названию, контенту и тегам
     public Optional<Set<KanbanElement>> findElements(long kanbanId, SearchElementType type, String inputName,
                                                      ElementStatus from, String userLogin){
         Kanban kanban = kanbanRepository.findById(kanbanId).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
-        String name = inputName.trim().toLowerCase();
         if(canSeeKanban(kanban, user)){
-            if(type == SearchElementType.NAME){
-                return Optional.of(findByName(kanban, name, from));
-            } else if(type == SearchElementType.TAG){
-                return Optional.of(findByTag(kanban, name, from));
-            } else {
-                Set<KanbanElement> set = new HashSet<>();
-                set.addAll(findByName(kanban, name, from));
-                set.addAll(findByTag(kanban, name, from));
-                return Optional.of(set);
-            }
+            Set<Long> ids = searchIndex.search(kanbanId, type, inputName.trim(), from);
+            Set<KanbanElement> elements = new HashSet<>();
+            elementRepository.findAllById(ids).forEach(elements::add);
+            return Optional.of(elements);
         } else{
             return Optional.empty();
         }
     }
 
-    private Set<KanbanElement> findByName(Kanban kanban, String name, ElementStatus elementStatus){
-        return kanban.getKanbanColumns().stream()
-                .flatMap(c -> c.getElements().stream())
-                .filter(e -> e.getStatus() == elementStatus)
-                .filter(e -> e.getName().toLowerCase().contains(name))
-                .collect(Collectors.toSet());
-    }
-
-    private Set<KanbanElement> findByTag(Kanban kanban, String tagName, ElementStatus elementStatus){
-        return kanban.getKanbanColumns().stream()
-                .flatMap(c -> c.getElements().stream())
-                .filter(e -> e.getStatus() == elementStatus)
-                .filter(e -> e.getTags().stream().map(Tag::getText).map(String::toLowerCase)
-                        .anyMatch(s -> s.contains(tagName)))
-                .collect(Collectors.toSet());
-    }
-
     private long getEpochSeconds() {
         return LocalDateTime.now().toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now()));
     }
@@ -288,24 +239,17 @@ public class KanbanElementService {
             TimeRemover remover = new TimeRemover();
             remover.setHard(false);
             remover.setRemoverId(element.getId());
-            remover.setTimeToDelete(LocalDate.now().plusDays(column.getDelayedDays()).toEpochDay());
+            remover.setDelayDays(column.getDelayedDays());
             timeRemoverRepository.save(remover);
         }
     }
 
-    private boolean canSeeKanban(Kanban kanban, User user){
-        return kanban.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))));
+    private boolean canSeeKanban(Kanban kanban, User user) {
+        return accessIndex.canSeeKanban(kanban, user);
     }
 
-    private boolean canEditKanban(Kanban kanban, User user){
-        return kanban.getProject().getConnectors().stream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .filter(CustomRoleWithKanbanConnector::isCanEdit)
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))));
+    private boolean canEditKanban(Kanban kanban, User user) {
+        return accessIndex.canEditKanban(kanban, user);
     }
 
     private void checkElement(KanbanElement element) {
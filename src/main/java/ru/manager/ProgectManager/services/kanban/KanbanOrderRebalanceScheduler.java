@@ -0,0 +1,44 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.manager.ProgectManager.components.JobLeaseCoordinator;
+
+import java.time.Duration;
+
+// суточная перенумерация ключей порядка в колонках и досках, где ключи стали слишком длинными
+@Service
+@RequiredArgsConstructor
+@Log
+public class KanbanOrderRebalanceScheduler {
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(10);
+    private static final Duration LOCK_AT_LEAST = Duration.ofHours(20);
+
+    private final KanbanOrderService orderService;
+    private final JobLeaseCoordinator leaseCoordinator;
+
+    @Scheduled(fixedDelay = 86_400_000)
+    public void rebalance() {
+        leaseCoordinator.runExclusive("kanban-order-rebalance", LOCK_AT_MOST, LOCK_AT_LEAST, this::rebalanceOrder);
+    }
+
+    // ошибка в одной колонке или доске не останавливает перенумерацию остальных
+    private void rebalanceOrder() {
+        for (long columnId : orderService.findColumnsToRebalance()) {
+            try {
+                orderService.rebalanceColumn(columnId);
+            } catch (Exception e) {
+                log.warning("Column " + columnId + " is not rebalanced: " + e.getMessage());
+            }
+        }
+        for (long kanbanId : orderService.findKanbansToRebalance()) {
+            try {
+                orderService.rebalanceKanban(kanbanId);
+            } catch (Exception e) {
+                log.warning("Kanban " + kanbanId + " is not rebalanced: " + e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.components.LexoRank;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
+import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.KanbanRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+// ключи порядка колонок и элементов, соседние ключи читаются под блокировкой доски
+@Service
+@RequiredArgsConstructor
+public class KanbanOrderService {
+    private static final int REBALANCE_LENGTH = 16;
+    // ключи такой длины переназначаются сразу, не дожидаясь плановой задачи, чтобы не превысить длину столбца
+    private static final int MAX_LENGTH = 48;
+
+    private final KanbanElementRepository elementRepository;
+    private final KanbanColumnRepository columnRepository;
+    private final KanbanRepository kanbanRepository;
+    private final KanbanChangeService changeService;
+
+    // блокировка держится до конца транзакции вызывающего метода
+    public void lockKanban(long kanbanId) {
+        kanbanRepository.lockById(kanbanId);
+    }
+
+    // порядковый номер элемента среди элементов его колонки с тем же статусом
+    public int findPosition(KanbanElement element) {
+        return (int) elementRepository.countElementsBefore(element.getKanbanColumn().getId(), element.getStatus(),
+                element.getOrderKey(), element.getId());
+    }
+
+    public String lastElementKey(KanbanColumn column) {
+        lockKanban(column.getKanban().getId());
+        return LexoRank.between(elementRepository.findLastOrderKey(column.getId(), ElementStatus.ALIVE), null);
+    }
+
+    // ключ для элемента на позиции index среди остальных живых элементов колонки
+    public String elementKeyAt(KanbanColumn column, long elementId, int index) {
+        lockKanban(column.getKanban().getId());
+        List<String> neighbours = elementRepository.findOrderKeys(column.getId(), ElementStatus.ALIVE.ordinal(),
+                elementId, Math.max(index - 1, 0), (index == 0 ? 1 : 2));
+        if (index > 0 && neighbours.isEmpty())
+            return lastElementKey(column);
+        String before = (index == 0 ? null : neighbours.get(0));
+        String after = (index == 0 ? (neighbours.isEmpty() ? null : neighbours.get(0))
+                : (neighbours.size() > 1 ? neighbours.get(1) : null));
+        // одинаковые ключи могли появиться при одновременной вставке в конец колонки
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            rebalanceColumn(column.getId());
+            return elementKeyAt(column, elementId, index);
+        }
+        String key = LexoRank.between(before, after);
+        if (key.length() > MAX_LENGTH) {
+            rebalanceColumn(column.getId());
+            return elementKeyAt(column, elementId, index);
+        }
+        return key;
+    }
+
+    // ключ для позиции index в уже загруженном упорядоченном списке соседей, при необходимости соседи
+    // получают новые ключи в памяти и сохраняются вместе с транзакцией
+    public String elementKeyAt(List<KanbanElement> siblings, int index) {
+        int position = Math.min(index, siblings.size());
+        String before = (position == 0 ? null : siblings.get(position - 1).getOrderKey());
+        String after = (position == siblings.size() ? null : siblings.get(position).getOrderKey());
+        if (before == null || after == null || before.compareTo(after) < 0) {
+            String key = LexoRank.between(before, after);
+            if (key.length() <= MAX_LENGTH)
+                return key;
+        }
+        List<String> keys = LexoRank.sequence(siblings.size());
+        for (int i = 0; i < siblings.size(); i++) {
+            siblings.get(i).setOrderKey(keys.get(i));
+        }
+        return elementKeyAt(siblings, index);
+    }
+
+    public String lastColumnKey(Kanban kanban) {
+        lockKanban(kanban.getId());
+        return LexoRank.between(columnRepository.findLastOrderKey(kanban.getId()), null);
+    }
+
+    // ключ для колонки на позиции index среди остальных колонок канбана
+    public String columnKeyAt(KanbanColumn column, int index) {
+        lockKanban(column.getKanban().getId());
+        // колонки перечитываются после блокировки, загруженная ранее коллекция доски может быть устаревшей
+        List<KanbanColumn> others = columnRepository.findOrderedByKanbanId(column.getKanban().getId()).stream()
+                .filter(c -> c.getId() != column.getId())
+                .collect(Collectors.toList());
+        String before = (index == 0 || others.isEmpty() ? null
+                : others.get(Math.min(index, others.size()) - 1).getOrderKey());
+        String after = (index < others.size() ? others.get(index).getOrderKey() : null);
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            rebalanceKanban(column.getKanban().getId());
+            return columnKeyAt(column, index);
+        }
+        String key = LexoRank.between(before, after);
+        if (key.length() > MAX_LENGTH) {
+            rebalanceKanban(column.getKanban().getId());
+            return columnKeyAt(column, index);
+        }
+        return key;
+    }
+
+    @Transactional
+    public void rebalanceColumn(long columnId) {
+        KanbanColumn column = columnRepository.findById(columnId).orElseThrow();
+        lockKanban(column.getKanban().getId());
+        List<KanbanElement> elements = elementRepository.findOrdered(columnId, ElementStatus.ALIVE);
+        List<String> keys = LexoRank.sequence(elements.size());
+        for (int i = 0; i < elements.size(); i++) {
+            elements.get(i).setOrderKey(keys.get(i));
+        }
+        elementRepository.saveAll(elements);
+        changeService.columnChanged(column, KanbanChangeType.COLUMN_REBALANCE, null);
+    }
+
+    @Transactional
+    public void rebalanceKanban(long kanbanId) {
+        lockKanban(kanbanId);
+        List<KanbanColumn> columns = columnRepository.findOrderedByKanbanId(kanbanId);
+        List<String> keys = LexoRank.sequence(columns.size());
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).setOrderKey(keys.get(i));
+        }
+        columnRepository.saveAll(columns);
+        changeService.kanbanChanged(kanbanRepository.findById(kanbanId).orElseThrow(),
+                KanbanChangeType.KANBAN_REBALANCE, null);
+    }
+
+    public List<Long> findColumnsToRebalance() {
+        return elementRepository.findColumnsWithLongOrderKeys(ElementStatus.ALIVE, REBALANCE_LENGTH);
+    }
+
+    public List<Long> findKanbansToRebalance() {
+        return columnRepository.findKanbansWithLongOrderKeys(REBALANCE_LENGTH);
+    }
+}
@@ -2,26 +2,34 @@ package ru.manager.ProgectManager.services.kanban;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.manager.ProgectManager.DTO.request.kanban.TagRequest;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanContentResponse;
 import ru.manager.ProgectManager.DTO.response.kanban.KanbanMembers;
 import ru.manager.ProgectManager.DTO.response.user.PublicMainUserDataResponse;
 import ru.manager.ProgectManager.components.PhotoCompressor;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.events.PushEventBus;
+import ru.manager.ProgectManager.components.search.KanbanSearchIndex;
+import ru.manager.ProgectManager.components.search.ResourceNameIndex;
 import ru.manager.ProgectManager.entitys.Project;
 import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
 import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
 import ru.manager.ProgectManager.entitys.kanban.Tag;
 import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
 import ru.manager.ProgectManager.enums.ResourceType;
 import ru.manager.ProgectManager.enums.Size;
 import ru.manager.ProgectManager.enums.TypeRoleProject;
 import ru.manager.ProgectManager.repositories.*;
+import ru.manager.ProgectManager.repositories.projections.KanbanColumnView;
 import ru.manager.ProgectManager.services.user.VisitMarkUpdater;
 
 import java.io.IOException;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,11 +38,18 @@ public class KanbanService {
     private final ProjectRepository projectRepository;
     private final UserRepository userRepository;
     private final KanbanRepository kanbanRepository;
+    private final KanbanColumnRepository columnRepository;
+    private final KanbanBoardReader boardReader;
+    private final KanbanChangeService changeService;
     private final CustomProjectRoleRepository customProjectRoleRepository;
     private final KanbanConnectorRepository kanbanConnectorRepository;
     private final TagRepository tagRepository;
     private final VisitMarkUpdater visitMarkUpdater;
     private final PhotoCompressor compressor;
+    private final ProjectAccessIndex accessIndex;
+    private final PushEventBus eventBus;
+    private final KanbanSearchIndex searchIndex;
+    private final ResourceNameIndex resourceNameIndex;
 
     public Optional<Kanban> createKanban(long projectId, String name, String userLogin) {
         Project project = projectRepository.findById(projectId).orElseThrow();
@@ -46,17 +61,23 @@ public class KanbanService {
 
             kanban = kanbanRepository.save(kanban);
             projectRepository.save(project);
+            resourceNameIndex.invalidate(projectId);
             return Optional.of(kanban);
         }
         return Optional.empty();
     }
 
+    @Transactional
     public boolean setImage(long kanbanId, MultipartFile image, String userLogin) throws IOException {
         Kanban kanban = kanbanRepository.findById(kanbanId).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
         if(canEditKanban(kanban, user)) {
-            kanban.setPhoto(compressor.compress(image, Size.LARGE));
+            Map<Size, byte[]> variants = compressor.compressVariants(image, Size.LARGE);
+            kanban.setPhoto(variants.remove(Size.LARGE));
+            kanban.getPhotoVariants().clear();
+            kanban.getPhotoVariants().putAll(variants);
             kanbanRepository.save(kanban);
+            changeService.kanbanChanged(kanban, KanbanChangeType.KANBAN_IMAGE, null);
             return true;
         } else {
             return false;
@@ -67,6 +88,12 @@ public class KanbanService {
         return kanbanRepository.findById(id).orElseThrow().getPhoto();
     }
 
+    public byte[] findImage(long id, Integer size) {
+        return Size.fitting(size, Size.LARGE)
+                .map(variant -> kanbanRepository.findPhotoVariant(id, variant))
+                .orElseGet(() -> findImage(id));
+    }
+
     public boolean removeKanban(long id, String userLogin) {
         Kanban kanban = kanbanRepository.findById(id).orElseThrow();
         Project project = kanban.getProject();
@@ -84,17 +111,23 @@ public class KanbanService {
 
             project.getKanbans().remove(kanban);
             projectRepository.save(project);
+            accessIndex.invalidate(project);
+            searchIndex.invalidate(id);
+            resourceNameIndex.invalidate(project.getId());
             return true;
         }
         return false;
     }
 
+    @Transactional
     public boolean rename(long id, String name, String userLogin) {
         Kanban kanban = kanbanRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
         if (canEditKanban(kanban, user)) {
             kanban.setName(name.trim());
             kanbanRepository.save(kanban);
+            resourceNameIndex.invalidate(kanban.getProject().getId());
+            changeService.kanbanChanged(kanban, KanbanChangeType.KANBAN_RENAME, kanban.getName());
             visitMarkUpdater.redactVisitMark(kanban);
             return true;
         } else {
@@ -102,12 +135,30 @@ public class KanbanService {
         }
     }
 
-    public Optional<Kanban> findKanban(long id, String userLogin) {
+    // содержимое доски собирается фиксированным числом запросов вне зависимости от количества колонок и карточек
+    public Optional<KanbanContentResponse> findKanbanContent(long id, int pageIndex, int count, int elementCount,
+                                                             String userLogin) {
         Kanban kanban = kanbanRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
         if (canSeeKanban(kanban, user)) {
             visitMarkUpdater.updateVisitMarks(user, kanban);
-            return Optional.of(kanban);
+            int zoneId = user.getZoneId();
+            List<KanbanColumnView> columns = columnRepository.findColumnViewsByKanbanId(id).stream()
+                    .skip(pageIndex)
+                    .limit(count)
+                    .collect(Collectors.toList());
+            return Optional.of(new KanbanContentResponse(kanban,
+                    boardReader.readFirstPages(columns, pageIndex, elementCount, zoneId), canEditKanban(kanban, user)));
+        } else {
+            return Optional.empty();
+        }
+    }
+
+    public Optional<SseEmitter> subscribe(long id, String userLogin) {
+        Kanban kanban = kanbanRepository.findById(id).orElseThrow();
+        User user = userRepository.findByUsername(userLogin);
+        if (canSeeKanban(kanban, user)) {
+            return Optional.of(eventBus.subscribeKanban(id));
         } else {
             return Optional.empty();
         }
@@ -155,6 +206,7 @@ public class KanbanService {
         }
     }
 
+    @Transactional
     public Optional<Tag> addTag(long id, TagRequest request, String userLogin) {
         Kanban kanban = kanbanRepository.findById(id).orElseThrow();
         User user = userRepository.findByUsername(userLogin);
@@ -166,12 +218,14 @@ public class KanbanService {
             tag = tagRepository.save(tag);
             kanban.getAvailableTags().add(tag);
             kanbanRepository.save(kanban);
+            changeService.kanbanChanged(kanban, KanbanChangeType.KANBAN_TAGS, String.valueOf(tag.getId()));
             return Optional.of(tag);
         } else {
             return Optional.empty();
         }
     }
 
+    @Transactional
     public boolean removeTag(long id, String userLogin) {
         Tag tag = tagRepository.findById(id).orElseThrow();
         Kanban kanban = tag.getKanban();
@@ -183,12 +237,15 @@ public class KanbanService {
                     .forEach(e -> e.getTags().remove(tag));
             tagRepository.delete(tag);
             kanbanRepository.save(kanban);
+            changeService.kanbanChanged(kanban, KanbanChangeType.KANBAN_TAGS, String.valueOf(tag.getId()));
+            searchIndex.tagRemoved(tag);
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean editTag(long id, TagRequest request, String userLogin) {
         Tag tag = tagRepository.findById(id).orElseThrow();
         Kanban kanban = tag.getKanban();
@@ -197,6 +254,8 @@ public class KanbanService {
             tag.setText(request.getText());
             tag.setColor(request.getColor());
             tagRepository.save(tag);
+            changeService.kanbanChanged(kanban, KanbanChangeType.KANBAN_TAGS, String.valueOf(tag.getId()));
+            searchIndex.tagUpdated(tag);
             return true;
         } else {
             return false;
@@ -236,24 +295,14 @@ public class KanbanService {
     }
 
     private boolean canEditResource(Project project, User user) {
-        return user.getUserWithProjectConnectors()
-                .stream().anyMatch(c -> c.getProject().equals(project)
-                        && (c.getRoleType() == TypeRoleProject.ADMIN || (c.getRoleType() == TypeRoleProject.CUSTOM_ROLE
-                        && c.getCustomProjectRole().isCanEditResources())));
+        return accessIndex.canEditResource(project, user);
     }
 
     private boolean canEditKanban(Kanban kanban, User user) {
-        return kanban.getProject().getConnectors().parallelStream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().parallelStream()
-                .filter(CustomRoleWithKanbanConnector::isCanEdit)
-                .anyMatch(connector -> connector.getKanban().equals(kanban))));
+        return accessIndex.canEditKanban(kanban, user);
     }
 
     private boolean canSeeKanban(Kanban kanban, User user) {
-        return kanban.getProject().getConnectors().parallelStream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().parallelStream()
-                .anyMatch(customRoleWithKanbanConnector -> customRoleWithKanbanConnector.getKanban().equals(kanban))));
+        return accessIndex.canSeeKanban(kanban, user);
     }
 }
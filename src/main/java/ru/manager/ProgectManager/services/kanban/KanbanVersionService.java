@@ -0,0 +1,77 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Service;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.authorization.TokenPrincipal;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.KanbanRepository;
+import ru.manager.ProgectManager.repositories.UserRepository;
+import ru.manager.ProgectManager.repositories.projections.KanbanVersionView;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.security.Principal;
+import java.util.Optional;
+
+// версия содержимого доски и ETag для ответов на чтение
+@Service
+@RequiredArgsConstructor
+public class KanbanVersionService {
+    private final KanbanRepository kanbanRepository;
+    private final KanbanColumnRepository columnRepository;
+    private final KanbanElementRepository elementRepository;
+    private final UserRepository userRepository;
+    private final ProjectAccessIndex accessIndex;
+
+    public Optional<String> findKanbanTag(long id, Principal principal, Object... params) {
+        return kanbanRepository.findVersionById(id)
+                .flatMap(version -> buildTag("k" + id, version, principal, params));
+    }
+
+    public Optional<String> findColumnTag(long id, Principal principal, Object... params) {
+        return columnRepository.findVersionByColumnId(id)
+                .flatMap(version -> buildTag("c" + id, version, principal, params));
+    }
+
+    public Optional<String> findElementTag(long id, Principal principal, Object... params) {
+        return elementRepository.findVersionByElementId(id)
+                .flatMap(version -> buildTag("e" + id, version, principal, params));
+    }
+
+    // пользователю без доступа к доске тег не выдаётся, чтобы ответ 403 не подменялся на 304
+    private Optional<String> buildTag(String resource, KanbanVersionView version, Principal principal,
+                                      Object... params) {
+        long userId;
+        int zoneId;
+        Object details = (principal instanceof Authentication ? ((Authentication) principal).getPrincipal() : null);
+        if (details instanceof TokenPrincipal) {
+            userId = ((TokenPrincipal) details).getUserId();
+            zoneId = ((TokenPrincipal) details).getZoneId();
+        } else {
+            User user = userRepository.findByUsername(principal.getName());
+            userId = user.getUserId();
+            zoneId = user.getZoneId();
+        }
+        if (!accessIndex.canSeeKanban(version.getProjectId(), version.getKanbanId(), userId))
+            return Optional.empty();
+        boolean canEdit = accessIndex.canEditKanban(version.getProjectId(), version.getKanbanId(), userId);
+        StringBuilder tag = new StringBuilder("\"").append(resource).append('-').append(version.getVersion())
+                .append("-u").append(userId).append("-z").append(zoneId).append(canEdit ? "-w" : "-r");
+        for (Object param : params) {
+            tag.append('-').append(encode(param));
+        }
+        return Optional.of(tag.append('"').toString());
+    }
+
+    // параметры записываются в тег целиком: после кодирования в них нет кавычек и разделителя '-',
+    // а null отличается от пустой строки
+    private static String encode(Object param) {
+        if (param == null)
+            return "~";
+        return URLEncoder.encode(param.toString(), StandardCharsets.UTF_8).replace("-", "%2D");
+    }
+}
@@ -0,0 +1,108 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.java.Log;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import ru.manager.ProgectManager.components.JobLeaseCoordinator;
+import ru.manager.ProgectManager.components.TimingWheel;
+import ru.manager.ProgectManager.repositories.TimeRemoverRepository;
+import ru.manager.ProgectManager.repositories.projections.RemoverDueView;
+import ru.manager.ProgectManager.services.kanban.TimeRemoverService.ExpiryResult;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+// срабатывание удалителей в их время по колесу таймеров на узле с арендой
+@Service
+@RequiredArgsConstructor
+@Log
+public class TimeRemoverScheduler {
+    private static final long TICK_SECONDS = 60;
+    private static final int WHEEL_SIZE = 180;
+    private static final long DAY_SECONDS = 86_400;
+    private static final int LOAD_CHUNK = 1_000;
+    private static final int MAX_LOADED = 50_000;
+    private static final int FIRE_CHUNK = 500;
+    private static final String LEASE = "time-remover-wheel";
+    private static final Duration LOCK_AT_MOST = Duration.ofMinutes(5);
+    private static final Duration LOCK_AT_LEAST = Duration.ofMinutes(2);
+
+    private final TimeRemoverRepository timeRemoverRepository;
+    private final TimeRemoverService removerService;
+    private final JobLeaseCoordinator leaseCoordinator;
+
+    private final TimingWheel wheel = new TimingWheel(TICK_SECONDS, WHEEL_SIZE, Instant.now().getEpochSecond());
+    private volatile boolean leader;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        int filled = timeRemoverRepository.fillDueTime(DAY_SECONDS);
+        if (filled != 0)
+            log.info("Time removers without due time: " + filled);
+    }
+
+    @Scheduled(fixedDelay = 300_000, initialDelay = 300_000)
+    public void reload() {
+        if (leader)
+            load();
+    }
+
+    // окно перечитывается целиком, уже загруженные удалители только переносятся на свой такт
+    public synchronized void load() {
+        long until = wheel.horizon();
+        long afterDue = Long.MIN_VALUE;
+        long afterId = 0;
+        List<RemoverDueView> page;
+        do {
+            page = timeRemoverRepository.findDueBefore(until, afterDue, afterId, PageRequest.of(0, LOAD_CHUNK));
+            for (RemoverDueView view : page) {
+                wheel.schedule(view.getRemoverId(), view.getDueTime());
+                afterDue = view.getDueTime();
+                afterId = view.getRemoverId();
+            }
+        } while (page.size() == LOAD_CHUNK && wheel.size() < MAX_LOADED);
+    }
+
+    @Scheduled(fixedRate = 60_000)
+    public void tick() {
+        boolean held = leaseCoordinator.runExclusive(LEASE, LOCK_AT_MOST, LOCK_AT_LEAST, () -> {
+            if (!leader) {
+                load();
+                leader = true;
+            }
+            fireDue();
+        });
+        if (!held)
+            leader = false;
+    }
+
+    private void fireDue() {
+        long now = Instant.now().getEpochSecond();
+        List<Long> due;
+        synchronized (this) {
+            due = wheel.advance(now);
+        }
+        int processed = 0;
+        int skipped = 0;
+        int failed = 0;
+        for (int from = 0; from < due.size(); from += FIRE_CHUNK) {
+            List<Long> chunk = due.subList(from, Math.min(from + FIRE_CHUNK, due.size()));
+            try {
+                ExpiryResult result = removerService.fire(chunk, now);
+                processed += result.getProcessed();
+                skipped += result.getSkipped().size();
+            } catch (Exception e) {
+                failed += chunk.size();
+                log.warning("Time removers " + chunk.get(0) + ".." + chunk.get(chunk.size() - 1) + " failed: "
+                        + e.getMessage());
+            }
+        }
+        if (!due.isEmpty())
+            log.info("Time removers fired: " + processed + ", skipped: " + skipped + ", failed: " + failed);
+    }
+}
@@ -0,0 +1,149 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.components.search.KanbanSearchIndex;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.kanban.KanbanChange;
+import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.entitys.kanban.TimeRemover;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.TimeRemoverRepository;
+import ru.manager.ProgectManager.repositories.projections.RemoverExpiryView;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+// обработка удалителей с наступившим сроком, каждая порция в своей транзакции
+@Service
+@RequiredArgsConstructor
+public class TimeRemoverService {
+    private final TimeRemoverRepository timeRemoverRepository;
+    private final KanbanElementRepository elementRepository;
+    private final KanbanChangeService changeService;
+    private final KanbanSearchIndex searchIndex;
+
+    // порция начинается после удалителя (afterDay, afterId), на котором закончилась предыдущая
+    public List<RemoverExpiryView> findExpired(boolean hard, long afterDay, long afterId, int limit) {
+        return timeRemoverRepository.findExpired(hard, LocalDate.now().toEpochDay(), afterDay, afterId,
+                PageRequest.of(0, limit));
+    }
+
+    // окончательное удаление из корзины; удалитель удаляется и у пропущенных элементов
+    @Transactional
+    public ExpiryResult deleteFromTrash(List<Long> ids) {
+        ExpiryResult result = new ExpiryResult();
+        Map<Kanban, List<KanbanChange>> changes = new LinkedHashMap<>();
+        List<KanbanElement> deleted = new ArrayList<>();
+        Map<Long, KanbanElement> elements = loadElements(ids);
+        for (long id : ids) {
+            KanbanElement element = elements.get(id);
+            if (element == null || element.getStatus() != ElementStatus.UTILISE) {
+                result.skipped.add(id);
+                continue;
+            }
+            Kanban kanban = element.getKanbanColumn().getKanban();
+            changes.computeIfAbsent(kanban, k -> new ArrayList<>()).add(changeService.elementChange(element,
+                    KanbanChangeType.ELEMENT_STATUS, ElementStatus.DELETED.name()));
+            searchIndex.elementRemoved(kanban.getId(), id);
+            if (element.getWorkTrackSet().isEmpty()) {
+                element.getKanbanColumn().getElements().remove(element);
+                deleted.add(element);
+            } else {
+                element.setStatus(ElementStatus.DELETED);
+            }
+            result.processed++;
+        }
+        elementRepository.deleteAll(deleted);
+        timeRemoverRepository.deleteByIds(ids);
+        changes.forEach(changeService::recordAll);
+        return result;
+    }
+
+    // перемещение в корзину по сроку колонки; удалитель становится жёстким и у пропущенных элементов
+    @Transactional
+    public ExpiryResult utilise(List<Long> ids) {
+        return utilise(ids, timeRemoverRepository.findAllById(ids));
+    }
+
+    // срабатывание удалителей из колеса таймеров; удалители, срок которых после загрузки сдвинулся, пропускаются
+    @Transactional
+    public ExpiryResult fire(List<Long> ids, long now) {
+        List<Long> hard = new ArrayList<>();
+        List<Long> soft = new ArrayList<>();
+        List<TimeRemover> softRemovers = new ArrayList<>();
+        for (TimeRemover remover : timeRemoverRepository.findAllById(ids)) {
+            if (remover.getDueTime() > now)
+                continue;
+            if (remover.isHard()) {
+                hard.add(remover.getRemoverId());
+            } else {
+                soft.add(remover.getRemoverId());
+                softRemovers.add(remover);
+            }
+        }
+        ExpiryResult result = new ExpiryResult();
+        if (!hard.isEmpty())
+            result.add(deleteFromTrash(hard));
+        if (!soft.isEmpty())
+            result.add(utilise(soft, softRemovers));
+        return result;
+    }
+
+    private ExpiryResult utilise(List<Long> ids, Iterable<TimeRemover> removers) {
+        ExpiryResult result = new ExpiryResult();
+        Map<Kanban, List<KanbanChange>> changes = new LinkedHashMap<>();
+        List<KanbanElement> utilised = new ArrayList<>();
+        Map<Long, KanbanElement> elements = loadElements(ids);
+        long time = LocalDateTime.now().toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now()));
+        for (TimeRemover remover : removers) {
+            remover.setHard(true);
+            remover.setDelayDays(6);
+        }
+        for (long id : ids) {
+            KanbanElement element = elements.get(id);
+            if (element == null || element.getStatus() == ElementStatus.UTILISE
+                    || element.getStatus() == ElementStatus.DELETED) {
+                result.skipped.add(id);
+                continue;
+            }
+            element.setTimeOfUpdate(time);
+            element.setStatus(ElementStatus.UTILISE);
+            utilised.add(element);
+            changes.computeIfAbsent(element.getKanbanColumn().getKanban(), k -> new ArrayList<>())
+                    .add(changeService.elementChange(element, KanbanChangeType.ELEMENT_STATUS,
+                            element.getStatus().name()));
+            result.processed++;
+        }
+        elementRepository.saveAll(utilised);
+        utilised.forEach(searchIndex::elementUpdated);
+        timeRemoverRepository.saveAll(removers);
+        changes.forEach(changeService::recordAll);
+        return result;
+    }
+
+    private Map<Long, KanbanElement> loadElements(List<Long> ids) {
+        Map<Long, KanbanElement> elements = new HashMap<>();
+        elementRepository.findAllById(ids).forEach(e -> elements.put(e.getId(), e));
+        return elements;
+    }
+
+    @Getter
+    public static class ExpiryResult {
+        private int processed;
+        private final List<Long> skipped = new ArrayList<>();
+
+        private void add(ExpiryResult other) {
+            processed += other.processed;
+            skipped.addAll(other.skipped);
+        }
+    }
+}
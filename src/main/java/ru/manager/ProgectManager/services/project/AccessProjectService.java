@@ -5,11 +5,10 @@ import lombok.extern.java.Log;
 import org.springframework.stereotype.Service;
 import ru.manager.ProgectManager.DTO.request.accessProject.AccessProjectTroughMailRequest;
 import ru.manager.ProgectManager.DTO.response.project.ProjectResponse;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
 import ru.manager.ProgectManager.entitys.Project;
 import ru.manager.ProgectManager.entitys.accessProject.AccessProject;
-import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
 import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
-import ru.manager.ProgectManager.entitys.kanban.Kanban;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.enums.Locale;
 import ru.manager.ProgectManager.enums.TypeRoleProject;
@@ -30,7 +29,6 @@ import java.util.UUID;
 @Log
 public class AccessProjectService {
     private final UserRepository userRepository;
-    private final KanbanRepository kanbanRepository;
     private final AccessProjectRepository accessProjectRepository;
     private final ProjectRepository projectRepository;
     private final UserWithProjectConnectorRepository projectConnectorRepository;
@@ -38,6 +36,7 @@ public class AccessProjectService {
     private final NotificationService notificationService;
     private final ProjectService projectService;
     private final VisitMarkUpdater visitMarkUpdater;
+    private final ProjectAccessIndex accessIndex;
 
     public Optional<AccessProject> generateTokenForAccessProject(String fromUser,
                                                                  long projectId,
@@ -121,6 +120,7 @@ public class AccessProjectService {
                 connector.setRoleType(accessProject.getTypeRoleProject());
                 connector.setCustomProjectRole(accessProject.getProjectRole());
                 projectConnectorRepository.save(connector);
+                accessIndex.invalidate(project);
             }
             return true;
         } else {
@@ -173,16 +173,7 @@ public class AccessProjectService {
         project.getConnectors().remove(c);
         projectRepository.save(project);
         projectConnectorRepository.delete(c);
-    }
-
-    public boolean canEditKanban(long id, String userLogin) {
-        Kanban kanban = kanbanRepository.findById(id).orElseThrow();
-        return userRepository.findByUsername(userLogin).getUserWithProjectConnectors().stream()
-                .filter(c -> c.getProject().getKanbans().contains(kanban))
-                .anyMatch(c -> (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                        || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                        .filter(CustomRoleWithKanbanConnector::isCanEdit)
-                        .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))));
+        accessIndex.invalidate(project);
     }
 
     public String findUserRoleName(String userLogin, long projectId) {
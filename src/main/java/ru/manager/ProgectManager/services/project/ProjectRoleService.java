@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.DTO.request.accessProject.*;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
 import ru.manager.ProgectManager.entitys.Project;
 import ru.manager.ProgectManager.entitys.accessProject.CustomProjectRole;
 import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithDocumentConnector;
@@ -32,6 +33,7 @@ public class ProjectRoleService {
     private final CustomRoleWithDocumentConnectorRepository documentConnectorRepository;
     private final AccessProjectRepository accessProjectRepository;
     private final UserWithProjectConnectorRepository projectConnectorRepository;
+    private final ProjectAccessIndex accessIndex;
 
     public Optional<CustomProjectRole> createCustomRole(CreateCustomRoleRequest request, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
@@ -65,6 +67,7 @@ public class ProjectRoleService {
                 customRoleWithDocumentConnector.setCustomProjectRole(savedRole);
                 documentConnectorRepository.save(customRoleWithDocumentConnector);
             });
+            accessIndex.invalidate(project);
             return Optional.of(savedRole);
         }
         return Optional.empty();
@@ -97,6 +100,7 @@ public class ProjectRoleService {
                     .filter(accessProject -> accessProject.getProjectRole().equals(role))
                     .forEach(accessProjectRepository::delete); // удаление пригласительных ссылок, которые выдавали данную роль
             customProjectRoleRepository.delete(role);
+            accessIndex.invalidate(project);
             return true;
         } else {
             return false;
@@ -124,6 +128,7 @@ public class ProjectRoleService {
         if (isAdmin(customProjectRole.getProject(), user)) {
             customProjectRole.setCanEditResources(canEdit);
             customProjectRoleRepository.save(customProjectRole);
+            accessIndex.invalidate(customProjectRole.getProject());
             return true;
         } else {
             return false;
@@ -163,6 +168,7 @@ public class ProjectRoleService {
                         connector.setCustomProjectRole(customProjectRole);
                         kanbanConnectorRepository.save(connector);
                     });// коннекторы, ранее не присутствовавшие в роли
+            accessIndex.invalidate(project);
             return true;
         } else {
             return false;
@@ -203,6 +209,7 @@ public class ProjectRoleService {
                         connector.setCustomProjectRole(customProjectRole);
                         documentConnectorRepository.save(connector);
                     });// коннекторы, ранее не присутствовавшие в роли
+            accessIndex.invalidate(project);
             return true;
         } else {
             return false;
@@ -218,6 +225,7 @@ public class ProjectRoleService {
                     .filter(connector -> connector.getKanban().getId() == id)
                     .findAny()
                     .ifPresent(kanbanConnectorRepository::delete));
+            accessIndex.invalidate(project);
             return true;
         } else {
             return false;
@@ -233,6 +241,7 @@ public class ProjectRoleService {
                     .filter(connector -> connector.getPage().getId() == id)
                     .findAny()
                     .ifPresent(documentConnectorRepository::delete));
+            accessIndex.invalidate(project);
             return true;
         } else {
             return false;
@@ -257,6 +266,7 @@ public class ProjectRoleService {
                 connector.setCustomProjectRole(null);
             }
             projectConnectorRepository.save(connector);
+            accessIndex.invalidate(project);
             return true;
         }
         return false;
@@ -295,9 +305,7 @@ public class ProjectRoleService {
     }
 
     private boolean isAdmin(Project project, User user) {
-        return user.getUserWithProjectConnectors().stream()
-                .filter(c -> c.getRoleType() == TypeRoleProject.ADMIN)
-                .anyMatch(c -> c.getProject().equals(project));
+        return accessIndex.isAdmin(project, user);
     }
 
     private boolean containsRoleNameInProject(Project project, String inputName) {
@@ -9,6 +9,9 @@ import ru.manager.ProgectManager.DTO.request.ProjectDataRequest;
 import ru.manager.ProgectManager.DTO.response.user.UserDataListResponse;
 import ru.manager.ProgectManager.DTO.response.user.UserDataWithProjectRoleResponse;
 import ru.manager.ProgectManager.components.PhotoCompressor;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.search.PageSearchIndex;
+import ru.manager.ProgectManager.components.search.ResourceNameIndex;
 import ru.manager.ProgectManager.entitys.Project;
 import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
 import ru.manager.ProgectManager.entitys.user.User;
@@ -21,6 +24,7 @@ import ru.manager.ProgectManager.repositories.UserWithProjectConnectorRepository
 import ru.manager.ProgectManager.services.user.VisitMarkUpdater;
 
 import java.io.IOException;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -33,6 +37,9 @@ public class ProjectService {
     private final UserWithProjectConnectorRepository connectorRepository;
     private final PhotoCompressor compressor;
     private final VisitMarkUpdater visitMarkUpdater;
+    private final ProjectAccessIndex accessIndex;
+    private final PageSearchIndex pageSearchIndex;
+    private final ResourceNameIndex resourceNameIndex;
 
     public Optional<Project> findProject(long id, String login) {
         User user = userRepository.findByUsername(login);
@@ -61,14 +68,19 @@ public class ProjectService {
         connector.setProject(project);
         connector.setUser(owner);
         connectorRepository.save(connector);
+        accessIndex.invalidate(project);
         return project;
     }
 
+    @Transactional
     public boolean setPhoto(long id, MultipartFile photo, String userLogin) throws IOException {
         User admin = userRepository.findByUsername(userLogin);
         Project project = projectRepository.findById(id).orElseThrow();
         if (isAdmin(project, admin)) {
-            project.setPhoto(compressor.compress(photo, Size.MIDDLE));
+            Map<Size, byte[]> variants = compressor.compressVariants(photo, Size.MIDDLE);
+            project.setPhoto(variants.remove(Size.MIDDLE));
+            project.getPhotoVariants().clear();
+            project.getPhotoVariants().putAll(variants);
             projectRepository.save(project);
             return true;
         }
@@ -79,6 +91,12 @@ public class ProjectService {
         return projectRepository.findById(id).orElseThrow().getPhoto();
     }
 
+    public byte[] findPhoto(long id, Integer size) {
+        return Size.fitting(size, Size.MIDDLE)
+                .map(variant -> projectRepository.findPhotoVariant(id, variant))
+                .orElseGet(() -> findPhoto(id));
+    }
+
     public boolean setData(long id, ProjectDataRequest request, String userLogin) {
         Project project = projectRepository.findById(id).orElseThrow();
         User admin = userRepository.findByUsername(userLogin);
@@ -90,6 +108,7 @@ public class ProjectService {
             project.setStartDate(request.getStartDate());
             project.setDeadline(request.getDeadline());
             projectRepository.save(project);
+            resourceNameIndex.invalidate(id);
             visitMarkUpdater.redactVisitMark(project);
             return true;
         }
@@ -108,6 +127,9 @@ public class ProjectService {
                 connectorRepository.delete(connector);
             });
             projectRepository.delete(project);
+            accessIndex.invalidate(id);
+            pageSearchIndex.invalidate(id);
+            resourceNameIndex.invalidate(id);
             return true;
         }
         return false;
@@ -152,18 +174,10 @@ public class ProjectService {
 
     @Transactional
     public boolean canCreateOrDeleteResources(Project project, String userLogin) {
-        return project.getConnectors().parallelStream()
-                .filter(c -> c.getRoleType() == TypeRoleProject.ADMIN
-                        || (c.getRoleType() == TypeRoleProject.CUSTOM_ROLE
-                        && c.getCustomProjectRole().isCanEditResources()))
-                .map(UserWithProjectConnector::getUser)
-                .map(User::getUsername)
-                .anyMatch(login -> login.equals(userLogin));
+        return accessIndex.canEditResource(project, userRepository.findByUsername(userLogin));
     }
 
     private boolean isAdmin(Project project, User admin) {
-        return project.getConnectors().stream()
-                .filter(c -> c.getRoleType() == TypeRoleProject.ADMIN)
-                .anyMatch(c -> c.getUser().equals(admin));
+        return accessIndex.isAdmin(project, admin);
     }
 }
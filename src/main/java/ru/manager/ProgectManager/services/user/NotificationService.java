@@ -2,8 +2,12 @@ package ru.manager.ProgectManager.services.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import ru.manager.ProgectManager.DTO.request.user.AuthDto;
+import ru.manager.ProgectManager.DTO.response.user.notification.NotificationResponse;
 import ru.manager.ProgectManager.components.LocalisedMessages;
+import ru.manager.ProgectManager.components.events.PushEvent;
+import ru.manager.ProgectManager.components.events.PushEventBus;
 import ru.manager.ProgectManager.entitys.user.Notification;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.repositories.NotificationRepository;
@@ -20,6 +24,7 @@ public class NotificationService {
     private final NotificationRepository notificationRepository;
     private final UserRepository userRepository;
     private final LocalisedMessages localisedMessages;
+    private final PushEventBus eventBus;
 
     public void addNotificationAboutAuthorisation(AuthDto authDto, User forUser) {
         Notification notification = new Notification();
@@ -28,8 +33,7 @@ public class NotificationService {
                 .toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now())));
         notification.setText(localisedMessages.buildTextAboutAuthorisation(forUser.getLocale(), authDto.getIp(),
                 authDto.getBrowser(), authDto.getCountry(), authDto.getCity(), authDto.getZoneId()));
-        forUser.getNotifications().add(notificationRepository.save(notification));
-        userRepository.save(forUser);
+        addNotification(notification, forUser);
     }
 
     public void addNotificationAboutDeleteFromProject(String projectName, User forUser) {
@@ -38,8 +42,7 @@ public class NotificationService {
         notification.setCreateDatetime(LocalDateTime.now()
                 .toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now())));
         notification.setText(localisedMessages.buildTextAboutDeleteFromProject(forUser.getLocale(), projectName));
-        forUser.getNotifications().add(notificationRepository.save(notification));
-        userRepository.save(forUser);
+        addNotification(notification, forUser);
     }
 
     public void addNotificationAboutInvitationToProject(String token, String projectName, String url, User forUser) {
@@ -49,8 +52,7 @@ public class NotificationService {
                 .toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now())));
         notification.setText(localisedMessages
                 .buildTextForInvitationToProject(forUser.getLocale(), projectName, url, token));
-        forUser.getNotifications().add(notificationRepository.save(notification));
-        userRepository.save(forUser);
+        addNotification(notification, forUser);
     }
 
     public void readNotification(String userLogin) {
@@ -74,4 +76,16 @@ public class NotificationService {
         User user = userRepository.findByUsername(userLogin);
         return user.getNotifications().parallelStream().anyMatch(Notification::isNewNotification);
     }
+
+    public SseEmitter subscribe(String userLogin) {
+        return eventBus.subscribeUser(userRepository.findByUsername(userLogin).getUserId());
+    }
+
+    private void addNotification(Notification notification, User forUser) {
+        forUser.getNotifications().add(notificationRepository.save(notification));
+        userRepository.save(forUser);
+        // внутри транзакции вызывающего метода событие уходит подписчикам только после её коммита
+        eventBus.publishToUser(forUser.getUserId(),
+                new PushEvent("notification", null, new NotificationResponse(notification, forUser.getZoneId())));
+    }
 }
@@ -0,0 +1,70 @@
+package ru.manager.ProgectManager.services.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import ru.manager.ProgectManager.DTO.response.PointerResource;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.components.search.ResourceNameIndex;
+import ru.manager.ProgectManager.components.search.ResourceNameIndex.ResourceName;
+import ru.manager.ProgectManager.enums.ResourceType;
+import ru.manager.ProgectManager.repositories.UserRepository;
+import ru.manager.ProgectManager.repositories.UserWithProjectConnectorRepository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ResourceSearchService {
+    private static final List<ResourceType> TYPE_ORDER = List.of(ResourceType.PROJECT, ResourceType.KANBAN,
+            ResourceType.DOCUMENT);
+
+    private final UserRepository userRepository;
+    private final UserWithProjectConnectorRepository connectorRepository;
+    private final ResourceNameIndex nameIndex;
+    private final ProjectAccessIndex accessIndex;
+
+    // ресурсы всех проектов пользователя, в названии которых встречается строка: сначала точные совпадения,
+    // затем совпадения с начала названия, с начала слова и в середине слова
+    public List<PointerResource> findByName(String inputName, String userLogin, int pageIndex, int rowCount) {
+        String name = inputName.trim().toLowerCase();
+        long userId = userRepository.findByUsername(userLogin).getUserId();
+        List<Long> projectIds = connectorRepository.findProjectIdsByUserId(userId);
+        return nameIndex.find(projectIds, name).stream()
+                .filter(resource -> canSee(resource, userId))
+                .sorted(Comparator.comparingInt((ResourceName resource) -> rank(resource.getLowerName(), name))
+                        .thenComparingInt(resource -> TYPE_ORDER.indexOf(resource.getType()))
+                        .thenComparingInt(resource -> resource.getLowerName().length())
+                        .thenComparing(ResourceName::getLowerName)
+                        .thenComparingLong(ResourceName::getId))
+                .skip(pageIndex)
+                .limit(rowCount)
+                .map(PointerResource::new)
+                .collect(Collectors.toList());
+    }
+
+    private boolean canSee(ResourceName resource, long userId) {
+        switch (resource.getType()) {
+            case KANBAN:
+                return accessIndex.canSeeKanban(resource.getProjectId(), resource.getId(), userId);
+            case DOCUMENT:
+                return accessIndex.canSeePage(resource.getProjectId(),
+                        resource.getRootId() == null ? resource.getId() : resource.getRootId(), userId);
+            default:
+                return true;
+        }
+    }
+
+    private static int rank(String resourceName, String name) {
+        if (resourceName.equals(name))
+            return 0;
+        if (resourceName.startsWith(name))
+            return 1;
+        for (int i = resourceName.indexOf(name); i > 0; i = resourceName.indexOf(name, i + 1)) {
+            if (!Character.isLetterOrDigit(resourceName.charAt(i - 1)))
+                return 2;
+        }
+        return 3;
+    }
+}
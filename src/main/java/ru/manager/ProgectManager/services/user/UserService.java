@@ -1,7 +1,6 @@
 package ru.manager.ProgectManager.services.user;
 
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.mail.MailException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -9,22 +8,18 @@ import org.springframework.web.multipart.MultipartFile;
 import ru.manager.ProgectManager.DTO.request.user.AuthDto;
 import ru.manager.ProgectManager.DTO.request.user.LocaleRequest;
 import ru.manager.ProgectManager.DTO.request.user.RegisterUserDTO;
-import ru.manager.ProgectManager.DTO.response.PointerResource;
-import ru.manager.ProgectManager.components.LocalisedMessages;
 import ru.manager.ProgectManager.components.PhotoCompressor;
+import ru.manager.ProgectManager.components.authorization.TokenRevocationList;
 import ru.manager.ProgectManager.entitys.Project;
-import ru.manager.ProgectManager.entitys.ScheduledMailInfo;
-import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithDocumentConnector;
-import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
 import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
 import ru.manager.ProgectManager.entitys.user.*;
 import ru.manager.ProgectManager.enums.ActionType;
 import ru.manager.ProgectManager.enums.Size;
-import ru.manager.ProgectManager.enums.TypeRoleProject;
 import ru.manager.ProgectManager.exception.EmailAlreadyUsedException;
 import ru.manager.ProgectManager.exception.IllegalActionException;
 import ru.manager.ProgectManager.exception.IncorrectStatusException;
 import ru.manager.ProgectManager.repositories.*;
+import ru.manager.ProgectManager.services.AgendaService;
 import ru.manager.ProgectManager.services.MailService;
 
 import java.io.IOException;
@@ -45,8 +40,8 @@ public class UserService {
     private NotificationService notificationService;
     private PhotoCompressor compressor;
     private RefreshTokenRepository refreshTokenRepository;
-    private LocalisedMessages localisedMessages;
-    private ScheduledMailInfoRepository mailInfoRepository;
+    private TokenRevocationList revocationList;
+    private AgendaService agendaService;
 
     @Transactional
     public Optional<User> saveUser(RegisterUserDTO registerUserDTO) {
@@ -67,17 +62,8 @@ public class UserService {
             user.setLastVisit(0);
             user.setZoneId(Integer.parseInt(registerUserDTO.getZoneId()));
             user = userRepository.save(user);
-            try {
-                ScheduledMailInfo scheduledMailInfo = new ScheduledMailInfo();
-                scheduledMailInfo.setUserEmail(user.getEmail());
-                scheduledMailInfo.setSubject(localisedMessages.buildSubjectAboutCompletionOfRegistration(user.getLocale()));
-                scheduledMailInfo.setText(localisedMessages.buildTextAboutCompletionOfRegistration(user.getLocale()) +
-                        mailService.sendEmailApprove(user, registerUserDTO.getUrl(), registerUserDTO.getLocale()));
-                mailInfoRepository.save(scheduledMailInfo);
-            } catch (MailException e) {
-                userRepository.delete(user);
-                throw e;
-            }
+            mailService.sendRegistrationReminders(user,
+                    mailService.sendEmailApprove(user, registerUserDTO.getUrl(), registerUserDTO.getLocale()));
 
             return Optional.of(user);
         } else {
@@ -88,6 +74,8 @@ public class UserService {
     public void updateLastVisitAndZone(User user, int zoneId) {
         user.setLastVisit(LocalDateTime.now()
                 .toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now())));
+        if (user.getZoneId() != zoneId)
+            agendaService.userChanged(user.getUserId());
         user.setZoneId(zoneId);
         userRepository.save(user);
     }
@@ -97,7 +85,7 @@ public class UserService {
         if (approveEnabledUser.isPresent() && approveEnabledUser.get().getActionType() == ActionType.APPROVE_ENABLE) {
             User user = approveEnabledUser.get().getUser();
             user.setEnabled(true);
-            mailInfoRepository.deleteById(user.getEmail());
+            mailService.cancelRegistrationReminders(user);
             approveActionTokenRepository.delete(approveEnabledUser.get());
             return Optional.of(userRepository.save(user).getUsername());
         } else {
@@ -121,6 +109,7 @@ public class UserService {
         if (approveActionToken.isPresent() && approveActionToken.get().getActionType() == ActionType.RESET_PASS) {
             User user = approveActionToken.get().getUser();
             refreshTokenRepository.deleteAllByLogin(user.getUsername());
+            revocationList.revoke(user.getUsername());
             user.setPassword(passwordEncoder.encode(newPassword));
             userRepository.save(user);
             approveActionTokenRepository.delete(approveActionToken.get());
@@ -146,7 +135,10 @@ public class UserService {
             if(!user.get().isAccountNonLocked())
                 throw new IncorrectStatusException();
 
-            user.get().setZoneId(Integer.parseInt(authDto.getZoneId()));
+            int zoneId = Integer.parseInt(authDto.getZoneId());
+            if (user.get().getZoneId() != zoneId)
+                agendaService.userChanged(user.get().getUserId());
+            user.get().setZoneId(zoneId);
             user.get().setLastVisit(LocalDateTime.now()
                     .toEpochSecond(ZoneOffset.systemDefault().getRules().getOffset(Instant.now())));
             if (user.get().getUsedAddresses().stream().map(UsedAddress::getIp).noneMatch(ip -> ip.equals(authDto.getIp()))) {
@@ -174,6 +166,7 @@ public class UserService {
         User user = userRepository.findByUsername(userLogin);
         if (passwordEncoder.matches(oldPass, user.getPassword())) {
             refreshTokenRepository.deleteAllByLogin(user.getUsername());
+            revocationList.revoke(user.getUsername());
             user.setPassword(passwordEncoder.encode(newPass));
             userRepository.save(user);
             return true;
@@ -188,10 +181,14 @@ public class UserService {
         userRepository.save(user);
     }
 
+    @Transactional
     public void setPhoto(String login, MultipartFile multipartFile) throws IOException {
         User user = userRepository.findByUsername(login);
         if (user != null) {
-            user.setPhoto(compressor.compress(multipartFile, Size.SMALL));
+            Map<Size, byte[]> variants = compressor.compressVariants(multipartFile, Size.SMALL);
+            user.setPhoto(variants.remove(Size.SMALL));
+            user.getPhotoVariants().clear();
+            user.getPhotoVariants().putAll(variants);
             userRepository.save(user);
         }
     }
@@ -200,6 +197,13 @@ public class UserService {
         return userRepository.findById(id).orElseThrow().getPhoto();
     }
 
+    // фотографии, загруженные до появления вариантов, отдаются в исходном размере
+    public byte[] findPhoto(long id, Integer size) {
+        return Size.fitting(size, Size.SMALL)
+                .map(variant -> userRepository.findPhotoVariant(id, variant))
+                .orElseGet(() -> findPhoto(id));
+    }
+
     public List<Project> allProjectOfThisUser(String login) {
         return userRepository.findByUsername(login).getUserWithProjectConnectors().stream()
                 .map(UserWithProjectConnector::getProject)
@@ -214,36 +218,6 @@ public class UserService {
                 .collect(Collectors.toList());
     }
 
-    public List<PointerResource> availableResourceByName(String inputName, String userLogin) {
-        String name = inputName.trim().toLowerCase();
-        Set<UserWithProjectConnector> connectors = // получение подключений текущего пользователя
-                userRepository.findByUsername(userLogin).getUserWithProjectConnectors();
-        List<PointerResource> result = connectors.stream()
-                .flatMap(connector -> (connector.getRoleType() == TypeRoleProject.CUSTOM_ROLE
-                        ? connector.getCustomProjectRole().getCustomRoleWithKanbanConnectors().parallelStream()
-                        .map(CustomRoleWithKanbanConnector::getKanban)
-                        : connector.getProject().getKanbans().stream()))
-                .filter(kanban -> kanban.getName().toLowerCase().contains(name))
-                .map(PointerResource::new)
-                .collect(Collectors.toCollection(LinkedList::new));
-        result.addAll(connectors.stream()
-                .flatMap(connector -> (connector.getRoleType() == TypeRoleProject.CUSTOM_ROLE
-                        ? connector.getProject().getPages().parallelStream()
-                        .filter(page -> connector.getCustomProjectRole().getCustomRoleWithDocumentConnectors().stream()
-                                .map(CustomRoleWithDocumentConnector::getPage)
-                                .anyMatch(root -> root.equals(page) || root.equals(page.getRoot())))
-                        : connector.getProject().getPages().stream()))
-                .filter(section -> section.getName().toLowerCase().contains(name))
-                .map(PointerResource::new)
-                .collect(Collectors.toList()));
-        result.addAll(connectors.stream()
-                .map(UserWithProjectConnector::getProject)
-                .filter(section -> section.getName().toLowerCase().contains(name))
-                .map(PointerResource::new)
-                .collect(Collectors.toList()));
-        return result;
-    }
-
     public List<VisitMark> lastVisits(String userLogin) {
         return userRepository.findByUsername(userLogin).getVisitMarks().stream()
                 .sorted(Comparator.comparing(VisitMark::getSerialNumber))
@@ -310,12 +284,12 @@ public class UserService {
     }
 
     @Autowired
-    public void setLocalisedMessages(LocalisedMessages localisedMessages) {
-        this.localisedMessages = localisedMessages;
+    public void setRevocationList(TokenRevocationList revocationList) {
+        this.revocationList = revocationList;
     }
 
     @Autowired
-    public void setMailInfoRepository(ScheduledMailInfoRepository mailInfoRepository) {
-        this.mailInfoRepository = mailInfoRepository;
+    public void setAgendaService(AgendaService agendaService) {
+        this.agendaService = agendaService;
     }
 }
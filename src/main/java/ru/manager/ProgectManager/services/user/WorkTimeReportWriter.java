@@ -0,0 +1,76 @@
+package ru.manager.ProgectManager.services.user;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.DTO.response.workTrack.WorkTimeReportRow;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.enums.ExportFormat;
+import ru.manager.ProgectManager.repositories.ElementWorkTimeRepository;
+import ru.manager.ProgectManager.repositories.UserRepository;
+import ru.manager.ProgectManager.repositories.projections.WorkTimeReportView;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.stream.Stream;
+
+// потоковая выгрузка отчёта о работе участников проекта
+@Service
+@RequiredArgsConstructor
+public class WorkTimeReportWriter {
+    private static final String CSV_HEADER = "userId,nickname,kanbanId,kanbanName,elementId,elementName,workDate,"
+            + "workTime";
+
+    private final ElementWorkTimeRepository elementWorkTimeRepository;
+    private final UserRepository userRepository;
+    private final ProjectAccessIndex accessIndex;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public void write(long projectId, String userLogin, LocalDate from, LocalDate to, ExportFormat format,
+                      OutputStream out) throws IOException {
+        long userId = userRepository.findByUsername(userLogin).getUserId();
+        Map<Long, Boolean> visibleKanbans = new HashMap<>();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == ExportFormat.CSV)
+            writer.write(CSV_HEADER + "\r\n");
+        try (Stream<WorkTimeReportView> rows = elementWorkTimeRepository.streamProjectReport(projectId,
+                from.toEpochDay(), to.toEpochDay())) {
+            for (Iterator<WorkTimeReportView> iterator = rows.iterator(); iterator.hasNext(); ) {
+                WorkTimeReportView view = iterator.next();
+                if (!visibleKanbans.computeIfAbsent(view.getKanbanId(),
+                        kanbanId -> accessIndex.canSeeKanban(projectId, kanbanId, userId)))
+                    continue;
+                WorkTimeReportRow row = new WorkTimeReportRow(view);
+                if (format == ExportFormat.CSV) {
+                    writer.write(toCsv(row));
+                    writer.write("\r\n");
+                } else {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                }
+            }
+        }
+        writer.flush();
+    }
+
+    private String toCsv(WorkTimeReportRow row) {
+        return row.getUserId() + "," + csvField(row.getNickname()) + "," + row.getKanbanId() + ","
+                + csvField(row.getKanbanName()) + "," + row.getElementId() + "," + csvField(row.getElementName()) + ","
+                + row.getWorkDate() + "," + row.getWorkTime();
+    }
+
+    // поля с разделителями, кавычками и переводами строк заключаются в кавычки по RFC 4180
+    private String csvField(String value) {
+        if (value == null)
+            return "";
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0)
+            return value;
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
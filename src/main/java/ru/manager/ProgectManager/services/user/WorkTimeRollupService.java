@@ -0,0 +1,36 @@
+package ru.manager.ProgectManager.services.user;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.manager.ProgectManager.repositories.DailyWorkTimeRepository;
+import ru.manager.ProgectManager.repositories.ElementWorkTimeRepository;
+
+// суммы времени работы по дням в разрезе проекта и элемента
+@Service
+@RequiredArgsConstructor
+public class WorkTimeRollupService {
+    private final DailyWorkTimeRepository dailyRepository;
+    private final ElementWorkTimeRepository elementRepository;
+
+    public void add(long userId, long projectId, long elementId, long workDate, int workTime) {
+        dailyRepository.upsertWorkTime(userId, projectId, workDate, workTime);
+        elementRepository.upsertWorkTime(userId, elementId, projectId, workDate, workTime);
+    }
+
+    public void remove(long userId, long projectId, long elementId, long workDate, int workTime) {
+        dailyRepository.addWorkTime(userId, projectId, workDate, -workTime);
+        dailyRepository.deleteEmpty(userId, projectId, workDate);
+        elementRepository.addWorkTime(userId, elementId, workDate, -workTime);
+        elementRepository.deleteEmpty(userId, elementId, workDate);
+    }
+
+    // пересчёт сумм по отметкам пользователей с идентификаторами из диапазона [fromUserId, toUserId)
+    @Transactional
+    public int rebuild(long fromUserId, long toUserId) {
+        dailyRepository.deleteByUserIdRange(fromUserId, toUserId);
+        elementRepository.deleteByUserIdRange(fromUserId, toUserId);
+        dailyRepository.rebuildWorkTimes(fromUserId, toUserId);
+        return elementRepository.rebuildWorkTimes(fromUserId, toUserId);
+    }
+}
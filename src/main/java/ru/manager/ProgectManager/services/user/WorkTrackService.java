@@ -2,32 +2,30 @@ package ru.manager.ProgectManager.services.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.manager.ProgectManager.DTO.request.user.CreateWorkTrackRequest;
 import ru.manager.ProgectManager.DTO.response.workTrack.AllWorkUserInfo;
 import ru.manager.ProgectManager.DTO.response.workTrack.ElementWithWorkResponse;
 import ru.manager.ProgectManager.DTO.response.workTrack.WorkTrackShortResponse;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
 import ru.manager.ProgectManager.entitys.Project;
-import ru.manager.ProgectManager.entitys.accessProject.CustomRoleWithKanbanConnector;
 import ru.manager.ProgectManager.entitys.kanban.Kanban;
 import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.entitys.user.WorkTrack;
 import ru.manager.ProgectManager.enums.ElementStatus;
-import ru.manager.ProgectManager.enums.TypeRoleProject;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
 import ru.manager.ProgectManager.exception.IncorrectStatusException;
-import ru.manager.ProgectManager.repositories.KanbanElementRepository;
-import ru.manager.ProgectManager.repositories.ProjectRepository;
-import ru.manager.ProgectManager.repositories.UserRepository;
-import ru.manager.ProgectManager.repositories.WorkTrackRepository;
+import ru.manager.ProgectManager.repositories.*;
+import ru.manager.ProgectManager.repositories.projections.ElementWorkTimeView;
+import ru.manager.ProgectManager.repositories.projections.WorkTimeView;
+import ru.manager.ProgectManager.services.kanban.KanbanChangeService;
 
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.NoSuchElementException;
-import java.util.Optional;
+import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
@@ -37,16 +35,18 @@ public class WorkTrackService {
     private final UserRepository userRepository;
     private final KanbanElementRepository elementRepository;
     private final ProjectRepository projectRepository;
+    private final ProjectAccessIndex accessIndex;
+    private final KanbanChangeService changeService;
+    private final WorkTimeRollupService rollupService;
+    private final DailyWorkTimeRepository dailyWorkTimeRepository;
+    private final ElementWorkTimeRepository elementWorkTimeRepository;
 
+    @Transactional
     public boolean addWorkTrack(CreateWorkTrackRequest request, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         KanbanElement element = elementRepository.findById(request.getTaskId()).orElseThrow();
         Kanban kanban = element.getKanbanColumn().getKanban();
-        if (kanban.getProject().getConnectors().parallelStream().anyMatch(c -> c.getUser().equals(user)
-                && (c.getRoleType() != TypeRoleProject.CUSTOM_ROLE
-                || c.getCustomProjectRole().getCustomRoleWithKanbanConnectors().stream()
-                .filter(CustomRoleWithKanbanConnector::isCanEdit)
-                .anyMatch(kanbanConnector -> kanbanConnector.getKanban().equals(kanban))))) {
+        if (accessIndex.canEditKanban(kanban, user)) {
             checkElement(element);
             WorkTrack workTrack = new WorkTrack();
             workTrack.setWorkDate(LocalDate.now().toEpochDay());
@@ -55,6 +55,8 @@ public class WorkTrackService {
             workTrack.setTask(element);
             workTrack.setComment(request.getComment());
             workTrack = workTrackRepository.save(workTrack);
+            rollupService.add(user.getUserId(), kanban.getProject().getId(), element.getId(), workTrack.getWorkDate(),
+                    workTrack.getWorkTime());
 
             user.getWorkTrackSet().add(workTrack);
             userRepository.save(user);
@@ -63,12 +65,14 @@ public class WorkTrackService {
             element.setTimeOfUpdate(getEpochSeconds());
             element.setLastRedactor(user);
             elementRepository.save(element);
+            changeService.elementChanged(element, KanbanChangeType.ELEMENT_ATTRIBUTES, null);
             return true;
         } else {
             return false;
         }
     }
 
+    @Transactional
     public boolean removeWorkTrack(long trackId, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         WorkTrack workTrack = workTrackRepository.findById(trackId).orElseThrow();
@@ -82,6 +86,10 @@ public class WorkTrackService {
             workTrack.getTask().getWorkTrackSet().remove(workTrack);
             elementRepository.save(workTrack.getTask());
             workTrackRepository.delete(workTrack);
+            rollupService.remove(user.getUserId(),
+                    workTrack.getTask().getKanbanColumn().getKanban().getProject().getId(), workTrack.getTask().getId(),
+                    workTrack.getWorkDate(), workTrack.getWorkTime());
+            changeService.elementChanged(workTrack.getTask(), KanbanChangeType.ELEMENT_ATTRIBUTES, null);
             return true;
         } else {
             return false;
@@ -91,8 +99,8 @@ public class WorkTrackService {
     public Optional<AllWorkUserInfo> findWorkTrackMyself(String from, String to, long projectId, String userLogin) {
         User user = userRepository.findByUsername(userLogin);
         Project project = projectRepository.findById(projectId).orElseThrow();
-        if(project.getConnectors().parallelStream().anyMatch(c -> c.getUser().equals(user))) {
-            return Optional.of(findWorkTrack(LocalDate.parse(from), LocalDate.parse(to), project, user));
+        if(accessIndex.isMember(project, user)) {
+            return Optional.of(findWorkTrack(LocalDate.parse(from), LocalDate.parse(to), projectId, user.getUserId()));
         } else {
             return Optional.empty();
         }
@@ -102,46 +110,41 @@ public class WorkTrackService {
                                                                String adminLogin) {
         User admin = userRepository.findByUsername(adminLogin);
         Project project = projectRepository.findById(projectId).orElseThrow();
-        if(project.getConnectors().parallelStream().anyMatch(c -> c.getUser().equals(admin))) {
-            return Optional.of(findWorkTrack(LocalDate.parse(from), LocalDate.parse(to), project,
-                    userRepository.findById(targetUserId).orElseThrow(IllegalArgumentException::new)));
+        if(accessIndex.isMember(project, admin)) {
+            if (!userRepository.existsById(targetUserId))
+                throw new IllegalArgumentException();
+            return Optional.of(findWorkTrack(LocalDate.parse(from), LocalDate.parse(to), projectId, targetUserId));
         } else {
             return Optional.empty();
         }
     }
 
-    private AllWorkUserInfo findWorkTrack(LocalDate fromDate, LocalDate toDate, Project project, User user) {
+    // выгрузка охватывает всех участников проекта, поэтому доступна только администратору проекта
+    public boolean canExportProjectReport(long projectId, String adminLogin) {
+        User admin = userRepository.findByUsername(adminLogin);
+        return accessIndex.isAdmin(projectRepository.findById(projectId).orElseThrow(), admin);
+    }
+
+    // отчёт строится по суммам за день, сами отметки о работе и связанные сущности не загружаются
+    private AllWorkUserInfo findWorkTrack(LocalDate fromDate, LocalDate toDate, long projectId, long userId) {
         AllWorkUserInfo info = new AllWorkUserInfo();
 
-        info.setTasks(user.getWorkTrackSet().stream()
-                .map(WorkTrack::getTask)
-                .filter(kanbanElement -> kanbanElement.getKanbanColumn().getKanban().getProject().equals(project))
-                .map(element -> new ElementWithWorkResponse(element, user, fromDate, toDate))
+        Map<Long, List<WorkTrackShortResponse>> works = new HashMap<>();
+        for (ElementWorkTimeView work : elementWorkTimeRepository.findWorkTimes(userId, projectId,
+                fromDate.toEpochDay(), toDate.toEpochDay())) {
+            works.computeIfAbsent(work.getElementId(), id -> new ArrayList<>()).add(new WorkTrackShortResponse(work));
+        }
+        info.setTasks(elementWorkTimeRepository.findElements(userId, projectId).stream()
+                .map(element -> new ElementWithWorkResponse(element, works.getOrDefault(element.getId(), List.of())))
                 .collect(Collectors.toSet()));
 
-        Map<Long, Integer> dateTime = new HashMap<>();
-        user.getWorkTrackSet().stream()
-                .filter(workTrack -> workTrack.getTask().getKanbanColumn().getKanban().getProject().equals(project))
-                .filter(workTrack -> LocalDate.ofEpochDay(workTrack.getWorkDate()).isAfter(fromDate))
-                .filter(workTrack -> LocalDate.ofEpochDay(workTrack.getWorkDate()).isBefore(toDate))
-                .forEach(workTrack -> {
-                    if (dateTime.containsKey(workTrack.getWorkDate())) {
-                        dateTime.put(workTrack.getWorkDate(),
-                                dateTime.get(workTrack.getWorkDate()) + workTrack.getWorkTime());
-                    } else {
-                        dateTime.put(workTrack.getWorkDate(), workTrack.getWorkTime());
-                    }
-                });
-        info.setWorkInConcreteDay(dateTime.entrySet().stream()
-                .sorted(Map.Entry.comparingByKey())
-                .map(e -> new WorkTrackShortResponse(LocalDate.ofEpochDay(e.getKey()).toString(), e.getValue()))
+        List<WorkTimeView> days = dailyWorkTimeRepository.findWorkTimes(userId, projectId, fromDate.toEpochDay(),
+                toDate.toEpochDay());
+        info.setWorkInConcreteDay(days.stream()
+                .map(WorkTrackShortResponse::new)
                 .collect(Collectors.toList()));
-
-        info.setSummaryWorkInDiapason(user.getWorkTrackSet().stream()
-                .filter(workTrack -> workTrack.getTask().getKanbanColumn().getKanban().getProject().equals(project))
-                .filter(workTrack -> LocalDate.ofEpochDay(workTrack.getWorkDate()).isAfter(fromDate))
-                .filter(workTrack -> LocalDate.ofEpochDay(workTrack.getWorkDate()).isBefore(toDate))
-                .mapToInt(WorkTrack::getWorkTime)
+        info.setSummaryWorkInDiapason(days.stream()
+                .mapToInt(WorkTimeView::getWorkTime)
                 .sum());
 
         return info;
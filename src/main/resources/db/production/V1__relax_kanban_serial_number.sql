@@ -0,0 +1,15 @@
+-- ddl-auto не меняет существующие столбцы: прежний порядковый номер остаётся NOT NULL и мешает вставке
+-- элементов и колонок, которые его больше не заполняют. В новой базе столбца нет, и миграция ничего не делает
+SET @relax = (SELECT IF(COUNT(*) > 0, 'ALTER TABLE kanban_column MODIFY serial_number INT NULL', 'SELECT 1')
+              FROM information_schema.columns
+              WHERE table_schema = DATABASE() AND table_name = 'kanban_column' AND column_name = 'serial_number');
+PREPARE relax FROM @relax;
+EXECUTE relax;
+DEALLOCATE PREPARE relax;
+
+SET @relax = (SELECT IF(COUNT(*) > 0, 'ALTER TABLE kanban_element MODIFY serial_number INT NULL', 'SELECT 1')
+              FROM information_schema.columns
+              WHERE table_schema = DATABASE() AND table_name = 'kanban_element' AND column_name = 'serial_number');
+PREPARE relax FROM @relax;
+EXECUTE relax;
+DEALLOCATE PREPARE relax;
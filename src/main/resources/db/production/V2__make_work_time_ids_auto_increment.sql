@@ -0,0 +1,19 @@
+-- таблицы сумм, созданные до перевода идентификаторов на IDENTITY, получают auto_increment,
+-- без которого не работает вставка с обновлением при повторе ключа
+SET @increment = (SELECT IF(COUNT(*) > 0, 'ALTER TABLE daily_work_time MODIFY id BIGINT NOT NULL AUTO_INCREMENT',
+                            'SELECT 1')
+                  FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = 'daily_work_time' AND column_name = 'id'
+                    AND extra NOT LIKE '%auto_increment%');
+PREPARE increment FROM @increment;
+EXECUTE increment;
+DEALLOCATE PREPARE increment;
+
+SET @increment = (SELECT IF(COUNT(*) > 0, 'ALTER TABLE element_work_time MODIFY id BIGINT NOT NULL AUTO_INCREMENT',
+                            'SELECT 1')
+                  FROM information_schema.columns
+                  WHERE table_schema = DATABASE() AND table_name = 'element_work_time' AND column_name = 'id'
+                    AND extra NOT LIKE '%auto_increment%');
+PREPARE increment FROM @increment;
+EXECUTE increment;
+DEALLOCATE PREPARE increment;
@@ -0,0 +1,27 @@
+-- таблица календаря, созданная с неуникальным индексом пары пользователь-элемент, получает уникальный ключ:
+-- ddl-auto не создаёт его, пока в таблице есть повторы, поэтому повторы удаляются до создания ключа
+SET @missing = (SELECT COUNT(*) > 0 FROM information_schema.tables
+                WHERE table_schema = DATABASE() AND table_name = 'agenda_entry')
+           AND (SELECT COUNT(*) = 0 FROM information_schema.statistics
+                WHERE table_schema = DATABASE() AND table_name = 'agenda_entry'
+                  AND index_name = 'agenda_entry_user_element_key');
+
+SET @statement = IF(@missing, 'DELETE a FROM agenda_entry a JOIN agenda_entry b ON a.user_id = b.user_id '
+                              'AND a.element_id = b.element_id AND a.id < b.id', 'SELECT 1');
+PREPARE statement FROM @statement;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @statement = IF(@missing, 'CREATE UNIQUE INDEX agenda_entry_user_element_key ON agenda_entry (user_id, element_id)',
+                    'SELECT 1');
+PREPARE statement FROM @statement;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
+
+SET @statement = (SELECT IF(COUNT(*) > 0, 'DROP INDEX agenda_entry_user_element_idx ON agenda_entry', 'SELECT 1')
+                  FROM information_schema.statistics
+                  WHERE table_schema = DATABASE() AND table_name = 'agenda_entry'
+                    AND index_name = 'agenda_entry_user_element_idx');
+PREPARE statement FROM @statement;
+EXECUTE statement;
+DEALLOCATE PREPARE statement;
@@ -1,17 +1,26 @@
 package ru.manager.ProgectManager.base;
 
 import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.ContextConfiguration;
 import org.testcontainers.junit.jupiter.Testcontainers;
 import ru.manager.ProgectManager.init.MySqlInitializer;
 import ru.manager.ProgectManager.repositories.ApproveActionTokenRepository;
+import ru.manager.ProgectManager.repositories.MailOutboxRepository;
 import ru.manager.ProgectManager.repositories.UserRepository;
 import ru.manager.ProgectManager.services.user.UserService;
 
+import javax.mail.Session;
+import javax.mail.internet.MimeMessage;
+
+import static org.mockito.Mockito.when;
+
 @SpringBootTest
 @Testcontainers
 @ActiveProfiles("test")
@@ -26,8 +35,19 @@ public abstract class ProjectManagerTestBase {
     @Autowired
     protected JdbcTemplate jdbcTemplate;
 
+    // письма из тестов не уходят на почтовый сервер
+    @MockBean
+    protected JavaMailSender javaMailSender;
+
+    @BeforeEach
+    void mockMimeMessages() {
+        when(javaMailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage((Session) null));
+    }
+
     @AfterEach
-    void removeUser(@Autowired ApproveActionTokenRepository approveActionTokenRepository) {
+    void removeUser(@Autowired ApproveActionTokenRepository approveActionTokenRepository,
+                    @Autowired MailOutboxRepository outboxRepository) {
+        outboxRepository.deleteAll();
         approveActionTokenRepository.deleteAll();
         userRepository.deleteAll();
     }
@@ -0,0 +1,53 @@
+package ru.manager.ProgectManager.components;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.entitys.JobLease;
+import ru.manager.ProgectManager.repositories.JobLeaseRepository;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JobLeaseCoordinatorTest extends ProjectManagerTestBase {
+    @Autowired
+    JobLeaseCoordinator leaseCoordinator;
+
+    @Autowired
+    JobLeaseRepository leaseRepository;
+
+    @Test
+    void jobLeaseHeldByAnotherNodeSkipsJob() {
+        AtomicInteger runs = new AtomicInteger();
+        JobLease lease = new JobLease();
+        lease.setName("test-job");
+        lease.setOwner("other-node");
+        lease.setExpiresAt(System.currentTimeMillis() + 60_000);
+        leaseRepository.save(lease);
+
+        boolean blocked = leaseCoordinator.runExclusive("test-job", Duration.ofMinutes(1), Duration.ZERO,
+                runs::incrementAndGet);
+        lease.setExpiresAt(System.currentTimeMillis() - 1);
+        leaseRepository.save(lease);
+        boolean expired = leaseCoordinator.runExclusive("test-job", Duration.ofMinutes(1), Duration.ofHours(1),
+                runs::incrementAndGet);
+        JobLease held = leaseRepository.findById("test-job").orElseThrow();
+        boolean again = leaseCoordinator.runExclusive("test-job", Duration.ofMinutes(1), Duration.ZERO,
+                runs::incrementAndGet);
+        boolean created = leaseCoordinator.runExclusive("test-job-new", Duration.ofMinutes(1), Duration.ZERO,
+                runs::incrementAndGet);
+
+        assertThat(blocked).isFalse();
+        assertThat(expired).isTrue();
+        assertThat(again).isTrue();
+        assertThat(created).isTrue();
+        assertThat(runs.get()).isEqualTo(4);
+        assertThat(held.getOwner()).isNotEqualTo("other-node");
+        assertThat(held.getExpiresAt()).isGreaterThan(System.currentTimeMillis() + 50 * 60_000);
+
+        leaseRepository.deleteAll(List.of(held, leaseRepository.findById("test-job-new").orElseThrow()));
+    }
+}
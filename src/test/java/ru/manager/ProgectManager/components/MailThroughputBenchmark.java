@@ -0,0 +1,54 @@
+package ru.manager.ProgectManager.components;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import ru.manager.ProgectManager.support.FakeSmtpServer;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// сравнение отправки по соединению на письмо и через пул, запуск: mvn test -Dtest=MailThroughputBenchmark
+class MailThroughputBenchmark {
+    private static final int MESSAGES = 200;
+    private static final int BATCH = 20;
+    private static final long CONNECT_DELAY = 20;
+
+    @Test
+    void pooledBatchesOutperformConnectionPerMessage() throws IOException {
+        long single;
+        long pooled;
+        int pooledConnections;
+        try (FakeSmtpServer server = new FakeSmtpServer(CONNECT_DELAY)) {
+            JavaMailSenderImpl sender = new JavaMailSenderImpl();
+            sender.setHost("localhost");
+            sender.setPort(server.getPort());
+            single = measure(sender, 1);
+        }
+        try (FakeSmtpServer server = new FakeSmtpServer(CONNECT_DELAY)) {
+            PooledJavaMailSender sender = PooledJavaMailSenderTest.buildSender(server, 100, 60_000);
+            pooled = measure(sender, BATCH);
+            sender.destroy();
+            pooledConnections = server.getConnections();
+        }
+        System.out.printf("Connection per message: %d ms, %.1f messages/s%n", single, MESSAGES * 1000.0 / single);
+        System.out.printf("Pooled batches of %d: %d ms, %.1f messages/s, %d connections%n", BATCH, pooled,
+                MESSAGES * 1000.0 / pooled, pooledConnections);
+
+        assertThat(pooledConnections).isEqualTo(MESSAGES / 100);
+        assertThat(pooled).isLessThan(single);
+    }
+
+    private long measure(JavaMailSender sender, int batch) {
+        SimpleMailMessage[] messages = PooledJavaMailSenderTest.messages(MESSAGES, "user");
+        long start = System.nanoTime();
+        for (int from = 0; from < MESSAGES; from += batch) {
+            SimpleMailMessage[] part = new SimpleMailMessage[batch];
+            System.arraycopy(messages, from, part, 0, batch);
+            sender.send(part);
+        }
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+}
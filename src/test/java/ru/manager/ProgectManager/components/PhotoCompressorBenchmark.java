@@ -0,0 +1,81 @@
+package ru.manager.ProgectManager.components;
+
+import org.imgscalr.Scalr;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import ru.manager.ProgectManager.enums.Size;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+// сравнение прежнего и текущего сжатия фотографий, запуск: mvn test -Dtest=PhotoCompressorBenchmark
+class PhotoCompressorBenchmark {
+    private static final int WARMUP = 3;
+    private static final int ITERATIONS = 10;
+
+    @Test
+    void compressAllSizes() throws IOException {
+        MockMultipartFile file = PhotoCompressorTest.file(PhotoCompressorTest.image(4000, 3000,
+                BufferedImage.TYPE_INT_ARGB, new Color(40, 120, 200, 180)), "png");
+        PhotoCompressor compressor = new PhotoCompressor();
+        for (Size size : Size.values()) {
+            long legacy = measure(() -> legacyCompress(file, size));
+            long current = measure(() -> compressor.compress(file, size));
+            System.out.printf("%s: per-pixel %.1f ms/op, raster %.1f ms/op%n", size,
+                    legacy / 1e6 / ITERATIONS, current / 1e6 / ITERATIONS);
+        }
+        compressor.destroy();
+    }
+
+    private long measure(Operation operation) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            operation.run();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            operation.run();
+        }
+        return System.nanoTime() - start;
+    }
+
+    // реализация до перехода на прореживание при чтении и работу с буфером пикселей
+    private byte[] legacyCompress(MockMultipartFile file, Size size) throws IOException {
+        BufferedImage image = ImageIO.read(file.getInputStream());
+        image = (size == Size.LARGE
+                ? Scalr.resize(image, 1920, 1080)
+                : Scalr.resize(image, size == Size.MIDDLE ? 600 : 200));
+        if (image.getColorModel().hasAlpha()) {
+            BufferedImage tempImage = new BufferedImage(image.getWidth(), image.getHeight(),
+                    BufferedImage.TYPE_INT_BGR);
+            for (int y = 0; y < image.getHeight(); y++) {
+                for (int x = 0; x < image.getWidth(); x++) {
+                    tempImage.setRGB(x, y, new Color(image.getRGB(x, y), false).getRGB());
+                }
+            }
+            image = tempImage;
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpg").next();
+        ImageOutputStream ios = ImageIO.createImageOutputStream(os);
+        writer.setOutput(ios);
+        int inputSize = image.getHeight() * image.getWidth() * 3;
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(inputSize < 204_800 ? 1 : 204_800f / inputSize);
+        writer.write(null, new IIOImage(image, null, null), param);
+        ios.close();
+        writer.dispose();
+        return os.toByteArray();
+    }
+
+    private interface Operation {
+        void run() throws IOException;
+    }
+}
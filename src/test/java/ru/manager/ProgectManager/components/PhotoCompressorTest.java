@@ -0,0 +1,122 @@
+package ru.manager.ProgectManager.components;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import ru.manager.ProgectManager.enums.Size;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PhotoCompressorTest {
+    private final PhotoCompressor compressor = new PhotoCompressor();
+
+    @AfterEach
+    void tearDown() {
+        compressor.destroy();
+    }
+
+    @Test
+    void resizesToTargetSize() throws IOException {
+        MockMultipartFile landscape = file(image(4000, 2000, BufferedImage.TYPE_INT_RGB, Color.BLUE), "jpg");
+        assertThat(decode(compressor.compress(landscape, Size.SMALL))).satisfies(result -> {
+            assertThat(result.getWidth()).isEqualTo(200);
+            assertThat(result.getHeight()).isEqualTo(100);
+        });
+        MockMultipartFile portrait = file(image(1000, 3000, BufferedImage.TYPE_INT_RGB, Color.BLUE), "jpg");
+        assertThat(decode(compressor.compress(portrait, Size.LARGE))).satisfies(result -> {
+            assertThat(result.getWidth()).isEqualTo(360);
+            assertThat(result.getHeight()).isEqualTo(1080);
+        });
+    }
+
+    @Test
+    void dropsAlphaWithoutBlending() throws IOException {
+        Color translucentRed = new Color(255, 0, 0, 100);
+        MockMultipartFile png = file(image(1200, 800, BufferedImage.TYPE_INT_ARGB, translucentRed), "png");
+        BufferedImage result = decode(compressor.compress(png, Size.MIDDLE));
+        assertThat(result.getColorModel().hasAlpha()).isFalse();
+        Color center = new Color(result.getRGB(result.getWidth() / 2, result.getHeight() / 2));
+        assertThat(center.getRed()).isGreaterThan(240);
+        assertThat(center.getGreen()).isLessThan(15);
+    }
+
+    @Test
+    void dropAlphaKeepsColorOfOtherImageTypes() {
+        BufferedImage image = image(3, 2, BufferedImage.TYPE_4BYTE_ABGR, new Color(10, 20, 30, 0));
+        BufferedImage result = PhotoCompressor.dropAlpha(image);
+        assertThat(result.getType()).isEqualTo(BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < 2; y++) {
+            for (int x = 0; x < 3; x++) {
+                assertThat(result.getRGB(x, y)).isEqualTo(image.getRGB(x, y) | 0xFF000000);
+            }
+        }
+    }
+
+    @Test
+    void compressesRequestedSizeAndAllSmallerVariants() throws IOException {
+        MockMultipartFile png = file(image(3000, 1500, BufferedImage.TYPE_INT_ARGB, Color.GREEN), "png");
+        Map<Size, byte[]> variants = compressor.compressVariants(png, Size.MIDDLE);
+        assertThat(variants).containsOnlyKeys(Size.ICON, Size.SMALL, Size.MIDDLE);
+        assertThat(decode(variants.get(Size.MIDDLE)).getWidth()).isEqualTo(600);
+        assertThat(decode(variants.get(Size.SMALL)).getWidth()).isEqualTo(200);
+        BufferedImage icon = decode(variants.get(Size.ICON));
+        assertThat(icon.getWidth()).isEqualTo(48);
+        assertThat(icon.getHeight()).isEqualTo(24);
+        assertThat(variants.get(Size.ICON).length).isLessThan(variants.get(Size.MIDDLE).length);
+    }
+
+    @Test
+    void choosesSmallestVariantBelowStoredSize() {
+        assertThat(Size.fitting(32, Size.LARGE)).contains(Size.ICON);
+        assertThat(Size.fitting(100, Size.LARGE)).contains(Size.SMALL);
+        assertThat(Size.fitting(600, Size.LARGE)).contains(Size.MIDDLE);
+        assertThat(Size.fitting(100, Size.SMALL)).isEmpty();
+        assertThat(Size.fitting(2000, Size.LARGE)).isEmpty();
+        assertThat(Size.fitting(null, Size.LARGE)).isEmpty();
+    }
+
+    @Test
+    void subsamplesOnlyMuchLargerSources() {
+        assertThat(PhotoCompressor.subsampling(1000, 800, Size.SMALL)).isEqualTo(2);
+        assertThat(PhotoCompressor.subsampling(4000, 3000, Size.MIDDLE)).isEqualTo(3);
+        assertThat(PhotoCompressor.subsampling(3000, 2000, Size.LARGE)).isEqualTo(1);
+        assertThat(PhotoCompressor.subsampling(2000, 4400, Size.LARGE)).isEqualTo(2);
+    }
+
+    @Test
+    void rejectsUnknownFormat() {
+        MockMultipartFile text = new MockMultipartFile("file", "photo.jpg", "image/jpeg", new byte[]{1, 2, 3});
+        assertThatThrownBy(() -> compressor.compress(text, Size.SMALL)).isInstanceOf(IOException.class);
+    }
+
+    static BufferedImage image(int width, int height, int type, Color color) {
+        BufferedImage image = new BufferedImage(width, height, type);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setComposite(AlphaComposite.Src);
+        graphics.setColor(color);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(color.darker());
+        graphics.drawLine(0, 0, width, height);
+        graphics.dispose();
+        return image;
+    }
+
+    static MockMultipartFile file(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ImageIO.write(image, format, os);
+        return new MockMultipartFile("file", "photo." + format, "image/" + format, os.toByteArray());
+    }
+
+    private static BufferedImage decode(byte[] data) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(data));
+    }
+}
@@ -0,0 +1,109 @@
+package ru.manager.ProgectManager.components;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import ru.manager.ProgectManager.support.FakeSmtpServer;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+class PooledJavaMailSenderTest {
+    private FakeSmtpServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new FakeSmtpServer(0);
+    }
+
+    @AfterEach
+    void stopServer() throws IOException {
+        server.close();
+    }
+
+    @Test
+    void reusesConnectionAcrossSends() {
+        PooledJavaMailSender sender = buildSender(server, 100, 60_000);
+
+        for (int i = 0; i < 3; i++) {
+            sender.send(messages(5, "user"));
+        }
+        sender.destroy();
+
+        assertThat(server.getMessages()).hasSize(15);
+        assertThat(server.getConnections()).isEqualTo(1);
+        assertThat(sender.getOpenedConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void reconnectsAfterMessageCap() {
+        PooledJavaMailSender sender = buildSender(server, 4, 60_000);
+
+        sender.send(messages(10, "user"));
+        sender.destroy();
+
+        assertThat(server.getMessages()).hasSize(10);
+        assertThat(server.getConnections()).isEqualTo(3);
+    }
+
+    @Test
+    void reconnectsAfterIdleTimeout() throws InterruptedException {
+        PooledJavaMailSender sender = buildSender(server, 100, 0);
+
+        sender.send(messages(1, "user"));
+        Thread.sleep(10);
+        sender.send(messages(1, "user"));
+        sender.destroy();
+
+        assertThat(server.getConnections()).isEqualTo(2);
+    }
+
+    @Test
+    void reportsOnlyFailedMessagesAndKeepsConnection() {
+        PooledJavaMailSender sender = buildSender(server, 100, 60_000);
+        SimpleMailMessage[] batch = {messages(1, "first")[0], messages(1, "reject")[0], messages(1, "third")[0]};
+
+        MailSendException exception = catchThrowableOfType(() -> sender.send(batch), MailSendException.class);
+        sender.send(messages(1, "user"));
+        sender.destroy();
+
+        assertThat(exception.getFailedMessages()).containsOnlyKeys(batch[1]);
+        assertThat(server.getMessages()).hasSize(3);
+        assertThat(server.getConnections()).isEqualTo(1);
+    }
+
+    @Test
+    void reportsEachFailureOfEqualMessages() {
+        PooledJavaMailSender sender = buildSender(server, 100, 60_000);
+        SimpleMailMessage[] batch = {messages(1, "reject")[0], messages(1, "reject")[0]};
+
+        MailSendException exception = catchThrowableOfType(() -> sender.send(batch), MailSendException.class);
+        sender.destroy();
+
+        assertThat(exception.getFailedMessages()).hasSize(2).containsKey(batch[0]);
+        assertThat(exception.getMessageExceptions()).hasSize(2);
+    }
+
+    static PooledJavaMailSender buildSender(FakeSmtpServer server, int maxMessagesPerConnection, long idleTimeout) {
+        PooledJavaMailSender sender = new PooledJavaMailSender(1, maxMessagesPerConnection, idleTimeout);
+        sender.setHost("localhost");
+        sender.setPort(server.getPort());
+        return sender;
+    }
+
+    static SimpleMailMessage[] messages(int count, String user) {
+        SimpleMailMessage[] messages = new SimpleMailMessage[count];
+        for (int i = 0; i < count; i++) {
+            messages[i] = new SimpleMailMessage();
+            messages[i].setFrom("server@localhost");
+            messages[i].setTo(user + "@localhost");
+            messages[i].setSubject("Subject " + i);
+            messages[i].setText("Text " + i);
+        }
+        return messages;
+    }
+}
@@ -0,0 +1,45 @@
+package ru.manager.ProgectManager.components.authorization;
+
+import org.junit.jupiter.api.Test;
+import ru.manager.ProgectManager.repositories.UserRepository;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class TokenRevocationListTest {
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    @Test
+    void tokenIssuedRightAfterRevocationStaysValid() {
+        TokenRevocationList revocationList = new TokenRevocationList(userRepository);
+        long before = System.currentTimeMillis() - 1;
+        revocationList.revoke("user");
+        long after = System.currentTimeMillis();
+
+        verify(userRepository).updateTokensValidAfter(eq("user"), anyLong());
+        assertThat(revocationList.isRevoked("user", before)).isTrue();
+        assertThat(revocationList.isRevoked("user", after)).isFalse();
+        verify(userRepository, never()).findTokensValidAfter("user");
+    }
+
+    @Test
+    void otherNodeReadsRevocationFromDatabase() {
+        long revokedAt = System.currentTimeMillis();
+        when(userRepository.findTokensValidAfter("user")).thenReturn(Optional.of(revokedAt));
+        TokenRevocationList otherNode = new TokenRevocationList(userRepository);
+
+        assertThat(otherNode.isRevoked("user", revokedAt - 1)).isTrue();
+        assertThat(otherNode.isRevoked("user", revokedAt)).isFalse();
+        verify(userRepository, times(1)).findTokensValidAfter("user");
+    }
+
+    @Test
+    void deletedUserTokensAreRevoked() {
+        when(userRepository.findTokensValidAfter("ghost")).thenReturn(Optional.empty());
+        assertThat(new TokenRevocationList(userRepository).isRevoked("ghost", System.currentTimeMillis())).isTrue();
+    }
+}
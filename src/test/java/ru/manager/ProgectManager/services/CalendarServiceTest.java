@@ -0,0 +1,247 @@
+package ru.manager.ProgectManager.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.manager.ProgectManager.DTO.request.adminAction.LockRequest;
+import ru.manager.ProgectManager.DTO.response.calendar.CalendarResponse;
+import ru.manager.ProgectManager.DTO.response.calendar.ShortKanbanElementInfo;
+import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
+import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.entitys.user.AgendaEntry;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.repositories.AgendaEntryRepository;
+import ru.manager.ProgectManager.repositories.CalendarFeedTokenRepository;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.services.kanban.KanbanElementService;
+import ru.manager.ProgectManager.services.kanban.KanbanService;
+import ru.manager.ProgectManager.services.project.ProjectService;
+import ru.manager.ProgectManager.support.TestDataBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class CalendarServiceTest extends ProjectManagerTestBase {
+    @Autowired
+    CalendarService calendarService;
+
+    @Autowired
+    ProjectService projectService;
+
+    @Autowired
+    KanbanService kanbanService;
+
+    @Autowired
+    KanbanColumnRepository columnRepository;
+
+    @Autowired
+    KanbanElementRepository elementRepository;
+
+    @Autowired
+    KanbanElementService elementService;
+
+    @Autowired
+    AgendaService agendaService;
+
+    @Autowired
+    AgendaEntryRepository agendaRepository;
+
+    @Autowired
+    CalendarFeedService feedService;
+
+    @Autowired
+    CalendarFeedTokenRepository tokenRepository;
+
+    @Autowired
+    AdminService adminService;
+
+    @Test
+    void calendarReturnsElementsOfMonthInUserOffset() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        // пользователь находится в UTC+7, поэтому 31 марта 20:00 UTC для него уже 1 апреля
+        long march = addElement(column, "March", "2024-03-15T10:00:00", ElementStatus.ALIVE, user);
+        long april = addElement(column, "April", "2024-03-31T20:00:00", ElementStatus.ALIVE, user);
+        addElement(column, "Archived", "2024-03-20T10:00:00", ElementStatus.ARCHIVED, user);
+        // элементы сохранены в обход сервисов, поэтому календарь проекта пересчитывается явно
+        agendaService.projectChanged(projectId);
+        agendaService.processPending();
+
+        assertThat(calendarService.findCalendar(projectId, 2024, 3, user.getUsername()).orElseThrow()
+                .getDaysWithContent())
+                .extracting(CalendarResponse::getDate)
+                .containsExactly("2024-03-15");
+        assertThat(calendarService.findCalendarOnKanban(kanban.getId(), 2024, 4, user.getUsername()).orElseThrow()
+                .getDaysWithContent())
+                .flatExtracting(CalendarResponse::getCards)
+                .extracting(ShortKanbanElementInfo::getId)
+                .containsExactly(april);
+        assertThat(calendarService.findTaskOnDay("2024-03-15T00:00:00", user.getUsername()).getCards())
+                .extracting(ShortKanbanElementInfo::getId, ShortKanbanElementInfo::isCanEdit)
+                .containsExactly(tuple(march, true));
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void agendaRowsAreUpdatedInPlace() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        long element = addElement(column, "Release", "2024-03-15T10:00:00", ElementStatus.ALIVE, user);
+        agendaService.projectChanged(projectId);
+        agendaService.processPending();
+        List<AgendaEntry> before = agendaRepository.findByUserId(user.getUserId());
+
+        agendaService.kanbanChanged(kanban.getId());
+        agendaService.elementsChanged(List.of(element));
+        agendaService.userChanged(user.getUserId());
+        agendaService.projectChanged(projectId);
+        agendaService.processPending();
+        List<AgendaEntry> after = agendaRepository.findByUserId(user.getUserId());
+
+        assertThat(before).extracting(AgendaEntry::getElementId).containsExactly(element);
+        assertThat(after).extracting(AgendaEntry::getId).containsExactly(before.get(0).getId());
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void editedDateIsInCalendarRightAfterCommit() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        long element = addElement(column, "Release", "2024-03-15T10:00:00", ElementStatus.ALIVE, user);
+        agendaService.projectChanged(projectId);
+        agendaService.processPending();
+
+        // без processPending: строки элемента обновляет сам запрос после коммита
+        assertThat(elementService.editDate(element, "2024-03-20T12:00:00", user.getUsername())).isTrue();
+        assertThat(calendarService.findTaskOnDay("2024-03-20T00:00:00", user.getUsername()).getCards())
+                .extracting(ShortKanbanElementInfo::getId)
+                .containsExactly(element);
+        assertThat(calendarService.findTaskOnDay("2024-03-15T00:00:00", user.getUsername()).getCards()).isEmpty();
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void agendaFollowsUserZoneChange() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        long late = addElement(column, "Late", "2024-03-31T20:00:00", ElementStatus.ALIVE, user);
+        agendaService.projectChanged(projectId);
+        agendaService.processPending();
+
+        userService.updateLastVisitAndZone(user, 0);
+        agendaService.processPending();
+        assertThat(calendarService.findTaskOnDay("2024-03-31T00:00:00", user.getUsername()).getCards())
+                .extracting(ShortKanbanElementInfo::getId)
+                .containsExactly(late);
+        assertThat(calendarService.findTaskOnDay("2024-04-01T00:00:00", user.getUsername()).getCards()).isEmpty();
+
+        projectService.deleteProject(projectId, user.getUsername());
+        agendaService.processPending();
+        assertThat(calendarService.findTaskOnDay("2024-03-31T00:00:00", user.getUsername()).getCards()).isEmpty();
+    }
+
+    @Test
+    void feedStreamsDatedElementsAndRespectsRevocation() throws IOException {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        user.setEnabled(true);
+        user = userRepository.save(user);
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        addElement(column, "Release", "2024-03-15T10:00:00", ElementStatus.ALIVE, user);
+        agendaService.projectChanged(projectId);
+        agendaService.processPending();
+        String token = feedService.createToken(user.getUsername());
+        long userId = feedService.findUserId(token).orElseThrow();
+
+        ByteArrayOutputStream kanbanFeed = new ByteArrayOutputStream();
+        feedService.findKanbanFeed(userId, kanban.getId()).orElseThrow().writeTo(kanbanFeed);
+        assertThat(kanbanFeed.toString(StandardCharsets.UTF_8))
+                .contains("SUMMARY:Release\r\n", "DTSTART:20240315T100000Z\r\n")
+                .endsWith("END:VCALENDAR\r\n");
+        ByteArrayOutputStream userFeed = new ByteArrayOutputStream();
+        CalendarFeedService.Feed feed = feedService.findUserFeed(userId);
+        feed.writeTo(userFeed);
+        assertThat(userFeed.toString(StandardCharsets.UTF_8)).contains("SUMMARY:Release\r\n");
+        assertThat(feedService.findUserFeed(userId).getEtag()).isEqualTo(feed.getEtag());
+
+        addElement(column, "Review", "2024-03-16T10:00:00", ElementStatus.ALIVE, user);
+        agendaService.projectChanged(projectId);
+        agendaService.processPending();
+        assertThat(feedService.findUserFeed(userId).getEtag()).isNotEqualTo(feed.getEtag());
+
+        feedService.revokeToken(user.getUsername());
+        assertThat(feedService.findUserId(token)).isEmpty();
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void feedIsClosedForLockedAndDisabledAccounts() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        String token = feedService.createToken(user.getUsername());
+        assertThat(feedService.findUserId(token)).isEmpty();
+
+        user.setEnabled(true);
+        user = userRepository.save(user);
+        assertThat(feedService.findUserId(token)).contains(user.getUserId());
+
+        LockRequest lockRequest = new LockRequest();
+        lockRequest.setIdOrLogin(user.getUsername());
+        assertThat(adminService.lockAccount(lockRequest)).isTrue();
+        assertThat(feedService.findUserId(token)).isEmpty();
+        assertThat(tokenRepository.findById(token)).isEmpty();
+    }
+
+    private long addElement(KanbanColumn column, String name, String utcDate, ElementStatus status, User user) {
+        KanbanElement element = new KanbanElement();
+        element.setKanbanColumn(column);
+        element.setName(name);
+        element.setOrderKey(name.toLowerCase());
+        element.setStatus(status);
+        element.setOwner(user);
+        element.setLastRedactor(user);
+        element.setSelectedDate(LocalDateTime.parse(utcDate).toEpochSecond(ZoneOffset.UTC));
+        return elementRepository.save(element).getId();
+    }
+}
@@ -0,0 +1,101 @@
+package ru.manager.ProgectManager.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mail.MailSendException;
+import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.components.MailDispatcher;
+import ru.manager.ProgectManager.entitys.MailOutbox;
+import ru.manager.ProgectManager.enums.MailStatus;
+import ru.manager.ProgectManager.repositories.ApproveActionTokenRepository;
+import ru.manager.ProgectManager.repositories.MailOutboxRepository;
+import ru.manager.ProgectManager.support.TestDataBuilder;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeMessage;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class MailServiceTest extends ProjectManagerTestBase {
+    @Autowired
+    MailOutboxRepository outboxRepository;
+
+    @Autowired
+    ApproveActionTokenRepository approveActionTokenRepository;
+
+    @Autowired
+    MailDispatcher mailDispatcher;
+
+    @Test
+    void registrationMailsGoThroughOutbox() throws InterruptedException {
+        long start = System.currentTimeMillis();
+        userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+
+        verify(javaMailSender, timeout(15_000)).send(any(MimeMessage[].class));
+        List<MailOutbox> reminders = awaitOutbox(mails -> mails.size() == 2);
+
+        assertThat(reminders).allMatch(mail -> mail.getCancelKey() != null && mail.getStatus() == MailStatus.PENDING);
+        assertThat(reminders).extracting(MailOutbox::getNextAttempt)
+                .allMatch(nextAttempt -> nextAttempt >= start + 3_600_000);
+
+        String token = approveActionTokenRepository.findAll().iterator().next().getToken();
+        assertThat(userService.enabledUser(token)).isPresent();
+        assertThat(outboxRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    void failedMailIsRetriedWithBackoff() throws InterruptedException {
+        doThrow(new MailSendException("SMTP is down")).when(javaMailSender).send(any(MimeMessage[].class));
+        long start = System.currentTimeMillis();
+        userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+
+        List<MailOutbox> failed = awaitOutbox(mails -> mails.stream().anyMatch(mail -> mail.getAttempts() == 1));
+        MailOutbox approve = failed.stream().filter(mail -> mail.getCancelKey() == null).findAny().orElseThrow();
+
+        assertThat(approve.getStatus()).isEqualTo(MailStatus.PENDING);
+        assertThat(approve.getLastError()).contains("SMTP is down");
+        assertThat(approve.getNextAttempt()).isGreaterThanOrEqualTo(start + 30_000);
+    }
+
+    @Test
+    void onlyTheFailedOneOfIdenticalMailsIsRetried() throws InterruptedException {
+        doAnswer(invocation -> {
+            Object[] batch = invocation.getArguments();
+            throw new MailSendException(Map.of(batch[batch.length - 1], new MessagingException("Rejected")));
+        }).when(javaMailSender).send(any(MimeMessage[].class));
+        outboxRepository.saveAll(List.of(buildMail(), buildMail()));
+        mailDispatcher.wakeUp();
+
+        List<MailOutbox> left = awaitOutbox(mails -> mails.stream().anyMatch(mail -> mail.getAttempts() == 1));
+
+        assertThat(left).hasSize(1);
+        assertThat(left.get(0).getLastError()).contains("Rejected");
+    }
+
+    private MailOutbox buildMail() {
+        MailOutbox mail = new MailOutbox();
+        mail.setAddress("user@example.com");
+        mail.setSubject("Notification");
+        mail.setText("Same text");
+        mail.setStatus(MailStatus.PENDING);
+        return mail;
+    }
+
+    private List<MailOutbox> awaitOutbox(Predicate<List<MailOutbox>> condition) throws InterruptedException {
+        for (int i = 0; i < 150; i++) {
+            List<MailOutbox> mails = StreamSupport.stream(outboxRepository.findAll().spliterator(), false)
+                    .collect(Collectors.toList());
+            if (condition.test(mails))
+                return mails;
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Mail outbox did not reach the expected state");
+    }
+}
@@ -0,0 +1,72 @@
+package ru.manager.ProgectManager.services.documents;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.manager.ProgectManager.DTO.request.documents.CreatePageRequest;
+import ru.manager.ProgectManager.DTO.response.documents.PageSearchResponse;
+import ru.manager.ProgectManager.DTO.response.documents.PageSearchResponseList;
+import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.services.project.ProjectService;
+import ru.manager.ProgectManager.support.TestDataBuilder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageServiceTest extends ProjectManagerTestBase {
+    @Autowired
+    PageService pageService;
+
+    @Autowired
+    ProjectService projectService;
+
+    @Test
+    void searchFindsWordFormsInContentAndFollowsChanges() {
+        String login = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow().getUsername();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), login).getId();
+        long planning = createPage(projectId, "Планирование", "<p>Каждая задача спринта получает оценку.</p>",
+                login);
+        long release = createPage(projectId, "Release", "Задачи релиза перечислены ниже", login);
+        long other = createPage(projectId, "Other", "Nothing relevant here", login);
+
+        PageSearchResponseList tasks = pageService.search(projectId, "задачами", login, 0, 10, 0).orElseThrow();
+        assertThat(tasks.getCount()).isEqualTo(2);
+        assertThat(tasks.getPages()).extracting(PageSearchResponse::getId).containsExactlyInAnyOrder(planning, release);
+        assertThat(tasks.getPages()).filteredOn(page -> page.getId() == planning)
+                .extracting(PageSearchResponse::getSnippet)
+                .containsExactly("Каждая <mark>задача</mark> спринта получает оценку.");
+
+        assertThat(pageService.rename(other, "Задача без описания", login)).isTrue();
+        assertThat(pageService.search(projectId, "задача", login, 0, 10, 0).orElseThrow().getPages().get(0).getId())
+                .isEqualTo(other);
+
+        assertThat(pageService.setContent(release, "Deployment notes", login)).isTrue();
+        assertThat(pageService.deletePage(planning, login)).isTrue();
+        assertThat(pageService.search(projectId, "задачи", login, 0, 10, 0).orElseThrow().getPages())
+                .extracting(PageSearchResponse::getId).containsExactly(other);
+        assertThat(pageService.search(projectId, "deployed", login, 0, 10, 0).orElseThrow().getPages())
+                .extracting(PageSearchResponse::getId).containsExactly(release);
+
+        projectService.deleteProject(projectId, login);
+    }
+
+    @Test
+    void snippetEscapesDecodedTextOnce() {
+        String login = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow().getUsername();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), login).getId();
+        createPage(projectId, "Limits", "<p>R&amp;D &lt;team&gt; задача &#8470;1</p>", login);
+
+        PageSearchResponseList result = pageService.search(projectId, "задача", login, 0, 10, 0).orElseThrow();
+
+        assertThat(result.getPages()).extracting(PageSearchResponse::getSnippet)
+                .containsExactly("R&amp;D &lt;team&gt; <mark>задача</mark> №1");
+
+        projectService.deleteProject(projectId, login);
+    }
+
+    private long createPage(long projectId, String name, String content, String login) {
+        CreatePageRequest request = new CreatePageRequest();
+        request.setProjectId(projectId);
+        request.setName(name);
+        request.setContent(content);
+        return pageService.createPage(request, login).orElseThrow();
+    }
+}
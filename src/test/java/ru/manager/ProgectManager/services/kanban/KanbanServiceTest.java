@@ -0,0 +1,337 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.manager.ProgectManager.DTO.request.kanban.ElementOperationRequest;
+import ru.manager.ProgectManager.DTO.response.kanban.ElementOperationResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanChangeListResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanChangeResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanContentResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanElementMainDataResponse;
+import ru.manager.ProgectManager.DTO.response.kanban.KanbanElements;
+import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
+import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.enums.KanbanChangeType;
+import ru.manager.ProgectManager.enums.SearchElementType;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.KanbanRepository;
+import ru.manager.ProgectManager.services.project.ProjectService;
+import ru.manager.ProgectManager.support.TestDataBuilder;
+
+import javax.persistence.EntityManagerFactory;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KanbanServiceTest extends ProjectManagerTestBase {
+    @Autowired
+    KanbanService kanbanService;
+
+    @Autowired
+    ProjectService projectService;
+
+    @Autowired
+    KanbanColumnRepository columnRepository;
+
+    @Autowired
+    KanbanElementRepository elementRepository;
+
+    @Autowired
+    KanbanRepository kanbanRepository;
+
+    @Autowired
+    KanbanChangeService changeService;
+
+    @Autowired
+    KanbanOrderService orderService;
+
+    @Autowired
+    KanbanElementBatchService batchService;
+
+    @Autowired
+    KanbanElementService elementService;
+
+    @Autowired
+    KanbanVersionService versionService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Test
+    void findKanbanContentUsesConstantQueryCount() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+
+        fillBoard(kanban, 0, 1, 2, user);
+        kanbanService.findKanbanContent(kanban.getId(), 0, 50, 50, user.getUsername()); // прогрев индекса прав
+        statistics.clear();
+        KanbanContentResponse small = kanbanService.findKanbanContent(kanban.getId(), 0, 50, 50, user.getUsername())
+                .orElseThrow();
+        long smallBoardQueries = statistics.getPrepareStatementCount();
+
+        fillBoard(kanban, 1, 5, 30, user);
+        statistics.clear();
+        KanbanContentResponse large = kanbanService.findKanbanContent(kanban.getId(), 0, 50, 50, user.getUsername())
+                .orElseThrow();
+        long largeBoardQueries = statistics.getPrepareStatementCount();
+
+        assertThat(small.getKanbanColumns()).hasSize(1);
+        assertThat(large.getKanbanColumns()).hasSize(6);
+        assertThat(large.getKanbanColumns().get(5).getKanbanElements()).hasSize(30);
+        assertThat(largeBoardQueries).isEqualTo(smallBoardQueries);
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void mutationsIncrementBoardVersion() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        long initial = kanbanRepository.findVersionById(kanban.getId()).orElseThrow().getVersion();
+
+        assertThat(kanbanService.rename(kanban.getId(), "Renamed", user.getUsername())).isTrue();
+        long renamed = kanbanRepository.findVersionById(kanban.getId()).orElseThrow().getVersion();
+        assertThat(kanbanService.findAllAvailableTags(kanban.getId(), user.getUsername())).isPresent();
+        long afterRead = kanbanRepository.findVersionById(kanban.getId()).orElseThrow().getVersion();
+
+        assertThat(renamed).isEqualTo(initial + 1);
+        assertThat(afterRead).isEqualTo(renamed);
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void columnTagKeepsRequestParametersLiterally() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        fillBoard(kanban, 0, 1, 1, user);
+        long columnId = columnRepository.findOrderedByKanbanId(kanban.getId()).get(0).getId();
+        Principal principal = user::getUsername;
+
+        String firstPage = versionService.findColumnTag(columnId, principal, null, 0, 20).orElseThrow();
+        String emptyCursor = versionService.findColumnTag(columnId, principal, "", 0, 20).orElseThrow();
+        String dashedCursor = versionService.findColumnTag(columnId, principal, "a-0", 20, 20).orElseThrow();
+
+        assertThat(firstPage).startsWith("\"c" + columnId + "-").endsWith("-~-0-20\"");
+        assertThat(emptyCursor).endsWith("--0-20\"");
+        assertThat(dashedCursor).endsWith("-a%2D0-20-20\"");
+        assertThat(Set.of(firstPage, emptyCursor, dashedCursor)).hasSize(3);
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void findChangesReturnsOperationsAfterVersion() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        long since = kanbanService.findKanbanContent(kanban.getId(), 0, 10, 10, user.getUsername())
+                .orElseThrow().getVersion();
+
+        kanbanService.rename(kanban.getId(), "First", user.getUsername());
+        kanbanService.rename(kanban.getId(), "Second", user.getUsername());
+        KanbanChangeListResponse changes = changeService.findChanges(kanban.getId(), since, user.getUsername())
+                .orElseThrow();
+        KanbanChangeListResponse upToDate = changeService.findChanges(kanban.getId(), changes.getVersion(),
+                user.getUsername()).orElseThrow();
+
+        assertThat(changes.isReload()).isFalse();
+        assertThat(changes.getVersion()).isEqualTo(since + 2);
+        assertThat(changes.getChanges()).hasSize(2);
+        assertThat(changes.getChanges().get(1).getType()).isEqualTo(KanbanChangeType.KANBAN_RENAME);
+        assertThat(changes.getChanges().get(1).getPayload()).isEqualTo("Second");
+        assertThat(upToDate.getChanges()).isEmpty();
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void orderKeyMoveKeepsNeighbourKeys() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        fillBoard(kanban, 0, 1, 3, user);
+        KanbanColumn column = columnRepository.findOrderedByKanbanId(kanban.getId()).get(0);
+        List<KanbanElement> before = elementRepository.findOrdered(column.getId(), ElementStatus.ALIVE);
+
+        KanbanElement moved = before.get(2);
+        moved.setOrderKey(orderService.elementKeyAt(column, moved.getId(), 0));
+        elementRepository.save(moved);
+        List<KanbanElement> after = elementRepository.findOrdered(column.getId(), ElementStatus.ALIVE);
+        KanbanContentResponse content = kanbanService.findKanbanContent(kanban.getId(), 0, 50, 50,
+                user.getUsername()).orElseThrow();
+
+        assertThat(after).extracting(KanbanElement::getId)
+                .containsExactly(moved.getId(), before.get(0).getId(), before.get(1).getId());
+        assertThat(after.get(1).getOrderKey()).isEqualTo(before.get(0).getOrderKey());
+        assertThat(after.get(2).getOrderKey()).isEqualTo(before.get(1).getOrderKey());
+        assertThat(content.getKanbanColumns().get(0).getKanbanElements().get(0).getId()).isEqualTo(moved.getId());
+        assertThat(content.getKanbanColumns().get(0).getKanbanElements().get(2).getSerialNumber()).isEqualTo(2);
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void elementsFromDifferentColumnsKeepTheirColumnPositions() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        fillBoard(kanban, 0, 2, 3, user);
+        List<KanbanColumn> columns = columnRepository.findOrderedByKanbanId(kanban.getId());
+        List<KanbanElement> found = List.of(
+                elementRepository.findOrdered(columns.get(0).getId(), ElementStatus.ALIVE).get(2),
+                elementRepository.findOrdered(columns.get(1).getId(), ElementStatus.ALIVE).get(1));
+
+        KanbanElements page = new KanbanElements(found, 0, 10, orderService::findPosition, 0);
+
+        assertThat(page.getElements()).extracting(KanbanElementMainDataResponse::getSerialNumber)
+                .containsExactly(2, 1);
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void rebalanceIsRecordedInChangeLog() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        fillBoard(kanban, 0, 2, 3, user);
+        long since = kanbanRepository.findVersionById(kanban.getId()).orElseThrow().getVersion();
+        KanbanColumn column = columnRepository.findOrderedByKanbanId(kanban.getId()).get(0);
+        List<Long> order = elementRepository.findOrdered(column.getId(), ElementStatus.ALIVE).stream()
+                .map(KanbanElement::getId).collect(Collectors.toList());
+
+        orderService.rebalanceColumn(column.getId());
+        orderService.rebalanceKanban(kanban.getId());
+        KanbanChangeListResponse changes = changeService.findChanges(kanban.getId(), since, user.getUsername())
+                .orElseThrow();
+
+        assertThat(elementRepository.findOrdered(column.getId(), ElementStatus.ALIVE))
+                .extracting(KanbanElement::getId).containsExactlyElementsOf(order);
+        assertThat(changes.getChanges()).extracting(KanbanChangeResponse::getType)
+                .containsExactly(KanbanChangeType.COLUMN_REBALANCE, KanbanChangeType.KANBAN_REBALANCE);
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void batchMovesElementsAndReportsEachOperation() throws Exception {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        fillBoard(kanban, 0, 2, 3, user);
+        List<KanbanColumn> columns = columnRepository.findOrderedByKanbanId(kanban.getId());
+        List<KanbanElement> moved = elementRepository.findOrdered(columns.get(0).getId(), ElementStatus.ALIVE);
+        long version = kanbanRepository.findVersionById(kanban.getId()).orElseThrow().getVersion();
+        ObjectMapper mapper = new ObjectMapper();
+        List<ElementOperationRequest> operations = new ArrayList<>();
+        for (KanbanElement element : moved) {
+            operations.add(mapper.readValue("{\"type\":\"MOVE\",\"elementId\":" + element.getId() +
+                    ",\"toColumn\":" + columns.get(1).getId() + ",\"toIndex\":100}", ElementOperationRequest.class));
+        }
+        operations.add(mapper.readValue("{\"type\":\"ARCHIVE\",\"elementId\":-1}", ElementOperationRequest.class));
+
+        List<ElementOperationResponse> results = batchService.execute(operations, user.getUsername());
+        List<KanbanElement> target = elementRepository.findOrdered(columns.get(1).getId(), ElementStatus.ALIVE);
+        KanbanChangeListResponse changes = changeService.findChanges(kanban.getId(), version, user.getUsername())
+                .orElseThrow();
+
+        assertThat(results).extracting(ElementOperationResponse::getStatus).containsExactly(200, 200, 200, 404);
+        assertThat(target).hasSize(6);
+        assertThat(target.subList(3, 6)).extracting(KanbanElement::getId)
+                .containsExactly(moved.get(0).getId(), moved.get(1).getId(), moved.get(2).getId());
+        assertThat(elementRepository.countByColumn(columns.get(0).getId(), ElementStatus.ALIVE)).isZero();
+        assertThat(changes.getVersion()).isEqualTo(version + 3);
+        assertThat(changes.getChanges()).extracting(KanbanChangeResponse::getSerialNumber).containsExactly(3, 4, 5);
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void searchIndexFollowsElementChanges() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        fillBoard(kanban, 0, 1, 3, user);
+        KanbanColumn column = columnRepository.findOrderedByKanbanId(kanban.getId()).get(0);
+        KanbanElement renamed = elementRepository.findOrdered(column.getId(), ElementStatus.ALIVE).get(1);
+
+        Set<KanbanElement> before = elementService.findElements(kanban.getId(), SearchElementType.NAME, "ENT 1",
+                ElementStatus.ALIVE, user.getUsername()).orElseThrow();
+        assertThat(elementService.rename(renamed.getId(), "Release notes", user.getUsername())).isTrue();
+        Set<KanbanElement> oldName = elementService.findElements(kanban.getId(), SearchElementType.NAME, "ent 1",
+                ElementStatus.ALIVE, user.getUsername()).orElseThrow();
+        Set<KanbanElement> newName = elementService.findElements(kanban.getId(), SearchElementType.ALL, "notes",
+                ElementStatus.ALIVE, user.getUsername()).orElseThrow();
+        Set<KanbanElement> archived = elementService.findElements(kanban.getId(), SearchElementType.NAME, "element",
+                ElementStatus.ARCHIVED, user.getUsername()).orElseThrow();
+
+        assertThat(before).extracting(KanbanElement::getId).containsExactly(renamed.getId());
+        assertThat(oldName).isEmpty();
+        assertThat(newName).extracting(KanbanElement::getId).containsExactly(renamed.getId());
+        assertThat(archived).isEmpty();
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void searchIndexIsRebuiltWhenBoardVersionMovesOn() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        fillBoard(kanban, 0, 1, 2, user);
+        KanbanColumn column = columnRepository.findOrderedByKanbanId(kanban.getId()).get(0);
+        KanbanElement element = elementRepository.findOrdered(column.getId(), ElementStatus.ALIVE).get(0);
+
+        Set<KanbanElement> before = elementService.findElements(kanban.getId(), SearchElementType.NAME, "roadmap",
+                ElementStatus.ALIVE, user.getUsername()).orElseThrow();
+        // изменение мимо индекса, как его видит другой узел
+        element.setName("Roadmap");
+        elementRepository.save(element);
+        kanbanRepository.increaseVersion(kanban.getId(), 1);
+        Set<KanbanElement> after = elementService.findElements(kanban.getId(), SearchElementType.NAME, "roadmap",
+                ElementStatus.ALIVE, user.getUsername()).orElseThrow();
+
+        assertThat(before).isEmpty();
+        assertThat(after).extracting(KanbanElement::getId).containsExactly(element.getId());
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    private void fillBoard(Kanban kanban, int firstColumn, int columns, int elements, User user) {
+        for (int i = firstColumn; i < firstColumn + columns; i++) {
+            KanbanColumn column = new KanbanColumn();
+            column.setKanban(kanban);
+            column.setName("Column " + i);
+            column.setOrderKey(String.format("%04di", i));
+            column = columnRepository.save(column);
+            for (int j = 0; j < elements; j++) {
+                KanbanElement element = new KanbanElement();
+                element.setKanbanColumn(column);
+                element.setName("Element " + j);
+                element.setOrderKey(String.format("%04di", j));
+                element.setStatus(ElementStatus.ALIVE);
+                element.setOwner(user);
+                element.setLastRedactor(user);
+                elementRepository.save(element);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
+import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.entitys.kanban.TimeRemover;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.TimeRemoverRepository;
+import ru.manager.ProgectManager.services.project.ProjectService;
+import ru.manager.ProgectManager.support.TestDataBuilder;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeRemoverSchedulerTest extends ProjectManagerTestBase {
+    @Autowired
+    TimeRemoverScheduler removerScheduler;
+
+    @Autowired
+    KanbanService kanbanService;
+
+    @Autowired
+    ProjectService projectService;
+
+    @Autowired
+    KanbanColumnRepository columnRepository;
+
+    @Autowired
+    KanbanElementRepository elementRepository;
+
+    @Autowired
+    TimeRemoverRepository timeRemoverRepository;
+
+    @Test
+    void timingWheelFiresRemoversAtDueTime() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        List<KanbanElement> elements = fillColumn(projectId, 2, user);
+        long now = Instant.now().getEpochSecond();
+        TimeRemover due = saveRemover(elements.get(0).getId(), false, LocalDate.now().plusDays(1));
+        due.setDueTime(now - 5);
+        timeRemoverRepository.save(due);
+        TimeRemover later = saveRemover(elements.get(1).getId(), false, LocalDate.now().plusDays(1));
+        later.setDueTime(now + 3_600);
+        timeRemoverRepository.save(later);
+
+        removerScheduler.load();
+        removerScheduler.tick();
+        TimeRemover hardened = timeRemoverRepository.findById(elements.get(0).getId()).orElseThrow();
+
+        assertThat(elementRepository.findById(elements.get(0).getId()).orElseThrow().getStatus())
+                .isEqualTo(ElementStatus.UTILISE);
+        assertThat(elementRepository.findById(elements.get(1).getId()).orElseThrow().getStatus())
+                .isEqualTo(ElementStatus.ALIVE);
+        assertThat(hardened.isHard()).isTrue();
+        assertThat(hardened.getDueTime()).isGreaterThan(now + 5 * 86_400);
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    private TimeRemover saveRemover(long id, boolean hard, LocalDate timeToDelete) {
+        TimeRemover remover = new TimeRemover();
+        remover.setRemoverId(id);
+        remover.setHard(hard);
+        remover.setTimeToDelete(timeToDelete.toEpochDay());
+        remover.setDueTime((timeToDelete.toEpochDay() + 1) * 86_400);
+        return timeRemoverRepository.save(remover);
+    }
+
+    private List<KanbanElement> fillColumn(long projectId, int elements, User user) {
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        for (int i = 0; i < elements; i++) {
+            KanbanElement element = new KanbanElement();
+            element.setKanbanColumn(column);
+            element.setName("Element " + i);
+            element.setOrderKey(String.format("%04di", i));
+            element.setStatus(ElementStatus.ALIVE);
+            element.setOwner(user);
+            element.setLastRedactor(user);
+            elementRepository.save(element);
+        }
+        return elementRepository.findOrdered(column.getId(), ElementStatus.ALIVE);
+    }
+}
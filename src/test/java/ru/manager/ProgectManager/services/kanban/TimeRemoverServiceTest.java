@@ -0,0 +1,117 @@
+package ru.manager.ProgectManager.services.kanban;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
+import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.entitys.kanban.TimeRemover;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.TimeRemoverRepository;
+import ru.manager.ProgectManager.repositories.projections.RemoverExpiryView;
+import ru.manager.ProgectManager.services.project.ProjectService;
+import ru.manager.ProgectManager.support.TestDataBuilder;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TimeRemoverServiceTest extends ProjectManagerTestBase {
+    @Autowired
+    TimeRemoverService removerService;
+
+    @Autowired
+    KanbanService kanbanService;
+
+    @Autowired
+    ProjectService projectService;
+
+    @Autowired
+    KanbanColumnRepository columnRepository;
+
+    @Autowired
+    KanbanElementRepository elementRepository;
+
+    @Autowired
+    TimeRemoverRepository timeRemoverRepository;
+
+    @Test
+    void expiredRemoversAreProcessedInChunks() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        List<KanbanElement> elements = fillColumn(projectId, 3, user);
+        LocalDate today = LocalDate.now();
+        saveRemover(elements.get(0).getId(), false, today.minusDays(1));
+        saveRemover(elements.get(1).getId(), false, today.plusDays(1));
+        saveRemover(elements.get(2).getId(), true, today.minusDays(1));
+
+        List<Long> soft = expiredIds(false, Long.MIN_VALUE, 0, 10);
+        TimeRemoverService.ExpiryResult utilised = removerService.utilise(soft);
+        TimeRemover hardened = timeRemoverRepository.findById(elements.get(0).getId()).orElseThrow();
+
+        assertThat(soft).containsExactly(elements.get(0).getId());
+        assertThat(utilised.getProcessed()).isEqualTo(1);
+        assertThat(hardened.isHard()).isTrue();
+        assertThat(hardened.getTimeToDelete()).isEqualTo(today.plusDays(6).toEpochDay());
+        assertThat(elementRepository.findById(elements.get(0).getId()).orElseThrow().getStatus())
+                .isEqualTo(ElementStatus.UTILISE);
+
+        saveRemover(elements.get(0).getId(), true, today.minusDays(1));
+        List<Long> hard = expiredIds(true, Long.MIN_VALUE, 0, 1);
+        TimeRemoverService.ExpiryResult first = removerService.deleteFromTrash(hard);
+        TimeRemoverService.ExpiryResult second = removerService.deleteFromTrash(
+                expiredIds(true, today.minusDays(1).toEpochDay(), hard.get(0), 1));
+
+        assertThat(hard).containsExactly(elements.get(0).getId());
+        assertThat(first.getProcessed()).isEqualTo(1);
+        assertThat(second.getSkipped()).containsExactly(elements.get(2).getId());
+        assertThat(elementRepository.findById(elements.get(0).getId())).isEmpty();
+        assertThat(elementRepository.findById(elements.get(2).getId()).orElseThrow().getStatus())
+                .isEqualTo(ElementStatus.ALIVE);
+        assertThat(expiredIds(true, Long.MIN_VALUE, 0, 10)).isEmpty();
+        assertThat(timeRemoverRepository.findById(elements.get(1).getId())).isPresent();
+
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    private TimeRemover saveRemover(long id, boolean hard, LocalDate timeToDelete) {
+        TimeRemover remover = new TimeRemover();
+        remover.setRemoverId(id);
+        remover.setHard(hard);
+        remover.setTimeToDelete(timeToDelete.toEpochDay());
+        remover.setDueTime((timeToDelete.toEpochDay() + 1) * 86_400);
+        return timeRemoverRepository.save(remover);
+    }
+
+    private List<Long> expiredIds(boolean hard, long afterDay, long afterId, int limit) {
+        return removerService.findExpired(hard, afterDay, afterId, limit).stream()
+                .map(RemoverExpiryView::getRemoverId)
+                .collect(Collectors.toList());
+    }
+
+    private List<KanbanElement> fillColumn(long projectId, int elements, User user) {
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        for (int i = 0; i < elements; i++) {
+            KanbanElement element = new KanbanElement();
+            element.setKanbanColumn(column);
+            element.setName("Element " + i);
+            element.setOrderKey(String.format("%04di", i));
+            element.setStatus(ElementStatus.ALIVE);
+            element.setOwner(user);
+            element.setLastRedactor(user);
+            elementRepository.save(element);
+        }
+        return elementRepository.findOrdered(column.getId(), ElementStatus.ALIVE);
+    }
+}
@@ -2,24 +2,44 @@ package ru.manager.ProgectManager.services.project;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
 import ru.manager.ProgectManager.DTO.request.ProjectDataRequest;
+import ru.manager.ProgectManager.DTO.request.documents.CreatePageRequest;
+import ru.manager.ProgectManager.DTO.response.PointerResource;
 import ru.manager.ProgectManager.DTO.response.user.UserDataListResponse;
 import ru.manager.ProgectManager.DTO.response.user.UserDataWithProjectRoleResponse;
 import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
 import ru.manager.ProgectManager.entitys.Project;
 import ru.manager.ProgectManager.entitys.user.User;
 import ru.manager.ProgectManager.enums.TypeRoleProject;
+import ru.manager.ProgectManager.services.documents.PageService;
+import ru.manager.ProgectManager.services.kanban.KanbanService;
+import ru.manager.ProgectManager.services.user.ResourceSearchService;
 import ru.manager.ProgectManager.support.TestDataBuilder;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 class ProjectServiceTest extends ProjectManagerTestBase {
     @Autowired
     ProjectService projectService;
 
+    @Autowired
+    KanbanService kanbanService;
+
+    @Autowired
+    PageService pageService;
+
+    @Autowired
+    ResourceSearchService resourceSearchService;
+
+    @Autowired
+    ProjectAccessIndex accessIndex;
+
     @Test
     void findProject() {
         String login = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow().getUsername();
@@ -91,4 +111,57 @@ class ProjectServiceTest extends ProjectManagerTestBase {
         assertThat(projectService.canCreateOrDeleteResources(projectService.findProject(id, login).orElseThrow(), login))
                 .isTrue();
     }
-}
\ No newline at end of file
+
+    @Test
+    void findResourcesByNameRanksPrefixMatchesFirst() {
+        String login = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow().getUsername();
+        long id = projectService.addProject(TestDataBuilder.buildProjectDto(), login).getId();
+        long sub = kanbanService.createKanban(id, "Sub project plan", login).orElseThrow().getId();
+        kanbanService.createKanban(id, "Project board", login);
+        CreatePageRequest page = new CreatePageRequest();
+        page.setProjectId(id);
+        page.setName("Roadmap");
+        pageService.createPage(page, login);
+
+        assertThat(resourceSearchService.findByName("project", login, 0, 10))
+                .extracting(PointerResource::getName)
+                .containsExactly("Project", "Project board", "Sub project plan");
+        assertThat(resourceSearchService.findByName("project", login, 1, 1))
+                .extracting(PointerResource::getName)
+                .containsExactly("Project board");
+        assertThat(resourceSearchService.findByName("b", login, 0, 10))
+                .extracting(PointerResource::getName)
+                .containsExactly("Project board", "Sub project plan");
+        assertThat(resourceSearchService.findByName("ect bo", login, 0, 10))
+                .extracting(PointerResource::getName)
+                .containsExactly("Project board");
+
+        assertThat(kanbanService.rename(sub, "Other", login)).isTrue();
+        assertThat(resourceSearchService.findByName("road", login, 0, 10))
+                .extracting(PointerResource::getName, PointerResource::getResourceType)
+                .containsExactly(tuple("Roadmap", "project-doc-page-id"));
+        assertThat(resourceSearchService.findByName("project", login, 0, 10))
+                .extracting(PointerResource::getName)
+                .containsExactly("Project", "Project board");
+
+        projectService.deleteProject(id, login);
+    }
+
+    @Test
+    void accessIndexSeesChangesMadeOnAnotherNode() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        Project project = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername());
+        assertThat(accessIndex.isAdmin(project, user)).isTrue();
+
+        // другой узел удаляет участника и в той же транзакции увеличивает версию прав проекта
+        jdbcTemplate.update("delete from user_with_project_connector where project_id=?", project.getId());
+        jdbcTemplate.update("update project set access_version = access_version + 1 where id=?", project.getId());
+
+        ReflectionTestUtils.setField(accessIndex, "verifyInterval", 0L);
+        try {
+            assertThat(accessIndex.isMember(project, user)).isFalse();
+        } finally {
+            ReflectionTestUtils.setField(accessIndex, "verifyInterval", 2000L);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package ru.manager.ProgectManager.services.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.support.TestDataBuilder;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UserServiceTest extends ProjectManagerTestBase {
+    @Test
+    void photoOfRequestedSizeComesFromVariants() throws IOException {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        userService.setPhoto(user.getUsername(), png(400, 400));
+
+        assertThat(decode(userService.findPhoto(user.getUserId(), 48)).getWidth()).isEqualTo(48);
+        assertThat(decode(userService.findPhoto(user.getUserId(), 100)).getWidth()).isEqualTo(200);
+        assertThat(decode(userService.findPhoto(user.getUserId(), null)).getWidth()).isEqualTo(200);
+    }
+
+    @Test
+    void photoWithoutVariantsIsReturnedAsStored() throws IOException {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        userService.setPhoto(user.getUsername(), png(400, 400));
+        // фотография, загруженная до появления вариантов
+        jdbcTemplate.update("delete from user_photo_variant where user_id = ?", user.getUserId());
+
+        assertThat(userService.findPhoto(user.getUserId(), 48)).isEqualTo(userService.findPhoto(user.getUserId()));
+    }
+
+    private static MockMultipartFile png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.ORANGE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", os);
+        return new MockMultipartFile("file", "photo.png", "image/png", os.toByteArray());
+    }
+
+    private static BufferedImage decode(byte[] data) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(data));
+    }
+}
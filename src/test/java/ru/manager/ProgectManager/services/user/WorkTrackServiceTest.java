@@ -0,0 +1,284 @@
+package ru.manager.ProgectManager.services.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.manager.ProgectManager.DTO.request.user.CreateWorkTrackRequest;
+import ru.manager.ProgectManager.DTO.response.workTrack.AllWorkUserInfo;
+import ru.manager.ProgectManager.DTO.response.workTrack.ElementWithWorkResponse;
+import ru.manager.ProgectManager.DTO.response.workTrack.WorkTrackShortResponse;
+import ru.manager.ProgectManager.base.ProjectManagerTestBase;
+import ru.manager.ProgectManager.components.authorization.ProjectAccessIndex;
+import ru.manager.ProgectManager.entitys.Project;
+import ru.manager.ProgectManager.entitys.accessProject.UserWithProjectConnector;
+import ru.manager.ProgectManager.entitys.kanban.Kanban;
+import ru.manager.ProgectManager.entitys.kanban.KanbanColumn;
+import ru.manager.ProgectManager.entitys.kanban.KanbanElement;
+import ru.manager.ProgectManager.entitys.user.User;
+import ru.manager.ProgectManager.entitys.user.WorkTrack;
+import ru.manager.ProgectManager.enums.ElementStatus;
+import ru.manager.ProgectManager.enums.ExportFormat;
+import ru.manager.ProgectManager.enums.TypeRoleProject;
+import ru.manager.ProgectManager.repositories.DailyWorkTimeRepository;
+import ru.manager.ProgectManager.repositories.ElementWorkTimeRepository;
+import ru.manager.ProgectManager.repositories.KanbanColumnRepository;
+import ru.manager.ProgectManager.repositories.KanbanElementRepository;
+import ru.manager.ProgectManager.repositories.UserWithProjectConnectorRepository;
+import ru.manager.ProgectManager.repositories.WorkTrackRepository;
+import ru.manager.ProgectManager.repositories.projections.WorkTimeView;
+import ru.manager.ProgectManager.services.kanban.KanbanService;
+import ru.manager.ProgectManager.services.project.ProjectService;
+import ru.manager.ProgectManager.support.TestDataBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class WorkTrackServiceTest extends ProjectManagerTestBase {
+    @Autowired
+    WorkTrackService workTrackService;
+
+    @Autowired
+    ProjectService projectService;
+
+    @Autowired
+    KanbanService kanbanService;
+
+    @Autowired
+    KanbanColumnRepository columnRepository;
+
+    @Autowired
+    KanbanElementRepository elementRepository;
+
+    @Autowired
+    WorkTrackRepository workTrackRepository;
+
+    @Autowired
+    WorkTimeReportWriter reportWriter;
+
+    @Autowired
+    WorkTimeRollupService rollupService;
+
+    @Autowired
+    UserWithProjectConnectorRepository connectorRepository;
+
+    @Autowired
+    ProjectAccessIndex accessIndex;
+
+    @Autowired
+    DailyWorkTimeRepository dailyWorkTimeRepository;
+
+    @Autowired
+    ElementWorkTimeRepository elementWorkTimeRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void reportReadsDailyAndElementRollups() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        long design = addElement(column, "Design", user);
+        long review = addElement(column, "Review", user);
+
+        assertThat(workTrackService.addWorkTrack(buildRequest(design, 30), user.getUsername())).isTrue();
+        assertThat(workTrackService.addWorkTrack(buildRequest(design, 45), user.getUsername())).isTrue();
+        assertThat(workTrackService.addWorkTrack(buildRequest(review, 15), user.getUsername())).isTrue();
+        String today = LocalDate.now().toString();
+        AllWorkUserInfo info = findReport(projectId, user);
+        assertThat(info.getSummaryWorkInDiapason()).isEqualTo(90);
+        assertThat(info.getWorkInConcreteDay())
+                .extracting(WorkTrackShortResponse::getWorkDate, WorkTrackShortResponse::getWorkTime)
+                .containsExactly(tuple(today, 90));
+        assertThat(info.getTasks())
+                .extracting(ElementWithWorkResponse::getId, task -> task.getWorks().get(0).getWorkTime())
+                .containsExactlyInAnyOrder(tuple(design, 75), tuple(review, 15));
+
+        List<WorkTrack> tracks = StreamSupport.stream(workTrackRepository.findAll().spliterator(), false)
+                .filter(track -> track.getTask().getId() == review)
+                .collect(Collectors.toList());
+        tracks.forEach(track -> assertThat(workTrackService.removeWorkTrack(track.getId(), user.getUsername()))
+                .isTrue());
+        info = findReport(projectId, user);
+        assertThat(info.getSummaryWorkInDiapason()).isEqualTo(75);
+        assertThat(info.getTasks()).extracting(ElementWithWorkResponse::getId).containsExactly(design);
+
+        workTrackRepository.findAll().forEach(track -> workTrackService.removeWorkTrack(track.getId(),
+                user.getUsername()));
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void concurrentWorkOnOneDayIsSummedInOneRow() throws Exception {
+        long userId = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow().getUserId();
+        long day = LocalDate.now().toEpochDay();
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> adds = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            adds.add(executor.submit(() -> {
+                start.await();
+                transaction.executeWithoutResult(status -> rollupService.add(userId, -1, -1, day, 10));
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> add : adds) {
+            add.get();
+        }
+        executor.shutdown();
+
+        assertThat(dailyWorkTimeRepository.findWorkTimes(userId, -1, day - 1, day + 1))
+                .extracting(WorkTimeView::getWorkTime).containsExactly(40);
+
+        transaction.executeWithoutResult(status -> {
+            dailyWorkTimeRepository.deleteByUserIdRange(userId, userId + 1);
+            elementWorkTimeRepository.deleteByUserIdRange(userId, userId + 1);
+        });
+    }
+
+    @Test
+    void rebuildRestoresRollupsFromWorkTracks() {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        long design = addElement(column, "Design", user);
+        long review = addElement(column, "Review", user);
+        workTrackService.addWorkTrack(buildRequest(design, 30), user.getUsername());
+        workTrackService.addWorkTrack(buildRequest(design, 45), user.getUsername());
+        workTrackService.addWorkTrack(buildRequest(review, 15), user.getUsername());
+        jdbcTemplate.update("update daily_work_time set work_time = 1 where user_id = ?", user.getUserId());
+        jdbcTemplate.update("delete from element_work_time where user_id = ?", user.getUserId());
+
+        assertThat(rollupService.rebuild(user.getUserId(), user.getUserId() + 1)).isEqualTo(2);
+        AllWorkUserInfo info = findReport(projectId, user);
+        assertThat(info.getSummaryWorkInDiapason()).isEqualTo(90);
+        assertThat(info.getTasks())
+                .extracting(ElementWithWorkResponse::getId, task -> task.getWorks().get(0).getWorkTime())
+                .containsExactlyInAnyOrder(tuple(design, 75), tuple(review, 15));
+
+        workTrackRepository.findAll().forEach(track -> workTrackService.removeWorkTrack(track.getId(),
+                user.getUsername()));
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void projectReportStreamsCsvAndNdjson() throws IOException {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        long projectId = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername()).getId();
+        Kanban kanban = kanbanService.createKanban(projectId, "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        long element = addElement(column, "Design, \"final\"", user);
+        workTrackService.addWorkTrack(buildRequest(element, 30), user.getUsername());
+        workTrackService.addWorkTrack(buildRequest(element, 15), user.getUsername());
+        assertThat(workTrackService.canExportProjectReport(projectId, user.getUsername())).isTrue();
+
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        reportWriter.write(projectId, user.getUsername(), LocalDate.now(), LocalDate.now(), ExportFormat.CSV, csv);
+        assertThat(csv.toString(StandardCharsets.UTF_8).split("\r\n"))
+                .containsExactly("userId,nickname,kanbanId,kanbanName,elementId,elementName,workDate,workTime",
+                        user.getUserId() + "," + user.getNickname() + "," + kanban.getId() + ",Kanban," + element
+                                + ",\"Design, \"\"final\"\"\"," + LocalDate.now() + ",45");
+        ByteArrayOutputStream ndjson = new ByteArrayOutputStream();
+        reportWriter.write(projectId, user.getUsername(), LocalDate.now().plusDays(1), LocalDate.now().plusDays(2),
+                ExportFormat.NDJSON, ndjson);
+        assertThat(ndjson.size()).isZero();
+        reportWriter.write(projectId, user.getUsername(), LocalDate.now(), LocalDate.now(), ExportFormat.NDJSON,
+                ndjson);
+        assertThat(ndjson.toString(StandardCharsets.UTF_8))
+                .startsWith("{")
+                .contains("\"workTime\":45", "\"elementId\":" + element)
+                .endsWith("}\n");
+
+        workTrackRepository.findAll().forEach(track -> workTrackService.removeWorkTrack(track.getId(),
+                user.getUsername()));
+        projectService.deleteProject(projectId, user.getUsername());
+    }
+
+    @Test
+    void projectReportIsLimitedToAdminsAndVisibleKanbans() throws IOException {
+        User user = userService.saveUser(TestDataBuilder.buildMasterUserDto()).orElseThrow();
+        User member = userService.saveUser(TestDataBuilder.buildSecondUserDto()).orElseThrow();
+        Project project = projectService.addProject(TestDataBuilder.buildProjectDto(), user.getUsername());
+        Kanban kanban = kanbanService.createKanban(project.getId(), "Kanban", user.getUsername()).orElseThrow();
+        KanbanColumn column = new KanbanColumn();
+        column.setKanban(kanban);
+        column.setName("Column");
+        column.setOrderKey("0000i");
+        column = columnRepository.save(column);
+        long element = addElement(column, "Design", user);
+        workTrackService.addWorkTrack(buildRequest(element, 30), user.getUsername());
+
+        // строки канбанов, которых запросивший не видит, в выгрузку не попадают
+        ByteArrayOutputStream csv = new ByteArrayOutputStream();
+        reportWriter.write(project.getId(), member.getUsername(), LocalDate.now(), LocalDate.now(),
+                ExportFormat.CSV, csv);
+        assertThat(csv.toString(StandardCharsets.UTF_8).split("\r\n")).hasSize(1);
+
+        UserWithProjectConnector connector = new UserWithProjectConnector();
+        connector.setUser(member);
+        connector.setProject(project);
+        connector.setRoleType(TypeRoleProject.STANDARD_USER);
+        connectorRepository.save(connector);
+        accessIndex.invalidate(project);
+        assertThat(workTrackService.canExportProjectReport(project.getId(), user.getUsername())).isTrue();
+        assertThat(workTrackService.canExportProjectReport(project.getId(), member.getUsername())).isFalse();
+
+        workTrackRepository.findAll().forEach(track -> workTrackService.removeWorkTrack(track.getId(),
+                user.getUsername()));
+        projectService.deleteProject(project.getId(), user.getUsername());
+    }
+
+    private AllWorkUserInfo findReport(long projectId, User user) {
+        return workTrackService.findWorkTrackMyself(LocalDate.now().minusDays(1).toString(),
+                LocalDate.now().plusDays(1).toString(), projectId, user.getUsername()).orElseThrow();
+    }
+
+    private CreateWorkTrackRequest buildRequest(long taskId, int workTime) {
+        CreateWorkTrackRequest request = new CreateWorkTrackRequest();
+        request.setTaskId(taskId);
+        request.setWorkTime(workTime);
+        request.setComment("work");
+        return request;
+    }
+
+    private long addElement(KanbanColumn column, String name, User user) {
+        KanbanElement element = new KanbanElement();
+        element.setKanbanColumn(column);
+        element.setName(name);
+        element.setOrderKey(name.toLowerCase());
+        element.setStatus(ElementStatus.ALIVE);
+        element.setOwner(user);
+        element.setLastRedactor(user);
+        return elementRepository.save(element).getId();
+    }
+}
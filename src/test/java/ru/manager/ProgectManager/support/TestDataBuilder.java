@@ -10,6 +10,10 @@ public class TestDataBuilder {
         return prepareUser().login("masterUser").email("masterUser@mail.ru").nickname("MasterOfTheGym").build();
     }
 
+    public static RegisterUserDTO buildSecondUserDto() {
+        return prepareUser().login("secondUser").email("secondUser@mail.ru").nickname("SecondOfTheGym").build();
+    }
+
     private static RegisterUserDTO.RegisterUserDTOBuilder<?, ?> prepareUser() {
         return RegisterUserDTO.builder().locale(Locale.en).zoneId("+7").password("1234").url("url");
     }
@@ -0,0 +1,16 @@
+CREATE TABLE project_manager.agenda_entry (
+id BIGINT NOT NULL,
+user_id BIGINT NOT NULL,
+epoch_day BIGINT NOT NULL,
+element_id BIGINT NOT NULL,
+kanban_id BIGINT NOT NULL,
+project_id BIGINT NOT NULL,
+can_edit BIT(1) NOT NULL,
+PRIMARY KEY (id)
+);
+
+CREATE INDEX agenda_entry_user_day_idx ON project_manager.agenda_entry (user_id, epoch_day);
+CREATE UNIQUE INDEX agenda_entry_user_element_key ON project_manager.agenda_entry (user_id, element_id);
+CREATE INDEX agenda_entry_element_idx ON project_manager.agenda_entry (element_id);
+CREATE INDEX agenda_entry_kanban_idx ON project_manager.agenda_entry (kanban_id);
+CREATE INDEX agenda_entry_project_idx ON project_manager.agenda_entry (project_id);
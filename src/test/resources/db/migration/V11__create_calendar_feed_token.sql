@@ -0,0 +1,8 @@
+CREATE TABLE project_manager.calendar_feed_token (
+token VARCHAR(255) NOT NULL,
+user_id BIGINT NOT NULL,
+create_time BIGINT NOT NULL,
+PRIMARY KEY (token)
+);
+
+CREATE UNIQUE INDEX calendar_feed_token_user_idx ON project_manager.calendar_feed_token (user_id);
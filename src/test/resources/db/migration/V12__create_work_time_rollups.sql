@@ -0,0 +1,26 @@
+CREATE TABLE project_manager.daily_work_time (
+id BIGINT NOT NULL,
+user_id BIGINT NOT NULL,
+project_id BIGINT NOT NULL,
+work_date BIGINT NOT NULL,
+work_time INT NOT NULL,
+PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX daily_work_time_user_project_day_idx
+ON project_manager.daily_work_time (user_id, project_id, work_date);
+
+CREATE TABLE project_manager.element_work_time (
+id BIGINT NOT NULL,
+user_id BIGINT NOT NULL,
+element_id BIGINT NOT NULL,
+project_id BIGINT NOT NULL,
+work_date BIGINT NOT NULL,
+work_time INT NOT NULL,
+PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX element_work_time_user_element_day_idx
+ON project_manager.element_work_time (user_id, element_id, work_date);
+CREATE INDEX element_work_time_user_project_day_idx
+ON project_manager.element_work_time (user_id, project_id, work_date);
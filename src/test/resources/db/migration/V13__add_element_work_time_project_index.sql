@@ -0,0 +1 @@
+CREATE INDEX element_work_time_project_day_idx ON project_manager.element_work_time (project_id, work_date);
@@ -0,0 +1 @@
+CREATE INDEX time_remover_hard_time_idx ON project_manager.time_remover (hard, time_to_delete);
@@ -0,0 +1,3 @@
+ALTER TABLE project_manager.time_remover ADD COLUMN due_time BIGINT NOT NULL DEFAULT 0;
+UPDATE project_manager.time_remover SET due_time = (time_to_delete + 1) * 86400;
+CREATE INDEX time_remover_due_time_idx ON project_manager.time_remover (due_time);
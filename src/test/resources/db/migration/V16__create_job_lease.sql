@@ -0,0 +1,7 @@
+CREATE TABLE project_manager.job_lease (
+name VARCHAR(255) NOT NULL,
+owner VARCHAR(255) NOT NULL,
+expires_at BIGINT NOT NULL,
+heartbeat BIGINT NOT NULL,
+PRIMARY KEY (name)
+);
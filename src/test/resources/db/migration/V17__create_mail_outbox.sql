@@ -0,0 +1,17 @@
+CREATE TABLE project_manager.mail_outbox (
+id BIGINT NOT NULL,
+address VARCHAR(255) NOT NULL,
+subject VARCHAR(255) NOT NULL,
+text VARCHAR(4000) NOT NULL,
+cancel_key VARCHAR(255) DEFAULT NULL,
+status INT NOT NULL,
+attempts INT NOT NULL,
+next_attempt BIGINT NOT NULL,
+last_error VARCHAR(512) DEFAULT NULL,
+PRIMARY KEY (id)
+);
+
+CREATE INDEX mail_outbox_status_next_idx ON project_manager.mail_outbox (status, next_attempt);
+CREATE INDEX mail_outbox_cancel_key_idx ON project_manager.mail_outbox (cancel_key);
+
+DROP TABLE project_manager.scheduled_mail_info;
@@ -0,0 +1,26 @@
+CREATE TABLE project_manager.user_photo_variant (
+user_id BIGINT NOT NULL,
+size VARCHAR(255) NOT NULL,
+data LONGBLOB DEFAULT NULL,
+PRIMARY KEY (user_id, size),
+CONSTRAINT user_photo_variant_to_user FOREIGN KEY (user_id)
+    REFERENCES project_manager.user(user_id) ON DELETE CASCADE
+);
+
+CREATE TABLE project_manager.project_photo_variant (
+project_id BIGINT NOT NULL,
+size VARCHAR(255) NOT NULL,
+data LONGBLOB DEFAULT NULL,
+PRIMARY KEY (project_id, size),
+CONSTRAINT project_photo_variant_to_project FOREIGN KEY (project_id)
+    REFERENCES project_manager.project(id) ON DELETE CASCADE
+);
+
+CREATE TABLE project_manager.kanban_photo_variant (
+kanban_id BIGINT NOT NULL,
+size VARCHAR(255) NOT NULL,
+data LONGBLOB DEFAULT NULL,
+PRIMARY KEY (kanban_id, size),
+CONSTRAINT kanban_photo_variant_to_kanban FOREIGN KEY (kanban_id)
+    REFERENCES project_manager.kanban(id) ON DELETE CASCADE
+);
@@ -0,0 +1,2 @@
+ALTER TABLE project_manager.project
+    ADD COLUMN access_version BIGINT NOT NULL DEFAULT 0;
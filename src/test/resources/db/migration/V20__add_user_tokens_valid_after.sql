@@ -0,0 +1,2 @@
+ALTER TABLE project_manager.user
+    ADD COLUMN tokens_valid_after BIGINT NOT NULL DEFAULT 0;
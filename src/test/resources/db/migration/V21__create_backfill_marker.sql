@@ -0,0 +1,5 @@
+CREATE TABLE project_manager.backfill_marker (
+name VARCHAR(255) NOT NULL,
+completed_at BIGINT NOT NULL,
+PRIMARY KEY (name)
+);
@@ -0,0 +1,2 @@
+ALTER TABLE project_manager.daily_work_time MODIFY id BIGINT NOT NULL AUTO_INCREMENT;
+ALTER TABLE project_manager.element_work_time MODIFY id BIGINT NOT NULL AUTO_INCREMENT;
@@ -0,0 +1,5 @@
+CREATE INDEX kanban_element_column_status_serial_idx
+    ON project_manager.kanban_element (kanban_column_id, status, serial_number);
+
+CREATE INDEX kanban_column_kanban_serial_idx
+    ON project_manager.kanban_column (kanban_id, serial_number);
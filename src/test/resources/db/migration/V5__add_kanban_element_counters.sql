@@ -0,0 +1,11 @@
+ALTER TABLE project_manager.kanban_element
+    ADD COLUMN comment_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN attach_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN checkbox_count INT NOT NULL DEFAULT 0,
+    ADD COLUMN checked_checkbox_count INT NOT NULL DEFAULT 0;
+
+UPDATE project_manager.kanban_element e
+SET e.comment_count          = (SELECT COUNT(*) FROM project_manager.kanban_element_comment c WHERE c.element_id = e.id),
+    e.attach_count           = (SELECT COUNT(*) FROM project_manager.kanban_attachment a WHERE a.element_id = e.id),
+    e.checkbox_count         = (SELECT COUNT(*) FROM project_manager.check_box b WHERE b.element_id = e.id),
+    e.checked_checkbox_count = (SELECT COUNT(*) FROM project_manager.check_box b WHERE b.element_id = e.id AND b.is_check = 1);
@@ -0,0 +1,2 @@
+ALTER TABLE project_manager.kanban
+    ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,14 @@
+CREATE TABLE project_manager.kanban_change (
+id BIGINT NOT NULL,
+kanban_id BIGINT NOT NULL,
+seq BIGINT NOT NULL,
+type INT NOT NULL,
+column_id BIGINT DEFAULT NULL,
+element_id BIGINT DEFAULT NULL,
+serial_number INT DEFAULT NULL,
+payload VARCHAR(255) DEFAULT NULL,
+create_time BIGINT NOT NULL,
+PRIMARY KEY (id)
+);
+
+CREATE UNIQUE INDEX kanban_change_kanban_seq_idx ON project_manager.kanban_change (kanban_id, seq);
@@ -0,0 +1,21 @@
+ALTER TABLE project_manager.kanban_element ADD COLUMN order_key VARCHAR(64) DEFAULT NULL;
+ALTER TABLE project_manager.kanban_column ADD COLUMN order_key VARCHAR(64) DEFAULT NULL;
+
+-- ключ фиксированной ширины в base36 с суффиксом 'i' сохраняет прежний порядок и не оканчивается на '0'
+UPDATE project_manager.kanban_element
+SET order_key = CONCAT(LPAD(LOWER(CONV(serial_number, 10, 36)), 4, '0'), 'i');
+UPDATE project_manager.kanban_column
+SET order_key = CONCAT(LPAD(LOWER(CONV(serial_number, 10, 36)), 4, '0'), 'i');
+
+ALTER TABLE project_manager.kanban_element MODIFY order_key VARCHAR(64) NOT NULL;
+ALTER TABLE project_manager.kanban_column MODIFY order_key VARCHAR(64) NOT NULL;
+
+DROP INDEX kanban_element_column_status_serial_idx ON project_manager.kanban_element;
+DROP INDEX kanban_column_kanban_serial_idx ON project_manager.kanban_column;
+ALTER TABLE project_manager.kanban_element DROP COLUMN serial_number;
+ALTER TABLE project_manager.kanban_column DROP COLUMN serial_number;
+
+CREATE INDEX kanban_element_column_status_order_idx
+    ON project_manager.kanban_element (kanban_column_id, status, order_key);
+CREATE INDEX kanban_column_kanban_order_idx
+    ON project_manager.kanban_column (kanban_id, order_key);
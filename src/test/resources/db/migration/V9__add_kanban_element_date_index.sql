@@ -0,0 +1,2 @@
+CREATE INDEX kanban_element_status_date_idx
+    ON project_manager.kanban_element (status, selected_date, kanban_column_id);